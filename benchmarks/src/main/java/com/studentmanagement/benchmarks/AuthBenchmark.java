@@ -0,0 +1,53 @@
+package com.studentmanagement.benchmarks;
+
+import com.studentmanagement.model.AuthContext;
+import com.studentmanagement.service.TokenService;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+
+import java.util.concurrent.TimeUnit;
+
+// Per-request authentication cost in token mode: verifying a token already
+// seen (cache hit), and issuing one at login. verifyUncached issues a new
+// token and verifies it (HMAC plus JSON parsing); subtract issue to get the
+// cost of a first verification.
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+public class AuthBenchmark {
+
+    static {
+        System.setProperty("auth.mode", "token");
+    }
+
+    private final AuthContext identity = new AuthContext(42, "bench_user", "Bench User", "user");
+    private TokenService tokens;
+    private String token;
+
+    @Setup
+    public void setUp() {
+        tokens = TokenService.getInstance();
+        token = tokens.issue(identity);
+    }
+
+    @Benchmark
+    public AuthContext verifyCached() {
+        return tokens.verify(token);
+    }
+
+    @Benchmark
+    public AuthContext verifyUncached() {
+        // Each call gets a token the cache hasn't seen
+        return tokens.verify(tokens.issue(identity));
+    }
+
+    @Benchmark
+    public String issue() {
+        return tokens.issue(identity);
+    }
+}
@@ -0,0 +1,46 @@
+package com.studentmanagement.benchmarks;
+
+import com.studentmanagement.util.DBConnection;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+
+import java.sql.Connection;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.sql.Statement;
+
+// One trivial query per connection lease, with the bounded pool and with a
+// fresh DriverManager connection per call (db.pool.enabled=false). Against
+// the embedded database this understates the gap; point -Ddb.url at MySQL to
+// include the TCP/TLS/auth handshake a real connect pays.
+@State(Scope.Benchmark)
+public class ConnectionBenchmark {
+
+    @Setup
+    public void setUp() throws SQLException {
+        EmbeddedDatabase.start();
+    }
+
+    @Benchmark
+    public int pooled() throws SQLException {
+        return selectOne();
+    }
+
+    @Benchmark
+    @Fork(jvmArgsAppend = "-Ddb.pool.enabled=false")
+    public int connectPerCall() throws SQLException {
+        return selectOne();
+    }
+
+    private static int selectOne() throws SQLException {
+        try (Connection conn = DBConnection.getConnection();
+             Statement stmt = conn.createStatement();
+             ResultSet rs = stmt.executeQuery("SELECT 1")) {
+            rs.next();
+            return rs.getInt(1);
+        }
+    }
+}
@@ -0,0 +1,300 @@
+package com.studentmanagement.benchmarks;
+
+import com.studentmanagement.model.Student;
+import com.studentmanagement.service.PasswordService;
+import com.studentmanagement.util.DBConnection;
+
+import java.sql.Connection;
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.sql.Statement;
+import java.time.LocalDate;
+import java.util.Locale;
+import java.util.SplittableRandom;
+
+// Synthetic users and students at production scale, written straight to the
+// database with batched INSERTs and a commit every few thousand rows. Against
+// MySQL, keep rewriteBatchedStatements=true in db.url so each batch goes out
+// as one multi-row INSERT.
+//
+// Students are spread over owners and courses with a Zipf skew: with
+// ownerSkew=1 the busiest user owns about 1/ln(users) of every student while
+// the long tail owns a few each. Which users are busiest is shuffled so it
+// doesn't follow their ids. Every generated user logs in with PASSWORD.
+//
+// Generation is deterministic for a seed and resumes: rows already generated
+// (load_user_*, load-*@example.com) are counted and only the rest is added.
+//
+//   java -cp target/benchmarks.jar com.studentmanagement.benchmarks.DataGenerator
+//
+// Options (system properties): users=10000, students=1000000, courses=40,
+// ownerSkew=1.0, courseSkew=0.8, seed=42, plus db.url etc. for a real database
+// whose schema already exists.
+public final class DataGenerator {
+    public static final String PASSWORD = "password123";
+
+    private static final int BATCH_SIZE = 1000;
+    private static final int COMMIT_SIZE = 10000;
+    private static final int PROGRESS_EVERY = 100000;
+
+    private static final String[] COURSE_NAMES = {
+            "Computer Science", "Mathematics", "Physics", "Engineering", "Biology", "History",
+            "Chemistry", "Economics", "Psychology", "English Literature", "Business Administration",
+            "Nursing", "Mechanical Engineering", "Electrical Engineering", "Civil Engineering",
+            "Political Science", "Sociology", "Philosophy", "Art History", "Music", "Statistics",
+            "Data Science", "Accounting", "Finance", "Marketing", "Law", "Medicine", "Architecture",
+            "Geography", "Environmental Science", "Linguistics", "Anthropology", "Astronomy",
+            "Graphic Design", "Journalism", "Education", "Public Health", "Pharmacy",
+            "Information Systems", "Film Studies"
+    };
+    private static final String[] FIRST_NAMES = {
+            "James", "Mary", "Robert", "Patricia", "John", "Jennifer", "Michael", "Linda", "David",
+            "Elizabeth", "William", "Barbara", "Richard", "Susan", "Joseph", "Jessica", "Thomas", "Sarah",
+            "Wei", "Aarav", "Priya", "Mohammed", "Fatima", "Yuki", "Hiroshi", "Olga", "Ivan", "Lucia",
+            "Mateo", "Sofia", "Chinedu", "Amara", "Anh", "Minh", "Ji-woo", "Seo-yeon", "Lars", "Ingrid"
+    };
+    private static final String[] LAST_NAMES = {
+            "Smith", "Johnson", "Williams", "Brown", "Jones", "Garcia", "Miller", "Davis", "Rodriguez",
+            "Martinez", "Hernandez", "Lopez", "Gonzalez", "Wilson", "Anderson", "Thomas", "Taylor",
+            "Moore", "Jackson", "Martin", "Lee", "Wang", "Li", "Zhang", "Kumar", "Singh", "Patel",
+            "Khan", "Tanaka", "Suzuki", "Ivanov", "Nguyen", "Kim", "Park", "Okafor", "Silva", "Muller"
+    };
+    private static final String[] STREETS = {
+            "Main St", "Oak Ave", "Maple Dr", "Cedar Ln", "Park Rd", "Elm St", "Hill Rd", "Lake View",
+            "College Ave", "University Blvd", "Station Rd", "River St"
+    };
+    private static final String[] CITIES = {
+            "Springfield", "Riverside", "Fairview", "Madison", "Georgetown", "Clinton", "Salem",
+            "Bristol", "Oxford", "Ashland", "Dover", "Milton"
+    };
+    // Enrollment dates fall in the five years before this day
+    private static final LocalDate LATEST_ENROLLMENT = LocalDate.of(2025, 9, 1);
+    private static final int ENROLLMENT_DAYS = 5 * 365;
+
+    private final int users;
+    private final int students;
+    private final long seed;
+    private final String[] courseNames;
+    private final Skew owners;
+    private final Skew courses;
+    // Database ids of load_user_0.. and of courseNames, filled by generate()
+    private int[] userIds;
+    private int[] courseIds;
+
+    public DataGenerator(int users, int students, int courses, double ownerSkew, double courseSkew, long seed) {
+        if (users < 1 || courses < 1) {
+            throw new IllegalArgumentException("users and courses must be at least 1");
+        }
+        this.users = users;
+        this.students = students;
+        this.seed = seed;
+        this.courseNames = new String[courses];
+        for (int i = 0; i < courses; i++) {
+            courseNames[i] = i < COURSE_NAMES.length ? COURSE_NAMES[i] : "Elective " + (i - COURSE_NAMES.length + 1);
+        }
+        this.owners = new Skew(users, ownerSkew, seed);
+        this.courses = new Skew(courses, courseSkew, seed + 1);
+    }
+
+    public static DataGenerator fromSystemProperties() {
+        return new DataGenerator(
+                Integer.getInteger("users", 10000),
+                Integer.getInteger("students", 1000000),
+                Integer.getInteger("courses", 40),
+                Double.parseDouble(System.getProperty("ownerSkew", "1.0")),
+                Double.parseDouble(System.getProperty("courseSkew", "0.8")),
+                Long.getLong("seed", 42));
+    }
+
+    public static void main(String[] args) throws Exception {
+        EmbeddedDatabase.start();
+        fromSystemProperties().generate();
+        System.exit(0);
+    }
+
+    public static String username(int user) {
+        return "load_user_" + user;
+    }
+
+    // A user drawn with the same skew as the student owners, so the busiest
+    // owners are also the most active clients
+    public int sampleUser(SplittableRandom random) {
+        return owners.sample(random);
+    }
+
+    public String sampleCourse(SplittableRandom random) {
+        return courseNames[courses.sample(random)];
+    }
+
+    // A student as a client would submit it; key makes the email unique
+    public Student randomStudent(SplittableRandom random, String key) {
+        String first = FIRST_NAMES[random.nextInt(FIRST_NAMES.length)];
+        String last = LAST_NAMES[random.nextInt(LAST_NAMES.length)];
+        Student student = new Student();
+        student.setName(first + " " + last);
+        student.setEmail(first.toLowerCase(Locale.ROOT) + "." + last.toLowerCase(Locale.ROOT) + "." + key + "@example.com");
+        student.setCourse(sampleCourse(random));
+        student.setPhone(randomPhone(random));
+        student.setAddress(randomAddress(random));
+        return student;
+    }
+
+    public String randomPhone(SplittableRandom random) {
+        return String.format("555%07d", random.nextInt(10_000_000));
+    }
+
+    public String randomAddress(SplittableRandom random) {
+        return (random.nextInt(9999) + 1) + " " + STREETS[random.nextInt(STREETS.length)] + ", "
+                + CITIES[random.nextInt(CITIES.length)];
+    }
+
+    // Adds whatever is missing of the courses, users and students
+    public void generate() throws SQLException {
+        long start = System.nanoTime();
+        try (Connection conn = DBConnection.getConnection()) {
+            courseIds = new int[courseNames.length];
+            for (int i = 0; i < courseNames.length; i++) {
+                courseIds[i] = EmbeddedDatabase.ensureCourse(conn, courseNames[i]);
+            }
+            conn.setAutoCommit(false);
+            try {
+                insertUsers(conn);
+                userIds = loadUserIds(conn);
+                insertStudents(conn);
+            } finally {
+                conn.setAutoCommit(true);
+            }
+        }
+        System.out.printf("Generated %d users and %d students in %.1f s%n",
+                users, students, (System.nanoTime() - start) / 1e9);
+    }
+
+    private void insertUsers(Connection conn) throws SQLException {
+        int existing = count(conn, "SELECT COUNT(*) FROM users WHERE username LIKE 'load\\_user\\_%'");
+        if (existing >= users) {
+            return;
+        }
+        // One hash for everyone: the cost is per login, not per stored user
+        String hash = PasswordService.getInstance().hash(PASSWORD);
+        SplittableRandom random = new SplittableRandom(seed + existing);
+        String sql = "INSERT INTO users (username, email, password, full_name, role) VALUES (?, ?, ?, ?, 'user')";
+        try (PreparedStatement pstmt = conn.prepareStatement(sql)) {
+            for (int i = existing; i < users; i++) {
+                pstmt.setString(1, username(i));
+                pstmt.setString(2, username(i) + "@example.com");
+                pstmt.setString(3, hash);
+                pstmt.setString(4, FIRST_NAMES[random.nextInt(FIRST_NAMES.length)] + " "
+                        + LAST_NAMES[random.nextInt(LAST_NAMES.length)]);
+                pstmt.addBatch();
+                flush(conn, pstmt, i - existing + 1, "users", users - existing);
+            }
+            pstmt.executeBatch();
+        }
+        conn.commit();
+    }
+
+    private int[] loadUserIds(Connection conn) throws SQLException {
+        int[] ids = new int[users];
+        try (Statement stmt = conn.createStatement();
+             ResultSet rs = stmt.executeQuery("SELECT id, username FROM users WHERE username LIKE 'load\\_user\\_%'")) {
+            while (rs.next()) {
+                int user = Integer.parseInt(rs.getString(2).substring("load_user_".length()));
+                if (user < users) {
+                    ids[user] = rs.getInt(1);
+                }
+            }
+        }
+        return ids;
+    }
+
+    private void insertStudents(Connection conn) throws SQLException {
+        int existing = count(conn, "SELECT COUNT(*) FROM students WHERE email LIKE 'load-%'");
+        if (existing >= students) {
+            return;
+        }
+        SplittableRandom random = new SplittableRandom(seed + 1_000_003L * (existing + 1));
+        String sql = "INSERT INTO students (name, email, course_id, phone, address, enrollment_date, user_id) "
+                + "VALUES (?, ?, ?, ?, ?, ?, ?)";
+        try (PreparedStatement pstmt = conn.prepareStatement(sql)) {
+            for (int i = existing; i < students; i++) {
+                pstmt.setString(1, FIRST_NAMES[random.nextInt(FIRST_NAMES.length)] + " "
+                        + LAST_NAMES[random.nextInt(LAST_NAMES.length)]);
+                pstmt.setString(2, "load-" + i + "@example.com");
+                pstmt.setInt(3, courseIds[courses.sample(random)]);
+                pstmt.setString(4, randomPhone(random));
+                pstmt.setString(5, randomAddress(random));
+                pstmt.setDate(6, java.sql.Date.valueOf(LATEST_ENROLLMENT.minusDays(random.nextInt(ENROLLMENT_DAYS))));
+                pstmt.setInt(7, userIds[owners.sample(random)]);
+                pstmt.addBatch();
+                flush(conn, pstmt, i - existing + 1, "students", students - existing);
+            }
+            pstmt.executeBatch();
+        }
+        conn.commit();
+    }
+
+    private static void flush(Connection conn, PreparedStatement pstmt, int rows, String table, int total)
+            throws SQLException {
+        if (rows % BATCH_SIZE == 0) {
+            pstmt.executeBatch();
+        }
+        if (rows % COMMIT_SIZE == 0) {
+            conn.commit();
+        }
+        if (rows % PROGRESS_EVERY == 0) {
+            System.out.printf("  %s: %d of %d%n", table, rows, total);
+        }
+    }
+
+    private static int count(Connection conn, String sql) throws SQLException {
+        try (Statement stmt = conn.createStatement();
+             ResultSet rs = stmt.executeQuery(sql)) {
+            rs.next();
+            return rs.getInt(1);
+        }
+    }
+
+    // Zipf distribution over n items: rank r (from 1) has weight 1/r^s. The
+    // cumulative weights are searched for a uniform draw; ranks are mapped to
+    // items through a seeded shuffle.
+    private static final class Skew {
+        private final double[] cumulative;
+        private final int[] items;
+
+        Skew(int n, double s, long seed) {
+            cumulative = new double[n];
+            double sum = 0;
+            for (int rank = 0; rank < n; rank++) {
+                sum += 1.0 / Math.pow(rank + 1, s);
+                cumulative[rank] = sum;
+            }
+            items = new int[n];
+            for (int i = 0; i < n; i++) {
+                items[i] = i;
+            }
+            SplittableRandom random = new SplittableRandom(seed);
+            for (int i = n - 1; i > 0; i--) {
+                int j = random.nextInt(i + 1);
+                int swap = items[i];
+                items[i] = items[j];
+                items[j] = swap;
+            }
+        }
+
+        int sample(SplittableRandom random) {
+            double target = random.nextDouble() * cumulative[cumulative.length - 1];
+            int low = 0;
+            int high = cumulative.length - 1;
+            while (low < high) {
+                int mid = (low + high) >>> 1;
+                if (cumulative[mid] < target) {
+                    low = mid + 1;
+                } else {
+                    high = mid;
+                }
+            }
+            return items[low];
+        }
+    }
+}
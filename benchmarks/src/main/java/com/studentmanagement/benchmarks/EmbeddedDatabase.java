@@ -0,0 +1,240 @@
+package com.studentmanagement.benchmarks;
+
+import com.studentmanagement.util.DBConnection;
+
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.sql.Connection;
+import java.sql.DriverManager;
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.sql.Statement;
+import java.util.ArrayList;
+import java.util.List;
+
+// Points the application at an in-memory H2 database (MySQL mode) with the
+// application schema and a deterministic data set. Pass -Ddb.url=... (plus
+// db.driver/db.username/db.password) to benchmark against a real database
+// instead; its schema is then expected to exist already.
+//
+// startReplicas() adds further in-memory databases as read replicas. They
+// don't replicate by themselves: syncReplicas() copies the primary into them,
+// and setReplicaLag() sets the lag their health check reports.
+public final class EmbeddedDatabase {
+    public static final String[] COURSES = {
+            "Computer Science", "Mathematics", "Physics", "Engineering", "Biology", "History"
+    };
+
+    private static boolean started;
+    private static final List<String> replicaUrls = new ArrayList<>();
+    private static int adminId;
+    private static int userId;
+    // Catalog id of each of COURSES
+    private static final int[] courseIds = new int[COURSES.length];
+
+    private EmbeddedDatabase() {}
+
+    public static synchronized void start() throws SQLException {
+        if (started) {
+            return;
+        }
+        boolean embedded = System.getProperty("db.url") == null;
+        if (embedded) {
+            System.setProperty("db.driver", "org.h2.Driver");
+            System.setProperty("db.url", "jdbc:h2:mem:benchmark;MODE=MySQL;DATABASE_TO_LOWER=TRUE;DB_CLOSE_DELAY=-1");
+            System.setProperty("db.username", "sa");
+            System.setProperty("db.password", "");
+        }
+
+        try (Connection conn = DBConnection.getConnection();
+             Statement stmt = conn.createStatement()) {
+            if (embedded) {
+                stmt.execute("RUNSCRIPT FROM 'classpath:/benchmark-schema.sql'");
+            }
+            adminId = ensureUser(conn, "bench_admin", "admin");
+            userId = ensureUser(conn, "bench_user", "user");
+            for (int i = 0; i < COURSES.length; i++) {
+                courseIds[i] = ensureCourse(conn, COURSES[i]);
+            }
+        }
+        started = true;
+    }
+
+    public static int getAdminId() {
+        return adminId;
+    }
+
+    public static int getUserId() {
+        return userId;
+    }
+
+    // Configures an embedded replica per name. Call after start() and before
+    // the first read, then syncReplicas() once the primary has its data.
+    public static synchronized void startReplicas(String... names) throws SQLException {
+        if (!started || !System.getProperty("db.url").startsWith("jdbc:h2:mem:")) {
+            throw new IllegalStateException("Embedded replicas need the embedded primary");
+        }
+        System.setProperty("db.replicas", String.join(",", names));
+        System.setProperty("db.replicas.lagQuery", "SELECT seconds FROM replica_lag");
+        if (System.getProperty("db.replicas.healthCheckIntervalMs") == null) {
+            System.setProperty("db.replicas.healthCheckIntervalMs", "500");
+        }
+        for (String name : names) {
+            String url = "jdbc:h2:mem:replica_" + name + ";MODE=MySQL;DATABASE_TO_LOWER=TRUE;DB_CLOSE_DELAY=-1";
+            System.setProperty("db.replica." + name + ".url", url);
+            replicaUrls.add(url);
+        }
+        syncReplicas();
+    }
+
+    // Replaces every replica's contents with a copy of the primary, keeping its lag
+    public static synchronized void syncReplicas() throws SQLException {
+        Path script;
+        try {
+            script = Files.createTempFile("replica", ".sql");
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+        try {
+            try (Connection conn = DBConnection.getConnection();
+                 Statement stmt = conn.createStatement()) {
+                stmt.execute("SCRIPT TO '" + script + "'");
+            }
+            for (String url : replicaUrls) {
+                try (Connection conn = DriverManager.getConnection(url, "sa", "");
+                     Statement stmt = conn.createStatement()) {
+                    long lag = 0;
+                    try (ResultSet rs = stmt.executeQuery("SELECT seconds FROM replica_lag")) {
+                        if (rs.next()) {
+                            lag = rs.getLong(1);
+                        }
+                    } catch (SQLException e) {
+                        // First sync
+                    }
+                    stmt.execute("DROP ALL OBJECTS");
+                    stmt.execute("RUNSCRIPT FROM '" + script + "'");
+                    stmt.execute("CREATE TABLE replica_lag (seconds BIGINT)");
+                    stmt.execute("INSERT INTO replica_lag VALUES (" + lag + ")");
+                }
+            }
+        } finally {
+            try {
+                Files.deleteIfExists(script);
+            } catch (IOException e) {
+                // Only a temp file
+            }
+        }
+    }
+
+    // Seconds behind the primary the named replica reports from now on;
+    // negative reports a replica that has stopped replicating
+    public static void setReplicaLag(String name, long seconds) throws SQLException {
+        try (Connection conn = DriverManager.getConnection(System.getProperty("db.replica." + name + ".url"), "sa", "");
+             PreparedStatement pstmt = conn.prepareStatement("UPDATE replica_lag SET seconds = ?")) {
+            if (seconds < 0) {
+                pstmt.setNull(1, java.sql.Types.BIGINT);
+            } else {
+                pstmt.setLong(1, seconds);
+            }
+            pstmt.executeUpdate();
+        }
+    }
+
+    // Makes sure at least count students exist, split between the two users
+    public static void seedStudents(int count) throws SQLException {
+        try (Connection conn = DBConnection.getConnection()) {
+            int existing;
+            try (Statement stmt = conn.createStatement();
+                 ResultSet rs = stmt.executeQuery("SELECT COUNT(*) FROM students WHERE deleted_at IS NULL")) {
+                rs.next();
+                existing = rs.getInt(1);
+            }
+            if (existing >= count) {
+                return;
+            }
+
+            conn.setAutoCommit(false);
+            String sql = "INSERT INTO students (name, email, course_id, phone, address, enrollment_date, user_id) "
+                    + "VALUES (?, ?, ?, ?, ?, ?, ?)";
+            try (PreparedStatement pstmt = conn.prepareStatement(sql)) {
+                for (int i = existing; i < count; i++) {
+                    pstmt.setString(1, "Student " + i);
+                    pstmt.setString(2, "student" + i + "@example.com");
+                    pstmt.setInt(3, courseIds[i % COURSES.length]);
+                    pstmt.setString(4, String.format("555%07d", i));
+                    pstmt.setString(5, (i % 900 + 1) + " Main St, City");
+                    pstmt.setDate(6, java.sql.Date.valueOf(java.time.LocalDate.of(2020, 1, 1).plusDays(i % 1500)));
+                    pstmt.setInt(7, i % 2 == 0 ? adminId : userId);
+                    pstmt.addBatch();
+                    if ((i - existing + 1) % 1000 == 0) {
+                        pstmt.executeBatch();
+                    }
+                }
+                pstmt.executeBatch();
+            }
+            conn.commit();
+        }
+    }
+
+    // Some id of an existing student, for point lookups
+    public static int anyStudentId(int offset) throws SQLException {
+        try (Connection conn = DBConnection.getConnection();
+             PreparedStatement pstmt = conn.prepareStatement("SELECT id FROM students ORDER BY id LIMIT 1 OFFSET ?")) {
+            pstmt.setInt(1, offset);
+            try (ResultSet rs = pstmt.executeQuery()) {
+                if (!rs.next()) {
+                    throw new IllegalStateException("No student at offset " + offset);
+                }
+                return rs.getInt(1);
+            }
+        }
+    }
+
+    static int ensureCourse(Connection conn, String name) throws SQLException {
+        try (PreparedStatement select = conn.prepareStatement("SELECT id FROM courses WHERE name = ?")) {
+            select.setString(1, name);
+            try (ResultSet rs = select.executeQuery()) {
+                if (rs.next()) {
+                    return rs.getInt(1);
+                }
+            }
+        }
+        try (PreparedStatement insert = conn.prepareStatement("INSERT INTO courses (name) VALUES (?)",
+                Statement.RETURN_GENERATED_KEYS)) {
+            insert.setString(1, name);
+            insert.executeUpdate();
+            try (ResultSet keys = insert.getGeneratedKeys()) {
+                keys.next();
+                return keys.getInt(1);
+            }
+        }
+    }
+
+    private static int ensureUser(Connection conn, String username, String role) throws SQLException {
+        try (PreparedStatement select = conn.prepareStatement("SELECT id FROM users WHERE username = ?")) {
+            select.setString(1, username);
+            try (ResultSet rs = select.executeQuery()) {
+                if (rs.next()) {
+                    return rs.getInt(1);
+                }
+            }
+        }
+        try (PreparedStatement insert = conn.prepareStatement(
+                "INSERT INTO users (username, email, password, full_name, role) VALUES (?, ?, ?, ?, ?)",
+                Statement.RETURN_GENERATED_KEYS)) {
+            insert.setString(1, username);
+            insert.setString(2, username + "@example.com");
+            insert.setString(3, "password123");
+            insert.setString(4, username);
+            insert.setString(5, role);
+            insert.executeUpdate();
+            try (ResultSet keys = insert.getGeneratedKeys()) {
+                keys.next();
+                return keys.getInt(1);
+            }
+        }
+    }
+}
@@ -0,0 +1,78 @@
+package com.studentmanagement.benchmarks;
+
+import com.studentmanagement.controller.AuthServlet;
+import com.studentmanagement.controller.StudentServlet;
+import com.studentmanagement.filter.AuthFilter;
+import com.studentmanagement.filter.CompressionFilter;
+import com.studentmanagement.filter.MetricsFilter;
+import com.studentmanagement.listener.AppLifecycleListener;
+import org.apache.catalina.Context;
+import org.apache.catalina.Wrapper;
+import org.apache.catalina.startup.Tomcat;
+import org.apache.tomcat.util.descriptor.web.FilterDef;
+import org.apache.tomcat.util.descriptor.web.FilterMap;
+
+import javax.servlet.Filter;
+import javax.servlet.Servlet;
+import java.io.File;
+import java.nio.file.Files;
+
+// AuthServlet and StudentServlet in an embedded Tomcat on a free port, for
+// the load tests. Call EmbeddedDatabase.start() first so the servlets find
+// their database.
+public final class EmbeddedTomcat {
+
+    private EmbeddedTomcat() {}
+
+    // With application=false only the servlets and MetricsFilter are deployed.
+    // With application=true the rest of what the war deploys is added too:
+    // AppLifecycleListener (catalog, statistics, change feed, purger...) and
+    // the auth and compression filters.
+    public static Tomcat start(int threads, boolean async, boolean application) throws Exception {
+        File baseDir = Files.createTempDirectory("benchmark-tomcat").toFile();
+        Tomcat tomcat = new Tomcat();
+        tomcat.setBaseDir(baseDir.getAbsolutePath());
+        tomcat.setPort(0);
+        tomcat.getConnector().setProperty("maxThreads", String.valueOf(threads));
+        tomcat.getConnector().setProperty("acceptCount", "1000");
+
+        Context context = tomcat.addContext("", baseDir.getAbsolutePath());
+        if (application) {
+            context.addApplicationListener(AppLifecycleListener.class.getName());
+        }
+        addServlet(context, "auth", new AuthServlet(), "/api/auth/*", async);
+        addServlet(context, "students", new StudentServlet(), "/api/students/*", async);
+
+        addFilter(context, "metrics", new MetricsFilter(), async);
+        if (application) {
+            addFilter(context, "auth", new AuthFilter(), async);
+            addFilter(context, "compression", new CompressionFilter(), async);
+        }
+
+        tomcat.start();
+        return tomcat;
+    }
+
+    public static String baseUrl(Tomcat tomcat) {
+        return "http://localhost:" + tomcat.getConnector().getLocalPort();
+    }
+
+    private static void addServlet(Context context, String name, Servlet servlet, String pattern, boolean async) {
+        Wrapper wrapper = Tomcat.addServlet(context, name, servlet);
+        wrapper.setAsyncSupported(async);
+        context.addServletMappingDecoded(pattern, name);
+    }
+
+    // In the order added, on /api/* like their @WebFilter mappings
+    private static void addFilter(Context context, String name, Filter filter, boolean async) {
+        FilterDef def = new FilterDef();
+        def.setFilterName(name);
+        def.setFilter(filter);
+        def.setAsyncSupported(String.valueOf(async));
+        context.addFilterDef(def);
+        FilterMap mapping = new FilterMap();
+        mapping.setFilterName(name);
+        mapping.addURLPattern("/api/*");
+        context.addFilterMap(mapping);
+    }
+}
@@ -0,0 +1,119 @@
+package com.studentmanagement.benchmarks;
+
+import javax.servlet.http.HttpServletRequest;
+import javax.servlet.http.HttpServletResponse;
+import javax.servlet.http.HttpSession;
+import java.io.BufferedReader;
+import java.io.PrintWriter;
+import java.io.StringReader;
+import java.lang.reflect.Proxy;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.Map;
+
+// Minimal in-process stand-ins for the servlet request, response and session,
+// enough to drive the application's servlets without a container. Methods the
+// servlets don't call return null/0/false.
+public final class MockHttp {
+
+    private MockHttp() {}
+
+    public static HttpSession session(Map<String, Object> attributes) {
+        Map<String, Object> values = new HashMap<>(attributes);
+        return (HttpSession) Proxy.newProxyInstance(MockHttp.class.getClassLoader(),
+                new Class<?>[] {HttpSession.class}, (proxy, method, args) -> {
+                    switch (method.getName()) {
+                        case "getAttribute":
+                            return values.get((String) args[0]);
+                        case "setAttribute":
+                            values.put((String) args[0], args[1]);
+                            return null;
+                        case "removeAttribute":
+                            values.remove((String) args[0]);
+                            return null;
+                        case "getAttributeNames":
+                            return Collections.enumeration(values.keySet());
+                        case "invalidate":
+                            values.clear();
+                            return null;
+                        default:
+                            return defaultValue(method.getReturnType());
+                    }
+                });
+    }
+
+    public static HttpServletRequest request(String method, String pathInfo, Map<String, String> parameters,
+                                             String body, HttpSession session) {
+        Map<String, String> headers = new HashMap<>();
+        headers.put("content-type", "application/json");
+        return (HttpServletRequest) Proxy.newProxyInstance(MockHttp.class.getClassLoader(),
+                new Class<?>[] {HttpServletRequest.class}, (proxy, m, args) -> {
+                    switch (m.getName()) {
+                        case "getMethod":
+                            return method;
+                        case "getPathInfo":
+                            return pathInfo;
+                        case "getProtocol":
+                            return "HTTP/1.1";
+                        case "getParameter":
+                            return parameters.get((String) args[0]);
+                        case "getHeader":
+                            return headers.get(((String) args[0]).toLowerCase());
+                        case "getContentType":
+                            return headers.get("content-type");
+                        case "getDateHeader":
+                            return -1L;
+                        case "getReader":
+                            return new BufferedReader(new StringReader(body != null ? body : ""));
+                        case "getSession":
+                            // getSession() creates, getSession(false) doesn't; the mock has one or none
+                            return session;
+                        default:
+                            return defaultValue(m.getReturnType());
+                    }
+                });
+    }
+
+    // Response whose body is discarded; the status is readable afterwards
+    public static final class Response {
+        private int status = HttpServletResponse.SC_OK;
+        private final PrintWriter writer = new PrintWriter(new StudentJsonBenchmark.DiscardingWriter());
+        private final HttpServletResponse proxy = (HttpServletResponse) Proxy.newProxyInstance(
+                MockHttp.class.getClassLoader(), new Class<?>[] {HttpServletResponse.class}, (p, m, args) -> {
+                    switch (m.getName()) {
+                        case "setStatus":
+                        case "sendError":
+                            status = (Integer) args[0];
+                            return null;
+                        case "getStatus":
+                            return status;
+                        case "getWriter":
+                            return writer;
+                        default:
+                            return defaultValue(m.getReturnType());
+                    }
+                });
+
+        public HttpServletResponse get() {
+            status = HttpServletResponse.SC_OK;
+            return proxy;
+        }
+
+        public int getStatus() {
+            return status;
+        }
+    }
+
+    private static Object defaultValue(Class<?> type) {
+        if (type == boolean.class) {
+            return false;
+        }
+        if (type == int.class) {
+            return 0;
+        }
+        if (type == long.class) {
+            return 0L;
+        }
+        return null;
+    }
+}
@@ -0,0 +1,183 @@
+package com.studentmanagement.benchmarks;
+
+import com.studentmanagement.util.DBConnection;
+import com.studentmanagement.util.LatencyHistogram;
+import org.apache.catalina.startup.Tomcat;
+
+import java.net.CookieManager;
+import java.net.URI;
+import java.net.http.HttpClient;
+import java.net.http.HttpRequest;
+import java.net.http.HttpResponse;
+import java.sql.Connection;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.TreeMap;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.LongAdder;
+
+// Load test for a database stall. Runs AuthServlet and StudentServlet in an
+// embedded Tomcat with a small worker pool, takes every pooled connection
+// away (as if MySQL stopped answering) and then drives two kinds of clients:
+// many hitting GET /api/students/{id}, which needs the database, and a few
+// hitting GET /api/auth/check, which only reads the session.
+//
+// With async servlets (the default) the check requests stay fast and the
+// database requests are answered 503 once the executor queue is full or their
+// deadline passes. With -Dasync=false the servlets run on Tomcat's threads as
+// before; the database requests hold every worker thread and the check
+// requests queue behind them.
+//
+//   java -cp target/benchmarks.jar com.studentmanagement.benchmarks.SaturationLoadTest
+//
+// Options (system properties): async=true, seconds=10, dbClients=60,
+// checkClients=4, tomcatThreads=20, plus any db.executor.* setting.
+public final class SaturationLoadTest {
+
+    private SaturationLoadTest() {}
+
+    public static void main(String[] args) throws Exception {
+        boolean async = Boolean.parseBoolean(System.getProperty("async", "true"));
+        int seconds = Integer.getInteger("seconds", 10);
+        int dbClients = Integer.getInteger("dbClients", 60);
+        int checkClients = Integer.getInteger("checkClients", 4);
+        int tomcatThreads = Integer.getInteger("tomcatThreads", 20);
+
+        // Connections stay unavailable for the whole run rather than timing out
+        setDefault("db.pool.maxSize", "10");
+        setDefault("db.pool.acquireTimeoutMs", String.valueOf((seconds + 30) * 1000L));
+        setDefault("db.executor.threads", "10");
+        setDefault("db.executor.queueSize", "20");
+        setDefault("db.executor.requestTimeoutMs", "2000");
+        setDefault("students.search.enabled", "false");
+        // Lookups must reach the database to feel the stall
+        setDefault("students.cache.enabled", "false");
+
+        EmbeddedDatabase.start();
+        EmbeddedDatabase.seedStudents(1000);
+        int studentId = EmbeddedDatabase.anyStudentId(10);
+
+        Tomcat tomcat = EmbeddedTomcat.start(tomcatThreads, async, false);
+        String base = EmbeddedTomcat.baseUrl(tomcat);
+        HttpClient client = HttpClient.newBuilder()
+                .cookieHandler(new CookieManager())
+                .connectTimeout(Duration.ofSeconds(5))
+                .build();
+
+        HttpResponse<String> login = client.send(HttpRequest.newBuilder(URI.create(base + "/api/auth/login"))
+                .header("Content-Type", "application/json")
+                .POST(HttpRequest.BodyPublishers.ofString(
+                        "{\"username\":\"bench_admin\",\"password\":\"password123\"}"))
+                .build(), HttpResponse.BodyHandlers.ofString());
+        if (login.statusCode() != 200) {
+            throw new IllegalStateException("Login failed: " + login.statusCode() + " " + login.body());
+        }
+
+        System.out.printf("Servlets %s, %d Tomcat threads, %d database clients, %d check clients, %ds%n",
+                async ? "async" : "synchronous", tomcatThreads, dbClients, checkClients, seconds);
+
+        Endpoint check = new Endpoint("GET /api/auth/check", base + "/api/auth/check");
+        Endpoint student = new Endpoint("GET /api/students/{id}", base + "/api/students/" + studentId);
+
+        System.out.println("\nBaseline");
+        run(client, seconds / 2, Map.of(check, checkClients, student, checkClients));
+        check.print();
+        student.print();
+
+        // Simulate the stall: hold every pooled connection until the run ends
+        List<Connection> held = new ArrayList<>();
+        int poolSize = Integer.getInteger("db.pool.maxSize");
+        for (int i = 0; i < poolSize; i++) {
+            held.add(DBConnection.getConnection());
+        }
+        check.reset();
+        student.reset();
+
+        System.out.println("\nDatabase stalled");
+        run(client, seconds, Map.of(check, checkClients, student, dbClients));
+        check.print();
+        student.print();
+
+        for (Connection conn : held) {
+            conn.close();
+        }
+        // Exit without stopping Tomcat: its leak checks would only report the
+        // application's executor threads, which a real undeploy shuts down
+        System.exit(0);
+    }
+
+    // Each client sends its next request as soon as the previous one is answered
+    private static void run(HttpClient client, int seconds, Map<Endpoint, Integer> clients)
+            throws InterruptedException {
+        long end = System.nanoTime() + seconds * 1_000_000_000L;
+        List<Thread> threads = new ArrayList<>();
+        for (Map.Entry<Endpoint, Integer> entry : clients.entrySet()) {
+            Endpoint endpoint = entry.getKey();
+            HttpRequest request = HttpRequest.newBuilder(URI.create(endpoint.url))
+                    .timeout(Duration.ofSeconds(seconds + 30))
+                    .GET()
+                    .build();
+            for (int i = 0; i < entry.getValue(); i++) {
+                Thread thread = new Thread(() -> {
+                    while (System.nanoTime() < end) {
+                        long start = System.nanoTime();
+                        int status;
+                        try {
+                            status = client.send(request, HttpResponse.BodyHandlers.discarding()).statusCode();
+                        } catch (Exception e) {
+                            status = -1;
+                        }
+                        endpoint.record(status, System.nanoTime() - start);
+                    }
+                });
+                thread.setDaemon(true);
+                thread.start();
+                threads.add(thread);
+            }
+        }
+        for (Thread thread : threads) {
+            thread.join();
+        }
+    }
+
+    private static void setDefault(String key, String value) {
+        if (System.getProperty(key) == null) {
+            System.setProperty(key, value);
+        }
+    }
+
+    private static final class Endpoint {
+        private final String name;
+        private final String url;
+        private final LatencyHistogram latency = new LatencyHistogram();
+        private final Map<Integer, LongAdder> statuses = new ConcurrentHashMap<>();
+
+        Endpoint(String name, String url) {
+            this.name = name;
+            this.url = url;
+        }
+
+        void record(int status, long nanos) {
+            latency.record(nanos);
+            statuses.computeIfAbsent(status, k -> new LongAdder()).increment();
+        }
+
+        void reset() {
+            latency.reset();
+            statuses.clear();
+        }
+
+        void print() {
+            Map<Integer, Long> counts = new TreeMap<>();
+            statuses.forEach((status, count) -> counts.put(status, count.sum()));
+            System.out.printf("  %-24s %7d requests  p50 %8.2f ms  p99 %8.2f ms  max %8.2f ms  statuses %s%n",
+                    name, latency.getCount(),
+                    latency.getValueAtPercentile(50) / 1e6,
+                    latency.getValueAtPercentile(99) / 1e6,
+                    latency.getMax() / 1e6,
+                    counts);
+        }
+    }
+}
@@ -0,0 +1,86 @@
+package com.studentmanagement.benchmarks;
+
+import com.studentmanagement.controller.AuthServlet;
+import com.studentmanagement.controller.StudentServlet;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+
+import javax.servlet.ServletException;
+import javax.servlet.http.HttpServlet;
+import javax.servlet.http.HttpServletRequest;
+import javax.servlet.http.HttpSession;
+import java.io.IOException;
+import java.sql.SQLException;
+import java.util.Map;
+
+// Full request handling of AuthServlet and StudentServlet (routing, session
+// checks, DAO call, JSON response) against mock requests and the embedded
+// database, without a container or network in the way.
+@State(Scope.Thread)
+public class ServletDispatchBenchmark {
+
+    static {
+        // Measure the login path itself, not the rate limiter turning it away
+        System.setProperty("auth.login.ipBurst", String.valueOf(Integer.MAX_VALUE));
+        System.setProperty("auth.login.accountBurst", String.valueOf(Integer.MAX_VALUE));
+    }
+
+    private final AuthServlet authServlet = new AuthServlet();
+    private final StudentServlet studentServlet = new StudentServlet();
+    private final MockHttp.Response response = new MockHttp.Response();
+
+    private HttpServletRequest authCheck;
+    private HttpServletRequest login;
+    private HttpServletRequest studentById;
+    private HttpServletRequest studentPage;
+
+    @Setup
+    public void setUp() throws SQLException, ServletException {
+        EmbeddedDatabase.start();
+        EmbeddedDatabase.seedStudents(1000);
+        authServlet.init();
+        studentServlet.init();
+
+        HttpSession session = MockHttp.session(Map.of(
+                "userId", EmbeddedDatabase.getAdminId(),
+                "username", "bench_admin",
+                "fullName", "bench_admin",
+                "role", "admin"));
+        authCheck = MockHttp.request("GET", "/check", Map.of(), null, session);
+        login = MockHttp.request("POST", "/login", Map.of(),
+                "{\"username\":\"bench_user\",\"password\":\"password123\"}", MockHttp.session(Map.of()));
+        studentById = MockHttp.request("GET", "/" + EmbeddedDatabase.anyStudentId(10), Map.of(), null, session);
+        studentPage = MockHttp.request("GET", "/", Map.of("limit", "50"), null, session);
+    }
+
+    @Benchmark
+    public int authCheck() throws ServletException, IOException {
+        return dispatch(authServlet, authCheck);
+    }
+
+    @Benchmark
+    public int authLogin() throws ServletException, IOException {
+        return dispatch(authServlet, login);
+    }
+
+    @Benchmark
+    public int studentById() throws ServletException, IOException {
+        return dispatch(studentServlet, studentById);
+    }
+
+    @Benchmark
+    public int studentPage() throws ServletException, IOException {
+        return dispatch(studentServlet, studentPage);
+    }
+
+    private int dispatch(HttpServlet servlet, HttpServletRequest request) throws ServletException, IOException {
+        servlet.service(request, response.get());
+        if (response.getStatus() != 200) {
+            // Don't silently measure an error path
+            throw new IllegalStateException("Unexpected status " + response.getStatus());
+        }
+        return response.getStatus();
+    }
+}
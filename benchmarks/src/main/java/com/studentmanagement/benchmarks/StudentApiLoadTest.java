@@ -0,0 +1,389 @@
+package com.studentmanagement.benchmarks;
+
+import com.studentmanagement.model.Student;
+import com.studentmanagement.util.LatencyHistogram;
+import com.google.gson.Gson;
+import org.apache.catalina.startup.Tomcat;
+
+import java.net.CookieManager;
+import java.net.URI;
+import java.net.URLEncoder;
+import java.net.http.HttpClient;
+import java.net.http.HttpRequest;
+import java.net.http.HttpResponse;
+import java.nio.charset.StandardCharsets;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.EnumMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.SplittableRandom;
+import java.util.TreeMap;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.LongAdder;
+
+// Reference load test for the REST API. DataGenerator fills the database
+// (embedded H2 unless db.url says otherwise), the application runs in an
+// embedded Tomcat as the war deploys it, and closed-loop clients replay a
+// mix of logins, listings, lookups, creates, updates and deletes. After a
+// warm-up, throughput and latency percentiles are reported per endpoint.
+//
+// Each client holds one session at a time, as a user drawn with the same skew
+// as the student owners, and works on the students its listings returned:
+// lookups, updates and deletes pick one of them, and a login switches to
+// another user. Listings are mostly the first page, some follow the cursor
+// and some filter by course.
+//
+//   java -Xmx4g -cp target/benchmarks.jar com.studentmanagement.benchmarks.StudentApiLoadTest
+//
+// Options (system properties): seconds=30, warmupSeconds=10, clients=32,
+// tomcatThreads=200, async=true,
+// mix=login:2,list:30,get:40,create:10,update:12,delete:6 (relative weights),
+// the DataGenerator options (users, students, ...) and any application
+// setting. Search is disabled unless students.search.enabled=true, as its
+// index would hold every generated student in memory.
+public final class StudentApiLoadTest {
+
+    private enum Operation {
+        LOGIN("POST /api/auth/login"),
+        LIST("GET /api/students"),
+        GET("GET /api/students/{id}"),
+        CREATE("POST /api/students"),
+        UPDATE("PUT /api/students/{id}"),
+        DELETE("DELETE /api/students/{id}");
+
+        final String endpoint;
+
+        Operation(String endpoint) {
+            this.endpoint = endpoint;
+        }
+    }
+
+    private static final Gson gson = new Gson();
+
+    private StudentApiLoadTest() {}
+
+    public static void main(String[] args) throws Exception {
+        int seconds = Integer.getInteger("seconds", 30);
+        int warmupSeconds = Integer.getInteger("warmupSeconds", 10);
+        int clients = Integer.getInteger("clients", 32);
+        int tomcatThreads = Integer.getInteger("tomcatThreads", 200);
+        boolean async = Boolean.parseBoolean(System.getProperty("async", "true"));
+        Map<Operation, Integer> mix = parseMix(System.getProperty("mix",
+                "login:2,list:30,get:40,create:10,update:12,delete:6"));
+
+        // Every client logs in from localhost, far more often than the limiter allows one address
+        // (logins with the right password don't count against the account)
+        setDefault("auth.login.ipBurst", "1000000");
+        setDefault("auth.login.ipPerMinute", "1000000");
+        setDefault("students.search.enabled", "false");
+
+        EmbeddedDatabase.start();
+        DataGenerator generator = DataGenerator.fromSystemProperties();
+        generator.generate();
+
+        Tomcat tomcat = EmbeddedTomcat.start(tomcatThreads, async, true);
+        String base = EmbeddedTomcat.baseUrl(tomcat);
+
+        Map<Operation, Endpoint> endpoints = new EnumMap<>(Operation.class);
+        for (Operation operation : Operation.values()) {
+            endpoints.put(operation, new Endpoint(operation.endpoint));
+        }
+        List<Client> workers = new ArrayList<>();
+        long seed = Long.getLong("seed", 42);
+        for (int i = 0; i < clients; i++) {
+            workers.add(new Client(i, base, generator, mix, endpoints, new SplittableRandom(seed * 31 + i)));
+        }
+
+        System.out.printf("%n%d clients, %s servlets, %d Tomcat threads, mix %s%n",
+                clients, async ? "async" : "synchronous", tomcatThreads, mix);
+        System.out.printf("Warming up for %ds%n", warmupSeconds);
+        run(workers, warmupSeconds);
+        endpoints.values().forEach(Endpoint::reset);
+
+        System.out.printf("Measuring for %ds%n%n", seconds);
+        long start = System.nanoTime();
+        run(workers, seconds);
+        double elapsed = (System.nanoTime() - start) / 1e9;
+
+        System.out.printf("%-26s %9s %9s %9s %9s %9s %9s %9s  %s%n",
+                "Endpoint", "requests", "req/s", "p50 ms", "p90 ms", "p99 ms", "p99.9 ms", "max ms", "statuses");
+        long total = 0;
+        for (Endpoint endpoint : endpoints.values()) {
+            endpoint.print(elapsed);
+            total += endpoint.latency.getCount();
+        }
+        System.out.printf("%-26s %9d %9.0f%n", "Total", total, total / elapsed);
+        // Exit without stopping Tomcat, as SaturationLoadTest does
+        System.exit(0);
+    }
+
+    private static void run(List<Client> workers, int seconds) throws InterruptedException {
+        long end = System.nanoTime() + seconds * 1_000_000_000L;
+        List<Thread> threads = new ArrayList<>();
+        for (Client client : workers) {
+            Thread thread = new Thread(() -> client.runUntil(end), "load-client-" + client.index);
+            thread.setDaemon(true);
+            thread.start();
+            threads.add(thread);
+        }
+        for (Thread thread : threads) {
+            thread.join();
+        }
+    }
+
+    // "login:2,list:30,..." in any order; operations left out are not sent
+    private static Map<Operation, Integer> parseMix(String spec) {
+        Map<Operation, Integer> mix = new EnumMap<>(Operation.class);
+        for (String part : spec.split(",")) {
+            String[] pair = part.trim().split(":");
+            if (pair.length != 2) {
+                throw new IllegalArgumentException("mix entries are operation:weight, got " + part);
+            }
+            int weight = Integer.parseInt(pair[1].trim());
+            if (weight < 0) {
+                throw new IllegalArgumentException("mix weights can't be negative: " + part);
+            }
+            mix.put(Operation.valueOf(pair[0].trim().toUpperCase(Locale.ROOT)), weight);
+        }
+        if (mix.values().stream().mapToInt(Integer::intValue).sum() == 0) {
+            throw new IllegalArgumentException("mix has no operations");
+        }
+        return mix;
+    }
+
+    private static void setDefault(String key, String value) {
+        if (System.getProperty(key) == null) {
+            System.setProperty(key, value);
+        }
+    }
+
+    // One simulated user agent: its own cookies, so its own session
+    private static final class Client {
+        private static final int MAX_KNOWN = 500;
+
+        private final int index;
+        private final String base;
+        private final DataGenerator generator;
+        private final Operation[] choices;
+        private final int[] cumulativeWeights;
+        private final Map<Operation, Endpoint> endpoints;
+        private final SplittableRandom random;
+        private final HttpClient http;
+        // Students of the current user seen in listings, for lookups, updates and deletes
+        private final List<Listed> known = new ArrayList<>();
+        private String nextCursor;
+        private boolean loggedIn;
+        private int created;
+
+        Client(int index, String base, DataGenerator generator, Map<Operation, Integer> mix,
+               Map<Operation, Endpoint> endpoints, SplittableRandom random) {
+            this.index = index;
+            this.base = base;
+            this.generator = generator;
+            this.endpoints = endpoints;
+            this.random = random;
+            this.choices = mix.keySet().toArray(new Operation[0]);
+            this.cumulativeWeights = new int[choices.length];
+            int sum = 0;
+            for (int i = 0; i < choices.length; i++) {
+                sum += mix.get(choices[i]);
+                cumulativeWeights[i] = sum;
+            }
+            this.http = HttpClient.newBuilder()
+                    .cookieHandler(new CookieManager())
+                    .connectTimeout(Duration.ofSeconds(5))
+                    .build();
+        }
+
+        void runUntil(long end) {
+            while (System.nanoTime() < end) {
+                Operation operation = loggedIn ? next() : Operation.LOGIN;
+                if ((operation == Operation.GET || operation == Operation.UPDATE || operation == Operation.DELETE)
+                        && known.isEmpty()) {
+                    // Nothing to work on until a listing has returned some students
+                    operation = Operation.LIST;
+                }
+                try {
+                    perform(operation);
+                } catch (InterruptedException e) {
+                    Thread.currentThread().interrupt();
+                    return;
+                } catch (Exception e) {
+                    endpoints.get(operation).record(-1, 0);
+                }
+            }
+        }
+
+        private Operation next() {
+            int draw = random.nextInt(cumulativeWeights[cumulativeWeights.length - 1]);
+            for (int i = 0; i < choices.length; i++) {
+                if (draw < cumulativeWeights[i]) {
+                    return choices[i];
+                }
+            }
+            return choices[choices.length - 1];
+        }
+
+        private void perform(Operation operation) throws Exception {
+            switch (operation) {
+                case LOGIN: {
+                    String username = DataGenerator.username(generator.sampleUser(random));
+                    HttpResponse<String> response = send(operation, post("/api/auth/login",
+                            gson.toJson(Map.of("username", username, "password", DataGenerator.PASSWORD))));
+                    loggedIn = response.statusCode() == 200;
+                    known.clear();
+                    nextCursor = null;
+                    break;
+                }
+                case LIST: {
+                    String query;
+                    double draw = random.nextDouble();
+                    if (nextCursor != null && draw < 0.3) {
+                        query = "?cursor=" + encode(nextCursor);
+                    } else if (draw < 0.5) {
+                        query = "?course=" + encode(generator.sampleCourse(random));
+                    } else {
+                        query = "";
+                    }
+                    HttpResponse<String> response = send(operation, builder("/api/students" + query).GET());
+                    if (response.statusCode() == 200) {
+                        Page page = gson.fromJson(response.body(), Page.class);
+                        nextCursor = page.nextCursor;
+                        for (Listed student : page.items) {
+                            if (known.size() == MAX_KNOWN) {
+                                known.set(random.nextInt(MAX_KNOWN), student);
+                            } else {
+                                known.add(student);
+                            }
+                        }
+                    }
+                    break;
+                }
+                case GET: {
+                    Listed student = known.get(random.nextInt(known.size()));
+                    HttpResponse<String> response = send(operation,
+                            builder("/api/students/" + student.id).GET());
+                    if (response.statusCode() == 404) {
+                        // Deleted by another client working on the same user
+                        known.remove(student);
+                    }
+                    break;
+                }
+                case CREATE: {
+                    Student student = generator.randomStudent(random, "c" + index + "-" + (created++));
+                    send(operation, post("/api/students", gson.toJson(student)));
+                    break;
+                }
+                case UPDATE: {
+                    Listed student = known.get(random.nextInt(known.size()));
+                    student.phone = generator.randomPhone(random);
+                    student.address = generator.randomAddress(random);
+                    HttpResponse<String> response = send(operation, builder("/api/students/" + student.id)
+                            .header("Content-Type", "application/json")
+                            .PUT(HttpRequest.BodyPublishers.ofString(gson.toJson(student.toUpdate()))));
+                    if (response.statusCode() == 404) {
+                        known.remove(student);
+                    }
+                    break;
+                }
+                case DELETE: {
+                    Listed student = known.remove(random.nextInt(known.size()));
+                    send(operation, builder("/api/students/" + student.id).DELETE());
+                    break;
+                }
+                default:
+                    throw new IllegalStateException("Unknown operation " + operation);
+            }
+        }
+
+        private HttpResponse<String> send(Operation operation, HttpRequest.Builder request) throws Exception {
+            long start = System.nanoTime();
+            HttpResponse<String> response = http.send(request.build(), HttpResponse.BodyHandlers.ofString());
+            endpoints.get(operation).record(response.statusCode(), System.nanoTime() - start);
+            return response;
+        }
+
+        private HttpRequest.Builder builder(String path) {
+            return HttpRequest.newBuilder(URI.create(base + path)).timeout(Duration.ofSeconds(60));
+        }
+
+        private HttpRequest.Builder post(String path, String json) {
+            return builder(path)
+                    .header("Content-Type", "application/json")
+                    .POST(HttpRequest.BodyPublishers.ofString(json));
+        }
+
+        private static String encode(String value) {
+            return URLEncoder.encode(value, StandardCharsets.UTF_8);
+        }
+    }
+
+    // A listing as a client reads it. Gson writes enrollmentDate in the
+    // java.sql.Date format, which a java.util.Date field would not parse back.
+    private static final class Page {
+        List<Listed> items;
+        String nextCursor;
+    }
+
+    private static final class Listed {
+        int id;
+        String name;
+        String email;
+        String course;
+        String phone;
+        String address;
+        java.sql.Date enrollmentDate;
+
+        // The PUT body, with the enrollment date as an ISO date Student parses
+        Map<String, Object> toUpdate() {
+            Map<String, Object> body = new LinkedHashMap<>();
+            body.put("id", id);
+            body.put("name", name);
+            body.put("email", email);
+            body.put("course", course);
+            body.put("phone", phone);
+            body.put("address", address);
+            if (enrollmentDate != null) {
+                body.put("enrollmentDate", enrollmentDate.toString());
+            }
+            return body;
+        }
+    }
+
+    private static final class Endpoint {
+        private final String name;
+        private final LatencyHistogram latency = new LatencyHistogram();
+        private final Map<Integer, LongAdder> statuses = new ConcurrentHashMap<>();
+
+        Endpoint(String name) {
+            this.name = name;
+        }
+
+        // status -1 is a request that failed without a response
+        void record(int status, long nanos) {
+            latency.record(nanos);
+            statuses.computeIfAbsent(status, k -> new LongAdder()).increment();
+        }
+
+        void reset() {
+            latency.reset();
+            statuses.clear();
+        }
+
+        void print(double seconds) {
+            Map<Integer, Long> counts = new TreeMap<>();
+            statuses.forEach((status, count) -> counts.put(status, count.sum()));
+            System.out.printf("%-26s %9d %9.0f %9.2f %9.2f %9.2f %9.2f %9.2f  %s%n",
+                    name, latency.getCount(), latency.getCount() / seconds,
+                    latency.getValueAtPercentile(50) / 1e6,
+                    latency.getValueAtPercentile(90) / 1e6,
+                    latency.getValueAtPercentile(99) / 1e6,
+                    latency.getValueAtPercentile(99.9) / 1e6,
+                    latency.getMax() / 1e6,
+                    counts);
+        }
+    }
+}
@@ -0,0 +1,47 @@
+package com.studentmanagement.benchmarks;
+
+import com.studentmanagement.model.Student;
+import com.studentmanagement.util.LruCache;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Threads;
+
+import java.util.concurrent.ThreadLocalRandom;
+
+// LruCache lookups from several threads: all hits over a warm key set, and a
+// key set twice the capacity so half the lookups miss and load.
+@State(Scope.Benchmark)
+@Threads(4)
+public class StudentCacheBenchmark {
+    private static final int CAPACITY = 10_000;
+
+    private LruCache<Integer, Student> cache;
+
+    @Setup
+    public void setUp() {
+        cache = new LruCache<>(CAPACITY, 0, 16);
+        for (int id = 0; id < CAPACITY; id++) {
+            cache.put(id, student(id));
+        }
+    }
+
+    @Benchmark
+    public Student hit() {
+        return cache.get(ThreadLocalRandom.current().nextInt(CAPACITY));
+    }
+
+    @Benchmark
+    public Student halfMisses() throws Exception {
+        int id = ThreadLocalRandom.current().nextInt(CAPACITY * 2);
+        return cache.getOrLoad(id, () -> student(id));
+    }
+
+    private static Student student(int id) {
+        Student student = new Student();
+        student.setId(id);
+        student.setName("Student " + id);
+        return student;
+    }
+}
@@ -0,0 +1,76 @@
+package com.studentmanagement.benchmarks;
+
+import com.studentmanagement.dao.CachingStudentDAO;
+import com.studentmanagement.dao.JdbcStudentDAO;
+import com.studentmanagement.dao.StudentDAO;
+import com.studentmanagement.model.Student;
+import com.studentmanagement.model.StudentPage;
+import com.studentmanagement.model.StudentQuery;
+import com.studentmanagement.service.StudentCache;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+
+import java.sql.SQLException;
+import java.util.Date;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.atomic.AtomicInteger;
+
+// End-to-end StudentDAO throughput against the embedded database: point
+// lookups with and without the read-through cache, one listing page, and an
+// insert/delete round trip. Run with -t N to measure under contention.
+@State(Scope.Benchmark)
+public class StudentDaoBenchmark {
+    private static final int STUDENTS = 10_000;
+
+    private final AtomicInteger sequence = new AtomicInteger();
+    private StudentDAO dao;
+    private StudentDAO cachingDao;
+    private int firstId;
+
+    @Setup
+    public void setUp() throws SQLException {
+        EmbeddedDatabase.start();
+        EmbeddedDatabase.seedStudents(STUDENTS);
+        dao = new JdbcStudentDAO();
+        cachingDao = new CachingStudentDAO(StudentCache.getInstance());
+        firstId = EmbeddedDatabase.anyStudentId(0);
+    }
+
+    @Benchmark
+    public Student getById() {
+        return dao.getStudentById(randomId());
+    }
+
+    @Benchmark
+    public Student getByIdCached() {
+        return cachingDao.getStudentById(randomId());
+    }
+
+    @Benchmark
+    public StudentPage firstPageByName() throws SQLException {
+        StudentQuery query = new StudentQuery();
+        query.setSortKey(StudentQuery.SORT_NAME);
+        query.setDescending(false);
+        query.setLimit(50);
+        return dao.findStudents(query);
+    }
+
+    @Benchmark
+    public boolean addAndDelete() {
+        Student student = new Student();
+        student.setName("Round Trip");
+        student.setEmail("roundtrip" + sequence.incrementAndGet() + "-" + System.nanoTime() + "@example.com");
+        student.setCourse("Physics");
+        student.setEnrollmentDate(new Date());
+        if (!dao.addStudent(student, EmbeddedDatabase.getUserId())) {
+            throw new IllegalStateException("Insert failed");
+        }
+        return dao.deleteStudent(student.getId());
+    }
+
+    private int randomId() {
+        return firstId + ThreadLocalRandom.current().nextInt(STUDENTS);
+    }
+}
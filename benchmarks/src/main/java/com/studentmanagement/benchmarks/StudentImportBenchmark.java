@@ -0,0 +1,88 @@
+package com.studentmanagement.benchmarks;
+
+import com.studentmanagement.dao.JdbcStudentDAO;
+import com.studentmanagement.dao.StudentDAO;
+import com.studentmanagement.dao.StudentImportReader;
+import com.studentmanagement.model.ImportResult;
+import com.studentmanagement.model.Student;
+import com.studentmanagement.util.DBConnection;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+
+import java.io.IOException;
+import java.sql.Connection;
+import java.sql.SQLException;
+import java.sql.Statement;
+import java.util.Date;
+
+// StudentDAO.importStudents for 1000 rows per operation at different JDBC
+// batch sizes; batchSize=1 is the old one-INSERT-per-row behaviour. Imported
+// rows are removed before each operation so every run inserts into the same
+// table size.
+@State(Scope.Thread)
+public class StudentImportBenchmark {
+    private static final int ROWS = 1000;
+
+    @Param({"1", "100", "500"})
+    public int batchSize;
+
+    private final StudentDAO dao = new JdbcStudentDAO();
+    private int run;
+
+    @Setup(Level.Trial)
+    public void setUp() throws SQLException {
+        EmbeddedDatabase.start();
+    }
+
+    @Setup(Level.Invocation)
+    public void clearImported() throws SQLException {
+        try (Connection conn = DBConnection.getConnection();
+             Statement stmt = conn.createStatement()) {
+            stmt.executeUpdate("DELETE FROM students WHERE email LIKE 'import-%'");
+        }
+        run++;
+    }
+
+    @Benchmark
+    public ImportResult importRows() throws SQLException, IOException {
+        ImportResult result = new ImportResult();
+        dao.importStudents(new GeneratedReader(run), EmbeddedDatabase.getUserId(), batchSize, 5000, result);
+        if (result.getImported() != ROWS) {
+            throw new IllegalStateException("Imported " + result.getImported() + " of " + ROWS);
+        }
+        return result;
+    }
+
+    private static final class GeneratedReader implements StudentImportReader {
+        private final int run;
+        private int row;
+
+        GeneratedReader(int run) {
+            this.run = run;
+        }
+
+        @Override
+        public Student next() {
+            if (row == ROWS) {
+                return null;
+            }
+            row++;
+            Student student = new Student();
+            student.setName("Imported " + row);
+            student.setEmail("import-" + run + "-" + row + "@example.com");
+            student.setCourse(EmbeddedDatabase.COURSES[row % EmbeddedDatabase.COURSES.length]);
+            student.setPhone(String.format("555%07d", row));
+            student.setEnrollmentDate(new Date());
+            return student;
+        }
+
+        @Override
+        public int getRowNumber() {
+            return row;
+        }
+    }
+}
@@ -0,0 +1,81 @@
+package com.studentmanagement.benchmarks;
+
+import com.google.gson.Gson;
+import com.studentmanagement.model.Student;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+
+import java.io.Writer;
+import java.sql.Timestamp;
+import java.util.ArrayList;
+import java.util.Date;
+import java.util.List;
+
+// Gson serialization of student lists the size of a single lookup, a default
+// page and the largest page, both to a String (what the servlets print) and
+// straight to a Writer.
+@State(Scope.Benchmark)
+public class StudentJsonBenchmark {
+
+    @Param({"1", "50", "500"})
+    public int size;
+
+    private final Gson gson = new Gson();
+    private List<Student> students;
+
+    @Setup
+    public void setUp() {
+        students = new ArrayList<>(size);
+        long now = System.currentTimeMillis();
+        for (int i = 0; i < size; i++) {
+            Student student = new Student();
+            student.setId(i + 1);
+            student.setName("Student " + i);
+            student.setEmail("student" + i + "@example.com");
+            student.setCourse(EmbeddedDatabase.COURSES[i % EmbeddedDatabase.COURSES.length]);
+            student.setPhone(String.format("555%07d", i));
+            student.setAddress((i % 900 + 1) + " Main St, City");
+            student.setEnrollmentDate(new Date(now - i * 86_400_000L));
+            student.setUserId(i % 2 + 1);
+            student.setCreatedAt(new Timestamp(now));
+            student.setUpdatedAt(new Timestamp(now));
+            students.add(student);
+        }
+    }
+
+    @Benchmark
+    public String toJsonString() {
+        return gson.toJson(students);
+    }
+
+    @Benchmark
+    public Writer toJsonWriter() {
+        Writer writer = new DiscardingWriter();
+        gson.toJson(students, writer);
+        return writer;
+    }
+
+    // Counts characters instead of buffering them, like a socket would
+    static final class DiscardingWriter extends Writer {
+        long written;
+
+        @Override
+        public void write(char[] buffer, int offset, int length) {
+            written += length;
+        }
+
+        @Override
+        public void write(String str, int offset, int length) {
+            written += length;
+        }
+
+        @Override
+        public void flush() {}
+
+        @Override
+        public void close() {}
+    }
+}
@@ -0,0 +1,88 @@
+package com.studentmanagement.benchmarks;
+
+import com.studentmanagement.controller.StudentServlet;
+import com.studentmanagement.model.Student;
+import com.studentmanagement.service.StudentListCache;
+import com.studentmanagement.service.StudentListVersions;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+
+import javax.servlet.ServletException;
+import javax.servlet.http.HttpServletRequest;
+import java.io.IOException;
+import java.sql.SQLException;
+import java.util.Map;
+
+// A regular user's first page of 50 students through StudentServlet, on one
+// thread, so the time per operation is the CPU per request. Run with
+// -prof gc for the allocation per request.
+//
+// listUncached is the old path: a query and Gson for every request.
+// listCached repeats an unchanged list, written from StudentListCache.
+// listAfterWrite moves the owner's list version on before every request, as a
+// write to another of their students would: the page is rebuilt from a query,
+// but from cached fragments.
+@State(Scope.Thread)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(java.util.concurrent.TimeUnit.MICROSECONDS)
+public class StudentListCacheBenchmark {
+
+    private final StudentServlet servlet = new StudentServlet();
+    private final MockHttp.Response response = new MockHttp.Response();
+    private final Student otherWrite = new Student();
+    private HttpServletRequest page;
+
+    @Setup
+    public void setUp() throws SQLException, ServletException {
+        EmbeddedDatabase.start();
+        EmbeddedDatabase.seedStudents(1000);
+        StudentListVersions.getInstance().start();
+        StudentListCache.getInstance().start();
+        servlet.init();
+
+        page = MockHttp.request("GET", "/", Map.of("limit", "50"), null, MockHttp.session(Map.of(
+                "userId", EmbeddedDatabase.getUserId(),
+                "username", "bench_user",
+                "fullName", "bench_user",
+                "role", "user")));
+        otherWrite.setUserId(EmbeddedDatabase.getUserId());
+    }
+
+    @TearDown
+    public void tearDown() {
+        StudentListCache.getInstance().stop();
+        StudentListVersions.getInstance().stop();
+    }
+
+    @Benchmark
+    @Fork(jvmArgsAppend = "-Dstudents.list.cache.enabled=false")
+    public int listUncached() throws ServletException, IOException {
+        return dispatch();
+    }
+
+    @Benchmark
+    public int listCached() throws ServletException, IOException {
+        return dispatch();
+    }
+
+    @Benchmark
+    public int listAfterWrite() throws ServletException, IOException {
+        StudentListVersions.getInstance().onStudentAdded(otherWrite);
+        return dispatch();
+    }
+
+    private int dispatch() throws ServletException, IOException {
+        servlet.service(page, response.get());
+        if (response.getStatus() != 200) {
+            throw new IllegalStateException("Unexpected status " + response.getStatus());
+        }
+        return response.getStatus();
+    }
+}
@@ -0,0 +1,96 @@
+package com.studentmanagement.benchmarks;
+
+import com.studentmanagement.model.Student;
+import com.studentmanagement.service.StudentSearchIndex;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.util.Random;
+import java.util.concurrent.TimeUnit;
+
+// StudentSearchIndex query latency for selective, broad, multi-token and
+// misspelled queries, plus the time to build the index from scratch.
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+public class StudentSearchBenchmark {
+    private static final String[] FIRST_NAMES = {
+            "james", "maria", "wei", "fatima", "olga", "ivan", "aisha", "carlos", "yuki", "noah"
+    };
+
+    @Param({"100000"})
+    public int students;
+
+    private Student[] data;
+    private StudentSearchIndex index;
+
+    @Setup
+    public void setUp() {
+        Random random = new Random(42);
+        data = new Student[students];
+        for (int i = 0; i < students; i++) {
+            String first = FIRST_NAMES[random.nextInt(FIRST_NAMES.length)] + (char) ('a' + random.nextInt(26));
+            String last = "surname" + random.nextInt(students / 20 + 1);
+            Student student = new Student();
+            student.setId(i + 1);
+            student.setUserId(1 + random.nextInt(100));
+            student.setName(first + " " + last);
+            student.setEmail(first + "." + last + i + "@example.com");
+            student.setCourse(EmbeddedDatabase.COURSES[random.nextInt(EmbeddedDatabase.COURSES.length)]);
+            student.setPhone(String.format("555%07d", i));
+            student.setAddress((random.nextInt(900) + 1) + " Main St, City");
+            data[i] = student;
+        }
+        index = build();
+    }
+
+    private StudentSearchIndex build() {
+        StudentSearchIndex fresh = new StudentSearchIndex(2);
+        for (Student student : data) {
+            fresh.upsert(student);
+        }
+        return fresh;
+    }
+
+    @Benchmark
+    public StudentSearchIndex.Hits exactRareTerm() {
+        return index.search("surname42", null, 20, true);
+    }
+
+    @Benchmark
+    public StudentSearchIndex.Hits broadTerm() {
+        return index.search("physics", null, 20, true);
+    }
+
+    @Benchmark
+    public StudentSearchIndex.Hits prefixAndTerm() {
+        return index.search("mariab sur", null, 20, true);
+    }
+
+    @Benchmark
+    public StudentSearchIndex.Hits misspelled() {
+        return index.search("fatmia", null, 20, true);
+    }
+
+    @Benchmark
+    public StudentSearchIndex.Hits ownerFiltered() {
+        return index.search("physics", 7, 20, true);
+    }
+
+    @Benchmark
+    @BenchmarkMode(Mode.SingleShotTime)
+    @OutputTimeUnit(TimeUnit.MILLISECONDS)
+    @Warmup(iterations = 2)
+    @Measurement(iterations = 5)
+    public StudentSearchIndex buildIndex() {
+        return build();
+    }
+}
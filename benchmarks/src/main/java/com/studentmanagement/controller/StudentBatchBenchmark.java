@@ -0,0 +1,197 @@
+package com.studentmanagement.controller;
+
+import com.studentmanagement.benchmarks.EmbeddedDatabase;
+import com.studentmanagement.dao.JdbcStudentDAO;
+import com.studentmanagement.dao.StudentDAO;
+import com.studentmanagement.model.Student;
+import com.studentmanagement.model.StudentBatch;
+import com.google.gson.Gson;
+import com.google.gson.GsonBuilder;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+
+import java.io.IOException;
+import java.io.StringWriter;
+import java.io.Writer;
+import java.lang.management.ManagementFactory;
+import java.sql.SQLException;
+import java.sql.Timestamp;
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Objects;
+import java.util.concurrent.TimeUnit;
+
+// A large result set held as List<Student> vs one columnar StudentBatch.
+// Setup prints the retained heap per row of each, filled from the same
+// embedded table. The benchmarks time loading the rows both ways, streaming
+// them as exports read them, and writing them as JSON: Gson per Student vs
+// StudentJsonWriter over the batch. Run with -prof gc for the allocation per
+// operation.
+//
+// Setup first checks that StudentJsonWriter writes what Gson writes, on the
+// table's rows and on rows built to trip it up, and fails the run if not.
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+public class StudentBatchBenchmark {
+
+    @Param({"100000"})
+    public int rows;
+
+    private final Gson gson = new Gson();
+    private StudentDAO dao;
+    private List<Student> list;
+    private StudentBatch batch;
+
+    @Setup(Level.Trial)
+    public void setUp() throws SQLException, IOException {
+        EmbeddedDatabase.start();
+        EmbeddedDatabase.seedStudents(rows);
+        dao = new JdbcStudentDAO();
+
+        List<Student> sample = new ArrayList<>(edgeCases());
+        dao.streamStudents(null, student -> {
+            if (sample.size() < 1000) {
+                sample.add(student);
+            }
+        });
+        for (Gson variant : new Gson[]{gson, new GsonBuilder().serializeNulls().disableHtmlEscaping().create()}) {
+            checkJsonWriter(variant, sample);
+        }
+
+        long before = usedHeap();
+        list = loadList();
+        long afterList = usedHeap();
+        batch = loadBatch();
+        long afterBatch = usedHeap();
+        System.out.printf("%nRetained heap for %d rows: List<Student> %d bytes/row, StudentBatch %d bytes/row%n",
+                list.size(), (afterList - before) / list.size(), (afterBatch - afterList) / batch.size());
+    }
+
+    @Benchmark
+    public List<Student> loadList() throws SQLException, IOException {
+        List<Student> students = new ArrayList<>();
+        dao.streamStudents(null, students::add);
+        return students;
+    }
+
+    @Benchmark
+    public StudentBatch loadBatch() throws SQLException, IOException {
+        // Larger than the table, so every row lands in the one batch and it is never cleared
+        StudentBatch[] all = new StudentBatch[1];
+        dao.streamStudentBatches(null, rows + 1, filled -> all[0] = filled);
+        all[0].trimToSize();
+        return all[0];
+    }
+
+    // The export read path: every row streamed and dropped, one Student at a
+    // time vs export-sized batches
+    @Benchmark
+    public long streamStudents() throws SQLException, IOException {
+        long[] sum = {0};
+        dao.streamStudents(null, student -> sum[0] += student.getId());
+        return sum[0];
+    }
+
+    @Benchmark
+    public long streamBatches() throws SQLException, IOException {
+        long[] sum = {0};
+        dao.streamStudentBatches(null, 500, filled -> sum[0] += filled.size());
+        return sum[0];
+    }
+
+    @Benchmark
+    public void writeJsonGson() throws IOException {
+        Writer out = Writer.nullWriter();
+        for (Student student : list) {
+            gson.toJson(student, Student.class, out);
+            out.write('\n');
+        }
+    }
+
+    @Benchmark
+    public void writeJsonBatch() throws IOException {
+        StudentJsonWriter out = new StudentJsonWriter(gson, Writer.nullWriter());
+        for (int row = 0; row < batch.size(); row++) {
+            out.writeStudent(batch, row);
+            out.write('\n');
+        }
+        out.flush();
+    }
+
+    private static void checkJsonWriter(Gson gson, List<Student> students) throws IOException {
+        StudentBatch rows = new StudentBatch(students.size());
+        students.forEach(rows::add);
+        StringWriter actual = new StringWriter();
+        StudentJsonWriter out = new StudentJsonWriter(gson, actual);
+        for (int row = 0; row < rows.size(); row++) {
+            out.writeStudent(rows, row);
+            out.write('\n');
+        }
+        out.flush();
+
+        String[] lines = actual.toString().split("\n", -1);
+        for (int row = 0; row < students.size(); row++) {
+            String expected = gson.toJson(students.get(row));
+            if (!expected.equals(lines[row])) {
+                throw new IllegalStateException("StudentJsonWriter differs from Gson on row " + row
+                        + "\n  gson:   " + expected + "\n  writer: " + lines[row]);
+            }
+            Student stored = rows.toStudent(row);
+            if (!Objects.equals(stored.getName(), students.get(row).getName())
+                    || !Objects.equals(stored.getAddress(), students.get(row).getAddress())) {
+                throw new IllegalStateException("StudentBatch changed the text of row " + row);
+            }
+        }
+    }
+
+    // Text needing every kind of escape, characters outside the BMP, unpaired
+    // surrogates, missing values and timestamps with fractions of a second
+    private static List<Student> edgeCases() {
+        List<Student> students = new ArrayList<>();
+        String[] names = {
+                "Tab\tNew\nLine\rFeed\f\b\u0000\u0001\u001f\u007f",
+                "Quote \" backslash \\ slash /",
+                "<script>alert('x')</script> & a=b",
+                "Line\u2028Para\u2029Sep \u0085 \u00a0",
+                "Ren\u00e9e \u5f20\u4f1f \ud83d\ude00 \ud834\udd1e",
+                "Lone high \ud83d end",
+                "\udc00 lone low first",
+                "Reversed \ude00\ud83d pair",
+                "",
+        };
+        Timestamp fractional = Timestamp.valueOf("2024-02-29 23:59:59.999999");
+        for (int i = 0; i < names.length; i++) {
+            Student student = new Student();
+            student.setId(i + 1);
+            student.setName(names[i]);
+            student.setEmail(i % 2 == 0 ? "edge" + i + "@example.com" : null);
+            student.setCourse(i % 3 == 0 ? null : names[(i + 1) % names.length]);
+            student.setPhone(i % 3 == 1 ? null : "555\u20130100");
+            student.setAddress(names[names.length - 1 - i]);
+            student.setEnrollmentDate(i % 4 == 0 ? null : java.sql.Date.valueOf(LocalDate.of(1970, 1, 1).plusDays(i * 7919L)));
+            student.setUserId(i);
+            student.setCreatedAt(i % 4 == 1 ? null : new Timestamp(fractional.getTime() + i * 1001L));
+            Timestamp updated = new Timestamp(fractional.getTime() - i * 999L);
+            updated.setNanos((i * 123_457_000) % 1_000_000_000);
+            student.setUpdatedAt(i % 4 == 2 ? null : updated);
+            students.add(student);
+        }
+        return students;
+    }
+
+    private static long usedHeap() {
+        for (int i = 0; i < 3; i++) {
+            System.gc();
+        }
+        return ManagementFactory.getMemoryMXBean().getHeapMemoryUsage().getUsed();
+    }
+}
@@ -0,0 +1,189 @@
+package com.studentmanagement.dao;
+
+import com.studentmanagement.benchmarks.EmbeddedDatabase;
+import com.studentmanagement.model.Student;
+import com.studentmanagement.model.StudentPage;
+import com.studentmanagement.model.StudentQuery;
+import com.studentmanagement.util.DBConnection;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+
+import java.io.IOException;
+import java.lang.management.ManagementFactory;
+import java.sql.Connection;
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.sql.Statement;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+
+// Course lookups before and after the course catalog. Setup copies the
+// students into students_legacy, shaped as before: the course name in every
+// row, indexed by (course, id). Each pair runs the old SQL against that copy
+// and the DAO against the catalog: a page filtered by course, the first page
+// sorted by course, and the count per course. sortCatalogOwner is the first
+// page sorted by course of one owner's students. Setup also prints the
+// retained heap per row of every student loaded as Students, with a course
+// String per row (as before) and with the catalog's shared one.
+// CourseSortCheck checks every page sorted by course against a sort in memory.
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+public class CourseCatalogBenchmark {
+    private static final String LEGACY_COLUMNS =
+            "id, name, email, course, phone, address, enrollment_date, user_id, created_at, updated_at";
+
+    @Param({"200000"})
+    public int rows;
+
+    private StudentDAO dao;
+    private int page;
+
+    @Setup(Level.Trial)
+    public void setUp() throws SQLException, IOException {
+        EmbeddedDatabase.start();
+        EmbeddedDatabase.seedStudents(rows);
+        dao = new JdbcStudentDAO();
+        try (Connection conn = DBConnection.getConnection();
+             Statement stmt = conn.createStatement()) {
+            // H2 otherwise hands back the last result of a repeated query on an
+            // unchanged table, which MySQL 8 has no cache for
+            stmt.execute("SET OPTIMIZE_REUSE_RESULTS 0");
+            stmt.execute("DROP TABLE IF EXISTS students_legacy");
+            stmt.execute("CREATE TABLE students_legacy (id INT PRIMARY KEY, name VARCHAR(100) NOT NULL, "
+                    + "email VARCHAR(100) NOT NULL, course VARCHAR(50) NOT NULL, phone VARCHAR(15), address TEXT, "
+                    + "enrollment_date DATE, user_id INT, created_at TIMESTAMP, updated_at TIMESTAMP(6), "
+                    + "deleted_at TIMESTAMP(6))");
+            stmt.execute("INSERT INTO students_legacy SELECT s.id, s.name, s.email, c.name, s.phone, s.address, "
+                    + "s.enrollment_date, s.user_id, s.created_at, s.updated_at, s.deleted_at "
+                    + "FROM students s JOIN courses c ON c.id = s.course_id");
+            stmt.execute("CREATE INDEX idx_legacy_course ON students_legacy (course, id)");
+        }
+
+        // The first measurement after seeding is thrown off by H2 releasing memory
+        retainedPerRow(false);
+        System.out.printf("%nRetained heap for %d rows: course String per row %d bytes/row, catalog-interned %d bytes/row%n",
+                rows, retainedPerRow(true), retainedPerRow(false));
+    }
+
+    @Benchmark
+    public List<Student> filterLegacy() throws SQLException {
+        return queryLegacy("SELECT " + LEGACY_COLUMNS + " FROM students_legacy WHERE deleted_at IS NULL "
+                + "AND course = ? ORDER BY id DESC LIMIT 51", nextCourse());
+    }
+
+    @Benchmark
+    public StudentPage filterCatalog() throws SQLException {
+        StudentQuery query = new StudentQuery();
+        query.setCourse(nextCourse());
+        return dao.findStudents(query);
+    }
+
+    @Benchmark
+    public List<Student> sortLegacy() throws SQLException {
+        return queryLegacy("SELECT " + LEGACY_COLUMNS + " FROM students_legacy WHERE deleted_at IS NULL "
+                + "ORDER BY course, id LIMIT 51", null);
+    }
+
+    @Benchmark
+    public StudentPage sortCatalog() throws SQLException {
+        StudentQuery query = new StudentQuery();
+        query.setSortKey(StudentQuery.SORT_COURSE);
+        query.setDescending(false);
+        return dao.findStudents(query);
+    }
+
+    @Benchmark
+    public StudentPage sortCatalogOwner() throws SQLException {
+        StudentQuery query = new StudentQuery();
+        query.setSortKey(StudentQuery.SORT_COURSE);
+        query.setDescending(false);
+        query.setUserId(EmbeddedDatabase.getUserId());
+        return dao.findStudents(query);
+    }
+
+    @Benchmark
+    public Map<String, Long> countLegacy() throws SQLException {
+        Map<String, Long> counts = new HashMap<>();
+        try (Connection conn = DBConnection.getConnection();
+             Statement stmt = conn.createStatement();
+             ResultSet rs = stmt.executeQuery("SELECT course, COUNT(*) FROM students_legacy "
+                     + "WHERE deleted_at IS NULL GROUP BY course")) {
+            while (rs.next()) {
+                counts.put(rs.getString(1), rs.getLong(2));
+            }
+        }
+        return counts;
+    }
+
+    @Benchmark
+    public Map<Integer, Long> countCatalog() throws SQLException {
+        return dao.countStudentsByCourse(null);
+    }
+
+    private String nextCourse() {
+        page = (page + 1) % EmbeddedDatabase.COURSES.length;
+        return EmbeddedDatabase.COURSES[page];
+    }
+
+    private static List<Student> queryLegacy(String sql, String course) throws SQLException {
+        List<Student> students = new ArrayList<>();
+        try (Connection conn = DBConnection.getConnection();
+             PreparedStatement pstmt = conn.prepareStatement(sql)) {
+            if (course != null) {
+                pstmt.setString(1, course);
+            }
+            try (ResultSet rs = pstmt.executeQuery()) {
+                while (rs.next()) {
+                    Student student = new Student();
+                    student.setId(rs.getInt(1));
+                    student.setName(rs.getString(2));
+                    student.setEmail(rs.getString(3));
+                    student.setCourse(rs.getString(4));
+                    student.setPhone(rs.getString(5));
+                    student.setAddress(rs.getString(6));
+                    student.setEnrollmentDate(rs.getDate(7));
+                    student.setUserId(rs.getInt(8));
+                    student.setCreatedAt(rs.getTimestamp(9));
+                    student.setUpdatedAt(rs.getTimestamp(10));
+                    students.add(student);
+                }
+            }
+        }
+        return students;
+    }
+
+    // H2 hands out the Strings it stores, so the copy a network driver makes
+    // of every row's course is made here
+    private long retainedPerRow(boolean copyCourse) throws SQLException, IOException {
+        long before = usedHeap();
+        List<Student> students = new ArrayList<>();
+        dao.streamStudents(null, student -> {
+            if (copyCourse) {
+                student.setCourse(new String(student.getCourse()));
+            }
+            students.add(student);
+        });
+        long retained = (usedHeap() - before) / students.size();
+        students.clear();
+        return retained;
+    }
+
+    private static long usedHeap() {
+        for (int i = 0; i < 3; i++) {
+            System.gc();
+        }
+        return ManagementFactory.getMemoryMXBean().getHeapMemoryUsage().getUsed();
+    }
+}
@@ -0,0 +1,122 @@
+package com.studentmanagement.dao;
+
+import com.studentmanagement.benchmarks.EmbeddedDatabase;
+import com.studentmanagement.model.Student;
+import com.studentmanagement.model.StudentPage;
+import com.studentmanagement.model.StudentQuery;
+import com.studentmanagement.service.CourseCatalog;
+import com.studentmanagement.util.DBConnection;
+
+import java.sql.Connection;
+import java.sql.SQLException;
+import java.sql.Statement;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.List;
+
+// Checks sort=course paging against an in-memory sort. Seeds H2, then adds
+// behind the catalog's back a course with no students and one with a student
+// (as another node would), and soft-deletes a student. Every page, ascending
+// and descending, for everyone's and for one owner's students, at several
+// page sizes, is concatenated and compared with the live students sorted by
+// course name (ignoring case) and id. A course-filtered list is checked too.
+//
+//   java -cp target/benchmarks.jar com.studentmanagement.dao.CourseSortCheck
+//
+// Options (system properties): rows=997. Exits 1 on the first mismatch.
+public final class CourseSortCheck {
+
+    private CourseSortCheck() {}
+
+    public static void main(String[] args) throws Exception {
+        int rows = Integer.getInteger("rows", 997);
+
+        EmbeddedDatabase.start();
+        EmbeddedDatabase.seedStudents(rows);
+        CourseCatalog.getInstance().reload();
+        int userId = EmbeddedDatabase.getUserId();
+        JdbcStudentDAO dao = new JdbcStudentDAO();
+        try (Connection conn = DBConnection.getConnection();
+             Statement stmt = conn.createStatement()) {
+            stmt.execute("INSERT INTO courses (name) VALUES ('aardvark studies'), ('Zoology')");
+            stmt.execute("INSERT INTO students (name, email, course_id, user_id) SELECT 'Late Student', "
+                    + "'late@example.com', id, " + userId + " FROM courses WHERE name = 'Zoology'");
+        }
+        dao.deleteStudent(EmbeddedDatabase.anyStudentId(3));
+
+        List<Student> live = dao.getAllStudents();
+        int checked = 0;
+        for (boolean descending : new boolean[] {false, true}) {
+            for (Integer owner : new Integer[] {null, userId}) {
+                for (int limit : new int[] {1, 7, 50, 2000}) {
+                    List<Student> expected = new ArrayList<>();
+                    for (Student student : live) {
+                        if (owner == null || student.getUserId() == owner) {
+                            expected.add(student);
+                        }
+                    }
+                    check(dao, expected, null, owner, descending, limit);
+                    checked++;
+                }
+            }
+        }
+
+        String course = EmbeddedDatabase.COURSES[1];
+        List<Student> inCourse = new ArrayList<>();
+        for (Student student : live) {
+            if (student.getCourse().equals(course)) {
+                inCourse.add(student);
+            }
+        }
+        check(dao, inCourse, course.toUpperCase(), null, true, 13);
+        checked++;
+
+        System.out.printf("%d listings of %d live students match the in-memory sort%n", checked, live.size());
+        System.exit(0);
+    }
+
+    private static void check(StudentDAO dao, List<Student> expected, String course, Integer owner,
+                              boolean descending, int limit) throws SQLException {
+        Comparator<Student> byCourse = Comparator.comparing(Student::getCourse, String.CASE_INSENSITIVE_ORDER)
+                .thenComparingInt(Student::getId);
+        expected.sort(descending ? byCourse.reversed() : byCourse);
+
+        List<Student> paged = new ArrayList<>();
+        String cursor = null;
+        int pages = 0;
+        do {
+            StudentQuery query = new StudentQuery();
+            query.setSortKey(StudentQuery.SORT_COURSE);
+            query.setDescending(descending);
+            query.setLimit(limit);
+            query.setUserId(owner);
+            query.setCourse(course);
+            query.setCursor(cursor);
+            StudentPage page = dao.findStudents(query);
+            if (page.getItems().size() > limit || (page.getNextCursor() != null && page.getItems().size() < limit)) {
+                fail(String.format("page %d of %d rows with limit %d", pages, page.getItems().size(), limit),
+                        descending, owner, limit);
+            }
+            paged.addAll(page.getItems());
+            cursor = page.getNextCursor();
+            pages++;
+        } while (cursor != null);
+
+        if (paged.size() != expected.size()) {
+            fail(paged.size() + " rows paged, " + expected.size() + " expected", descending, owner, limit);
+        }
+        for (int i = 0; i < paged.size(); i++) {
+            Student got = paged.get(i);
+            Student want = expected.get(i);
+            if (got.getId() != want.getId() || !got.getCourse().equals(want.getCourse())) {
+                fail(String.format("row %d is %d (%s), expected %d (%s)", i, got.getId(), got.getCourse(),
+                        want.getId(), want.getCourse()), descending, owner, limit);
+            }
+        }
+    }
+
+    private static void fail(String message, boolean descending, Integer owner, int limit) {
+        System.out.printf("MISMATCH descending=%b owner=%s limit=%d: %s%n", descending, owner, limit, message);
+        System.exit(1);
+    }
+}
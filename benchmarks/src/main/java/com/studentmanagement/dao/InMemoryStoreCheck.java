@@ -0,0 +1,557 @@
+package com.studentmanagement.dao;
+
+import com.studentmanagement.benchmarks.EmbeddedDatabase;
+import com.studentmanagement.dao.InMemoryStore.StudentRow;
+import com.studentmanagement.model.Course;
+import com.studentmanagement.model.Student;
+import com.studentmanagement.model.StudentPage;
+import com.studentmanagement.model.StudentQuery;
+import com.studentmanagement.service.CourseCatalog;
+
+import java.io.IOException;
+import java.nio.channels.FileChannel;
+import java.nio.file.DirectoryStream;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.sql.Timestamp;
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Comparator;
+import java.util.Date;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Random;
+import java.util.TreeMap;
+import java.util.TreeSet;
+import java.util.function.Consumer;
+import java.util.stream.Stream;
+
+// Checks storage.engine=memory against JDBC on H2. The same writes go to
+// JdbcStudentDAO and to two InMemoryStudentDAOs with a write-ahead log: one
+// that never snapshots, and one that snapshots every few KB. Each write must
+// have the same outcome on all three, including the email checks around
+// soft deletes, restores and archiving. Then every keyset listing (each sort
+// key, both directions, everyone's or one owner's, filtered by course or
+// enrollment date) is paged through on each engine and compared row by row,
+// as are lookups and counts. Ids differ between engines, so rows are
+// matched by the write that created them.
+//
+// Each store is then reopened from its directory without being closed, as
+// after a crash, and must hold the same rows. The snapshotting store must
+// have rotated: a snapshot and few segments left. Last, a group commit is
+// cut short mid-line and at a line boundary; each reopen must drop the whole
+// commit and keep taking writes.
+//
+//   java -cp target/benchmarks.jar com.studentmanagement.dao.InMemoryStoreCheck
+//
+// Options (system properties): students=400, seed=42. Exits 1 on the first
+// mismatch.
+public final class InMemoryStoreCheck {
+    private static final String[] NAMES = {
+            "alice", "Alice", "ALICE B", "bob", "Bob", "bob smith", "Zoe", "zoe adams", "Mary Jane",
+            "mary-jane", "O'Brien", "o'brien", "Chen Wei", "chen", "Yusuf", "yusuf 2", "Ann", "ann"
+    };
+    private static final String[] COURSES = {
+            "Computer Science", "mathematics", "PHYSICS", "Engineering", "biology", "History", "Art History"
+    };
+    private static final String[] SORT_KEYS = {
+            StudentQuery.SORT_ID, StudentQuery.SORT_NAME, StudentQuery.SORT_EMAIL, StudentQuery.SORT_COURSE,
+            StudentQuery.SORT_ENROLLMENT_DATE
+    };
+    private static final LocalDate FIRST_DAY = LocalDate.of(2019, 1, 1);
+
+    private final Random random;
+    private final int userId = EmbeddedDatabase.getUserId();
+    private final int adminId = EmbeddedDatabase.getAdminId();
+    private final StudentDAO[] daos;
+    private final String[] names = {"jdbc", "memory", "memory-snapshots"};
+    // Per logical student, its id on each engine
+    private final List<int[]> ids = new ArrayList<>();
+    private int emails;
+    private int checks;
+
+    private InMemoryStoreCheck(long seed, StudentDAO... daos) {
+        this.random = new Random(seed);
+        this.daos = daos;
+    }
+
+    public static void main(String[] args) throws Exception {
+        int students = Integer.getInteger("students", 400);
+        long seed = Long.getLong("seed", 42);
+
+        EmbeddedDatabase.start();
+        Path walDir = Files.createTempDirectory("memory-check-wal");
+        Path snapshotDir = Files.createTempDirectory("memory-check-snapshots");
+        try {
+            InMemoryStore wal = new InMemoryStore(walDir, false, Long.MAX_VALUE);
+            InMemoryStore snapshots = new InMemoryStore(snapshotDir, false, 8 * 1024);
+            // The database's courses, spelled the same, so the first spelling of each agrees
+            for (String course : EmbeddedDatabase.COURSES) {
+                wal.commitCourse(course);
+                snapshots.commitCourse(course);
+            }
+            InMemoryStoreCheck check = new InMemoryStoreCheck(seed, new JdbcStudentDAO(),
+                    new InMemoryStudentDAO(wal), new InMemoryStudentDAO(snapshots));
+
+            check.write(students);
+            check.compareListings();
+            check.compareLookups(wal, snapshots);
+
+            check.reopen(wal, walDir, Long.MAX_VALUE);
+            snapshots.awaitSnapshot();
+            check.checkRotation(snapshotDir);
+            check.reopen(snapshots, snapshotDir, 8 * 1024);
+            check.tearCommit(walDir);
+
+            System.out.printf("%d checks passed over %d students on %s%n", check.checks, check.ids.size(),
+                    String.join(", ", check.names));
+        } finally {
+            delete(walDir);
+            delete(snapshotDir);
+        }
+        System.exit(0);
+    }
+
+    // Writes
+
+    private void write(int students) throws Exception {
+        // Groups of ten, then one at a time
+        for (int i = 0; i < students * 3 / 4; i += 10) {
+            List<Student> group = new ArrayList<>();
+            for (int j = 0; j < 10; j++) {
+                group.add(newStudent());
+            }
+            int owner = random.nextBoolean() ? userId : adminId;
+            addGroup(group, owner);
+        }
+        while (ids.size() < students) {
+            add(newStudent(), random.nextBoolean() ? userId : adminId, true);
+        }
+
+        for (int i = 0; i < students / 5; i++) {
+            int student = random.nextInt(ids.size());
+            String name = NAMES[random.nextInt(NAMES.length)];
+            String course = COURSES[random.nextInt(COURSES.length)];
+            Date enrolled = enrollmentDate();
+            String email = random.nextInt(4) == 0 ? nextEmail() : null;
+            update(student, adminId, true, null, copy -> {
+                copy.setName(name);
+                copy.setCourse(course);
+                copy.setEnrollmentDate(enrolled);
+                if (email != null) {
+                    copy.setEmail(email);
+                }
+            });
+        }
+
+        // Ownership and version checks
+        int owned = indexOwnedBy(adminId);
+        update(owned, userId, false, null, copy -> copy.setName("Not Yours"));
+        update(owned, adminId, true, new Timestamp(0), copy -> copy.setName("Stale"));
+        delete(owned, userId, false);
+
+        List<Integer> deleted = new ArrayList<>();
+        for (int i = 0; i < students / 6; i++) {
+            int student = random.nextInt(ids.size());
+            delete(student, adminId, true);
+            deleted.add(student);
+        }
+        for (int i = 0; i < deleted.size(); i += 4) {
+            restore(deleted.get(i), adminId, true);
+        }
+        restore(indexOwnedBy(adminId), adminId, true);
+
+        // A deleted student's email is free again, in any case; restoring it is then refused
+        int freed = indexOwnedBy(userId);
+        String email = daos[0].getStudentById(ids.get(freed)[0]).getEmail();
+        delete(freed, userId, false);
+        Student reuse = newStudent();
+        reuse.setEmail(email.toUpperCase());
+        add(reuse, userId, true);
+        restore(freed, userId, false);
+        Student duplicate = newStudent();
+        duplicate.setEmail(email.toLowerCase());
+        add(duplicate, adminId, false);
+
+        Timestamp cutoff = new Timestamp(System.currentTimeMillis() + 60_000);
+        long archived = -1;
+        for (int engine = 0; engine < daos.length; engine++) {
+            long count = daos[engine].archiveDeletedStudents(cutoff, 5);
+            expect(engine == 0 || count == archived, "archived " + count + " on " + names[engine] + ", "
+                    + archived + " on " + names[0]);
+            archived = count;
+        }
+    }
+
+    private void addGroup(List<Student> students, int owner) throws Exception {
+        StudentWriteResult[] expected = null;
+        int first = ids.size();
+        for (Student student : students) {
+            ids.add(new int[daos.length]);
+        }
+        for (int engine = 0; engine < daos.length; engine++) {
+            List<StudentMutation> mutations = new ArrayList<>();
+            for (Student student : students) {
+                mutations.add(StudentMutation.add(new Student(student), owner));
+            }
+            StudentWriteResult[] results = daos[engine].writeGroup(mutations);
+            expect(expected == null || Arrays.equals(results, expected),
+                    "group of adds " + Arrays.toString(results) + " on " + names[engine]);
+            expected = results;
+            for (int i = 0; i < mutations.size(); i++) {
+                ids.get(first + i)[engine] = mutations.get(i).getStudent().getId();
+            }
+        }
+    }
+
+    private void add(Student student, int owner, boolean succeeds) {
+        int[] engineIds = new int[daos.length];
+        for (int engine = 0; engine < daos.length; engine++) {
+            Student copy = new Student(student);
+            boolean added = daos[engine].addStudent(copy, owner);
+            expect(added == succeeds, "add of " + student.getEmail() + " returned " + added + " on " + names[engine]);
+            engineIds[engine] = copy.getId();
+        }
+        if (succeeds) {
+            ids.add(engineIds);
+        }
+    }
+
+    private void update(int student, int caller, boolean admin, Timestamp expectedUpdatedAt,
+                        Consumer<Student> change) {
+        StudentWriteResult expected = null;
+        for (int engine = 0; engine < daos.length; engine++) {
+            Student copy = daos[engine].getStudentById(ids.get(student)[engine]);
+            StudentWriteResult result;
+            if (copy == null) {
+                result = StudentWriteResult.NOT_FOUND;
+            } else {
+                change.accept(copy);
+                result = daos[engine].updateStudent(copy, caller, admin, expectedUpdatedAt);
+            }
+            expect(expected == null || result == expected, "update gave " + result + " on " + names[engine]
+                    + ", " + expected + " on " + names[0]);
+            expected = result;
+        }
+    }
+
+    private void delete(int student, int caller, boolean admin) {
+        StudentWriteResult expected = null;
+        for (int engine = 0; engine < daos.length; engine++) {
+            StudentWriteResult result = daos[engine].deleteStudent(ids.get(student)[engine], caller, admin, null);
+            expect(expected == null || result == expected, "delete gave " + result + " on " + names[engine]
+                    + ", " + expected + " on " + names[0]);
+            expected = result;
+        }
+    }
+
+    private void restore(int student, int caller, boolean admin) {
+        StudentWriteResult expected = null;
+        for (int engine = 0; engine < daos.length; engine++) {
+            StudentWriteResult result = daos[engine].restoreStudent(ids.get(student)[engine], caller, admin);
+            expect(expected == null || result == expected, "restore gave " + result + " on " + names[engine]
+                    + ", " + expected + " on " + names[0]);
+            expected = result;
+        }
+    }
+
+    private Student newStudent() {
+        String name = NAMES[random.nextInt(NAMES.length)];
+        return new Student(name, nextEmail(), COURSES[random.nextInt(COURSES.length)],
+                String.format("555%07d", random.nextInt(10_000_000)), random.nextInt(900) + " Main St",
+                enrollmentDate(), 0);
+    }
+
+    private String nextEmail() {
+        String email = "student" + (emails++) + "@example.com";
+        return random.nextInt(3) == 0 ? email.toUpperCase() : email;
+    }
+
+    // Often shared with other students; StudentValidation requires one
+    private Date enrollmentDate() {
+        return java.sql.Date.valueOf(FIRST_DAY.plusDays(random.nextInt(400)));
+    }
+
+    private int indexOwnedBy(int owner) {
+        for (int i = 0; i < ids.size(); i++) {
+            Student student = daos[0].getStudentById(ids.get(i)[0]);
+            if (student != null && student.getUserId() == owner) {
+                return i;
+            }
+        }
+        throw new IllegalStateException("No live student of user " + owner);
+    }
+
+    // Reads
+
+    private void compareListings() throws Exception {
+        Date from = java.sql.Date.valueOf(FIRST_DAY.plusDays(100));
+        Date to = java.sql.Date.valueOf(FIRST_DAY.plusDays(250));
+        for (String sortKey : SORT_KEYS) {
+            for (boolean descending : new boolean[] {false, true}) {
+                for (Integer owner : new Integer[] {null, userId}) {
+                    for (int limit : new int[] {1, 7, 50}) {
+                        comparePages(query(sortKey, descending, owner, limit, null, null, null));
+                    }
+                    comparePages(query(sortKey, descending, owner, 9, "PHYSICS", null, null));
+                    comparePages(query(sortKey, descending, owner, 9, "art history", null, null));
+                    comparePages(query(sortKey, descending, owner, 9, null, from, to));
+                    comparePages(query(sortKey, descending, owner, 9, "Mathematics", from, null));
+                }
+            }
+        }
+    }
+
+    private static StudentQuery query(String sortKey, boolean descending, Integer owner, int limit, String course,
+                                      Date from, Date to) {
+        StudentQuery query = new StudentQuery();
+        query.setSortKey(sortKey);
+        query.setDescending(descending);
+        query.setUserId(owner);
+        query.setLimit(limit);
+        query.setCourse(course);
+        query.setEnrolledFrom(from);
+        query.setEnrolledTo(to);
+        return query;
+    }
+
+    private void comparePages(StudentQuery template) throws Exception {
+        List<String> expected = null;
+        for (int engine = 0; engine < daos.length; engine++) {
+            List<String> rows = new ArrayList<>();
+            String cursor = null;
+            do {
+                StudentQuery query = query(template.getSortKey(), template.isDescending(), template.getUserId(),
+                        template.getLimit(), template.getCourse(), template.getEnrolledFrom(),
+                        template.getEnrolledTo());
+                query.setCursor(cursor);
+                StudentPage page = daos[engine].findStudents(query);
+                expect(page.getItems().size() <= query.getLimit(), "page longer than its limit");
+                for (Student student : page.getItems()) {
+                    rows.add(describe(engine, student));
+                }
+                // A page boundary shows as a marker, so pages must split in the same places
+                rows.add("|");
+                cursor = page.getNextCursor();
+            } while (cursor != null);
+            if (expected != null) {
+                compare(expected, rows, describe(template) + " on " + names[engine]);
+            }
+            expected = rows;
+        }
+    }
+
+    private void compareLookups(InMemoryStore... stores) throws Exception {
+        for (int i = 0; i < ids.size(); i++) {
+            String expected = null;
+            for (int engine = 0; engine < daos.length; engine++) {
+                Student student = daos[engine].getStudentById(ids.get(i)[engine]);
+                String row = student != null ? describe(engine, student) : "missing";
+                expect(expected == null || row.equals(expected), "student " + i + " is " + row + " on "
+                        + names[engine] + ", " + expected + " on " + names[0]);
+                expected = row;
+            }
+        }
+
+        List<String> all = null;
+        List<String> owned = null;
+        Map<String, Long> counts = null;
+        Timestamp cutoff = new Timestamp(System.currentTimeMillis() + 60_000);
+        long[] deleted = null;
+        for (int engine = 0; engine < daos.length; engine++) {
+            List<String> rows = new ArrayList<>();
+            for (Student student : daos[engine].getAllStudents()) {
+                rows.add(describe(engine, student));
+            }
+            List<String> ofUser = new ArrayList<>();
+            for (Student student : daos[engine].getStudentsByUser(userId)) {
+                ofUser.add(describe(engine, student));
+            }
+            Map<String, Long> byCourse = new TreeMap<>();
+            for (Map.Entry<Integer, Long> count : daos[engine].countStudentsByCourse(userId).entrySet()) {
+                Course course = engine == 0 ? CourseCatalog.getInstance().get(count.getKey())
+                        : stores[engine - 1].course(count.getKey());
+                byCourse.put(course.getName(), count.getValue());
+            }
+            long[] waiting = daos[engine].countDeletedStudents(cutoff);
+            if (engine > 0) {
+                compare(all, rows, "getAllStudents on " + names[engine]);
+                compare(owned, ofUser, "getStudentsByUser on " + names[engine]);
+                expect(byCourse.equals(counts), "countStudentsByCourse " + byCourse + " on " + names[engine]
+                        + ", " + counts + " on " + names[0]);
+                expect(Arrays.equals(waiting, deleted), "countDeletedStudents " + Arrays.toString(waiting)
+                        + " on " + names[engine] + ", " + Arrays.toString(deleted) + " on " + names[0]);
+            }
+            all = rows;
+            owned = ofUser;
+            counts = byCourse;
+            deleted = waiting;
+        }
+    }
+
+    // Replay
+
+    // Opens a second store on the directory of one that was never closed
+    private void reopen(InMemoryStore store, Path dir, long snapshotAfterBytes) throws Exception {
+        List<String> before = dump(store);
+        InMemoryStore replayed = new InMemoryStore(dir, false, snapshotAfterBytes);
+        compare(before, dump(replayed), "replay of " + dir);
+
+        // Archived ids included, none may be handed out again
+        int maxId = 0;
+        for (int[] engineIds : ids) {
+            maxId = Math.max(maxId, Math.max(engineIds[1], engineIds[2]));
+        }
+        Student student = newStudent();
+        expect(new InMemoryStudentDAO(replayed).addStudent(student, userId) && student.getId() > maxId,
+                "replayed store gave out id " + student.getId() + ", up to " + maxId + " were used");
+    }
+
+    private void checkRotation(Path dir) throws IOException {
+        expect(Files.exists(dir.resolve("snapshot")), "no snapshot in " + dir);
+        List<Path> segments = segments(dir);
+        expect(segments.size() <= 2, "segments left after snapshots: " + segments);
+        checks++;
+    }
+
+    // A group commit cut short by a crash must be dropped whole, wherever it was cut
+    private void tearCommit(Path dir) throws Exception {
+        InMemoryStore store = new InMemoryStore(dir, false, Long.MAX_VALUE);
+        List<String> before = dump(store);
+        InMemoryStudentDAO dao = new InMemoryStudentDAO(store);
+        List<StudentMutation> group = new ArrayList<>();
+        for (int i = 0; i < 3; i++) {
+            group.add(StudentMutation.add(newStudent(), userId));
+        }
+        Student newCourse = newStudent();
+        newCourse.setCourse("Torn Course");
+        group.add(StudentMutation.add(newCourse, userId));
+        expect(Arrays.equals(dao.writeGroup(group), new StudentWriteResult[] {StudentWriteResult.OK,
+                StudentWriteResult.OK, StudentWriteResult.OK, StudentWriteResult.OK}), "group commit failed");
+
+        List<Path> segments = segments(dir);
+        Path last = segments.get(segments.size() - 1);
+        byte[] log = Files.readAllBytes(last);
+        int lastLine = lastIndexOf(log, log.length - 2) + 1;
+        int secondLine = lastIndexOf(log, lastIndexOf(log, lastLine - 2) - 1) + 1;
+
+        // Mid-line: the last record is torn
+        truncate(last, log.length - 7);
+        compare(before, dump(new InMemoryStore(dir, false, Long.MAX_VALUE)), "replay of a commit torn mid-line");
+
+        // At a line boundary: whole records of the commit are missing
+        truncate(last, secondLine);
+        InMemoryStore replayed = new InMemoryStore(dir, false, Long.MAX_VALUE);
+        compare(before, dump(replayed), "replay of a commit cut at a line boundary");
+
+        // Later writes follow in a new segment and replay after the torn one
+        expect(new InMemoryStudentDAO(replayed).addStudent(newStudent(), adminId), "write after a torn commit");
+        compare(dump(replayed), dump(new InMemoryStore(dir, false, Long.MAX_VALUE)), "replay after a torn commit");
+    }
+
+    // Every row, live and deleted, in id order with all of its fields
+    private static List<String> dump(InMemoryStore store) {
+        TreeSet<Integer> all = new TreeSet<>(store.liveIds());
+        for (StudentRow row : store.deletedStudents()) {
+            all.add(row.id);
+        }
+        List<String> rows = new ArrayList<>();
+        for (int id : all) {
+            StudentRow row = store.student(id);
+            rows.add(id + " " + row.name + " " + row.email + " " + row.course + " " + row.phone + " " + row.address
+                    + " " + row.enrollmentDay + " " + row.userId + " " + row.createdAt + " " + row.updatedAt
+                    + " " + row.deletedAt);
+        }
+        List<Course> courses = new ArrayList<>(store.courses());
+        courses.sort(Comparator.comparingInt(Course::getId));
+        for (Course course : courses) {
+            rows.add("course " + course.getId() + " " + course.getName());
+        }
+        return rows;
+    }
+
+    private static List<Path> segments(Path dir) throws IOException {
+        List<Path> segments = new ArrayList<>();
+        try (DirectoryStream<Path> files = Files.newDirectoryStream(dir, "wal-*.log")) {
+            files.forEach(segments::add);
+        }
+        segments.sort(Comparator.naturalOrder());
+        return segments;
+    }
+
+    private static int lastIndexOf(byte[] bytes, int from) {
+        for (int i = from; i >= 0; i--) {
+            if (bytes[i] == '\n') {
+                return i;
+            }
+        }
+        return -1;
+    }
+
+    private static void truncate(Path file, long length) throws IOException {
+        try (FileChannel channel = FileChannel.open(file, StandardOpenOption.WRITE)) {
+            channel.truncate(length);
+        }
+    }
+
+    // Comparison
+
+    // Everything but the id and timestamps, which each engine assigns; the
+    // id is replaced by which write created the student
+    private String describe(int engine, Student student) {
+        Map<Integer, Integer> logical = logicalIds(engine);
+        Date enrolled = student.getEnrollmentDate();
+        return "#" + logical.get(student.getId()) + " " + student.getName() + " " + student.getEmail() + " "
+                + student.getCourse() + " " + student.getPhone() + " " + student.getAddress() + " "
+                + (enrolled != null ? new java.sql.Date(enrolled.getTime()).toString() : null) + " "
+                + student.getUserId();
+    }
+
+    private final Map<Integer, Map<Integer, Integer>> logicalIds = new HashMap<>();
+    private int logicalIdsFor = -1;
+
+    private Map<Integer, Integer> logicalIds(int engine) {
+        if (logicalIdsFor != ids.size()) {
+            logicalIds.clear();
+            logicalIdsFor = ids.size();
+        }
+        return logicalIds.computeIfAbsent(engine, e -> {
+            Map<Integer, Integer> byId = new HashMap<>();
+            for (int i = 0; i < ids.size(); i++) {
+                byId.put(ids.get(i)[e], i);
+            }
+            return byId;
+        });
+    }
+
+    private static String describe(StudentQuery query) {
+        return "sort=" + query.getSortKey() + (query.isDescending() ? " desc" : " asc") + " owner="
+                + query.getUserId() + " limit=" + query.getLimit() + " course=" + query.getCourse()
+                + " from=" + query.getEnrolledFrom() + " to=" + query.getEnrolledTo();
+    }
+
+    private void compare(List<String> expected, List<String> actual, String what) {
+        for (int i = 0; i < Math.max(expected.size(), actual.size()); i++) {
+            String want = i < expected.size() ? expected.get(i) : "(end)";
+            String got = i < actual.size() ? actual.get(i) : "(end)";
+            expect(want.equals(got), what + ": line " + i + " is " + got + ", expected " + want);
+        }
+        checks++;
+    }
+
+    private static void expect(boolean condition, String message) {
+        if (!condition) {
+            System.out.println("MISMATCH " + message);
+            System.exit(1);
+        }
+    }
+
+    private static void delete(Path dir) throws IOException {
+        try (Stream<Path> files = Files.walk(dir)) {
+            files.sorted(Comparator.reverseOrder()).forEach(path -> path.toFile().delete());
+        }
+    }
+}
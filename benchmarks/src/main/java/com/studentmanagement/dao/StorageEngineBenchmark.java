@@ -0,0 +1,125 @@
+package com.studentmanagement.dao;
+
+import com.studentmanagement.benchmarks.EmbeddedDatabase;
+import com.studentmanagement.model.Student;
+import com.studentmanagement.model.StudentPage;
+import com.studentmanagement.model.StudentQuery;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.sql.SQLException;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.Date;
+import java.util.List;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.stream.Stream;
+
+// The same StudentDAO calls on each storage engine: JDBC against the
+// embedded database, the in-memory store without a log, and the in-memory
+// store with its write-ahead log fsynced on every commit. The memory engines
+// are loaded with a copy of the database's students. Run with -t N to see
+// lock-free reads against the single writer lock.
+@State(Scope.Benchmark)
+public class StorageEngineBenchmark {
+    private static final int STUDENTS = 10_000;
+
+    @Param({"jdbc", "memory", "memory-wal"})
+    public String engine;
+
+    private final AtomicInteger sequence = new AtomicInteger();
+    private StudentDAO dao;
+    private InMemoryStore store;
+    private Path dir;
+    private int firstId;
+
+    @Setup(Level.Trial)
+    public void setUp() throws SQLException, IOException {
+        EmbeddedDatabase.start();
+        EmbeddedDatabase.seedStudents(STUDENTS);
+        StudentDAO jdbc = new JdbcStudentDAO();
+        if ("jdbc".equals(engine)) {
+            dao = jdbc;
+        } else {
+            if ("memory-wal".equals(engine)) {
+                dir = Files.createTempDirectory("storage-engine-benchmark");
+            }
+            store = new InMemoryStore(dir, true, 64L * 1024 * 1024);
+            dao = new InMemoryStudentDAO(store);
+            copyStudents(jdbc, dao);
+        }
+
+        StudentQuery query = new StudentQuery();
+        query.setSortKey(StudentQuery.SORT_ID);
+        query.setDescending(false);
+        query.setLimit(1);
+        firstId = dao.findStudents(query).getItems().get(0).getId();
+    }
+
+    @TearDown(Level.Trial)
+    public void tearDown() throws IOException {
+        if (store != null) {
+            store.close();
+        }
+        if (dir != null) {
+            try (Stream<Path> files = Files.walk(dir)) {
+                files.sorted(Comparator.reverseOrder()).forEach(path -> path.toFile().delete());
+            }
+        }
+    }
+
+    @Benchmark
+    public Student getById() {
+        return dao.getStudentById(randomId());
+    }
+
+    @Benchmark
+    public StudentPage firstPageByName() throws SQLException {
+        StudentQuery query = new StudentQuery();
+        query.setSortKey(StudentQuery.SORT_NAME);
+        query.setDescending(false);
+        query.setLimit(50);
+        return dao.findStudents(query);
+    }
+
+    @Benchmark
+    public boolean update() {
+        Student student = dao.getStudentById(randomId());
+        student.setPhone(String.format("555%07d", sequence.incrementAndGet()));
+        return dao.updateStudent(student);
+    }
+
+    @Benchmark
+    public boolean addAndDelete() {
+        Student student = new Student();
+        student.setName("Round Trip");
+        student.setEmail("roundtrip" + sequence.incrementAndGet() + "-" + System.nanoTime() + "@example.com");
+        student.setCourse("Physics");
+        student.setEnrollmentDate(new Date());
+        if (!dao.addStudent(student, EmbeddedDatabase.getUserId())) {
+            throw new IllegalStateException("Insert failed");
+        }
+        return dao.deleteStudent(student.getId());
+    }
+
+    private int randomId() {
+        return firstId + ThreadLocalRandom.current().nextInt(STUDENTS);
+    }
+
+    private static void copyStudents(StudentDAO from, StudentDAO to) throws SQLException, IOException {
+        List<StudentMutation> batch = new ArrayList<>();
+        from.streamStudents(null, student -> batch.add(StudentMutation.add(student, student.getUserId())));
+        for (int i = 0; i < batch.size(); i += 1000) {
+            to.writeGroup(batch.subList(i, Math.min(i + 1000, batch.size())));
+        }
+    }
+}
@@ -0,0 +1,89 @@
+package com.studentmanagement.dao;
+
+import com.studentmanagement.benchmarks.EmbeddedDatabase;
+import com.studentmanagement.model.Student;
+import com.studentmanagement.service.CourseCatalog;
+import com.studentmanagement.util.DBConnection;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.infra.Blackhole;
+
+import java.sql.Connection;
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+
+// Cost of turning ResultSet rows into Students: looking every column up by
+// name (how the DAO used to map rows) against JdbcStudentDAO.studentMapper,
+// which resolves ordinals once per ResultSet and reads by index. The rows are
+// fetched once into a scrollable ResultSet and re-read on every invocation, so
+// only the mapping is measured, not the query.
+@State(Scope.Thread)
+public class StudentMappingBenchmark {
+
+    @Param({"100000"})
+    public int rows;
+
+    private Connection conn;
+    private PreparedStatement pstmt;
+    private ResultSet rs;
+    private RowMapper<Student> mapper;
+
+    @Setup(Level.Trial)
+    public void setUp() throws SQLException {
+        EmbeddedDatabase.start();
+        EmbeddedDatabase.seedStudents(rows);
+        CourseCatalog.getInstance().reload();
+        mapper = JdbcStudentDAO.studentMapper(new CourseNames());
+        conn = DBConnection.getConnection();
+        pstmt = conn.prepareStatement(
+                "SELECT " + JdbcStudentDAO.STUDENT_COLUMNS + " FROM students ORDER BY id LIMIT ?",
+                ResultSet.TYPE_SCROLL_INSENSITIVE, ResultSet.CONCUR_READ_ONLY);
+        pstmt.setInt(1, rows);
+        rs = pstmt.executeQuery();
+    }
+
+    @TearDown(Level.Trial)
+    public void tearDown() throws SQLException {
+        rs.close();
+        pstmt.close();
+        conn.close();
+    }
+
+    @Benchmark
+    public void byColumnName(Blackhole blackhole) throws SQLException {
+        rs.beforeFirst();
+        while (rs.next()) {
+            blackhole.consume(mapByName(rs));
+        }
+    }
+
+    @Benchmark
+    public void byColumnIndex(Blackhole blackhole) throws SQLException {
+        rs.beforeFirst();
+        int[] columns = mapper.resolve(rs);
+        while (rs.next()) {
+            blackhole.consume(mapper.map(rs, columns));
+        }
+    }
+
+    private static Student mapByName(ResultSet rs) throws SQLException {
+        Student student = new Student();
+        student.setId(rs.getInt("id"));
+        student.setName(rs.getString("name"));
+        student.setEmail(rs.getString("email"));
+        student.setCourse(CourseCatalog.getInstance().name(rs.getInt("course_id")));
+        student.setPhone(rs.getString("phone"));
+        student.setAddress(rs.getString("address"));
+        student.setEnrollmentDate(rs.getDate("enrollment_date"));
+        student.setUserId(rs.getInt("user_id"));
+        student.setCreatedAt(rs.getTimestamp("created_at"));
+        student.setUpdatedAt(rs.getTimestamp("updated_at"));
+        return student;
+    }
+}
@@ -0,0 +1,91 @@
+package com.studentmanagement.service;
+
+import com.studentmanagement.benchmarks.EmbeddedDatabase;
+import com.studentmanagement.dao.JdbcStudentDAO;
+import com.studentmanagement.dao.StudentDAO;
+import com.studentmanagement.dao.StudentMutation;
+import com.studentmanagement.dao.StudentWriteResult;
+import com.studentmanagement.model.Student;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Threads;
+
+import java.sql.SQLException;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.TimeUnit;
+
+// Student updates from 16 threads: one transaction per update (sync), the
+// write-behind queue answering after its group commits (commit), and the
+// queue answering once the update is queued (enqueue). In enqueue mode the
+// queue fills up and submit blocks, so throughput settles at what the writer
+// commits. Run with -bm sample for latency percentiles.
+//
+// H2 in memory has no log to flush, so this mostly shows the queue's own
+// overhead; the savings from fewer commits only appear against MySQL.
+@State(Scope.Benchmark)
+@Threads(16)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+public class StudentWriteQueueBenchmark {
+    private static final int STUDENTS = 10_000;
+
+    @Param({"sync", "commit", "enqueue"})
+    public String mode;
+
+    private StudentDAO dao;
+    private StudentWriteQueue queue;
+    private List<Student> students;
+
+    @Setup
+    public void setUp() throws SQLException {
+        EmbeddedDatabase.start();
+        EmbeddedDatabase.seedStudents(STUDENTS);
+        dao = new JdbcStudentDAO();
+        int firstId = EmbeddedDatabase.anyStudentId(0);
+        List<Integer> ids = new ArrayList<>(STUDENTS);
+        for (int i = 0; i < STUDENTS; i++) {
+            ids.add(firstId + i);
+        }
+        students = dao.getStudentsByIds(ids);
+        if (!"sync".equals(mode)) {
+            // A long offer timeout turns a full queue into backpressure instead of rejections
+            queue = new StudentWriteQueue(dao, 10000, 500, 1, "commit".equals(mode), 60000);
+            queue.start();
+        }
+    }
+
+    @TearDown
+    public void tearDown() {
+        if (queue != null) {
+            queue.stop();
+        }
+    }
+
+    @Benchmark
+    public Object update() throws InterruptedException {
+        ThreadLocalRandom random = ThreadLocalRandom.current();
+        Student student = new Student(students.get(random.nextInt(students.size())));
+        student.setPhone(String.valueOf(5550000 + random.nextInt(10000)));
+        if (queue == null) {
+            return dao.updateStudent(student, EmbeddedDatabase.getAdminId(), true, null);
+        }
+        StudentMutation mutation = StudentMutation.update(student, EmbeddedDatabase.getAdminId(), true, null);
+        if (queue.isAckOnCommit()) {
+            StudentWriteResult result = queue.submit(mutation).join();
+            if (result != StudentWriteResult.OK) {
+                throw new IllegalStateException("Update failed: " + result);
+            }
+            return result;
+        }
+        return queue.submit(mutation);
+    }
+}
@@ -0,0 +1,70 @@
+-- database/student_management.sql translated for H2 in MySQL mode
+CREATE TABLE IF NOT EXISTS users (
+    id INT PRIMARY KEY AUTO_INCREMENT,
+    username VARCHAR(50) UNIQUE NOT NULL,
+    email VARCHAR(100) UNIQUE NOT NULL,
+    password VARCHAR(255) NOT NULL,
+    full_name VARCHAR(100) NOT NULL,
+    role VARCHAR(10) DEFAULT 'user',
+    created_at TIMESTAMP DEFAULT CURRENT_TIMESTAMP,
+    updated_at TIMESTAMP DEFAULT CURRENT_TIMESTAMP
+);
+
+-- VARCHAR_IGNORECASE stands in for MySQL's case-insensitive collation
+CREATE TABLE IF NOT EXISTS courses (
+    id INT PRIMARY KEY AUTO_INCREMENT,
+    name VARCHAR_IGNORECASE(50) UNIQUE NOT NULL,
+    created_at TIMESTAMP DEFAULT CURRENT_TIMESTAMP
+);
+
+-- Names and emails too, so they sort and collide (active_email) as in MySQL
+CREATE TABLE IF NOT EXISTS students (
+    id INT PRIMARY KEY AUTO_INCREMENT,
+    name VARCHAR_IGNORECASE(100) NOT NULL,
+    email VARCHAR_IGNORECASE(100) NOT NULL,
+    course_id INT NOT NULL,
+    phone VARCHAR(15),
+    address TEXT,
+    enrollment_date DATE,
+    user_id INT,
+    created_at TIMESTAMP DEFAULT CURRENT_TIMESTAMP,
+    updated_at TIMESTAMP(6) DEFAULT CURRENT_TIMESTAMP(6),
+    deleted_at TIMESTAMP(6) NULL DEFAULT NULL,
+    active_email VARCHAR_IGNORECASE(100) GENERATED ALWAYS AS (CASE WHEN deleted_at IS NULL THEN email END),
+    FOREIGN KEY (user_id) REFERENCES users(id) ON DELETE SET NULL,
+    FOREIGN KEY (course_id) REFERENCES courses(id)
+);
+
+CREATE UNIQUE INDEX IF NOT EXISTS uq_active_email ON students (active_email);
+CREATE INDEX IF NOT EXISTS idx_user_id ON students (user_id);
+CREATE INDEX IF NOT EXISTS idx_user_course ON students (user_id, course_id, id);
+CREATE INDEX IF NOT EXISTS idx_name ON students (name);
+-- InnoDB ends idx_course_id with the primary key; H2 needs it spelled out
+-- to read one course's live rows in id order
+CREATE INDEX IF NOT EXISTS idx_course_id ON students (course_id, deleted_at, id);
+CREATE INDEX IF NOT EXISTS idx_enrollment_date ON students (enrollment_date);
+CREATE INDEX IF NOT EXISTS idx_deleted_at ON students (deleted_at);
+
+CREATE TABLE IF NOT EXISTS students_archive (
+    id INT PRIMARY KEY,
+    name VARCHAR(100) NOT NULL,
+    email VARCHAR(100) NOT NULL,
+    course VARCHAR(50) NOT NULL,
+    phone VARCHAR(15),
+    address TEXT,
+    enrollment_date DATE,
+    user_id INT,
+    created_at TIMESTAMP NULL,
+    updated_at TIMESTAMP(6) NULL,
+    deleted_at TIMESTAMP(6) NOT NULL,
+    archived_at TIMESTAMP(6) DEFAULT CURRENT_TIMESTAMP(6)
+);
+
+CREATE TABLE IF NOT EXISTS student_changes (
+    seq BIGINT PRIMARY KEY,
+    student_id INT NOT NULL,
+    op VARCHAR(10) NOT NULL,
+    owner_before INT,
+    owner_after INT,
+    changed_at TIMESTAMP(6) NOT NULL
+);
@@ -0,0 +1,8 @@
+-- Indexes backing keyset pagination, filtering and sorting of /api/students.
+-- InnoDB secondary indexes carry the primary key, so (column) also serves
+-- "WHERE column = ? ORDER BY id" and the (column, id) keyset predicates.
+USE student_management;
+
+CREATE INDEX idx_name ON students (name);
+CREATE INDEX idx_course ON students (course);
+CREATE INDEX idx_enrollment_date ON students (enrollment_date);
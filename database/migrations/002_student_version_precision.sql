@@ -0,0 +1,7 @@
+-- students.updated_at doubles as the optimistic-concurrency version checked by
+-- PUT/DELETE /api/students (If-Match). Microsecond precision keeps two edits
+-- within the same second from sharing a version.
+USE student_management;
+
+ALTER TABLE students
+    MODIFY updated_at TIMESTAMP(6) DEFAULT CURRENT_TIMESTAMP(6) ON UPDATE CURRENT_TIMESTAMP(6);
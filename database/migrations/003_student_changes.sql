@@ -0,0 +1,15 @@
+-- Change log behind GET /api/students/changes and its event stream. The
+-- application appends committed student mutations (in batches, behind the
+-- request) and prunes rows that fell out of its in-memory window, so the
+-- table stays at most students.changes.capacity rows. No foreign keys:
+-- deleted students keep their events.
+USE student_management;
+
+CREATE TABLE IF NOT EXISTS student_changes (
+    seq BIGINT PRIMARY KEY,
+    student_id INT NOT NULL,
+    op VARCHAR(10) NOT NULL,
+    owner_before INT,
+    owner_after INT,
+    changed_at TIMESTAMP(6) NOT NULL
+);
@@ -0,0 +1,26 @@
+-- Deleting a student sets deleted_at instead of removing the row, so bulk
+-- cleanups don't contend for locks or rebalance indexes at peak. The
+-- application's purger later moves rows past the retention window to
+-- students_archive in small batches (students.purge.*).
+USE student_management;
+
+ALTER TABLE students
+    ADD COLUMN deleted_at TIMESTAMP(6) NULL DEFAULT NULL,
+    ADD INDEX idx_deleted_at (deleted_at);
+
+CREATE TABLE IF NOT EXISTS students_archive (
+    id INT PRIMARY KEY,
+    name VARCHAR(100) NOT NULL,
+    email VARCHAR(100) NOT NULL,
+    course VARCHAR(50) NOT NULL,
+    phone VARCHAR(15),
+    address TEXT,
+    enrollment_date DATE,
+    user_id INT,
+    created_at TIMESTAMP NULL,
+    updated_at TIMESTAMP(6) NULL,
+    deleted_at TIMESTAMP(6) NOT NULL,
+    archived_at TIMESTAMP(6) DEFAULT CURRENT_TIMESTAMP(6),
+    INDEX idx_archive_user_id (user_id),
+    INDEX idx_archive_deleted_at (deleted_at)
+);
@@ -0,0 +1,30 @@
+-- Courses move to their own table. Students refer to a course by integer id,
+-- so the course index holds 4-byte keys instead of up to 50 characters, and
+-- the application keeps the whole catalog in memory (CourseCatalog). Course
+-- names are unique; spellings that differ only in case (the default
+-- collation treats them as equal) become one course under one of those
+-- spellings. students_archive keeps the course name.
+USE student_management;
+
+CREATE TABLE IF NOT EXISTS courses (
+    id INT PRIMARY KEY AUTO_INCREMENT,
+    name VARCHAR(50) UNIQUE NOT NULL,
+    created_at TIMESTAMP DEFAULT CURRENT_TIMESTAMP
+);
+
+INSERT IGNORE INTO courses (name)
+SELECT DISTINCT course FROM students ORDER BY course;
+
+ALTER TABLE students ADD COLUMN course_id INT NULL AFTER email;
+
+UPDATE students s JOIN courses c ON c.name = s.course SET s.course_id = c.id;
+
+-- (course_id, deleted_at) serves "course_id = ? AND deleted_at IS NULL
+-- ORDER BY id" (InnoDB appends the primary key) and counts per course from
+-- the index alone
+ALTER TABLE students
+    MODIFY course_id INT NOT NULL,
+    ADD INDEX idx_course_id (course_id, deleted_at),
+    ADD CONSTRAINT fk_students_course FOREIGN KEY (course_id) REFERENCES courses (id),
+    DROP INDEX idx_course,
+    DROP COLUMN course;
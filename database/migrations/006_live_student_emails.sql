@@ -0,0 +1,11 @@
+-- A deleted student keeps its row, and so its email, until the purger
+-- archives it. Emails are now unique among live students only: a generated
+-- column holds the email while deleted_at is NULL and NULL after, and the
+-- unique key moves to it (NULLs never collide). Re-adding a student just
+-- deleted works; restoring one whose email was reused since is refused.
+USE student_management;
+
+ALTER TABLE students
+    ADD COLUMN active_email VARCHAR(100) AS (IF(deleted_at IS NULL, email, NULL)) VIRTUAL AFTER email,
+    ADD UNIQUE INDEX uq_active_email (active_email),
+    DROP INDEX email;
@@ -0,0 +1,8 @@
+-- Lists sorted by course walk the courses in name order and read each
+-- course's rows in id order. For a regular user's list, (user_id, course_id,
+-- id) finds that owner's rows of each course already in id order, without
+-- touching other owners' rows the way idx_course_id does.
+USE student_management;
+
+ALTER TABLE students
+    ADD INDEX idx_user_course (user_id, course_id, id);
@@ -16,24 +16,74 @@ CREATE TABLE IF NOT EXISTS users (
     INDEX idx_email (email)
 );
 
+-- Course catalog; students refer to a course by id
+CREATE TABLE IF NOT EXISTS courses (
+    id INT PRIMARY KEY AUTO_INCREMENT,
+    name VARCHAR(50) UNIQUE NOT NULL,
+    created_at TIMESTAMP DEFAULT CURRENT_TIMESTAMP
+);
+
 -- Students table
 CREATE TABLE IF NOT EXISTS students (
     id INT PRIMARY KEY AUTO_INCREMENT,
     name VARCHAR(100) NOT NULL,
-    email VARCHAR(100) UNIQUE NOT NULL,
-    course VARCHAR(50) NOT NULL,
+    email VARCHAR(100) NOT NULL,
+    course_id INT NOT NULL,
     phone VARCHAR(15),
     address TEXT,
     enrollment_date DATE,
     user_id INT,
     created_at TIMESTAMP DEFAULT CURRENT_TIMESTAMP,
-    updated_at TIMESTAMP DEFAULT CURRENT_TIMESTAMP ON UPDATE CURRENT_TIMESTAMP,
+    updated_at TIMESTAMP(6) DEFAULT CURRENT_TIMESTAMP(6) ON UPDATE CURRENT_TIMESTAMP(6),
+    -- Set by a delete; the row is purged to students_archive after the retention window
+    deleted_at TIMESTAMP(6) NULL DEFAULT NULL,
+    -- The email while the student is live; unique, so only live students collide
+    active_email VARCHAR(100) AS (IF(deleted_at IS NULL, email, NULL)) VIRTUAL,
     FOREIGN KEY (user_id) REFERENCES users(id) ON DELETE SET NULL,
+    FOREIGN KEY (course_id) REFERENCES courses(id),
     INDEX idx_user_id (user_id),
-    INDEX idx_email (email)
+    INDEX idx_user_course (user_id, course_id, id),
+    INDEX idx_email (email),
+    UNIQUE INDEX uq_active_email (active_email),
+    INDEX idx_name (name),
+    INDEX idx_course_id (course_id, deleted_at),
+    INDEX idx_enrollment_date (enrollment_date),
+    INDEX idx_deleted_at (deleted_at)
+);
+
+-- Purged students, as they were when deleted (course by name)
+CREATE TABLE IF NOT EXISTS students_archive (
+    id INT PRIMARY KEY,
+    name VARCHAR(100) NOT NULL,
+    email VARCHAR(100) NOT NULL,
+    course VARCHAR(50) NOT NULL,
+    phone VARCHAR(15),
+    address TEXT,
+    enrollment_date DATE,
+    user_id INT,
+    created_at TIMESTAMP NULL,
+    updated_at TIMESTAMP(6) NULL,
+    deleted_at TIMESTAMP(6) NOT NULL,
+    archived_at TIMESTAMP(6) DEFAULT CURRENT_TIMESTAMP(6),
+    INDEX idx_archive_user_id (user_id),
+    INDEX idx_archive_deleted_at (deleted_at)
+);
+
+-- Recent student mutations behind GET /api/students/changes, written behind
+-- by the application and pruned to its in-memory window (see
+-- StudentChangeFeed). No foreign keys: deleted students keep their events.
+CREATE TABLE IF NOT EXISTS student_changes (
+    seq BIGINT PRIMARY KEY,
+    student_id INT NOT NULL,
+    op VARCHAR(10) NOT NULL,
+    owner_before INT,
+    owner_after INT,
+    changed_at TIMESTAMP(6) NOT NULL
 );
 
 -- Insert default admin user (password: admin123)
+-- Sample passwords are plaintext for readability; the application replaces
+-- each with a PBKDF2 hash the first time that user logs in.
 INSERT INTO users (username, email, password, full_name, role) VALUES
 ('admin', 'admin@example.com', 'admin123', 'System Administrator', 'admin');
 
@@ -42,9 +92,16 @@ INSERT INTO users (username, email, password, full_name, role) VALUES
 ('john_doe', 'john.doe@example.com', 'password123', 'John Doe', 'user'),
 ('jane_smith', 'jane.smith@example.com', 'password123', 'Jane Smith', 'user');
 
+-- Insert sample courses
+INSERT INTO courses (id, name) VALUES
+(1, 'Computer Science'),
+(2, 'Mathematics'),
+(3, 'Physics'),
+(4, 'Engineering');
+
 -- Insert sample student data
-INSERT INTO students (name, email, course, phone, address, enrollment_date, user_id) VALUES
-('Alice Johnson', 'alice@example.com', 'Computer Science', '1234567890', '123 Main St, City', '2024-01-15', 1),
-('Bob Williams', 'bob@example.com', 'Mathematics', '0987654321', '456 Oak Ave, Town', '2024-01-20', 2),
-('Charlie Brown', 'charlie@example.com', 'Physics', '1122334455', '789 Pine Rd, Village', '2024-02-01', 2),
-('Diana Prince', 'diana@example.com', 'Engineering', '5566778899', '321 Elm St, City', '2024-02-10', 1);
\ No newline at end of file
+INSERT INTO students (name, email, course_id, phone, address, enrollment_date, user_id) VALUES
+('Alice Johnson', 'alice@example.com', 1, '1234567890', '123 Main St, City', '2024-01-15', 1),
+('Bob Williams', 'bob@example.com', 2, '0987654321', '456 Oak Ave, Town', '2024-01-20', 2),
+('Charlie Brown', 'charlie@example.com', 3, '1122334455', '789 Pine Rd, Village', '2024-02-01', 2),
+('Diana Prince', 'diana@example.com', 4, '5566778899', '321 Elm St, City', '2024-02-10', 1);
\ No newline at end of file
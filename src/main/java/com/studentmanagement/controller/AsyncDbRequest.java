@@ -0,0 +1,288 @@
+package com.studentmanagement.controller;
+
+import com.google.gson.Gson;
+import com.studentmanagement.filter.AuthFilter;
+import com.studentmanagement.model.AuthContext;
+import com.studentmanagement.util.AppConfig;
+import com.studentmanagement.util.DBConnection;
+import com.studentmanagement.util.DbExecutor;
+
+import javax.servlet.AsyncContext;
+import javax.servlet.AsyncEvent;
+import javax.servlet.AsyncListener;
+import javax.servlet.http.HttpServletRequest;
+import javax.servlet.http.HttpServletResponse;
+import java.io.IOException;
+import java.io.PrintWriter;
+import java.util.Map;
+import java.util.concurrent.Callable;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionStage;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.ScheduledFuture;
+import java.util.concurrent.atomic.AtomicInteger;
+
+// Moves the database-bound part of a request onto the DbExecutor and frees the
+// container thread straight away, so a stalled database can only exhaust the
+// executor and never the threads serving session-only endpoints.
+//
+// When the executor is full the request is answered 503 with Retry-After on
+// the spot. A request still waiting in the queue, or still running, when
+// db.executor.requestTimeoutMs expires gets the same 503; a handler that
+// finishes afterwards is discarded. Handlers write to a BufferedResponse so
+// the two can never interleave. Long-running handlers (exports and imports)
+// write straight to the response instead and are only bounded while queued.
+//
+// A staged handler returns as soon as its database work is done, with a
+// CompletionStage for the rest (password hashing, say). The executor thread
+// is free from then on, and the buffered response is sent when the stage
+// completes, under the same deadline. Further database work in the stage
+// goes back through onDbExecutor.
+//
+// Reads in a handler go to the primary while its caller has written in the
+// last few seconds, and a request other than GET or HEAD counts as a write,
+// so users always see their own changes even with lagging read replicas.
+final class AsyncDbRequest implements Runnable, AsyncListener {
+    private static final long TIMEOUT_MS = AppConfig.getLong("db.executor.requestTimeoutMs", 10000);
+    private static final String RETRY_AFTER = String.valueOf(AppConfig.getInt("db.executor.retryAfterSeconds", 2));
+
+    private static final int QUEUED = 0;
+    private static final int RUNNING = 1;
+    private static final int FINISHED = 2;
+
+    interface Handler {
+        void handle(HttpServletResponse response, PrintWriter out) throws IOException;
+    }
+
+    interface StagedHandler {
+        CompletionStage<?> handle(HttpServletResponse response, PrintWriter out) throws IOException;
+    }
+
+    private final AsyncContext async;
+    private final HttpServletResponse response;
+    private final Gson gson;
+    private final boolean longRunning;
+    private final Handler handler;
+    private final StagedHandler staged;
+    // Caller's user id, or null when not logged in
+    private final Integer userId;
+    private final boolean write;
+    private final AtomicInteger state = new AtomicInteger(QUEUED);
+    private volatile ScheduledFuture<?> deadline;
+
+    private AsyncDbRequest(AsyncContext async, HttpServletRequest request, HttpServletResponse response, Gson gson,
+                           boolean longRunning, Handler handler, StagedHandler staged) {
+        this.async = async;
+        this.response = response;
+        this.gson = gson;
+        this.longRunning = longRunning;
+        this.handler = handler;
+        this.staged = staged;
+        AuthContext auth = AuthFilter.authContext(request);
+        this.userId = auth != null ? auth.getUserId() : null;
+        this.write = isWrite(request);
+    }
+
+    static void run(HttpServletRequest request, HttpServletResponse response, Gson gson, Handler handler)
+            throws IOException {
+        run(request, response, gson, false, handler);
+    }
+
+    static void run(HttpServletRequest request, HttpServletResponse response, Gson gson,
+                    boolean longRunning, Handler handler) throws IOException {
+        if (!request.isAsyncSupported()) {
+            // Outside a container, or behind a filter that doesn't support async
+            AuthContext auth = AuthFilter.authContext(request);
+            handle(handler, response, response.getWriter(), auth != null ? auth.getUserId() : null, isWrite(request));
+            return;
+        }
+        start(request, response, gson, longRunning, handler, null);
+    }
+
+    static void runStaged(HttpServletRequest request, HttpServletResponse response, Gson gson,
+                          StagedHandler handler) throws IOException {
+        if (!request.isAsyncSupported()) {
+            AuthContext auth = AuthFilter.authContext(request);
+            PrintWriter out = response.getWriter();
+            handle((res, writer) -> handler.handle(res, writer).toCompletableFuture().join(),
+                    response, out, auth != null ? auth.getUserId() : null, isWrite(request));
+            return;
+        }
+        start(request, response, gson, false, null, handler);
+    }
+
+    // Database work for the later part of a staged handler. Fails with
+    // RejectedExecutionException when the executor is full.
+    static <T> CompletableFuture<T> onDbExecutor(Callable<T> work) {
+        CompletableFuture<T> result = new CompletableFuture<>();
+        try {
+            DbExecutor.getInstance().execute(() -> {
+                try {
+                    result.complete(work.call());
+                } catch (Exception e) {
+                    result.completeExceptionally(e);
+                }
+            });
+        } catch (RejectedExecutionException e) {
+            result.completeExceptionally(e);
+        }
+        return result;
+    }
+
+    private static void start(HttpServletRequest request, HttpServletResponse response, Gson gson,
+                              boolean longRunning, Handler handler, StagedHandler staged) {
+        AsyncContext async = request.startAsync(request, response);
+        // Deadlines are enforced here rather than by the container, whose
+        // timeout can't be answered while a handler is still writing
+        async.setTimeout(0);
+        AsyncDbRequest task = new AsyncDbRequest(async, request, response, gson, longRunning, handler, staged);
+        async.addListener(task);
+
+        DbExecutor executor = DbExecutor.getInstance();
+        try {
+            executor.execute(task);
+        } catch (RejectedExecutionException e) {
+            task.state.set(FINISHED);
+            task.respondUnavailable("Server is busy, please retry shortly");
+            return;
+        }
+        task.deadline = executor.schedule(task::expire, TIMEOUT_MS);
+        if (task.state.get() == FINISHED) {
+            task.deadline.cancel(false);
+        }
+    }
+
+    @Override
+    public void run() {
+        if (!state.compareAndSet(QUEUED, RUNNING)) {
+            return;
+        }
+        try {
+            if (longRunning) {
+                handle(handler, response, response.getWriter(), userId, write);
+                if (state.compareAndSet(RUNNING, FINISHED)) {
+                    finish();
+                }
+                return;
+            }
+
+            BufferedResponse buffered = new BufferedResponse(response);
+            if (staged != null) {
+                CompletionStage<?>[] rest = new CompletionStage<?>[1];
+                handle((res, out) -> rest[0] = staged.handle(res, out), buffered, buffered.getWriter(), userId, write);
+                rest[0].whenComplete((ignored, error) -> {
+                    if (error != null) {
+                        fail(error);
+                    } else {
+                        complete(buffered);
+                    }
+                });
+                return;
+            }
+            handle(handler, buffered, buffered.getWriter(), userId, write);
+            complete(buffered);
+        } catch (IOException | RuntimeException e) {
+            fail(e);
+        }
+    }
+
+    private void complete(BufferedResponse buffered) {
+        if (state.compareAndSet(RUNNING, FINISHED)) {
+            try {
+                buffered.commit();
+            } catch (IOException e) {
+                // The client is gone
+            }
+            finish();
+        }
+    }
+
+    private void fail(Throwable e) {
+        e.printStackTrace();
+        if (state.compareAndSet(RUNNING, FINISHED)) {
+            if (!response.isCommitted()) {
+                response.resetBuffer();
+                response.setStatus(HttpServletResponse.SC_INTERNAL_SERVER_ERROR);
+                writeQuietly(Map.of("error", String.valueOf(e.getMessage())));
+            }
+            finish();
+        }
+    }
+
+    private static void handle(Handler handler, HttpServletResponse response, PrintWriter out,
+                               Integer userId, boolean write) throws IOException {
+        boolean previous = DBConnection.setPrimaryReads(userId != null && DBConnection.hasRecentWrite(userId));
+        try {
+            handler.handle(response, out);
+        } finally {
+            DBConnection.setPrimaryReads(previous);
+            if (write && userId != null) {
+                DBConnection.recordWrite(userId);
+            }
+        }
+    }
+
+    private static boolean isWrite(HttpServletRequest request) {
+        String method = request.getMethod();
+        return !"GET".equals(method) && !"HEAD".equals(method);
+    }
+
+    private void expire() {
+        if (state.compareAndSet(QUEUED, FINISHED)) {
+            respondUnavailable("Server is busy, please retry shortly");
+        } else if (!longRunning && state.compareAndSet(RUNNING, FINISHED)) {
+            respondUnavailable("The request timed out, please retry shortly");
+        }
+    }
+
+    private void respondUnavailable(String message) {
+        response.setStatus(HttpServletResponse.SC_SERVICE_UNAVAILABLE);
+        response.setHeader("Retry-After", RETRY_AFTER);
+        writeQuietly(Map.of("error", message));
+        finish();
+    }
+
+    private void writeQuietly(Map<String, String> body) {
+        try {
+            response.getWriter().print(gson.toJson(body));
+        } catch (IOException | IllegalStateException e) {
+            // The client is gone; completing is all that's left to do
+        }
+    }
+
+    private void finish() {
+        ScheduledFuture<?> pending = deadline;
+        if (pending != null) {
+            pending.cancel(false);
+        }
+        // Ends the body, and any compression wrapped around the response,
+        // before the container completes it
+        try {
+            response.getWriter().close();
+        } catch (IOException | IllegalStateException e) {
+            // Nothing more can be written anyway
+        }
+        async.complete();
+    }
+
+    @Override
+    public void onError(AsyncEvent event) {
+        // The container ends the request itself; make sure nothing else writes to it
+        state.set(FINISHED);
+        ScheduledFuture<?> pending = deadline;
+        if (pending != null) {
+            pending.cancel(false);
+        }
+    }
+
+    @Override
+    public void onTimeout(AsyncEvent event) {
+        expire();
+    }
+
+    @Override
+    public void onComplete(AsyncEvent event) {}
+
+    @Override
+    public void onStartAsync(AsyncEvent event) {}
+}
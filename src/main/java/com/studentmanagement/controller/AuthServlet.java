@@ -1,7 +1,16 @@
 package com.studentmanagement.controller;
 
+import com.studentmanagement.dao.DAOFactory;
 import com.studentmanagement.dao.UserDAO;
+import com.studentmanagement.dao.UserWriteResult;
+import com.studentmanagement.filter.AuthFilter;
+import com.studentmanagement.model.AuthContext;
 import com.studentmanagement.model.User;
+import com.studentmanagement.service.PasswordService;
+import com.studentmanagement.service.TokenService;
+import com.studentmanagement.service.UserExistenceFilter;
+import com.studentmanagement.util.AppConfig;
+import com.studentmanagement.util.TokenBucketLimiter;
 import com.google.gson.Gson;
 
 import javax.servlet.ServletException;
@@ -10,17 +19,45 @@ import javax.servlet.http.*;
 import java.io.BufferedReader;
 import java.io.IOException;
 import java.io.PrintWriter;
+import java.util.ArrayList;
+import java.util.Enumeration;
 import java.util.HashMap;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Locale;
 import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.CompletionStage;
+import java.util.concurrent.RejectedExecutionException;
 
-@WebServlet("/api/auth/*")
+@WebServlet(urlPatterns = "/api/auth/*", asyncSupported = true)
 public class AuthServlet extends HttpServlet {
+    // Login attempts are limited per client address before any work is done,
+    // and per account once a wrong password has been tried on it
+    private static final int LIMITER_MAX_KEYS = AppConfig.getInt("auth.login.limiterMaxKeys", 100000);
+    private static final TokenBucketLimiter LOGIN_IP_LIMITER = new TokenBucketLimiter(
+            AppConfig.getInt("auth.login.ipBurst", 20),
+            AppConfig.getInt("auth.login.ipPerMinute", 60),
+            LIMITER_MAX_KEYS);
+    private static final TokenBucketLimiter LOGIN_ACCOUNT_LIMITER = new TokenBucketLimiter(
+            AppConfig.getInt("auth.login.accountBurst", 5),
+            AppConfig.getInt("auth.login.accountPerMinute", 10),
+            LIMITER_MAX_KEYS);
+    // Proxies whose X-Forwarded-For names the client for the per-address limit
+    private static final Set<String> TRUSTED_PROXIES = trustedProxies();
+
+    private static final CompletionStage<Void> DONE = CompletableFuture.completedFuture(null);
+
     private UserDAO userDAO;
+    private PasswordService passwords;
     private Gson gson;
 
     @Override
     public void init() {
-        userDAO = new UserDAO();
+        userDAO = DAOFactory.userDAO();
+        passwords = PasswordService.getInstance();
         gson = new Gson();
     }
 
@@ -30,8 +67,28 @@ public class AuthServlet extends HttpServlet {
 
         String pathInfo = request.getPathInfo();
         response.setContentType("application/json");
-        PrintWriter out = response.getWriter();
 
+        if ("/login".equals(pathInfo)) {
+            long retryAfter = LOGIN_IP_LIMITER.tryAcquire(clientAddress(request));
+            if (retryAfter > 0) {
+                tooManyAttempts(response, response.getWriter(), retryAfter);
+                return;
+            }
+        }
+
+        // Only the user lookups and writes hold a DbExecutor thread; hashing
+        // the password waits on the PasswordService pool without one
+        if ("/register".equals(pathInfo)) {
+            AsyncDbRequest.runStaged(request, response, gson, (res, out) -> handleRegister(request, res, out));
+        } else if ("/login".equals(pathInfo)) {
+            AsyncDbRequest.runStaged(request, response, gson, (res, out) -> handleLogin(request, res, out));
+        } else {
+            handlePost(request, response, response.getWriter(), pathInfo);
+        }
+    }
+
+    private void handlePost(HttpServletRequest request, HttpServletResponse response, PrintWriter out,
+                            String pathInfo) {
         try {
             if (pathInfo == null) {
                 response.setStatus(HttpServletResponse.SC_BAD_REQUEST);
@@ -39,19 +96,11 @@ public class AuthServlet extends HttpServlet {
                 return;
             }
 
-            switch (pathInfo) {
-                case "/register":
-                    handleRegister(request, response, out);
-                    break;
-                case "/login":
-                    handleLogin(request, response, out);
-                    break;
-                case "/logout":
-                    handleLogout(request, response, out);
-                    break;
-                default:
-                    response.setStatus(HttpServletResponse.SC_NOT_FOUND);
-                    out.print(gson.toJson(Map.of("error", "Endpoint not found")));
+            if ("/logout".equals(pathInfo)) {
+                handleLogout(request, response, out);
+            } else {
+                response.setStatus(HttpServletResponse.SC_NOT_FOUND);
+                out.print(gson.toJson(Map.of("error", "Endpoint not found")));
             }
 
         } catch (Exception e) {
@@ -60,14 +109,38 @@ public class AuthServlet extends HttpServlet {
         }
     }
 
+    // Ends a staged login or registration that failed after the lookup
+    private Void failed(HttpServletResponse response, PrintWriter out, Throwable error) {
+        Throwable cause = error instanceof CompletionException && error.getCause() != null ? error.getCause() : error;
+        if (cause instanceof RejectedExecutionException) {
+            // Password hashing, or the database executor, is at capacity
+            response.setStatus(HttpServletResponse.SC_SERVICE_UNAVAILABLE);
+            response.setHeader("Retry-After", "1");
+            out.print(gson.toJson(Map.of("error", "Server is busy, please retry shortly")));
+        } else {
+            response.setStatus(HttpServletResponse.SC_INTERNAL_SERVER_ERROR);
+            out.print(gson.toJson(Map.of("error", String.valueOf(cause.getMessage()))));
+        }
+        return null;
+    }
+
     @Override
     protected void doGet(HttpServletRequest request, HttpServletResponse response)
             throws ServletException, IOException {
 
         String pathInfo = request.getPathInfo();
         response.setContentType("application/json");
-        PrintWriter out = response.getWriter();
 
+        if ("/profile".equals(pathInfo)) {
+            AsyncDbRequest.run(request, response, gson, (res, out) -> handleGet(request, res, out, pathInfo));
+        } else {
+            // /check only reads the session and stays on the request thread
+            handleGet(request, response, response.getWriter(), pathInfo);
+        }
+    }
+
+    private void handleGet(HttpServletRequest request, HttpServletResponse response, PrintWriter out,
+                           String pathInfo) {
         try {
             if ("/check".equals(pathInfo)) {
                 checkAuth(request, response, out);
@@ -83,8 +156,8 @@ public class AuthServlet extends HttpServlet {
         }
     }
 
-    private void handleRegister(HttpServletRequest request, HttpServletResponse response, PrintWriter out)
-            throws IOException {
+    private CompletionStage<?> handleRegister(HttpServletRequest request, HttpServletResponse response,
+                                              PrintWriter out) throws IOException {
 
         BufferedReader reader = request.getReader();
         Map<String, String> credentials = gson.fromJson(reader, Map.class);
@@ -102,55 +175,69 @@ public class AuthServlet extends HttpServlet {
 
             response.setStatus(HttpServletResponse.SC_BAD_REQUEST);
             out.print(gson.toJson(Map.of("error", "All fields are required")));
-            return;
+            return DONE;
         }
 
         // Validate username length
         if (username.length() < 3) {
             response.setStatus(HttpServletResponse.SC_BAD_REQUEST);
             out.print(gson.toJson(Map.of("error", "Username must be at least 3 characters")));
-            return;
+            return DONE;
         }
 
         // Validate password length
         if (password.length() < 6) {
             response.setStatus(HttpServletResponse.SC_BAD_REQUEST);
             out.print(gson.toJson(Map.of("error", "Password must be at least 6 characters")));
-            return;
+            return DONE;
         }
 
-        // Check if username exists
-        if (userDAO.isUsernameExists(username)) {
-            response.setStatus(HttpServletResponse.SC_CONFLICT);
-            out.print(gson.toJson(Map.of("error", "Username already exists")));
-            return;
-        }
-
-        // Check if email exists
-        if (userDAO.isEmailExists(email)) {
-            response.setStatus(HttpServletResponse.SC_CONFLICT);
-            out.print(gson.toJson(Map.of("error", "Email already registered")));
-            return;
+        // Only names the filter might hold need the conflict query; the
+        // insert still reports anything taken meanwhile. Checking first saves
+        // hashing a password for a registration that can't succeed.
+        UserExistenceFilter existing = UserExistenceFilter.getInstance();
+        if (existing.mightBeTaken(username, email)) {
+            UserWriteResult conflict = userDAO.findConflict(username, email);
+            if (conflict == UserWriteResult.USERNAME_TAKEN || conflict == UserWriteResult.EMAIL_TAKEN) {
+                sendConflict(response, out, conflict);
+                return DONE;
+            }
         }
 
-        // Create new user
-        User user = new User(username, email, password, fullName, "user");
-        boolean registered = userDAO.registerUser(user);
+        // Create new user once the password is hashed, back on the DbExecutor
+        return passwords.hashAsync(password)
+                .thenCompose(hash -> AsyncDbRequest.onDbExecutor(() ->
+                        userDAO.registerUser(new User(username, email, hash, fullName, "user"))))
+                .thenAccept(result -> {
+                    switch (result) {
+                        case OK:
+                            existing.add(username, email);
+                            response.setStatus(HttpServletResponse.SC_CREATED);
+                            out.print(gson.toJson(Map.of(
+                                    "message", "Registration successful! Please login.",
+                                    "success", true
+                            )));
+                            break;
+                        case USERNAME_TAKEN:
+                        case EMAIL_TAKEN:
+                            sendConflict(response, out, result);
+                            break;
+                        default:
+                            response.setStatus(HttpServletResponse.SC_INTERNAL_SERVER_ERROR);
+                            out.print(gson.toJson(Map.of("error", "Registration failed. Please try again.")));
+                    }
+                })
+                .exceptionally(e -> failed(response, out, e));
+    }
 
-        if (registered) {
-            response.setStatus(HttpServletResponse.SC_CREATED);
-            out.print(gson.toJson(Map.of(
-                    "message", "Registration successful! Please login.",
-                    "success", true
-            )));
-        } else {
-            response.setStatus(HttpServletResponse.SC_INTERNAL_SERVER_ERROR);
-            out.print(gson.toJson(Map.of("error", "Registration failed. Please try again.")));
-        }
+    private void sendConflict(HttpServletResponse response, PrintWriter out, UserWriteResult conflict) {
+        response.setStatus(HttpServletResponse.SC_CONFLICT);
+        out.print(gson.toJson(Map.of("error", conflict == UserWriteResult.USERNAME_TAKEN
+                ? "Username already exists" : "Email already registered")));
     }
 
-    private void handleLogin(HttpServletRequest request, HttpServletResponse response, PrintWriter out)
-            throws IOException {
+    private CompletionStage<?> handleLogin(HttpServletRequest request, HttpServletResponse response,
+                                           PrintWriter out) throws IOException {
 
         BufferedReader reader = request.getReader();
         Map<String, String> credentials = gson.fromJson(reader, Map.class);
@@ -164,26 +251,69 @@ public class AuthServlet extends HttpServlet {
 
             response.setStatus(HttpServletResponse.SC_BAD_REQUEST);
             out.print(gson.toJson(Map.of("error", "Username and password are required")));
-            return;
+            return DONE;
         }
 
-        // Attempt login
-        User user = userDAO.loginUser(username, password);
+        // An account gets a bucket on its first wrong password, so names that
+        // match no user, however many are tried, never crowd out real ones
+        String account = username.trim().toLowerCase(Locale.ROOT);
+        long retryAfter = LOGIN_ACCOUNT_LIMITER.tryAcquireTracked(account);
+        if (retryAfter > 0) {
+            tooManyAttempts(response, out, retryAfter);
+            return DONE;
+        }
+        boolean charged = retryAfter == 0;
+
+        // Attempt login. Unknown users are checked against a dummy hash so
+        // response times don't reveal which usernames exist.
+        User user = userDAO.getUserByLogin(username);
+        String storedHash = user != null ? user.getPassword() : null;
+        return passwords.verifyAsync(password, storedHash)
+                .thenAccept(verified -> {
+                    if (!verified && user != null && !charged) {
+                        LOGIN_ACCOUNT_LIMITER.tryAcquire(account);
+                    }
+                    if (verified && passwords.needsRehash(storedHash)) {
+                        rehash(user, storedHash, password);
+                    }
+                    loginResult(request, response, out, verified ? user : null);
+                })
+                .exceptionally(e -> failed(response, out, e));
+    }
 
-        if (user != null) {
-            // Create session
-            HttpSession session = request.getSession();
-            session.setAttribute("userId", user.getId());
-            session.setAttribute("username", user.getUsername());
-            session.setAttribute("fullName", user.getFullName());
-            session.setAttribute("role", user.getRole());
-            session.setMaxInactiveInterval(30 * 60); // 30 minutes
+    // Plaintext from before hashing, or hashed at an older cost. Done in the
+    // background; if the pools are busy it is simply tried on a later login.
+    private void rehash(User user, String storedHash, String password) {
+        passwords.hashAsync(password)
+                .thenCompose(hash -> AsyncDbRequest.onDbExecutor(() ->
+                        userDAO.updatePasswordHash(user.getId(), storedHash, hash)));
+    }
 
+    private void loginResult(HttpServletRequest request, HttpServletResponse response, PrintWriter out,
+                             User user) {
+        if (user != null) {
             // Create response
             Map<String, Object> responseData = new HashMap<>();
             responseData.put("message", "Login successful");
             responseData.put("success", true);
 
+            if (TokenService.isEnabled()) {
+                // Browsers use the cookie; API clients can send the token as a bearer header
+                TokenService tokens = TokenService.getInstance();
+                String token = tokens.issue(user);
+                AuthFilter.setTokenCookie(request, response, token, tokens.getTtlSeconds());
+                responseData.put("token", token);
+                responseData.put("expiresIn", tokens.getTtlSeconds());
+            } else {
+                // Create session
+                HttpSession session = request.getSession();
+                session.setAttribute("userId", user.getId());
+                session.setAttribute("username", user.getUsername());
+                session.setAttribute("fullName", user.getFullName());
+                session.setAttribute("role", user.getRole());
+                session.setMaxInactiveInterval(30 * 60); // 30 minutes
+            }
+
             Map<String, Object> userData = new HashMap<>();
             userData.put("id", user.getId());
             userData.put("username", user.getUsername());
@@ -200,7 +330,58 @@ public class AuthServlet extends HttpServlet {
         }
     }
 
+    // The address login attempts are limited by. Behind a reverse proxy every
+    // request comes from the proxy, so for a trusted one the client is the
+    // rightmost X-Forwarded-For entry that isn't itself a trusted proxy;
+    // entries left of it are whatever the client chose to send.
+    private static String clientAddress(HttpServletRequest request) {
+        String address = String.valueOf(request.getRemoteAddr());
+        if (!TRUSTED_PROXIES.contains(address)) {
+            return address;
+        }
+        List<String> hops = new ArrayList<>();
+        Enumeration<String> headers = request.getHeaders("X-Forwarded-For");
+        while (headers != null && headers.hasMoreElements()) {
+            for (String hop : headers.nextElement().split(",")) {
+                if (!hop.trim().isEmpty()) {
+                    hops.add(hop.trim());
+                }
+            }
+        }
+        for (int i = hops.size() - 1; i >= 0; i--) {
+            address = hops.get(i);
+            if (!TRUSTED_PROXIES.contains(address)) {
+                break;
+            }
+        }
+        return address;
+    }
+
+    private static Set<String> trustedProxies() {
+        Set<String> proxies = new HashSet<>();
+        for (String proxy : AppConfig.getString("auth.login.trustedProxies", "").split(",")) {
+            if (!proxy.trim().isEmpty()) {
+                proxies.add(proxy.trim());
+            }
+        }
+        return proxies;
+    }
+
+    private void tooManyAttempts(HttpServletResponse response, PrintWriter out, long retryAfterSeconds) {
+        response.setStatus(429);
+        response.setHeader("Retry-After", String.valueOf(retryAfterSeconds));
+        out.print(gson.toJson(Map.of("error", "Too many login attempts, please try again later")));
+    }
+
     private void handleLogout(HttpServletRequest request, HttpServletResponse response, PrintWriter out) {
+        if (TokenService.isEnabled()) {
+            AuthContext auth = AuthFilter.authContext(request);
+            if (auth != null) {
+                TokenService.getInstance().revoke(auth);
+            }
+            AuthFilter.clearTokenCookie(request, response);
+        }
+
         HttpSession session = request.getSession(false);
         if (session != null) {
             session.invalidate();
@@ -213,15 +394,15 @@ public class AuthServlet extends HttpServlet {
     }
 
     private void checkAuth(HttpServletRequest request, HttpServletResponse response, PrintWriter out) {
-        HttpSession session = request.getSession(false);
+        AuthContext auth = AuthFilter.authContext(request);
 
-        if (session != null && session.getAttribute("userId") != null) {
+        if (auth != null) {
             Map<String, Object> userData = new HashMap<>();
             userData.put("authenticated", true);
-            userData.put("userId", session.getAttribute("userId"));
-            userData.put("username", session.getAttribute("username"));
-            userData.put("fullName", session.getAttribute("fullName"));
-            userData.put("role", session.getAttribute("role"));
+            userData.put("userId", auth.getUserId());
+            userData.put("username", auth.getUsername());
+            userData.put("fullName", auth.getFullName());
+            userData.put("role", auth.getRole());
 
             out.print(gson.toJson(userData));
         } else {
@@ -234,11 +415,10 @@ public class AuthServlet extends HttpServlet {
     }
 
     private void getProfile(HttpServletRequest request, HttpServletResponse response, PrintWriter out) {
-        HttpSession session = request.getSession(false);
+        AuthContext auth = AuthFilter.authContext(request);
 
-        if (session != null && session.getAttribute("userId") != null) {
-            int userId = (int) session.getAttribute("userId");
-            User user = userDAO.getUserById(userId);
+        if (auth != null) {
+            User user = userDAO.getUserById(auth.getUserId());
 
             if (user != null) {
                 Map<String, Object> userData = new HashMap<>();
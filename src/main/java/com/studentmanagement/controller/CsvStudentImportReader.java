@@ -0,0 +1,97 @@
+package com.studentmanagement.controller;
+
+import com.studentmanagement.dao.StudentImportReader;
+import com.studentmanagement.model.ImportResult;
+import com.studentmanagement.model.Student;
+import com.studentmanagement.util.CsvUtil;
+
+import java.io.BufferedReader;
+import java.io.IOException;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+
+// Reads students from CSV with a header row naming the columns:
+// name, email, course, phone, address, enrollment_date (yyyy-MM-dd).
+// Row numbers count data rows, starting at 1 after the header.
+class CsvStudentImportReader implements StudentImportReader {
+    private final BufferedReader reader;
+    private final ImportResult result;
+    private Map<String, Integer> columns;
+    private int row;
+
+    CsvStudentImportReader(BufferedReader reader, ImportResult result) {
+        this.reader = reader;
+        this.result = result;
+    }
+
+    @Override
+    public Student next() throws IOException {
+        if (columns == null) {
+            readHeader();
+        }
+
+        List<String> fields;
+        while ((fields = CsvUtil.readRow(reader)) != null) {
+            if (fields.size() == 1 && fields.get(0).trim().isEmpty()) {
+                continue;
+            }
+            row++;
+            result.recordProcessed();
+
+            Student student = new Student();
+            student.setName(field(fields, "name"));
+            student.setEmail(field(fields, "email"));
+            student.setCourse(field(fields, "course"));
+            student.setPhone(field(fields, "phone"));
+            student.setAddress(field(fields, "address"));
+
+            String enrollmentDate = field(fields, "enrollment_date");
+            if (enrollmentDate != null && !enrollmentDate.trim().isEmpty()) {
+                try {
+                    student.setEnrollmentDate(java.sql.Date.valueOf(enrollmentDate.trim()));
+                } catch (IllegalArgumentException e) {
+                    result.recordError(row, "enrollment_date must be in yyyy-MM-dd format");
+                    continue;
+                }
+            }
+
+            String error = StudentValidation.requiredFieldsError(student);
+            if (error != null) {
+                result.recordError(row, error);
+                continue;
+            }
+            StudentValidation.normalize(student);
+            return student;
+        }
+        return null;
+    }
+
+    private void readHeader() throws IOException {
+        List<String> header = CsvUtil.readRow(reader);
+        if (header == null) {
+            throw new IllegalArgumentException("CSV input is empty");
+        }
+        columns = new HashMap<>();
+        for (int i = 0; i < header.size(); i++) {
+            String name = header.get(i).trim().toLowerCase(Locale.ROOT);
+            columns.put("enrollmentdate".equals(name) ? "enrollment_date" : name, i);
+        }
+        for (String required : new String[]{"name", "email", "course"}) {
+            if (!columns.containsKey(required)) {
+                throw new IllegalArgumentException("CSV header must include a '" + required + "' column");
+            }
+        }
+    }
+
+    private String field(List<String> fields, String column) {
+        Integer index = columns.get(column);
+        return index != null && index < fields.size() ? fields.get(index) : null;
+    }
+
+    @Override
+    public int getRowNumber() {
+        return row;
+    }
+}
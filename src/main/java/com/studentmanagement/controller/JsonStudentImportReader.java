@@ -0,0 +1,69 @@
+package com.studentmanagement.controller;
+
+import com.studentmanagement.dao.StudentImportReader;
+import com.studentmanagement.model.ImportResult;
+import com.studentmanagement.model.Student;
+import com.google.gson.Gson;
+import com.google.gson.JsonParseException;
+import com.google.gson.stream.JsonReader;
+
+import java.io.IOException;
+import java.io.Reader;
+
+// Reads a JSON array of students one element at a time, so the request body
+// is never held in memory as a whole
+class JsonStudentImportReader implements StudentImportReader {
+    private final JsonReader json;
+    private final Gson gson;
+    private final ImportResult result;
+    private int row;
+    private boolean started;
+    private boolean finished;
+
+    JsonStudentImportReader(Reader reader, Gson gson, ImportResult result) {
+        this.json = new JsonReader(reader);
+        this.gson = gson;
+        this.result = result;
+    }
+
+    @Override
+    public Student next() throws IOException {
+        if (finished) {
+            return null;
+        }
+        try {
+            if (!started) {
+                json.beginArray();
+                started = true;
+            }
+
+            while (json.hasNext()) {
+                row++;
+                result.recordProcessed();
+                Student student = gson.fromJson(json, Student.class);
+
+                String error = StudentValidation.requiredFieldsError(student);
+                if (error != null) {
+                    result.recordError(row, error);
+                    continue;
+                }
+                StudentValidation.normalize(student);
+                return student;
+            }
+
+            json.endArray();
+            finished = true;
+            return null;
+
+        } catch (JsonParseException | IllegalStateException | IOException e) {
+            // The stream position is unknown after a syntax error, so stop here
+            finished = true;
+            throw new IllegalArgumentException("Malformed JSON near row " + Math.max(row, 1) + ": " + e.getMessage(), e);
+        }
+    }
+
+    @Override
+    public int getRowNumber() {
+        return row;
+    }
+}
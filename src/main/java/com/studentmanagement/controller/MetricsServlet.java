@@ -0,0 +1,199 @@
+package com.studentmanagement.controller;
+
+import com.studentmanagement.service.StudentCache;
+import com.studentmanagement.service.StudentPurger;
+import com.studentmanagement.service.StudentWriteQueue;
+import com.studentmanagement.service.UserExistenceFilter;
+import com.studentmanagement.util.AppConfig;
+import com.studentmanagement.util.DBConnection;
+import com.studentmanagement.util.DbExecutor;
+import com.studentmanagement.util.Metrics;
+import com.studentmanagement.util.PoolMetrics;
+
+import javax.servlet.ServletException;
+import javax.servlet.annotation.WebServlet;
+import javax.servlet.http.HttpServlet;
+import javax.servlet.http.HttpServletRequest;
+import javax.servlet.http.HttpServletResponse;
+import java.io.IOException;
+import java.io.PrintWriter;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+
+// Prometheus scrape endpoint: request and SQL metrics plus connection pool,
+// read replica, database executor, student cache, registration filter, purge and write queue
+// gauges. When metrics.token is set, scrapers must send it as
+// "Authorization: Bearer <token>".
+@WebServlet("/metrics")
+public class MetricsServlet extends HttpServlet {
+    private static final String TOKEN = AppConfig.getString("metrics.token", "");
+
+    @Override
+    protected void doGet(HttpServletRequest request, HttpServletResponse response)
+            throws ServletException, IOException {
+
+        if (!TOKEN.isEmpty() && !("Bearer " + TOKEN).equals(request.getHeader("Authorization"))) {
+            response.sendError(HttpServletResponse.SC_UNAUTHORIZED);
+            return;
+        }
+
+        response.setContentType("text/plain; version=0.0.4");
+        response.setCharacterEncoding("UTF-8");
+        PrintWriter out = response.getWriter();
+
+        Metrics.writePrometheus(out);
+        writePoolMetrics(out);
+        writeExecutorMetrics(out);
+        writeCacheMetrics(out);
+        writeRegistrationFilterMetrics(out);
+        writePurgeMetrics(out);
+        writeWriteQueueMetrics(out);
+    }
+
+    private static void writePoolMetrics(PrintWriter out) throws IOException {
+        PoolMetrics primary = DBConnection.getPoolMetrics();
+        if (primary == null) {
+            return;
+        }
+        List<PoolMetrics> pools = new ArrayList<>();
+        pools.add(primary);
+        pools.addAll(DBConnection.getReplicaPoolMetrics());
+        for (PoolMetrics pool : pools) {
+            writePoolMetrics(out, pool);
+        }
+        writeReplicaMetrics(out);
+    }
+
+    private static void writePoolMetrics(PrintWriter out, PoolMetrics pool) throws IOException {
+        String labels = Metrics.label("pool", pool.getPoolName());
+        out.print("# TYPE db_pool_connections gauge\n");
+        out.print("db_pool_connections{" + labels + ",state=\"active\"} " + pool.getActive() + "\n");
+        out.print("db_pool_connections{" + labels + ",state=\"idle\"} " + pool.getIdle() + "\n");
+        out.print("# TYPE db_pool_max_connections gauge\n");
+        out.print("db_pool_max_connections{" + labels + "} " + pool.getMaxSize() + "\n");
+        out.print("# TYPE db_pool_waiters gauge\n");
+        out.print("db_pool_waiters{" + labels + "} " + pool.getWaiters() + "\n");
+        out.print("# TYPE db_pool_connections_created_total counter\n");
+        out.print("db_pool_connections_created_total{" + labels + "} " + pool.getCreated() + "\n");
+        out.print("# TYPE db_pool_connections_destroyed_total counter\n");
+        out.print("db_pool_connections_destroyed_total{" + labels + "} " + pool.getDestroyed() + "\n");
+        out.print("# TYPE db_pool_acquire_timeouts_total counter\n");
+        out.print("db_pool_acquire_timeouts_total{" + labels + "} " + pool.getTimeouts() + "\n");
+        out.print("# TYPE db_pool_acquire_duration_seconds histogram\n");
+        Metrics.writeHistogram(out, "db_pool_acquire_duration_seconds", labels, pool.getAcquireLatency());
+    }
+
+    @SuppressWarnings("unchecked")
+    private static void writeReplicaMetrics(PrintWriter out) {
+        Map<String, Object> stats = DBConnection.getReplicaStats();
+        if (stats == null) {
+            return;
+        }
+        Map<String, Map<String, Object>> replicas = (Map<String, Map<String, Object>>) stats.get("replicas");
+        out.print("# TYPE db_replica_healthy gauge\n");
+        for (Map.Entry<String, Map<String, Object>> replica : replicas.entrySet()) {
+            out.print("db_replica_healthy{" + Metrics.label("replica", replica.getKey()) + "} "
+                    + (Boolean.TRUE.equals(replica.getValue().get("healthy")) ? 1 : 0) + "\n");
+        }
+        // -1 when the replica couldn't be checked or isn't replicating
+        out.print("# TYPE db_replica_lag_seconds gauge\n");
+        for (Map.Entry<String, Map<String, Object>> replica : replicas.entrySet()) {
+            out.print("db_replica_lag_seconds{" + Metrics.label("replica", replica.getKey()) + "} "
+                    + replica.getValue().get("lagSeconds") + "\n");
+        }
+        out.print("# TYPE db_reads_total counter\n");
+        out.print("db_reads_total{target=\"replica\"} " + stats.get("replicaReads") + "\n");
+        out.print("db_reads_total{target=\"primary\"} " + stats.get("primaryReads") + "\n");
+    }
+
+    private static void writeExecutorMetrics(PrintWriter out) {
+        DbExecutor executor = DbExecutor.getInstance();
+        out.print("# TYPE db_executor_threads gauge\n");
+        out.print("db_executor_threads " + executor.getThreads() + "\n");
+        out.print("# TYPE db_executor_tasks gauge\n");
+        out.print("db_executor_tasks{state=\"running\"} " + executor.getRunning() + "\n");
+        out.print("db_executor_tasks{state=\"queued\"} " + executor.getQueued() + "\n");
+        out.print("# TYPE db_executor_completed_total counter\n");
+        out.print("db_executor_completed_total " + executor.getCompleted() + "\n");
+        out.print("# TYPE db_executor_rejected_total counter\n");
+        out.print("db_executor_rejected_total " + executor.getRejected() + "\n");
+    }
+
+    private static void writeCacheMetrics(PrintWriter out) {
+        if (!StudentCache.isEnabled()) {
+            return;
+        }
+        Map<String, Object> stats = StudentCache.getInstance().getStats();
+        out.print("# TYPE student_cache_size gauge\n");
+        out.print("student_cache_size " + stats.get("size") + "\n");
+        out.print("# TYPE student_cache_events_total counter\n");
+        for (Map.Entry<String, Object> stat : stats.entrySet()) {
+            // Counters are longs; size is an int gauge and hitRatio is derived
+            if (stat.getValue() instanceof Long) {
+                out.print("student_cache_events_total{" + Metrics.label("event", stat.getKey()) + "} "
+                        + stat.getValue() + "\n");
+            }
+        }
+    }
+
+    private static void writeRegistrationFilterMetrics(PrintWriter out) {
+        if (!UserExistenceFilter.isEnabled()) {
+            return;
+        }
+        Map<String, Object> stats = UserExistenceFilter.getInstance().getStats();
+        out.print("# TYPE user_filter_users gauge\n");
+        out.print("user_filter_users " + stats.get("users") + "\n");
+        out.print("# TYPE user_filter_bits gauge\n");
+        out.print("user_filter_bits " + stats.get("bits") + "\n");
+        // "absent" answered without a query; "maybe" needed the conflict query
+        out.print("# TYPE user_filter_checks_total counter\n");
+        out.print("user_filter_checks_total{result=\"absent\"} " + stats.get("absent") + "\n");
+        out.print("user_filter_checks_total{result=\"maybe\"} " + stats.get("maybe") + "\n");
+    }
+
+    private static void writePurgeMetrics(PrintWriter out) {
+        if (!StudentPurger.isEnabled()) {
+            return;
+        }
+        Map<String, Object> stats = StudentPurger.getInstance().getStats();
+        // "due" are past retention and waiting for the purger; "retained" can still be restored
+        long deleted = (Long) stats.get("deleted");
+        long due = (Long) stats.get("due");
+        out.print("# TYPE student_purge_backlog gauge\n");
+        out.print("student_purge_backlog{state=\"due\"} " + due + "\n");
+        out.print("student_purge_backlog{state=\"retained\"} " + (deleted - due) + "\n");
+        out.print("# TYPE student_purge_archived_total counter\n");
+        out.print("student_purge_archived_total " + stats.get("archived") + "\n");
+        out.print("# TYPE student_purge_batches_total counter\n");
+        out.print("student_purge_batches_total " + stats.get("batches") + "\n");
+        out.print("# TYPE student_purge_failures_total counter\n");
+        out.print("student_purge_failures_total " + stats.get("failures") + "\n");
+        out.print("# TYPE student_purge_rows_per_second gauge\n");
+        out.print("student_purge_rows_per_second " + stats.get("rowsPerSecond") + "\n");
+    }
+
+    private static void writeWriteQueueMetrics(PrintWriter out) {
+        if (!StudentWriteQueue.isEnabled()) {
+            return;
+        }
+        Map<String, Object> stats = StudentWriteQueue.getInstance().getStats();
+        out.print("# TYPE student_write_queue_size gauge\n");
+        out.print("student_write_queue_size " + stats.get("queued") + "\n");
+        out.print("# TYPE student_write_queue_capacity gauge\n");
+        out.print("student_write_queue_capacity " + stats.get("capacity") + "\n");
+        // "coalesced" were superseded by a later update in the same group
+        out.print("# TYPE student_write_queue_writes_total counter\n");
+        out.print("student_write_queue_writes_total{result=\"written\"} " + stats.get("written") + "\n");
+        out.print("student_write_queue_writes_total{result=\"coalesced\"} " + stats.get("coalesced") + "\n");
+        out.print("student_write_queue_writes_total{result=\"failed\"} " + stats.get("failed") + "\n");
+        out.print("student_write_queue_writes_total{result=\"rejected\"} " + stats.get("rejected") + "\n");
+        out.print("# TYPE student_write_queue_commits_total counter\n");
+        out.print("student_write_queue_commits_total " + stats.get("groups") + "\n");
+        out.print("# TYPE student_write_queue_latency_seconds summary\n");
+        out.print("student_write_queue_latency_seconds{quantile=\"0.99\"} "
+                + (Long) stats.get("latencyP99Nanos") / 1e9 + "\n");
+        out.print("student_write_queue_latency_seconds_sum " + (Long) stats.get("latencySumNanos") / 1e9 + "\n");
+        out.print("student_write_queue_latency_seconds_count " + stats.get("latencyCount") + "\n");
+    }
+}
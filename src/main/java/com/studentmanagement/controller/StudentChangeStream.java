@@ -0,0 +1,323 @@
+package com.studentmanagement.controller;
+
+import com.google.gson.Gson;
+import com.studentmanagement.dao.StudentDAO;
+import com.studentmanagement.model.Student;
+import com.studentmanagement.model.StudentChangeSet;
+import com.studentmanagement.service.StudentChangeFeed;
+import com.studentmanagement.util.AppConfig;
+
+import javax.servlet.AsyncContext;
+import javax.servlet.AsyncEvent;
+import javax.servlet.AsyncListener;
+import javax.servlet.ServletOutputStream;
+import javax.servlet.WriteListener;
+import javax.servlet.http.HttpServletRequest;
+import javax.servlet.http.HttpServletResponse;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.sql.SQLException;
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.Executors;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.logging.Level;
+import java.util.logging.Logger;
+
+// Server-sent events for GET /api/students/changes/stream. Each open stream
+// is an async request parked without a thread. One dispatcher thread is woken
+// by every append to the change feed and sends each stream the change set
+// since its cursor, as "changes" events whose id is the cursor, so a
+// reconnecting EventSource resumes through Last-Event-ID.
+//
+// Rows are read once per wake-up for all streams together, so a write costs
+// one query however many clients are listening. Streams end after
+// students.changes.stream.timeoutMs and the browser reconnects; comments are
+// sent every heartbeatMs so proxies don't drop an idle stream.
+//
+// Frames are written without blocking, through a WriteListener: the
+// dispatcher queues them and writes only as much as each connection takes,
+// and the container finishes the rest when the client catches up. One slow
+// client therefore never holds up the others. A stream with more than
+// maxBufferedBytes queued, or that has taken nothing for writeTimeoutMs, is
+// closed and its client resumes from Last-Event-ID on reconnect.
+final class StudentChangeStream {
+    private static final Logger LOGGER = Logger.getLogger(StudentChangeStream.class.getName());
+    private static final int MAX_STREAMS = AppConfig.getInt("students.changes.stream.maxClients", 1000);
+    private static final long TIMEOUT_MS = AppConfig.getLong("students.changes.stream.timeoutMs", 300000);
+    private static final long HEARTBEAT_MS = AppConfig.getLong("students.changes.stream.heartbeatMs", 25000);
+    private static final int MAX_BUFFERED_BYTES = AppConfig.getInt("students.changes.stream.maxBufferedBytes", 1048576);
+    private static final long WRITE_TIMEOUT_MS = AppConfig.getLong("students.changes.stream.writeTimeoutMs", 10000);
+    private static final long RETRY_MS = 3000;
+
+    private final StudentChangeFeed feed;
+    private final StudentDAO studentDAO;
+    private final Gson gson;
+    private final int batchSize;
+    private final Set<Subscriber> subscribers = ConcurrentHashMap.newKeySet();
+    private final AtomicBoolean wakeQueued = new AtomicBoolean();
+    private final ScheduledExecutorService dispatcher;
+    private final Runnable wake = this::wake;
+
+    StudentChangeStream(StudentChangeFeed feed, StudentDAO studentDAO, Gson gson, int batchSize) {
+        this.feed = feed;
+        this.studentDAO = studentDAO;
+        this.gson = gson;
+        this.batchSize = batchSize;
+        this.dispatcher = Executors.newSingleThreadScheduledExecutor(r -> {
+            Thread thread = new Thread(r, "student-change-stream");
+            thread.setDaemon(true);
+            return thread;
+        });
+        dispatcher.scheduleWithFixedDelay(this::heartbeat, HEARTBEAT_MS, HEARTBEAT_MS, TimeUnit.MILLISECONDS);
+        feed.addAppendListener(wake);
+    }
+
+    // Starts a stream of the changes visible to ownerId (all when null) after since
+    void open(HttpServletRequest request, HttpServletResponse response, Integer ownerId, long since)
+            throws IOException {
+        if (!request.isAsyncSupported()) {
+            response.setStatus(HttpServletResponse.SC_BAD_REQUEST);
+            response.getWriter().print(gson.toJson(Map.of("error", "Streaming is not supported here")));
+            return;
+        }
+        if (subscribers.size() >= MAX_STREAMS) {
+            response.setStatus(HttpServletResponse.SC_SERVICE_UNAVAILABLE);
+            response.setHeader("Retry-After", String.valueOf(TimeUnit.MILLISECONDS.toSeconds(RETRY_MS)));
+            response.getWriter().print(gson.toJson(Map.of("error", "Too many open change streams")));
+            return;
+        }
+
+        response.setContentType("text/event-stream");
+        response.setCharacterEncoding("UTF-8");
+        response.setHeader("Cache-Control", "no-cache");
+        // Keep reverse proxies from buffering the stream
+        response.setHeader("X-Accel-Buffering", "no");
+
+        AsyncContext async = request.startAsync(request, response);
+        async.setTimeout(TIMEOUT_MS);
+        ServletOutputStream out = response.getOutputStream();
+        Subscriber subscriber = new Subscriber(async, out, ownerId, since);
+        async.addListener(subscriber);
+        subscribers.add(subscriber);
+        subscriber.send("retry: " + RETRY_MS + "\n\n");
+        // The container calls onWritePossible once the stream is writable
+        out.setWriteListener(subscriber);
+        // Send what the client missed, if anything, from the dispatcher
+        wake();
+    }
+
+    void shutdown() {
+        feed.removeAppendListener(wake);
+        dispatcher.shutdownNow();
+        for (Subscriber subscriber : subscribers) {
+            subscriber.close();
+        }
+    }
+
+    private void wake() {
+        if (wakeQueued.compareAndSet(false, true)) {
+            try {
+                dispatcher.execute(this::dispatch);
+            } catch (RejectedExecutionException e) {
+                // Shutting down
+            }
+        }
+    }
+
+    private void dispatch() {
+        wakeQueued.set(false);
+        List<Subscriber> pending = new ArrayList<>(subscribers);
+        while (!pending.isEmpty()) {
+            Map<Subscriber, StudentChangeFeed.Window> windows = new HashMap<>();
+            Set<Integer> upsertIds = new HashSet<>();
+            for (Subscriber subscriber : pending) {
+                StudentChangeFeed.Window window = feed.window(subscriber.cursor, subscriber.ownerId, batchSize);
+                if (window.isEmpty()) {
+                    subscriber.cursor = window.getCursor();
+                } else {
+                    windows.put(subscriber, window);
+                    upsertIds.addAll(window.getUpsertIds());
+                }
+            }
+            if (windows.isEmpty()) {
+                return;
+            }
+
+            Map<Integer, Student> rows = new HashMap<>();
+            try {
+                for (Student student : studentDAO.getStudentsByIds(new ArrayList<>(upsertIds))) {
+                    rows.put(student.getId(), student);
+                }
+            } catch (SQLException e) {
+                // Cursors stay put; the next change or heartbeat tries again
+                LOGGER.log(Level.WARNING, "Could not read changed students for streaming", e);
+                return;
+            }
+
+            pending = new ArrayList<>();
+            for (Map.Entry<Subscriber, StudentChangeFeed.Window> entry : windows.entrySet()) {
+                Subscriber subscriber = entry.getKey();
+                StudentChangeSet set = entry.getValue().resolve(rows);
+                if (subscriber.send("id: " + set.getCursor() + "\nevent: changes\ndata: " + gson.toJson(set) + "\n\n")) {
+                    subscriber.cursor = set.getCursor();
+                    if (set.isMore()) {
+                        pending.add(subscriber);
+                    }
+                }
+            }
+        }
+    }
+
+    private void heartbeat() {
+        long now = System.nanoTime();
+        for (Subscriber subscriber : subscribers) {
+            if (subscriber.isStalled(now)) {
+                subscriber.close();
+            } else {
+                subscriber.send(": ping\n\n");
+            }
+        }
+        // Catch up on anything a failed dispatch left behind
+        dispatch();
+    }
+
+    private final class Subscriber implements AsyncListener, WriteListener {
+        private final AsyncContext async;
+        private final ServletOutputStream out;
+        private final Integer ownerId;
+        // Frames not yet handed to the container, and their total size
+        private final ArrayDeque<byte[]> queue = new ArrayDeque<>();
+        private int queuedBytes;
+        // When the container last refused more bytes, or 0 while it takes them
+        private long stalledSince;
+        private boolean listening;
+        // Only touched by the dispatcher thread once the stream is open
+        private long cursor;
+        private boolean closed;
+
+        Subscriber(AsyncContext async, ServletOutputStream out, Integer ownerId, long cursor) {
+            this.async = async;
+            this.out = out;
+            this.ownerId = ownerId;
+            this.cursor = cursor;
+        }
+
+        // Queues frame and writes what the connection takes now. False once
+        // the client has gone or fallen too far behind.
+        boolean send(String frame) {
+            synchronized (this) {
+                if (closed) {
+                    return false;
+                }
+                byte[] bytes = frame.getBytes(StandardCharsets.UTF_8);
+                // A frame on its own is always let through; writeTimeoutMs bounds it
+                if (queue.isEmpty() || queuedBytes + bytes.length <= MAX_BUFFERED_BYTES) {
+                    queue.add(bytes);
+                    queuedBytes += bytes.length;
+                    if (!listening || drain()) {
+                        return true;
+                    }
+                }
+            }
+            close();
+            return false;
+        }
+
+        // Caller holds this subscriber's lock. Writes queued frames while the
+        // container accepts them; it calls onWritePossible when it can take
+        // more. False when the connection has failed.
+        private boolean drain() {
+            try {
+                while (out.isReady()) {
+                    byte[] frame = queue.poll();
+                    if (frame == null) {
+                        stalledSince = 0;
+                        return true;
+                    }
+                    queuedBytes -= frame.length;
+                    out.write(frame);
+                    // Each event must reach the client now, not when a buffer fills
+                    if (out.isReady()) {
+                        out.flush();
+                    }
+                }
+                if (stalledSince == 0) {
+                    stalledSince = System.nanoTime();
+                }
+                return true;
+            } catch (IOException | IllegalStateException e) {
+                return false;
+            }
+        }
+
+        synchronized boolean isStalled(long now) {
+            return stalledSince != 0 && now - stalledSince > TimeUnit.MILLISECONDS.toNanos(WRITE_TIMEOUT_MS);
+        }
+
+        @Override
+        public void onWritePossible() {
+            boolean ok;
+            synchronized (this) {
+                if (closed) {
+                    return;
+                }
+                listening = true;
+                ok = drain();
+            }
+            if (!ok) {
+                close();
+            }
+        }
+
+        synchronized void close() {
+            if (closed) {
+                return;
+            }
+            closed = true;
+            queue.clear();
+            subscribers.remove(this);
+            try {
+                async.complete();
+            } catch (IllegalStateException e) {
+                // Already completed by the container
+            }
+        }
+
+        @Override
+        public void onComplete(AsyncEvent event) {
+            synchronized (this) {
+                closed = true;
+            }
+            subscribers.remove(this);
+        }
+
+        @Override
+        public void onTimeout(AsyncEvent event) {
+            close();
+        }
+
+        @Override
+        public void onError(AsyncEvent event) {
+            close();
+        }
+
+        @Override
+        public void onError(Throwable t) {
+            close();
+        }
+
+        @Override
+        public void onStartAsync(AsyncEvent event) {
+        }
+    }
+}
@@ -0,0 +1,288 @@
+package com.studentmanagement.controller;
+
+import com.studentmanagement.model.StudentBatch;
+import com.google.gson.Gson;
+import com.google.gson.TypeAdapter;
+
+import java.io.IOException;
+import java.io.Writer;
+import java.sql.Timestamp;
+import java.time.LocalDate;
+import java.util.HashMap;
+import java.util.Map;
+
+// Writes StudentBatch rows as the JSON gson.toJson(student) would produce,
+// byte for byte, without building a Student or a String per field: field
+// order as Student declares it, the same escaping (including Gson's HTML-safe
+// escapes) and the dates formatted by gson's own adapters. A formatted date
+// is reused while consecutive rows share it, which for bulk-loaded tables is
+// most of them. Output is buffered here; call flush() at the end.
+final class StudentJsonWriter {
+    private static final String[] ESCAPES = new String[128];
+    private static final String[] HTML_SAFE_ESCAPES;
+    private static final int BUFFER_SIZE = 8192;
+    private static final int MAX_CACHED_DAYS = 4096;
+
+    static {
+        for (int c = 0; c < 0x20; c++) {
+            ESCAPES[c] = String.format("\\u%04x", c);
+        }
+        ESCAPES['"'] = "\\\"";
+        ESCAPES['\\'] = "\\\\";
+        ESCAPES['\t'] = "\\t";
+        ESCAPES['\b'] = "\\b";
+        ESCAPES['\n'] = "\\n";
+        ESCAPES['\r'] = "\\r";
+        ESCAPES['\f'] = "\\f";
+        HTML_SAFE_ESCAPES = ESCAPES.clone();
+        HTML_SAFE_ESCAPES['<'] = "\\u003c";
+        HTML_SAFE_ESCAPES['>'] = "\\u003e";
+        HTML_SAFE_ESCAPES['&'] = "\\u0026";
+        HTML_SAFE_ESCAPES['='] = "\\u003d";
+        HTML_SAFE_ESCAPES['\''] = "\\u0027";
+    }
+
+    private final Writer out;
+    private final String[] escapes;
+    private final boolean serializeNulls;
+    private final TypeAdapter<java.sql.Date> dateAdapter;
+    private final TypeAdapter<Timestamp> timestampAdapter;
+    private final char[] buffer = new char[BUFFER_SIZE];
+    private int length;
+
+    // Formatted dates as JSON values, quotes included
+    private final Map<Long, String> days = new HashMap<>();
+    private long lastDay = StudentBatch.NULL;
+    private String lastDayJson;
+    private final Timestamp timestamp = new Timestamp(0);
+    // Milliseconds per distinct formatted value
+    private final long timestampUnit;
+    private long createdKey = StudentBatch.NULL;
+    private String createdJson;
+    private long updatedKey = StudentBatch.NULL;
+    private String updatedJson;
+
+    StudentJsonWriter(Gson gson, Writer out) {
+        this.out = out;
+        this.escapes = gson.htmlSafe() ? HTML_SAFE_ESCAPES : ESCAPES;
+        this.serializeNulls = gson.serializeNulls();
+        this.dateAdapter = gson.getAdapter(java.sql.Date.class);
+        this.timestampAdapter = gson.getAdapter(Timestamp.class);
+        // Gson's default format stops at seconds; a format showing milliseconds
+        // changes within a second and is cached per millisecond instead
+        long second = 1_700_000_000_000L;
+        this.timestampUnit = formatTimestamp(second).equals(formatTimestamp(second + 1))
+                && formatTimestamp(second).equals(formatTimestamp(second + 999)) ? 1000L : 1L;
+    }
+
+    void writeStudent(StudentBatch batch, int row) throws IOException {
+        append('{');
+        append("\"id\":");
+        number(batch.getId(row));
+        text(batch, row, StudentBatch.NAME, ",\"name\":");
+        text(batch, row, StudentBatch.EMAIL, ",\"email\":");
+        String course = batch.getCourse(row);
+        if (course != null) {
+            append(",\"course\":");
+            string(course);
+        } else if (serializeNulls) {
+            append(",\"course\":null");
+        }
+        text(batch, row, StudentBatch.PHONE, ",\"phone\":");
+        text(batch, row, StudentBatch.ADDRESS, ",\"address\":");
+        value(",\"enrollmentDate\":", enrollmentDate(batch.getEnrollmentDay(row)));
+        append(",\"userId\":");
+        number(batch.getUserId(row));
+        value(",\"createdAt\":", createdAt(batch.getCreatedAtMicros(row)));
+        value(",\"updatedAt\":", updatedAt(batch.getUpdatedAtMicros(row)));
+        append('}');
+    }
+
+    // Separators between and around rows
+    void write(char c) throws IOException {
+        append(c);
+    }
+
+    void flush() throws IOException {
+        drain();
+        out.flush();
+    }
+
+    private void text(StudentBatch batch, int row, int column, String name) throws IOException {
+        if (batch.isNull(row, column)) {
+            if (serializeNulls) {
+                append(name);
+                append("null");
+            }
+            return;
+        }
+        append(name);
+        append('"');
+        byte[] bytes = batch.text();
+        int end = batch.textEnd(row, column);
+        for (int i = batch.textStart(row, column); i < end; ) {
+            int b = bytes[i] & 0xFF;
+            if (b < 0x80) {
+                escaped((char) b);
+                i++;
+                continue;
+            }
+            // Multi-byte UTF-8 as StudentBatch encoded it; three bytes may
+            // also hold an unpaired surrogate, written as the char it was
+            int codePoint;
+            if (b < 0xE0) {
+                codePoint = ((b & 0x1F) << 6) | (bytes[i + 1] & 0x3F);
+                i += 2;
+            } else if (b < 0xF0) {
+                codePoint = ((b & 0x0F) << 12) | ((bytes[i + 1] & 0x3F) << 6) | (bytes[i + 2] & 0x3F);
+                i += 3;
+            } else {
+                codePoint = ((b & 0x07) << 18) | ((bytes[i + 1] & 0x3F) << 12)
+                        | ((bytes[i + 2] & 0x3F) << 6) | (bytes[i + 3] & 0x3F);
+                i += 4;
+            }
+            if (codePoint == 0x2028) {
+                append("\\u2028");
+            } else if (codePoint == 0x2029) {
+                append("\\u2029");
+            } else if (codePoint < 0x10000) {
+                append((char) codePoint);
+            } else {
+                append(Character.highSurrogate(codePoint));
+                append(Character.lowSurrogate(codePoint));
+            }
+        }
+        append('"');
+    }
+
+    private void string(String value) throws IOException {
+        append('"');
+        for (int i = 0; i < value.length(); i++) {
+            char c = value.charAt(i);
+            if (c < 0x80) {
+                escaped(c);
+            } else if (c == 0x2028) {
+                append("\\u2028");
+            } else if (c == 0x2029) {
+                append("\\u2029");
+            } else {
+                append(c);
+            }
+        }
+        append('"');
+    }
+
+    private void number(int value) throws IOException {
+        if (value < 0 || length + 10 > BUFFER_SIZE) {
+            append(Integer.toString(value));
+            return;
+        }
+        int digits = 1;
+        for (int rest = value / 10; rest > 0; rest /= 10) {
+            digits++;
+        }
+        for (int i = length + digits - 1; i >= length; i--) {
+            buffer[i] = (char) ('0' + value % 10);
+            value /= 10;
+        }
+        length += digits;
+    }
+
+    private void escaped(char c) throws IOException {
+        String escape = escapes[c];
+        if (escape != null) {
+            append(escape);
+        } else {
+            append(c);
+        }
+    }
+
+    private void value(String name, String json) throws IOException {
+        if (json != null) {
+            append(name);
+            append(json);
+        } else if (serializeNulls) {
+            append(name);
+            append("null");
+        }
+    }
+
+    private String enrollmentDate(long day) {
+        if (day == StudentBatch.NULL) {
+            return null;
+        }
+        if (day == lastDay) {
+            return lastDayJson;
+        }
+        String json = days.get(day);
+        if (json == null) {
+            if (days.size() >= MAX_CACHED_DAYS) {
+                days.clear();
+            }
+            json = dateAdapter.toJson(java.sql.Date.valueOf(LocalDate.ofEpochDay(day)));
+            days.put(day, json);
+        }
+        lastDay = day;
+        lastDayJson = json;
+        return json;
+    }
+
+    private String createdAt(long micros) {
+        if (micros == StudentBatch.NULL) {
+            return null;
+        }
+        long millis = Math.floorDiv(micros, 1000L);
+        long key = Math.floorDiv(millis, timestampUnit);
+        if (key != createdKey) {
+            createdJson = formatTimestamp(millis);
+            createdKey = key;
+        }
+        return createdJson;
+    }
+
+    private String updatedAt(long micros) {
+        if (micros == StudentBatch.NULL) {
+            return null;
+        }
+        long millis = Math.floorDiv(micros, 1000L);
+        long key = Math.floorDiv(millis, timestampUnit);
+        if (key != updatedKey) {
+            updatedJson = formatTimestamp(millis);
+            updatedKey = key;
+        }
+        return updatedJson;
+    }
+
+    // Date formats stop at milliseconds, so one Timestamp serves every row
+    private String formatTimestamp(long millis) {
+        timestamp.setTime(millis);
+        return timestampAdapter.toJson(timestamp);
+    }
+
+    private void append(char c) throws IOException {
+        if (length == BUFFER_SIZE) {
+            drain();
+        }
+        buffer[length++] = c;
+    }
+
+    private void append(String s) throws IOException {
+        int n = s.length();
+        if (length + n > BUFFER_SIZE) {
+            drain();
+            if (n > BUFFER_SIZE) {
+                out.write(s);
+                return;
+            }
+        }
+        s.getChars(0, n, buffer, length);
+        length += n;
+    }
+
+    private void drain() throws IOException {
+        if (length > 0) {
+            out.write(buffer, 0, length);
+            length = 0;
+        }
+    }
+}
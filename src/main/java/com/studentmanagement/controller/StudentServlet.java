@@ -1,7 +1,34 @@
 package com.studentmanagement.controller;
 
+import com.studentmanagement.dao.CachingStudentDAO;
+import com.studentmanagement.dao.DAOFactory;
+import com.studentmanagement.dao.StudentBatchHandler;
 import com.studentmanagement.dao.StudentDAO;
+import com.studentmanagement.dao.StudentImportReader;
+import com.studentmanagement.dao.StudentMutation;
+import com.studentmanagement.dao.StudentRowHandler;
+import com.studentmanagement.dao.StudentWriteResult;
+import com.studentmanagement.filter.AuthFilter;
+import com.studentmanagement.model.AuthContext;
+import com.studentmanagement.model.Course;
+import com.studentmanagement.model.CourseEnrollment;
+import com.studentmanagement.model.ImportResult;
 import com.studentmanagement.model.Student;
+import com.studentmanagement.model.StudentChangeSet;
+import com.studentmanagement.model.StudentPage;
+import com.studentmanagement.model.StudentQuery;
+import com.studentmanagement.service.CourseCatalog;
+import com.studentmanagement.service.StudentCache;
+import com.studentmanagement.service.StudentChangeFeed;
+import com.studentmanagement.service.StudentListCache;
+import com.studentmanagement.service.StudentListVersions;
+import com.studentmanagement.service.StudentSearchIndex;
+import com.studentmanagement.service.StudentSearchService;
+import com.studentmanagement.service.StudentStatistics;
+import com.studentmanagement.service.StudentWriteQueue;
+import com.studentmanagement.util.AppConfig;
+import com.studentmanagement.util.CsvUtil;
+import com.studentmanagement.util.DBConnection;
 import com.google.gson.Gson;
 
 import javax.servlet.ServletException;
@@ -10,19 +37,49 @@ import javax.servlet.http.*;
 import java.io.BufferedReader;
 import java.io.IOException;
 import java.io.PrintWriter;
+import java.sql.SQLException;
+import java.sql.Timestamp;
+import java.text.SimpleDateFormat;
+import java.util.ArrayList;
 import java.util.Date;
+import java.util.LinkedHashMap;
 import java.util.List;
+import java.util.Locale;
 import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.RejectedExecutionException;
 
-@WebServlet("/api/students/*")
+@WebServlet(urlPatterns = "/api/students/*", asyncSupported = true)
 public class StudentServlet extends HttpServlet {
+    private static final int DEFAULT_PAGE_SIZE = AppConfig.getInt("students.page.defaultSize", 50);
+    private static final int MAX_PAGE_SIZE = AppConfig.getInt("students.page.maxSize", 500);
+    private static final int IMPORT_BATCH_SIZE = AppConfig.getInt("students.import.batchSize", 500);
+    private static final int IMPORT_COMMIT_SIZE = AppConfig.getInt("students.import.commitSize", 5000);
+    private static final int DEFAULT_SEARCH_RESULTS = AppConfig.getInt("students.search.defaultResults", 20);
+    private static final int MAX_SEARCH_RESULTS = AppConfig.getInt("students.search.maxResults", 100);
+    private static final int MAX_CHANGES = AppConfig.getInt("students.changes.maxBatch", 500);
+    private static final int EXPORT_BATCH_SIZE = AppConfig.getInt("students.export.batchSize", 500);
+
     private StudentDAO studentDAO;
     private Gson gson;
+    private StudentChangeStream changeStream;
 
     @Override
     public void init() {
-        studentDAO = new StudentDAO();
+        // The in-memory engine is already as fast as the cache
+        studentDAO = StudentCache.isEnabled() && !DAOFactory.isInMemory()
+                ? new CachingStudentDAO(StudentCache.getInstance()) : DAOFactory.studentDAO();
         gson = new Gson();
+        if (StudentChangeFeed.isEnabled()) {
+            changeStream = new StudentChangeStream(StudentChangeFeed.getInstance(), studentDAO, gson, MAX_CHANGES);
+        }
+    }
+
+    @Override
+    public void destroy() {
+        if (changeStream != null) {
+            changeStream.shutdown();
+        }
     }
 
     @Override
@@ -30,31 +87,121 @@ public class StudentServlet extends HttpServlet {
             throws ServletException, IOException {
 
         response.setContentType("application/json");
-        PrintWriter out = response.getWriter();
+        response.setCharacterEncoding("UTF-8");
 
         // Check authentication
-        HttpSession session = request.getSession(false);
-        if (session == null || session.getAttribute("userId") == null) {
+        AuthContext auth = AuthFilter.authContext(request);
+        if (auth == null) {
             response.setStatus(HttpServletResponse.SC_UNAUTHORIZED);
-            out.print(gson.toJson(Map.of("error", "Please login first")));
+            response.getWriter().print(gson.toJson(Map.of("error", "Please login first")));
             return;
         }
 
-        int userId = (int) session.getAttribute("userId");
-        String role = (String) session.getAttribute("role");
+        int userId = auth.getUserId();
+        String role = auth.getRole();
 
         String pathInfo = request.getPathInfo();
 
+        if ("/changes/stream".equals(pathInfo)) {
+            // Parked without a thread until there is something to send
+            StudentChangeFeed feed = StudentChangeFeed.getInstance();
+            if (changeStream == null || !feed.isStarted()) {
+                response.setStatus(HttpServletResponse.SC_SERVICE_UNAVAILABLE);
+                response.getWriter().print(gson.toJson(Map.of("error", "Change feed is not available")));
+                return;
+            }
+            String since = request.getHeader("Last-Event-ID");
+            if (since == null) {
+                since = request.getParameter("since");
+            }
+            try {
+                changeStream.open(request, response, "admin".equals(role) ? null : userId, parseSince(since, feed));
+            } catch (IllegalArgumentException e) {
+                response.setStatus(HttpServletResponse.SC_BAD_REQUEST);
+                response.getWriter().print(gson.toJson(Map.of("error", e.getMessage())));
+            }
+            return;
+        }
+
+        // Lists carry a version kept in memory; an unchanged one is answered
+        // 304 here without a query. It is read before the query runs, so the
+        // tag sent with a full response is never newer than its rows.
+        StudentListVersions.Version listVersion = null;
+        if (pathInfo == null || pathInfo.equals("/")) {
+            listVersion = StudentListVersions.getInstance().current("admin".equals(role) ? null : userId);
+            if (listVersion != null && isNotModified(request, listVersion)) {
+                setValidators(response, listVersion);
+                response.setStatus(HttpServletResponse.SC_NOT_MODIFIED);
+                return;
+            }
+        }
+        StudentListVersions.Version version = listVersion;
+
+        if ("/stats".equals(pathInfo) || "/cache-stats".equals(pathInfo)) {
+            // Answered from memory, so there's no reason to leave the request thread
+            handleGet(request, response, response.getWriter(), pathInfo, userId, role, null);
+        } else {
+            AsyncDbRequest.run(request, response, gson, "/export".equals(pathInfo),
+                    (res, out) -> handleGet(request, res, out, pathInfo, userId, role, version));
+        }
+    }
+
+    private void handleGet(HttpServletRequest request, HttpServletResponse response, PrintWriter out,
+                           String pathInfo, int userId, String role, StudentListVersions.Version listVersion) {
         try {
             if (pathInfo == null || pathInfo.equals("/")) {
-                // Get all students based on role
-                List<Student> students;
+                // List one page of students; regular users only see their own
+                StudentQuery query = buildStudentQuery(request);
+                if (!"admin".equals(role)) {
+                    query.setUserId(userId);
+                }
+                if (listVersion != null) {
+                    // A replica's older page must not go out under the new tag. lastModified
+                    // is rounded down to the second, and -1 within the second of a change.
+                    long modified = listVersion.getLastModified();
+                    if (DBConnection.replicasMayLag(modified < 0 ? System.currentTimeMillis() : modified + 1000)) {
+                        DBConnection.setPrimaryReads(true);
+                    }
+                }
+                if (listVersion != null && StudentListCache.isEnabled()) {
+                    // Served as cached JSON while the version stands; no query or Gson on a hit
+                    StudentListCache.Page page = StudentListCache.getInstance()
+                            .page(listVersion, query, () -> studentDAO.findStudents(query));
+                    setValidators(response, listVersion);
+                    page.writeTo(out);
+                } else {
+                    StudentPage page = studentDAO.findStudents(query);
+                    if (listVersion != null) {
+                        setValidators(response, listVersion);
+                    }
+                    out.print(gson.toJson(page));
+                }
+            } else if (pathInfo.equals("/stats")) {
+                // Dashboard counters are served from memory and never scan the table
+                StudentStatistics statistics = StudentStatistics.getInstance();
                 if ("admin".equals(role)) {
-                    students = studentDAO.getAllStudents();
+                    out.print(gson.toJson(statistics.getSnapshot()));
+                } else {
+                    out.print(gson.toJson(Map.of("total", statistics.getCountForOwner(userId))));
+                }
+            } else if (pathInfo.equals("/cache-stats")) {
+                if (!"admin".equals(role)) {
+                    response.setStatus(HttpServletResponse.SC_FORBIDDEN);
+                    out.print(gson.toJson(Map.of("error", "Admin access required")));
+                } else if (!StudentCache.isEnabled()) {
+                    out.print(gson.toJson(Map.of("enabled", false)));
                 } else {
-                    students = studentDAO.getStudentsByUser(userId);
+                    out.print(gson.toJson(StudentCache.getInstance().getStats()));
                 }
-                out.print(gson.toJson(students));
+            } else if (pathInfo.equals("/export")) {
+                // Stream every visible student; admins get the whole table
+                exportStudents(request, response, out, "admin".equals(role) ? null : userId);
+            } else if (pathInfo.equals("/search")) {
+                searchStudents(request, response, out, "admin".equals(role) ? null : userId);
+            } else if (pathInfo.equals("/changes")) {
+                listChanges(request, response, out, "admin".equals(role) ? null : userId);
+            } else if (pathInfo.equals("/courses")) {
+                listCourses(out, "admin".equals(role) ? null : userId);
             } else {
                 // Get single student
                 String[] pathParts = pathInfo.split("/");
@@ -65,6 +212,9 @@ public class StudentServlet extends HttpServlet {
                     if (student != null) {
                         // Check if user has permission to view this student
                         if ("admin".equals(role) || student.getUserId() == userId) {
+                            if (student.getUpdatedAt() != null) {
+                                response.setHeader("ETag", versionTag(student.getUpdatedAt()));
+                            }
                             out.print(gson.toJson(student));
                         } else {
                             response.setStatus(HttpServletResponse.SC_FORBIDDEN);
@@ -76,51 +226,354 @@ public class StudentServlet extends HttpServlet {
                     }
                 }
             }
+        } catch (IllegalArgumentException e) {
+            response.setStatus(HttpServletResponse.SC_BAD_REQUEST);
+            out.print(gson.toJson(Map.of("error", e.getMessage())));
         } catch (Exception e) {
             response.setStatus(HttpServletResponse.SC_INTERNAL_SERVER_ERROR);
             out.print(gson.toJson(Map.of("error", e.getMessage())));
         }
     }
 
+    // Every course in name order with how many of the visible students it
+    // has; the ids are what ?courseId= filters on
+    private void listCourses(PrintWriter out, Integer ownerId) throws SQLException {
+        Map<Integer, Long> counts = studentDAO.countStudentsByCourse(ownerId);
+        CourseCatalog catalog = CourseCatalog.getInstance();
+        for (Integer courseId : counts.keySet()) {
+            // Reloads the catalog for courses created since it was loaded
+            catalog.name(courseId);
+        }
+        List<CourseEnrollment> courses = new ArrayList<>();
+        for (Course course : catalog.inNameOrder()) {
+            courses.add(new CourseEnrollment(course, counts.getOrDefault(course.getId(), 0L)));
+        }
+        out.print(gson.toJson(Map.of("courses", courses)));
+    }
+
+    // Net changes to the visible students since a cursor from an earlier call.
+    // Without since, only the current cursor is returned: take it before
+    // loading the list, then ask for changes since it.
+    private void listChanges(HttpServletRequest request, HttpServletResponse response,
+                             PrintWriter out, Integer ownerId) throws SQLException {
+        StudentChangeFeed feed = StudentChangeFeed.getInstance();
+        if (!feed.isStarted()) {
+            response.setStatus(HttpServletResponse.SC_SERVICE_UNAVAILABLE);
+            out.print(gson.toJson(Map.of("error", "Change feed is not available")));
+            return;
+        }
+
+        int limit = MAX_CHANGES;
+        String limitParam = request.getParameter("limit");
+        if (limitParam != null && !limitParam.isEmpty()) {
+            try {
+                limit = Integer.parseInt(limitParam);
+            } catch (NumberFormatException e) {
+                throw new IllegalArgumentException("limit must be a number");
+            }
+            if (limit < 1 || limit > MAX_CHANGES) {
+                throw new IllegalArgumentException("limit must be between 1 and " + MAX_CHANGES);
+            }
+        }
+
+        String since = request.getParameter("since");
+        StudentChangeSet changes = since == null
+                ? new StudentChangeSet(feed.getLatestSeq(), false, false)
+                : feed.changesSince(parseSince(since, feed), ownerId, limit, studentDAO);
+        response.setHeader("Cache-Control", "no-store");
+        out.print(gson.toJson(changes));
+    }
+
+    // A change feed cursor; the current one when absent
+    private static long parseSince(String since, StudentChangeFeed feed) {
+        if (since == null || since.isEmpty()) {
+            return feed.getLatestSeq();
+        }
+        try {
+            return Long.parseLong(since.trim());
+        } catch (NumberFormatException e) {
+            throw new IllegalArgumentException("since must be a cursor returned by this endpoint");
+        }
+    }
+
+    // Ranked full-text search over name, email, course, phone and address,
+    // answered from the in-memory index; only the returned page is read from SQL
+    private void searchStudents(HttpServletRequest request, HttpServletResponse response,
+                                PrintWriter out, Integer ownerId) throws SQLException {
+        String q = request.getParameter("q");
+        if (q == null || q.trim().isEmpty()) {
+            throw new IllegalArgumentException("q is required");
+        }
+
+        int limit = DEFAULT_SEARCH_RESULTS;
+        String limitParam = request.getParameter("limit");
+        if (limitParam != null && !limitParam.isEmpty()) {
+            try {
+                limit = Integer.parseInt(limitParam);
+            } catch (NumberFormatException e) {
+                throw new IllegalArgumentException("limit must be a number");
+            }
+            if (limit < 1 || limit > MAX_SEARCH_RESULTS) {
+                throw new IllegalArgumentException("limit must be between 1 and " + MAX_SEARCH_RESULTS);
+            }
+        }
+        boolean fuzzy = !"false".equalsIgnoreCase(request.getParameter("fuzzy"));
+
+        StudentSearchService search = StudentSearchService.getInstance();
+        if (!StudentSearchService.isEnabled() || !search.isReady()) {
+            response.setStatus(HttpServletResponse.SC_SERVICE_UNAVAILABLE);
+            response.setHeader("Retry-After", "5");
+            out.print(gson.toJson(Map.of("error", "Search is not available yet")));
+            return;
+        }
+
+        StudentSearchIndex.Hits hits = search.search(q, ownerId, limit, fuzzy);
+        List<Integer> ids = new ArrayList<>(hits.getIds().length);
+        for (int id : hits.getIds()) {
+            ids.add(id);
+        }
+        List<Student> students = studentDAO.getStudentsByIds(ids);
+        if (ownerId != null) {
+            // The index may trail a just-committed ownership change by a moment
+            students.removeIf(student -> student.getUserId() != ownerId);
+        }
+
+        Map<String, Object> result = new LinkedHashMap<>();
+        result.put("items", students);
+        result.put("total", hits.getTotal());
+        out.print(gson.toJson(result));
+    }
+
+    // Streams students as a JSON array (format=json, default), JSON lines (jsonl)
+    // or CSV straight from the ResultSet to the response. Nothing is buffered
+    // beyond the container's response buffer, which is flushed as chunks.
+    private void exportStudents(HttpServletRequest request, HttpServletResponse response,
+                                PrintWriter out, Integer ownerId) throws IOException, SQLException {
+        String format = request.getParameter("format");
+        if (format == null || format.isEmpty()) {
+            format = "json";
+        }
+
+        try {
+            switch (format) {
+                case "json":
+                    // Columnar batches written straight to JSON: no Student per row
+                    StudentJsonWriter arrayWriter = new StudentJsonWriter(gson, out);
+                    boolean[] first = {true};
+                    arrayWriter.write('[');
+                    studentDAO.streamStudentBatches(ownerId, EXPORT_BATCH_SIZE, abortBatchesOnDisconnect(out, batch -> {
+                        for (int row = 0; row < batch.size(); row++) {
+                            if (!first[0]) {
+                                arrayWriter.write(',');
+                            }
+                            first[0] = false;
+                            arrayWriter.writeStudent(batch, row);
+                        }
+                        arrayWriter.flush();
+                    }));
+                    arrayWriter.write(']');
+                    arrayWriter.flush();
+                    break;
+                case "jsonl":
+                    response.setContentType("application/x-ndjson");
+                    response.setHeader("Content-Disposition", "attachment; filename=\"students.jsonl\"");
+                    StudentJsonWriter lineWriter = new StudentJsonWriter(gson, out);
+                    studentDAO.streamStudentBatches(ownerId, EXPORT_BATCH_SIZE, abortBatchesOnDisconnect(out, batch -> {
+                        for (int row = 0; row < batch.size(); row++) {
+                            lineWriter.writeStudent(batch, row);
+                            lineWriter.write('\n');
+                        }
+                        lineWriter.flush();
+                    }));
+                    break;
+                case "csv":
+                    response.setContentType("text/csv");
+                    response.setHeader("Content-Disposition", "attachment; filename=\"students.csv\"");
+                    SimpleDateFormat dateFormat = new SimpleDateFormat("yyyy-MM-dd");
+                    SimpleDateFormat timestampFormat = new SimpleDateFormat("yyyy-MM-dd HH:mm:ss");
+                    CsvUtil.writeRow(out, "id", "name", "email", "course", "phone", "address",
+                            "enrollment_date", "user_id", "created_at", "updated_at");
+                    studentDAO.streamStudents(ownerId, abortOnDisconnect(out, student -> CsvUtil.writeRow(out,
+                            String.valueOf(student.getId()),
+                            student.getName(),
+                            student.getEmail(),
+                            student.getCourse(),
+                            student.getPhone(),
+                            student.getAddress(),
+                            formatDate(dateFormat, student.getEnrollmentDate()),
+                            String.valueOf(student.getUserId()),
+                            formatDate(timestampFormat, student.getCreatedAt()),
+                            formatDate(timestampFormat, student.getUpdatedAt()))));
+                    break;
+                default:
+                    throw new IllegalArgumentException("format must be json, jsonl or csv");
+            }
+            out.flush();
+        } catch (SQLException | IOException e) {
+            if (response.isCommitted()) {
+                // Part of the body is already on the wire; all we can do is cut the stream short
+                e.printStackTrace();
+                return;
+            }
+            response.resetBuffer();
+            response.setContentType("application/json");
+            response.setHeader("Content-Disposition", "inline");
+            throw e;
+        }
+    }
+
+    // PrintWriter swallows IOExceptions, so poll checkError() (which flushes)
+    // every few hundred rows and stop reading from the database once the client is gone
+    private static StudentRowHandler abortOnDisconnect(PrintWriter out, StudentRowHandler handler) {
+        int[] rows = {0};
+        return student -> {
+            handler.handle(student);
+            if (++rows[0] % 500 == 0 && out.checkError()) {
+                throw new IOException("Client disconnected during export");
+            }
+        };
+    }
+
+    // The same check once per batch
+    private static StudentBatchHandler abortBatchesOnDisconnect(PrintWriter out, StudentBatchHandler handler) {
+        return batch -> {
+            handler.handle(batch);
+            if (out.checkError()) {
+                throw new IOException("Client disconnected during export");
+            }
+        };
+    }
+
+    private static String formatDate(SimpleDateFormat format, Date date) {
+        return date != null ? format.format(date) : null;
+    }
+
+    // Reads cursor, limit, course, courseId, enrolledFrom, enrolledTo (yyyy-MM-dd), sort and order
+    private StudentQuery buildStudentQuery(HttpServletRequest request) {
+        StudentQuery query = new StudentQuery();
+
+        String limit = request.getParameter("limit");
+        int pageSize = DEFAULT_PAGE_SIZE;
+        if (limit != null && !limit.isEmpty()) {
+            try {
+                pageSize = Integer.parseInt(limit);
+            } catch (NumberFormatException e) {
+                throw new IllegalArgumentException("limit must be a number");
+            }
+            if (pageSize < 1 || pageSize > MAX_PAGE_SIZE) {
+                throw new IllegalArgumentException("limit must be between 1 and " + MAX_PAGE_SIZE);
+            }
+        }
+        query.setLimit(pageSize);
+
+        String sort = request.getParameter("sort");
+        if (sort != null && !sort.isEmpty()) {
+            if (!StudentQuery.isValidSortKey(sort)) {
+                throw new IllegalArgumentException("Unsupported sort key: " + sort);
+            }
+            query.setSortKey(sort);
+        }
+
+        String order = request.getParameter("order");
+        if (order != null && !order.isEmpty()) {
+            if (!"asc".equalsIgnoreCase(order) && !"desc".equalsIgnoreCase(order)) {
+                throw new IllegalArgumentException("order must be asc or desc");
+            }
+            query.setDescending("desc".equalsIgnoreCase(order));
+        }
+
+        String course = request.getParameter("course");
+        if (course != null && !course.trim().isEmpty()) {
+            query.setCourse(course.trim());
+        }
+        String courseId = request.getParameter("courseId");
+        if (courseId != null && !courseId.isEmpty()) {
+            try {
+                query.setCourseId(Integer.parseInt(courseId));
+            } catch (NumberFormatException e) {
+                throw new IllegalArgumentException("courseId must be a number");
+            }
+        }
+
+        query.setEnrolledFrom(parseDateParameter(request, "enrolledFrom"));
+        query.setEnrolledTo(parseDateParameter(request, "enrolledTo"));
+
+        String cursor = request.getParameter("cursor");
+        if (cursor != null && !cursor.isEmpty()) {
+            query.setCursor(cursor);
+        }
+
+        return query;
+    }
+
+    private Date parseDateParameter(HttpServletRequest request, String name) {
+        String value = request.getParameter(name);
+        if (value == null || value.isEmpty()) {
+            return null;
+        }
+        try {
+            return java.sql.Date.valueOf(value);
+        } catch (IllegalArgumentException e) {
+            throw new IllegalArgumentException(name + " must be a date in yyyy-MM-dd format");
+        }
+    }
+
     @Override
     protected void doPost(HttpServletRequest request, HttpServletResponse response)
             throws ServletException, IOException {
 
         response.setContentType("application/json");
-        PrintWriter out = response.getWriter();
 
         // Check authentication
-        HttpSession session = request.getSession(false);
-        if (session == null || session.getAttribute("userId") == null) {
+        AuthContext auth = AuthFilter.authContext(request);
+        if (auth == null) {
             response.setStatus(HttpServletResponse.SC_UNAUTHORIZED);
-            out.print(gson.toJson(Map.of("error", "Please login first")));
+            response.getWriter().print(gson.toJson(Map.of("error", "Please login first")));
             return;
         }
 
-        int userId = (int) session.getAttribute("userId");
+        int userId = auth.getUserId();
+        String pathInfo = request.getPathInfo();
 
+        if ("/import".equals(pathInfo)) {
+            AsyncDbRequest.run(request, response, gson, true,
+                    (res, out) -> importStudents(request, res, out, userId));
+        } else if (pathInfo != null && pathInfo.endsWith("/restore")) {
+            String role = auth.getRole();
+            AsyncDbRequest.run(request, response, gson,
+                    (res, out) -> restoreStudent(res, out, pathInfo, userId, role));
+        } else {
+            AsyncDbRequest.run(request, response, gson, (res, out) -> addStudent(request, res, out, userId));
+        }
+    }
+
+    private void addStudent(HttpServletRequest request, HttpServletResponse response, PrintWriter out, int userId) {
         try {
             // Read JSON from request
             BufferedReader reader = request.getReader();
             Student student = gson.fromJson(reader, Student.class);
 
             // Validate input
-            if (student.getName() == null || student.getName().trim().isEmpty() ||
-                    student.getEmail() == null || student.getEmail().trim().isEmpty() ||
-                    student.getCourse() == null || student.getCourse().trim().isEmpty()) {
-
+            String validationError = StudentValidation.requiredFieldsError(student);
+            if (validationError != null) {
                 response.setStatus(HttpServletResponse.SC_BAD_REQUEST);
-                out.print(gson.toJson(Map.of("error", "Name, email and course are required")));
+                out.print(gson.toJson(Map.of("error", validationError)));
                 return;
             }
+            // Trims fields and sets the enrollment date if not provided, as for updates and imports
+            StudentValidation.normalize(student);
 
-            // Set enrollment date if not provided
-            if (student.getEnrollmentDate() == null) {
-                student.setEnrollmentDate(new Date());
+            boolean success;
+            if (StudentWriteQueue.isEnabled()) {
+                StudentWriteResult result = writeQueued(response, out, StudentMutation.add(student, userId));
+                if (result == null) {
+                    return;
+                }
+                success = result == StudentWriteResult.OK;
+            } else {
+                success = studentDAO.addStudent(student, userId);
             }
 
-            boolean success = studentDAO.addStudent(student, userId);
-
             if (success) {
                 response.setStatus(HttpServletResponse.SC_CREATED);
                 out.print(gson.toJson(Map.of(
@@ -138,55 +591,105 @@ public class StudentServlet extends HttpServlet {
         }
     }
 
+    // Bulk import from a JSON array (application/json) or CSV with a header row
+    // (text/csv). The body is parsed incrementally and written in JDBC batches;
+    // the response reports counts plus the rows that were rejected and why.
+    private void importStudents(HttpServletRequest request, HttpServletResponse response,
+                                PrintWriter out, int userId) throws IOException {
+        if (request.getCharacterEncoding() == null) {
+            request.setCharacterEncoding("UTF-8");
+        }
+        String contentType = request.getContentType() != null
+                ? request.getContentType().toLowerCase(Locale.ROOT) : "application/json";
+
+        ImportResult result = new ImportResult();
+        StudentImportReader reader;
+        if (contentType.startsWith("text/csv")) {
+            reader = new CsvStudentImportReader(request.getReader(), result);
+        } else if (contentType.startsWith("application/json")) {
+            reader = new JsonStudentImportReader(request.getReader(), gson, result);
+        } else {
+            response.setStatus(HttpServletResponse.SC_UNSUPPORTED_MEDIA_TYPE);
+            out.print(gson.toJson(Map.of("error", "Import accepts application/json or text/csv")));
+            return;
+        }
+
+        Map<String, Object> body = new LinkedHashMap<>();
+        try {
+            studentDAO.importStudents(reader, userId, IMPORT_BATCH_SIZE, IMPORT_COMMIT_SIZE, result);
+        } catch (IllegalArgumentException e) {
+            response.setStatus(HttpServletResponse.SC_BAD_REQUEST);
+            body.put("error", e.getMessage());
+        } catch (SQLException e) {
+            e.printStackTrace();
+            response.setStatus(HttpServletResponse.SC_INTERNAL_SERVER_ERROR);
+            body.put("error", "Import aborted: " + e.getMessage());
+        }
+
+        body.put("success", !body.containsKey("error"));
+        body.put("processed", result.getProcessed());
+        body.put("imported", result.getImported());
+        body.put("failed", result.getFailed());
+        body.put("errors", result.getErrors());
+        out.print(gson.toJson(body));
+    }
+
     @Override
     protected void doPut(HttpServletRequest request, HttpServletResponse response)
             throws ServletException, IOException {
 
         response.setContentType("application/json");
-        PrintWriter out = response.getWriter();
 
         // Check authentication
-        HttpSession session = request.getSession(false);
-        if (session == null || session.getAttribute("userId") == null) {
+        AuthContext auth = AuthFilter.authContext(request);
+        if (auth == null) {
             response.setStatus(HttpServletResponse.SC_UNAUTHORIZED);
-            out.print(gson.toJson(Map.of("error", "Please login first")));
+            response.getWriter().print(gson.toJson(Map.of("error", "Please login first")));
             return;
         }
 
-        int userId = (int) session.getAttribute("userId");
-        String role = (String) session.getAttribute("role");
+        int userId = auth.getUserId();
+        String role = auth.getRole();
+        if (rejectWeakIfMatch(request, response)) {
+            return;
+        }
+
+        AsyncDbRequest.run(request, response, gson, (res, out) -> updateStudent(request, res, out, userId, role));
+    }
 
+    private void updateStudent(HttpServletRequest request, HttpServletResponse response, PrintWriter out,
+                               int userId, String role) {
         try {
             BufferedReader reader = request.getReader();
             Student student = gson.fromJson(reader, Student.class);
 
-            // Check if student exists
-            Student existingStudent = studentDAO.getStudentById(student.getId());
-            if (existingStudent == null) {
-                response.setStatus(HttpServletResponse.SC_NOT_FOUND);
-                out.print(gson.toJson(Map.of("error", "Student not found")));
-                return;
-            }
-
-            // Check permission
-            if (!"admin".equals(role) && existingStudent.getUserId() != userId) {
-                response.setStatus(HttpServletResponse.SC_FORBIDDEN);
-                out.print(gson.toJson(Map.of("error", "You don't have permission to update this student")));
+            String validationError = StudentValidation.requiredFieldsError(student);
+            if (validationError != null) {
+                response.setStatus(HttpServletResponse.SC_BAD_REQUEST);
+                out.print(gson.toJson(Map.of("error", validationError)));
                 return;
             }
-
-            boolean success = studentDAO.updateStudent(student);
-
-            if (success) {
-                out.print(gson.toJson(Map.of(
-                        "message", "Student updated successfully",
-                        "success", true
-                )));
+            StudentValidation.normalize(student);
+
+            // Existence, ownership and version are checked by the UPDATE itself
+            boolean admin = "admin".equals(role);
+            Timestamp expectedUpdatedAt = parseIfMatch(request);
+            StudentWriteResult result;
+            if (StudentWriteQueue.isEnabled()) {
+                result = writeQueued(response, out, StudentMutation.update(student, userId, admin, expectedUpdatedAt));
+                if (result == null) {
+                    return;
+                }
             } else {
-                response.setStatus(HttpServletResponse.SC_BAD_REQUEST);
-                out.print(gson.toJson(Map.of("error", "Failed to update student")));
+                result = studentDAO.updateStudent(student, userId, admin, expectedUpdatedAt);
             }
+            writeResult(response, out, result, "Student updated successfully",
+                    "You don't have permission to update this student",
+                    HttpServletResponse.SC_BAD_REQUEST, "Failed to update student");
 
+        } catch (IllegalArgumentException e) {
+            response.setStatus(HttpServletResponse.SC_BAD_REQUEST);
+            out.print(gson.toJson(Map.of("error", e.getMessage())));
         } catch (Exception e) {
             response.setStatus(HttpServletResponse.SC_INTERNAL_SERVER_ERROR);
             out.print(gson.toJson(Map.of("error", e.getMessage())));
@@ -198,59 +701,223 @@ public class StudentServlet extends HttpServlet {
             throws ServletException, IOException {
 
         response.setContentType("application/json");
-        PrintWriter out = response.getWriter();
 
         // Check authentication
-        HttpSession session = request.getSession(false);
-        if (session == null || session.getAttribute("userId") == null) {
+        AuthContext auth = AuthFilter.authContext(request);
+        if (auth == null) {
             response.setStatus(HttpServletResponse.SC_UNAUTHORIZED);
-            out.print(gson.toJson(Map.of("error", "Please login first")));
+            response.getWriter().print(gson.toJson(Map.of("error", "Please login first")));
             return;
         }
 
-        int userId = (int) session.getAttribute("userId");
-        String role = (String) session.getAttribute("role");
+        int userId = auth.getUserId();
+        String role = auth.getRole();
 
         String pathInfo = request.getPathInfo();
+        if (rejectWeakIfMatch(request, response)) {
+            return;
+        }
 
+        AsyncDbRequest.run(request, response, gson,
+                (res, out) -> deleteStudent(request, res, out, pathInfo, userId, role));
+    }
+
+    private void deleteStudent(HttpServletRequest request, HttpServletResponse response, PrintWriter out,
+                               String pathInfo, int userId, String role) {
         try {
             if (pathInfo != null && pathInfo.split("/").length > 1) {
                 int id = Integer.parseInt(pathInfo.split("/")[1]);
 
-                // Check if student exists
-                Student existingStudent = studentDAO.getStudentById(id);
-                if (existingStudent == null) {
-                    response.setStatus(HttpServletResponse.SC_NOT_FOUND);
-                    out.print(gson.toJson(Map.of("error", "Student not found")));
-                    return;
-                }
-
-                // Check permission
-                if (!"admin".equals(role) && existingStudent.getUserId() != userId) {
-                    response.setStatus(HttpServletResponse.SC_FORBIDDEN);
-                    out.print(gson.toJson(Map.of("error", "You don't have permission to delete this student")));
-                    return;
-                }
-
-                boolean success = studentDAO.deleteStudent(id);
-
-                if (success) {
-                    out.print(gson.toJson(Map.of(
-                            "message", "Student deleted successfully",
-                            "success", true
-                    )));
-                } else {
-                    response.setStatus(HttpServletResponse.SC_INTERNAL_SERVER_ERROR);
-                    out.print(gson.toJson(Map.of("error", "Failed to delete student")));
-                }
+                StudentWriteResult result = studentDAO.deleteStudent(id, userId, "admin".equals(role),
+                        parseIfMatch(request));
+                writeResult(response, out, result, "Student deleted successfully",
+                        "You don't have permission to delete this student",
+                        HttpServletResponse.SC_INTERNAL_SERVER_ERROR, "Failed to delete student");
             } else {
                 response.setStatus(HttpServletResponse.SC_BAD_REQUEST);
                 out.print(gson.toJson(Map.of("error", "Student ID is required")));
             }
 
+        } catch (IllegalArgumentException e) {
+            response.setStatus(HttpServletResponse.SC_BAD_REQUEST);
+            out.print(gson.toJson(Map.of("error", e.getMessage())));
+        } catch (Exception e) {
+            response.setStatus(HttpServletResponse.SC_INTERNAL_SERVER_ERROR);
+            out.print(gson.toJson(Map.of("error", e.getMessage())));
+        }
+    }
+
+    // POST /api/students/{id}/restore - undo a delete until the purger archives the row
+    private void restoreStudent(HttpServletResponse response, PrintWriter out,
+                                String pathInfo, int userId, String role) {
+        try {
+            String[] pathParts = pathInfo.split("/");
+            if (pathParts.length != 3) {
+                response.setStatus(HttpServletResponse.SC_NOT_FOUND);
+                out.print(gson.toJson(Map.of("error", "Unknown endpoint")));
+                return;
+            }
+            int id = Integer.parseInt(pathParts[1]);
+
+            StudentWriteResult result = studentDAO.restoreStudent(id, userId, "admin".equals(role));
+            if (result == StudentWriteResult.CONFLICT) {
+                response.setStatus(HttpServletResponse.SC_CONFLICT);
+                out.print(gson.toJson(Map.of("error", "Student is not deleted")));
+                return;
+            }
+            if (result == StudentWriteResult.EMAIL_TAKEN) {
+                response.setStatus(HttpServletResponse.SC_CONFLICT);
+                out.print(gson.toJson(Map.of("error", "Another student now has this email")));
+                return;
+            }
+            writeResult(response, out, result, "Student restored successfully",
+                    "You don't have permission to restore this student",
+                    HttpServletResponse.SC_INTERNAL_SERVER_ERROR, "Failed to restore student");
+
+        } catch (NumberFormatException e) {
+            response.setStatus(HttpServletResponse.SC_BAD_REQUEST);
+            out.print(gson.toJson(Map.of("error", "Invalid student ID")));
         } catch (Exception e) {
             response.setStatus(HttpServletResponse.SC_INTERNAL_SERVER_ERROR);
             out.print(gson.toJson(Map.of("error", e.getMessage())));
         }
     }
-}
\ No newline at end of file
+
+    // Hands a write to the write-behind queue. Returns its result once
+    // committed, or null when the response has already been sent: 503 when
+    // the queue is full, 202 when writes are acknowledged on enqueue.
+    private StudentWriteResult writeQueued(HttpServletResponse response, PrintWriter out,
+                                           StudentMutation mutation) throws InterruptedException {
+        StudentWriteQueue queue = StudentWriteQueue.getInstance();
+        CompletableFuture<StudentWriteResult> future;
+        try {
+            future = queue.submit(mutation);
+        } catch (RejectedExecutionException e) {
+            response.setStatus(HttpServletResponse.SC_SERVICE_UNAVAILABLE);
+            response.setHeader("Retry-After", "1");
+            out.print(gson.toJson(Map.of("error", "Too many pending writes. Try again shortly.")));
+            return null;
+        }
+        if (!queue.isAckOnCommit()) {
+            response.setStatus(HttpServletResponse.SC_ACCEPTED);
+            out.print(gson.toJson(Map.of(
+                    "message", "Student change accepted",
+                    "success", true,
+                    "queued", true
+            )));
+            return null;
+        }
+        // The queue never completes exceptionally; failures arrive as FAILED
+        return future.join();
+    }
+
+    private void writeResult(HttpServletResponse response, PrintWriter out, StudentWriteResult result,
+                             String successMessage, String forbiddenMessage,
+                             int failureStatus, String failureMessage) {
+        switch (result) {
+            case OK:
+                out.print(gson.toJson(Map.of(
+                        "message", successMessage,
+                        "success", true
+                )));
+                break;
+            case NOT_FOUND:
+                response.setStatus(HttpServletResponse.SC_NOT_FOUND);
+                out.print(gson.toJson(Map.of("error", "Student not found")));
+                break;
+            case FORBIDDEN:
+                response.setStatus(HttpServletResponse.SC_FORBIDDEN);
+                out.print(gson.toJson(Map.of("error", forbiddenMessage)));
+                break;
+            case CONFLICT:
+                response.setStatus(HttpServletResponse.SC_CONFLICT);
+                out.print(gson.toJson(Map.of("error", "Student was modified by someone else. Reload and try again.")));
+                break;
+            default:
+                response.setStatus(failureStatus);
+                out.print(gson.toJson(Map.of("error", failureMessage)));
+        }
+    }
+
+    // A student's version is its updated_at in epoch microseconds. It is sent
+    // as the ETag of GET /api/students/{id} and checked through If-Match.
+    private static String versionTag(Date updatedAt) {
+        long micros;
+        if (updatedAt instanceof Timestamp) {
+            Timestamp timestamp = (Timestamp) updatedAt;
+            micros = Math.floorDiv(timestamp.getTime(), 1000) * 1_000_000L + timestamp.getNanos() / 1000;
+        } else {
+            micros = updatedAt.getTime() * 1000L;
+        }
+        return "\"" + micros + "\"";
+    }
+
+    // If-None-Match wins over If-Modified-Since when both are sent (RFC 7232)
+    private static boolean isNotModified(HttpServletRequest request, StudentListVersions.Version version) {
+        String ifNoneMatch = request.getHeader("If-None-Match");
+        if (ifNoneMatch != null) {
+            for (String tag : ifNoneMatch.split(",")) {
+                tag = tag.trim();
+                // Weak comparison, as If-None-Match on GET allows
+                if (tag.startsWith("W/")) {
+                    tag = tag.substring(2);
+                }
+                if (tag.equals("*") || tag.equals(version.getEtag())) {
+                    return true;
+                }
+            }
+            return false;
+        }
+        if (version.getLastModified() < 0) {
+            return false;
+        }
+        try {
+            long ifModifiedSince = request.getDateHeader("If-Modified-Since");
+            return ifModifiedSince >= 0 && version.getLastModified() <= ifModifiedSince;
+        } catch (IllegalArgumentException e) {
+            // Unparseable dates are ignored
+            return false;
+        }
+    }
+
+    // no-cache: browsers may keep the list but must revalidate it on every view
+    private static void setValidators(HttpServletResponse response, StudentListVersions.Version version) {
+        response.setHeader("ETag", version.getEtag());
+        if (version.getLastModified() >= 0) {
+            response.setDateHeader("Last-Modified", version.getLastModified());
+        }
+        response.setHeader("Cache-Control", "private, no-cache");
+    }
+
+    // If-Match uses strong comparison, so a weak tag never matches the
+    // current version (RFC 9110 13.1.1). Answers 412 without touching the
+    // database.
+    private boolean rejectWeakIfMatch(HttpServletRequest request, HttpServletResponse response)
+            throws IOException {
+        String ifMatch = request.getHeader("If-Match");
+        if (ifMatch == null || !ifMatch.trim().startsWith("W/")) {
+            return false;
+        }
+        response.setStatus(HttpServletResponse.SC_PRECONDITION_FAILED);
+        response.getWriter().print(gson.toJson(Map.of("error", "If-Match must be a strong version tag")));
+        return true;
+    }
+
+    // Returns null when the request is unconditional (no If-Match, or "*")
+    private static Timestamp parseIfMatch(HttpServletRequest request) {
+        String ifMatch = request.getHeader("If-Match");
+        if (ifMatch == null || ifMatch.trim().isEmpty() || "*".equals(ifMatch.trim())) {
+            return null;
+        }
+        String tag = ifMatch.trim().replace("\"", "");
+        long micros;
+        try {
+            micros = Long.parseLong(tag);
+        } catch (NumberFormatException e) {
+            throw new IllegalArgumentException("Invalid If-Match version");
+        }
+        Timestamp timestamp = new Timestamp(Math.floorDiv(micros, 1_000_000L) * 1000);
+        timestamp.setNanos((int) Math.floorMod(micros, 1_000_000L) * 1000);
+        return timestamp;
+    }
+}
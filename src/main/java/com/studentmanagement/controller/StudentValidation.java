@@ -0,0 +1,38 @@
+package com.studentmanagement.controller;
+
+import com.studentmanagement.model.Student;
+
+import java.util.Date;
+
+// Input checks shared by single-student writes and bulk import
+final class StudentValidation {
+
+    private StudentValidation() {}
+
+    // Returns the error to report, or null when the student can be saved
+    static String requiredFieldsError(Student student) {
+        if (student == null ||
+                student.getName() == null || student.getName().trim().isEmpty() ||
+                student.getEmail() == null || student.getEmail().trim().isEmpty() ||
+                student.getCourse() == null || student.getCourse().trim().isEmpty()) {
+            return "Name, email and course are required";
+        }
+        return null;
+    }
+
+    // Trims text fields and defaults the enrollment date to today
+    static void normalize(Student student) {
+        student.setName(trim(student.getName()));
+        student.setEmail(trim(student.getEmail()));
+        student.setCourse(trim(student.getCourse()));
+        student.setPhone(trim(student.getPhone()));
+        student.setAddress(trim(student.getAddress()));
+        if (student.getEnrollmentDate() == null) {
+            student.setEnrollmentDate(new Date());
+        }
+    }
+
+    private static String trim(String value) {
+        return value != null ? value.trim() : null;
+    }
+}
@@ -0,0 +1,45 @@
+package com.studentmanagement.dao;
+
+import com.studentmanagement.model.Student;
+import com.studentmanagement.service.StudentCache;
+import com.studentmanagement.util.DBConnection;
+
+import java.sql.Timestamp;
+
+// StudentDAO whose by-id lookups are served from the shared StudentCache.
+// Writes go straight to the database; the cache is invalidated by the
+// change events StudentDAO publishes after each commit.
+public class CachingStudentDAO extends JdbcStudentDAO {
+    private final StudentCache cache;
+
+    public CachingStudentDAO(StudentCache cache) {
+        this.cache = cache;
+    }
+
+    @Override
+    public Student getStudentById(int id) {
+        try {
+            return cache.getOrLoad(id, () -> {
+                // A lagging replica would put a stale row in the cache until the next change
+                boolean previous = DBConnection.setPrimaryReads(true);
+                try {
+                    return super.getStudentById(id);
+                } finally {
+                    DBConnection.setPrimaryReads(previous);
+                }
+            });
+        } catch (Exception e) {
+            e.printStackTrace();
+            return null;
+        }
+    }
+
+    @Override
+    protected Student knownPreviousState(int id, Timestamp expectedUpdatedAt) {
+        if (expectedUpdatedAt == null) {
+            return null;
+        }
+        Student cached = cache.peek(id);
+        return cached != null && expectedUpdatedAt.equals(cached.getUpdatedAt()) ? cached : null;
+    }
+}
@@ -0,0 +1,19 @@
+package com.studentmanagement.dao;
+
+import com.studentmanagement.model.Course;
+
+import java.sql.SQLException;
+import java.util.List;
+
+// The course catalog: JdbcCourseDAO or InMemoryCourseDAO, chosen by
+// DAOFactory. Courses are only ever added, never renamed or removed, so a
+// course id stays valid for good. Names are unique regardless of case.
+public interface CourseDAO {
+
+    // Every course, in id order
+    List<Course> getAllCourses() throws SQLException;
+
+    // The course with this name (ignoring case), created if there is none.
+    // Safe to race: concurrent callers all get the one course.
+    Course findOrCreateCourse(String name) throws SQLException;
+}
@@ -0,0 +1,94 @@
+package com.studentmanagement.dao;
+
+import com.studentmanagement.model.Course;
+import com.studentmanagement.model.Student;
+import com.studentmanagement.service.CourseCatalog;
+
+import java.sql.Connection;
+import java.sql.SQLException;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+// Course names for the students of one JDBC read. The catalog answers from
+// memory. An id it doesn't hold yet (a course another node created since it
+// loaded) is noted with the students that need it, and fill() names them
+// once the ResultSet is closed, reading the courses over the read's own
+// connection. Reloading through the catalog mid-read would take a second
+// pooled connection while holding this one; with every connection held that
+// way, nobody gets one.
+final class CourseNames {
+    private final CourseCatalog catalog = CourseCatalog.getInstance();
+    private final boolean complete;
+    private Map<Integer, List<Student>> unknown;
+
+    CourseNames() {
+        this(false);
+    }
+
+    private CourseNames(boolean complete) {
+        this.complete = complete;
+    }
+
+    // For reads that hand rows on as they go and can't name them afterwards.
+    // Reads the courses over conn first; run in the same transaction as the
+    // rows, so both see one snapshot and every course_id is among them.
+    static CourseNames loadedOn(Connection conn) throws SQLException {
+        CourseCatalog.getInstance().reload(JdbcCourseDAO.selectAll(conn));
+        return new CourseNames(true);
+    }
+
+    // Every course in name order as of conn, given the catalog's list read
+    // before conn was taken. Courses are only ever added, so the catalog
+    // lacks some exactly when the table holds more than it does.
+    static List<Course> inNameOrder(Connection conn, List<Course> known) throws SQLException {
+        if (JdbcCourseDAO.count(conn) <= known.size()) {
+            return known;
+        }
+        CourseCatalog catalog = CourseCatalog.getInstance();
+        catalog.reload(JdbcCourseDAO.selectAll(conn));
+        return catalog.inNameOrder();
+    }
+
+    void name(Student student, int courseId) throws SQLException {
+        String name = catalog.knownName(courseId);
+        if (name != null) {
+            student.setCourse(name);
+        } else if (complete) {
+            throw new SQLException("Unknown course id " + courseId);
+        } else {
+            if (unknown == null) {
+                unknown = new HashMap<>();
+            }
+            unknown.computeIfAbsent(courseId, id -> new ArrayList<>()).add(student);
+        }
+    }
+
+    // The name of a course the catalog holds; every course after loadedOn
+    String name(int courseId) throws SQLException {
+        String name = catalog.knownName(courseId);
+        if (name == null) {
+            throw new SQLException("Unknown course id " + courseId);
+        }
+        return name;
+    }
+
+    // Names the students noted by name(); call after their ResultSet is closed
+    void fill(Connection conn) throws SQLException {
+        if (unknown == null) {
+            return;
+        }
+        catalog.reload(JdbcCourseDAO.selectAll(conn));
+        for (Map.Entry<Integer, List<Student>> entry : unknown.entrySet()) {
+            String name = catalog.knownName(entry.getKey());
+            if (name == null) {
+                throw new SQLException("Unknown course id " + entry.getKey());
+            }
+            for (Student student : entry.getValue()) {
+                student.setCourse(name);
+            }
+        }
+        unknown = null;
+    }
+}
@@ -0,0 +1,55 @@
+package com.studentmanagement.dao;
+
+import com.studentmanagement.util.AppConfig;
+
+import java.util.Locale;
+
+// The configured storage engine. storage.engine=jdbc (the default) keeps
+// everything in the database behind DBConnection; storage.engine=memory
+// keeps students, users and courses in this process (InMemoryStore),
+// optionally made durable by a write-ahead log under storage.memory.dir.
+public final class DAOFactory {
+    private static final String ENGINE = AppConfig.getString("storage.engine", "jdbc").trim().toLowerCase(Locale.ROOT);
+
+    private static volatile InMemoryStore store;
+
+    private DAOFactory() {}
+
+    public static boolean isInMemory() {
+        return "memory".equals(ENGINE);
+    }
+
+    public static StudentDAO studentDAO() {
+        return isInMemory() ? new InMemoryStudentDAO(getStore()) : new JdbcStudentDAO();
+    }
+
+    public static UserDAO userDAO() {
+        return isInMemory() ? new InMemoryUserDAO(getStore()) : new JdbcUserDAO();
+    }
+
+    public static CourseDAO courseDAO() {
+        return isInMemory() ? new InMemoryCourseDAO(getStore()) : new JdbcCourseDAO();
+    }
+
+    // Snapshots and closes the in-memory store, if one was opened
+    public static synchronized void shutdown() {
+        if (store != null) {
+            store.close();
+            store = null;
+        }
+    }
+
+    private static InMemoryStore getStore() {
+        InMemoryStore current = store;
+        if (current == null) {
+            synchronized (DAOFactory.class) {
+                current = store;
+                if (current == null) {
+                    current = InMemoryStore.fromConfig();
+                    store = current;
+                }
+            }
+        }
+        return current;
+    }
+}
@@ -0,0 +1,42 @@
+package com.studentmanagement.dao;
+
+import com.studentmanagement.model.Course;
+
+import java.sql.SQLException;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.List;
+
+// CourseDAO on an InMemoryStore, which interns the course of every student
+// it stores and logs new courses with the students that introduce them
+public class InMemoryCourseDAO implements CourseDAO {
+    private final InMemoryStore store;
+
+    InMemoryCourseDAO(InMemoryStore store) {
+        this.store = store;
+    }
+
+    @Override
+    public List<Course> getAllCourses() {
+        List<Course> courses = new ArrayList<>();
+        for (Course course : store.courses()) {
+            courses.add(new Course(course.getId(), course.getName()));
+        }
+        courses.sort(Comparator.comparingInt(Course::getId));
+        return courses;
+    }
+
+    @Override
+    public Course findOrCreateCourse(String name) throws SQLException {
+        Course course = store.courseByName(name);
+        if (course == null) {
+            store.lock();
+            try {
+                course = store.commitCourse(name);
+            } finally {
+                store.unlock();
+            }
+        }
+        return new Course(course.getId(), course.getName());
+    }
+}
@@ -0,0 +1,1039 @@
+package com.studentmanagement.dao;
+
+import com.google.gson.Gson;
+import com.google.gson.JsonParseException;
+import com.studentmanagement.model.Course;
+import com.studentmanagement.model.Student;
+import com.studentmanagement.model.StudentBatch;
+import com.studentmanagement.model.StudentQuery;
+import com.studentmanagement.model.User;
+import com.studentmanagement.util.AppConfig;
+
+import java.io.BufferedReader;
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.io.Writer;
+import java.nio.ByteBuffer;
+import java.nio.channels.Channels;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.DirectoryStream;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.StandardOpenOption;
+import java.sql.SQLException;
+import java.sql.Timestamp;
+import java.time.Instant;
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.Comparator;
+import java.util.Date;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.NavigableSet;
+import java.util.Objects;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentSkipListSet;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.locks.ReentrantLock;
+import java.util.logging.Level;
+import java.util.logging.Logger;
+
+// Students and users held in this process, for storage.engine=memory.
+//
+// Rows are immutable and replaced whole on every write, so readers never
+// lock: they look rows up in the id maps and walk concurrent skip-list
+// indexes (students by owner, by course, live ids, and one per sort order),
+// and at worst miss or skip a row that is being moved by a concurrent write.
+// Writers are serialized by one lock.
+//
+// Course names are interned through the course catalog held here: every row
+// of a course shares the catalog's String, spelled as the course was first
+// created. A commit that introduces a course logs it with its students.
+//
+// With storage.memory.dir set, every commit is first appended to a
+// write-ahead log as JSON lines (wal-<n>.log), forced to disk when
+// storage.memory.fsync is on. Once the current segment passes
+// snapshotAfterBytes, writes move to a new segment and a background thread
+// writes the whole store to "snapshot" and deletes the segments it covers.
+// Startup loads the snapshot and replays the newer segments; a commit torn
+// by a crash mid-append ends its segment and is dropped whole. Archived
+// students are appended to archive.log, the counterpart of the
+// students_archive table.
+final class InMemoryStore implements AutoCloseable {
+    private static final Logger LOGGER = Logger.getLogger(InMemoryStore.class.getName());
+    private static final Gson GSON = new Gson();
+    private static final String SNAPSHOT = "snapshot";
+    private static final String ARCHIVE = "archive.log";
+    // The same sentinel as StudentBatch, so rows copy into batches as they are
+    private static final long NO_DATE = StudentBatch.NULL;
+    private static final long NULL_DATE_DAY = LocalDate.parse(StudentCursors.NULL_ENROLLMENT_DATE).toEpochDay();
+
+    // Keyset orders of findStudents; ties are broken by id like the SQL ORDER BY
+    static final Map<String, Comparator<StudentRow>> SORT_ORDERS = Map.of(
+            StudentQuery.SORT_NAME,
+            Comparator.comparing((StudentRow row) -> row.name, Comparator.nullsFirst(String.CASE_INSENSITIVE_ORDER))
+                    .thenComparingInt(row -> row.id),
+            StudentQuery.SORT_EMAIL,
+            Comparator.comparing((StudentRow row) -> row.email, Comparator.nullsFirst(String.CASE_INSENSITIVE_ORDER))
+                    .thenComparingInt(row -> row.id),
+            StudentQuery.SORT_COURSE,
+            Comparator.comparing((StudentRow row) -> row.course, Comparator.nullsFirst(String.CASE_INSENSITIVE_ORDER))
+                    .thenComparingInt(row -> row.id),
+            StudentQuery.SORT_ENROLLMENT_DATE,
+            Comparator.comparingLong(StudentRow::sortDay).thenComparingInt(row -> row.id));
+    private static final Comparator<StudentRow> BY_DELETED_AT =
+            Comparator.comparingLong((StudentRow row) -> row.deletedAt).thenComparingInt(row -> row.id);
+
+    private final Map<Integer, StudentRow> students = new ConcurrentHashMap<>();
+    // Lowercased email to id of the live student holding it; deleted students free theirs
+    private final Map<String, Integer> studentEmails = new ConcurrentHashMap<>();
+    private final NavigableSet<Integer> liveIds = new ConcurrentSkipListSet<>();
+    private final Map<Integer, NavigableSet<Integer>> studentsByUser = new ConcurrentHashMap<>();
+    // Keyed by lowercased course, as MySQL compares it
+    private final Map<String, NavigableSet<Integer>> studentsByCourse = new ConcurrentHashMap<>();
+    private final Map<String, NavigableSet<StudentRow>> sortIndexes = new HashMap<>();
+    private final NavigableSet<StudentRow> deleted = new ConcurrentSkipListSet<>(BY_DELETED_AT);
+
+    private final Map<Integer, User> users = new ConcurrentHashMap<>();
+    private final Map<String, Integer> usernames = new ConcurrentHashMap<>();
+    private final Map<String, Integer> userEmails = new ConcurrentHashMap<>();
+
+    private final Map<Integer, Course> courses = new ConcurrentHashMap<>();
+    // Keyed by lowercased name
+    private final Map<String, Course> courseNames = new ConcurrentHashMap<>();
+
+    private final ReentrantLock writeLock = new ReentrantLock();
+    private int nextStudentId = 1;
+    private int nextUserId = 1;
+    private int nextCourseId = 1;
+    private long lastMicros;
+
+    private final Path dir;
+    private final boolean fsync;
+    private final long snapshotAfterBytes;
+    private final ExecutorService snapshotter;
+    private FileChannel wal;
+    private long segment;
+    private long walBytes;
+    private boolean snapshotting;
+    // A failed append that couldn't be undone; the log can't take more writes
+    private boolean broken;
+    private boolean closed;
+
+    // dir null keeps everything in memory only
+    InMemoryStore(Path dir, boolean fsync, long snapshotAfterBytes) throws IOException {
+        for (Map.Entry<String, Comparator<StudentRow>> order : SORT_ORDERS.entrySet()) {
+            sortIndexes.put(order.getKey(), new ConcurrentSkipListSet<>(order.getValue()));
+        }
+        this.dir = dir;
+        this.fsync = fsync;
+        this.snapshotAfterBytes = snapshotAfterBytes;
+        if (dir == null) {
+            snapshotter = null;
+            return;
+        }
+        recover();
+        snapshotter = Executors.newSingleThreadExecutor(r -> {
+            Thread thread = new Thread(r, "memory-store-snapshot");
+            thread.setDaemon(true);
+            return thread;
+        });
+    }
+
+    static InMemoryStore fromConfig() {
+        String dir = AppConfig.getString("storage.memory.dir", "").trim();
+        try {
+            return new InMemoryStore(dir.isEmpty() ? null : Paths.get(dir),
+                    AppConfig.getBoolean("storage.memory.fsync", true),
+                    AppConfig.getLong("storage.memory.snapshotAfterBytes", 64L * 1024 * 1024));
+        } catch (IOException e) {
+            throw new UncheckedIOException("Could not open the in-memory store in " + dir, e);
+        }
+    }
+
+    // Reads
+
+    StudentRow student(int id) {
+        return students.get(id);
+    }
+
+    // In id order
+    NavigableSet<Integer> liveIds() {
+        return liveIds;
+    }
+
+    NavigableSet<Integer> idsOfUser(int userId) {
+        NavigableSet<Integer> ids = studentsByUser.get(userId);
+        return ids != null ? ids : Collections.emptyNavigableSet();
+    }
+
+    NavigableSet<Integer> idsOfCourse(String course) {
+        NavigableSet<Integer> ids = studentsByCourse.get(course.toLowerCase(Locale.ROOT));
+        return ids != null ? ids : Collections.emptyNavigableSet();
+    }
+
+    NavigableSet<StudentRow> sortIndex(String sortKey) {
+        return sortIndexes.get(sortKey);
+    }
+
+    // Deleted students, longest deleted first
+    NavigableSet<StudentRow> deletedStudents() {
+        return deleted;
+    }
+
+    User user(int id) {
+        User user = users.get(id);
+        return user != null ? copy(user) : null;
+    }
+
+    Integer userIdByName(String username) {
+        return usernames.get(username.toLowerCase(Locale.ROOT));
+    }
+
+    Integer userIdByEmail(String email) {
+        return userEmails.get(email.toLowerCase(Locale.ROOT));
+    }
+
+    Collection<User> users() {
+        return users.values();
+    }
+
+    // Shared with the store; callers copy before handing one out
+    Course course(int id) {
+        return courses.get(id);
+    }
+
+    Course courseByName(String name) {
+        return courseNames.get(name.toLowerCase(Locale.ROOT));
+    }
+
+    Collection<Course> courses() {
+        return courses.values();
+    }
+
+    // Writes; callers hold lock() around reading what they write and commit
+
+    void lock() {
+        writeLock.lock();
+    }
+
+    void unlock() {
+        writeLock.unlock();
+    }
+
+    Transaction begin() {
+        return new Transaction();
+    }
+
+    int newUserId() {
+        return nextUserId++;
+    }
+
+    void commitUser(User user) throws SQLException {
+        List<Record> records = Collections.singletonList(Record.of(user));
+        append(records);
+        apply(copy(user));
+        snapshotIfDue();
+    }
+
+    // The course with this name, logged and added if it is new
+    Course commitCourse(String name) throws SQLException {
+        Course course = courseByName(name);
+        if (course == null) {
+            course = new Course(nextCourseId, name);
+            append(Collections.singletonList(Record.of(course)));
+            nextCourseId++;
+            apply(course);
+            snapshotIfDue();
+        }
+        return course;
+    }
+
+    // Moves students to archive.log and forgets them, freeing their emails
+    void archive(List<StudentRow> rows) throws SQLException {
+        List<Record> removals = new ArrayList<>(rows.size());
+        for (StudentRow row : rows) {
+            removals.add(Record.removal(row.id));
+        }
+        if (dir != null) {
+            List<Record> archived = new ArrayList<>(rows.size());
+            for (StudentRow row : rows) {
+                archived.add(Record.of(row));
+            }
+            // Archived before the log says they're gone; a crash in between repeats them there
+            try (FileChannel archive = FileChannel.open(dir.resolve(ARCHIVE),
+                    StandardOpenOption.CREATE, StandardOpenOption.WRITE, StandardOpenOption.APPEND)) {
+                write(archive, encode(archived));
+                if (fsync) {
+                    archive.force(false);
+                }
+            } catch (IOException e) {
+                throw new SQLException("Could not append to " + ARCHIVE, e);
+            }
+        }
+        append(removals);
+        for (StudentRow row : rows) {
+            removeStudent(row.id);
+        }
+        snapshotIfDue();
+    }
+
+    // Strictly increasing, so every write gets its own updated_at version
+    Timestamp now() {
+        Instant now = Instant.now();
+        lastMicros = Math.max(now.getEpochSecond() * 1_000_000L + now.getNano() / 1000, lastMicros + 1);
+        return timestamp(lastMicros);
+    }
+
+    // Returns once a snapshot being written in the background is on disk
+    // (package-private for InMemoryStoreCheck)
+    void awaitSnapshot() throws InterruptedException, ExecutionException {
+        if (snapshotter != null) {
+            snapshotter.submit(() -> { }).get();
+        }
+    }
+
+    // Writes a final snapshot, so the next start replays nothing
+    @Override
+    public void close() {
+        if (snapshotter != null) {
+            snapshotter.shutdown();
+            try {
+                snapshotter.awaitTermination(1, TimeUnit.MINUTES);
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+            }
+        }
+        writeLock.lock();
+        try {
+            if (closed) {
+                return;
+            }
+            closed = true;
+            if (dir == null) {
+                return;
+            }
+            if (!broken) {
+                Snapshot snapshot = rotate();
+                writeSnapshot(snapshot);
+                deleteSegmentsBefore(snapshot.segment);
+            }
+            wal.close();
+        } catch (IOException e) {
+            LOGGER.log(Level.WARNING, "Could not snapshot the in-memory store on close", e);
+        } finally {
+            writeLock.unlock();
+        }
+    }
+
+    // The students written by one commit, applied together after one log append
+    final class Transaction {
+        private final Map<Integer, StudentRow> rows = new LinkedHashMap<>();
+        // Emails claimed (id) or released (null) by this transaction
+        private final Map<String, Integer> emails = new HashMap<>();
+        // Courses first named by this transaction, by lowercased name
+        private final Map<String, Course> newCourses = new LinkedHashMap<>();
+
+        StudentRow student(int id) {
+            StudentRow row = rows.get(id);
+            return row != null ? row : students.get(id);
+        }
+
+        // Whether a student other than id holds this email
+        boolean emailTaken(String email, int id) {
+            String key = emailKey(email);
+            Integer holder = emails.containsKey(key) ? emails.get(key) : studentEmails.get(key);
+            return holder != null && holder != id;
+        }
+
+        int newStudentId() {
+            return nextStudentId++;
+        }
+
+        // Returns the row as stored: its course is the catalog's spelling
+        StudentRow put(StudentRow row) {
+            row = intern(row);
+            StudentRow previous = student(row.id);
+            if (previous != null && previous.isLive()
+                    && (!row.isLive() || !previous.emailKey().equals(row.emailKey()))) {
+                emails.put(previous.emailKey(), null);
+            }
+            if (row.isLive()) {
+                emails.put(row.emailKey(), row.id);
+            }
+            rows.put(row.id, row);
+            return row;
+        }
+
+        private StudentRow intern(StudentRow row) {
+            if (row.course == null) {
+                return row;
+            }
+            String key = row.courseKey();
+            Course course = courseNames.get(key);
+            if (course == null) {
+                course = newCourses.computeIfAbsent(key, k -> new Course(nextCourseId++, row.course));
+            }
+            return row.withCourse(course.getName());
+        }
+
+        boolean isEmpty() {
+            return rows.isEmpty();
+        }
+
+        void commit() throws SQLException {
+            if (rows.isEmpty()) {
+                return;
+            }
+            List<Record> records = new ArrayList<>(newCourses.size() + rows.size());
+            for (Course course : newCourses.values()) {
+                records.add(Record.of(course));
+            }
+            for (StudentRow row : rows.values()) {
+                records.add(Record.of(row));
+            }
+            append(records);
+            for (Course course : newCourses.values()) {
+                apply(course);
+            }
+            for (StudentRow row : rows.values()) {
+                putStudent(row);
+            }
+            snapshotIfDue();
+        }
+    }
+
+    // One version of a student, never modified once built
+    static final class StudentRow {
+        final int id;
+        final String name;
+        final String email;
+        final String course;
+        final String phone;
+        final String address;
+        // Epoch day, or NO_DATE
+        final long enrollmentDay;
+        final int userId;
+        // Epoch microseconds; deletedAt is 0 while the student is live
+        final long createdAt;
+        final long updatedAt;
+        final long deletedAt;
+
+        StudentRow(int id, String name, String email, String course, String phone, String address,
+                   long enrollmentDay, int userId, long createdAt, long updatedAt, long deletedAt) {
+            this.id = id;
+            this.name = name;
+            this.email = email;
+            this.course = course;
+            this.phone = phone;
+            this.address = address;
+            this.enrollmentDay = enrollmentDay;
+            this.userId = userId;
+            this.createdAt = createdAt;
+            this.updatedAt = updatedAt;
+            this.deletedAt = deletedAt;
+        }
+
+        // A new student, or new values for an existing one; the date is kept to the day
+        static StudentRow of(int id, Student student, int userId, long createdAt, Timestamp updatedAt) {
+            long day = student.getEnrollmentDate() != null
+                    ? new java.sql.Date(student.getEnrollmentDate().getTime()).toLocalDate().toEpochDay()
+                    : NO_DATE;
+            return new StudentRow(id, student.getName(), student.getEmail(), student.getCourse(),
+                    student.getPhone(), student.getAddress(), day, userId, createdAt, micros(updatedAt), 0);
+        }
+
+        // Only ever compared with SORT_ORDERS
+        static StudentRow probe(String sortKey, String value, int id) {
+            if (StudentQuery.SORT_ENROLLMENT_DATE.equals(sortKey)) {
+                return new StudentRow(id, null, null, null, null, null,
+                        LocalDate.parse(value).toEpochDay(), 0, 0, 0, 0);
+            }
+            boolean name = StudentQuery.SORT_NAME.equals(sortKey);
+            boolean email = StudentQuery.SORT_EMAIL.equals(sortKey);
+            return new StudentRow(id, name ? value : null, email ? value : null, !name && !email ? value : null,
+                    null, null, NO_DATE, 0, 0, 0, 0);
+        }
+
+        // Only ever compared with BY_DELETED_AT
+        static StudentRow deletedProbe(Timestamp deletedAt) {
+            return new StudentRow(Integer.MIN_VALUE, null, null, null, null, null, NO_DATE, 0, 0, 0, micros(deletedAt));
+        }
+
+        StudentRow withCourse(String canonical) {
+            return canonical == course ? this : new StudentRow(id, name, email, canonical, phone, address,
+                    enrollmentDay, userId, createdAt, updatedAt, deletedAt);
+        }
+
+        StudentRow deleted(Timestamp at) {
+            return new StudentRow(id, name, email, course, phone, address, enrollmentDay, userId,
+                    createdAt, micros(at), micros(at));
+        }
+
+        StudentRow restored(Timestamp at) {
+            return new StudentRow(id, name, email, course, phone, address, enrollmentDay, userId,
+                    createdAt, micros(at), 0);
+        }
+
+        boolean isLive() {
+            return deletedAt == 0;
+        }
+
+        boolean isVersion(Timestamp version) {
+            return micros(version) == updatedAt;
+        }
+
+        boolean hasEnrollmentDate() {
+            return enrollmentDay != NO_DATE;
+        }
+
+        long sortDay() {
+            return enrollmentDay != NO_DATE ? enrollmentDay : NULL_DATE_DAY;
+        }
+
+        String emailKey() {
+            return email == null ? "" : InMemoryStore.emailKey(email);
+        }
+
+        String courseKey() {
+            return course == null ? "" : course.toLowerCase(Locale.ROOT);
+        }
+
+        java.sql.Date enrollmentDate() {
+            return enrollmentDay != NO_DATE ? java.sql.Date.valueOf(LocalDate.ofEpochDay(enrollmentDay)) : null;
+        }
+
+        Timestamp updatedTimestamp() {
+            return timestamp(updatedAt);
+        }
+
+        // A fresh copy for the caller to keep or change
+        Student toStudent() {
+            Student student = new Student();
+            student.setId(id);
+            student.setName(name);
+            student.setEmail(email);
+            student.setCourse(course);
+            student.setPhone(phone);
+            student.setAddress(address);
+            student.setEnrollmentDate(enrollmentDate());
+            student.setUserId(userId);
+            student.setCreatedAt(timestamp(createdAt));
+            student.setUpdatedAt(timestamp(updatedAt));
+            return student;
+        }
+    }
+
+    static String emailKey(String email) {
+        return email.trim().toLowerCase(Locale.ROOT);
+    }
+
+    static long micros(Date date) {
+        int nanos = date instanceof Timestamp ? ((Timestamp) date).getNanos() : (int) Math.floorMod(date.getTime(), 1000L) * 1_000_000;
+        return Math.floorDiv(date.getTime(), 1000L) * 1_000_000L + nanos / 1000;
+    }
+
+    static Timestamp timestamp(long micros) {
+        Timestamp timestamp = new Timestamp(Math.floorDiv(micros, 1_000_000L) * 1000);
+        timestamp.setNanos((int) Math.floorMod(micros, 1_000_000L) * 1000);
+        return timestamp;
+    }
+
+    static User copy(User user) {
+        User copy = new User(user.getUsername(), user.getEmail(), user.getPassword(), user.getFullName(), user.getRole());
+        copy.setId(user.getId());
+        copy.setCreatedAt(user.getCreatedAt() != null ? (Date) user.getCreatedAt().clone() : null);
+        copy.setUpdatedAt(user.getUpdatedAt() != null ? (Date) user.getUpdatedAt().clone() : null);
+        return copy;
+    }
+
+    // Applying a row to the maps and indexes; the caller holds the write lock
+    // (or is recovering, before anyone can read)
+
+    private void putStudent(StudentRow row) {
+        StudentRow previous = students.put(row.id, row);
+        reindex(previous, row);
+        nextStudentId = Math.max(nextStudentId, row.id + 1);
+        lastMicros = Math.max(lastMicros, Math.max(row.updatedAt, row.deletedAt));
+    }
+
+    private void removeStudent(int id) {
+        StudentRow previous = students.remove(id);
+        if (previous != null) {
+            reindex(previous, null);
+        }
+        nextStudentId = Math.max(nextStudentId, id + 1);
+    }
+
+    private void reindex(StudentRow previous, StudentRow row) {
+        int id = previous != null ? previous.id : row.id;
+        if (previous != null && previous.isLive()
+                && (row == null || !row.isLive() || !previous.emailKey().equals(row.emailKey()))) {
+            studentEmails.remove(previous.emailKey(), id);
+        }
+        if (row != null && row.isLive()) {
+            studentEmails.put(row.emailKey(), id);
+        }
+
+        boolean wasLive = previous != null && previous.isLive();
+        boolean live = row != null && row.isLive();
+        if (live) {
+            liveIds.add(id);
+        } else if (wasLive) {
+            liveIds.remove(id);
+        }
+        move(studentsByUser, wasLive ? previous.userId : null, live ? row.userId : null, id);
+        move(studentsByCourse, wasLive ? previous.courseKey() : null, live ? row.courseKey() : null, id);
+        for (Map.Entry<String, NavigableSet<StudentRow>> index : sortIndexes.entrySet()) {
+            move(index.getValue(), SORT_ORDERS.get(index.getKey()), wasLive ? previous : null, live ? row : null);
+        }
+        move(deleted, BY_DELETED_AT, previous != null && !wasLive ? previous : null,
+                row != null && !live ? row : null);
+    }
+
+    private static <K> void move(Map<K, NavigableSet<Integer>> index, K from, K to, int id) {
+        if (Objects.equals(from, to)) {
+            return;
+        }
+        if (to != null) {
+            index.computeIfAbsent(to, key -> new ConcurrentSkipListSet<>()).add(id);
+        }
+        if (from != null) {
+            index.computeIfPresent(from, (key, ids) -> {
+                ids.remove(id);
+                return ids.isEmpty() ? null : ids;
+            });
+        }
+    }
+
+    // A row still in its place needs no index change: readers look up its
+    // current version by id anyway
+    private static void move(NavigableSet<StudentRow> index, Comparator<StudentRow> order,
+                             StudentRow from, StudentRow to) {
+        if (from != null && to != null && order.compare(from, to) == 0) {
+            return;
+        }
+        if (from != null) {
+            index.remove(from);
+        }
+        if (to != null) {
+            index.add(to);
+        }
+    }
+
+    private void apply(User user) {
+        User previous = users.put(user.getId(), user);
+        if (previous != null) {
+            usernames.remove(previous.getUsername().toLowerCase(Locale.ROOT), previous.getId());
+            userEmails.remove(previous.getEmail().toLowerCase(Locale.ROOT), previous.getId());
+        }
+        usernames.put(user.getUsername().toLowerCase(Locale.ROOT), user.getId());
+        userEmails.put(user.getEmail().toLowerCase(Locale.ROOT), user.getId());
+        nextUserId = Math.max(nextUserId, user.getId() + 1);
+    }
+
+    private void apply(Course course) {
+        courses.put(course.getId(), course);
+        courseNames.put(course.getName().toLowerCase(Locale.ROOT), course);
+        nextCourseId = Math.max(nextCourseId, course.getId() + 1);
+    }
+
+    // A replayed row shares its course's String. Logs written before courses
+    // were logged name them only in student records; those are added here in
+    // log order, so they get the same ids on every replay.
+    private StudentRow internReplayed(StudentRow row) {
+        if (row.course == null) {
+            return row;
+        }
+        Course course = courseNames.get(row.courseKey());
+        if (course == null) {
+            course = new Course(nextCourseId, row.course);
+            apply(course);
+        }
+        return row.withCourse(course.getName());
+    }
+
+    // Write-ahead log
+
+    private void append(List<Record> records) throws SQLException {
+        if (closed) {
+            throw new SQLException("The in-memory store is closed");
+        }
+        if (dir == null) {
+            return;
+        }
+        if (broken) {
+            throw new SQLException("The write-ahead log failed earlier; restart to recover");
+        }
+        if (records.size() > 1) {
+            records.get(0).n = records.size();
+        }
+        ByteBuffer bytes = encode(records);
+        int length = bytes.remaining();
+        try {
+            write(wal, bytes);
+            if (fsync) {
+                wal.force(false);
+            }
+            walBytes += length;
+        } catch (IOException e) {
+            // Drop the partial lines, so later appends don't follow garbage
+            try {
+                wal.truncate(walBytes);
+            } catch (IOException truncateFailed) {
+                broken = true;
+            }
+            throw new SQLException("Could not append to the write-ahead log", e);
+        }
+    }
+
+    // Only once the commit is applied, or the snapshot would miss it
+    private void snapshotIfDue() {
+        if (dir != null && walBytes >= snapshotAfterBytes && !snapshotting) {
+            startSnapshot();
+        }
+    }
+
+    private void startSnapshot() {
+        Snapshot snapshot;
+        try {
+            snapshot = rotate();
+        } catch (IOException e) {
+            LOGGER.log(Level.WARNING, "Could not start a new write-ahead log segment", e);
+            return;
+        }
+        snapshotting = true;
+        snapshotter.execute(() -> {
+            try {
+                writeSnapshot(snapshot);
+                deleteSegmentsBefore(snapshot.segment);
+            } catch (IOException e) {
+                LOGGER.log(Level.WARNING, "Could not snapshot the in-memory store", e);
+            } finally {
+                writeLock.lock();
+                try {
+                    snapshotting = false;
+                } finally {
+                    writeLock.unlock();
+                }
+            }
+        });
+    }
+
+    // Switches writes to a new segment and captures what the older ones hold.
+    // Rows are immutable, so the capture is just their references.
+    private Snapshot rotate() throws IOException {
+        FileChannel next = openSegment(segment + 1);
+        wal.close();
+        wal = next;
+        segment++;
+        walBytes = 0;
+        return new Snapshot(segment, nextStudentId, nextUserId, new ArrayList<>(courses.values()),
+                new ArrayList<>(students.values()), new ArrayList<>(users.values()));
+    }
+
+    // Written beside the old snapshot and renamed over it, so a crash leaves one or the other
+    private void writeSnapshot(Snapshot snapshot) throws IOException {
+        Path tmp = dir.resolve(SNAPSHOT + ".tmp");
+        try (FileChannel channel = FileChannel.open(tmp, StandardOpenOption.CREATE,
+                StandardOpenOption.WRITE, StandardOpenOption.TRUNCATE_EXISTING)) {
+            Writer out = Channels.newWriter(channel, StandardCharsets.UTF_8);
+            out.write(GSON.toJson(Record.header(snapshot)));
+            out.write('\n');
+            // Before the students, so replay finds every course already known
+            for (Course course : snapshot.courses) {
+                out.write(GSON.toJson(Record.of(course)));
+                out.write('\n');
+            }
+            for (StudentRow row : snapshot.students) {
+                out.write(GSON.toJson(Record.of(row)));
+                out.write('\n');
+            }
+            for (User user : snapshot.users) {
+                out.write(GSON.toJson(Record.of(user)));
+                out.write('\n');
+            }
+            out.flush();
+            channel.force(true);
+        }
+        Files.move(tmp, dir.resolve(SNAPSHOT), StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+    }
+
+    private void recover() throws IOException {
+        Files.createDirectories(dir);
+        long firstSegment = 0;
+        Path snapshot = dir.resolve(SNAPSHOT);
+        if (Files.exists(snapshot)) {
+            Record header = replay(snapshot);
+            if (header == null) {
+                throw new IOException("Snapshot " + snapshot + " has no header");
+            }
+            firstSegment = header.segment;
+            nextStudentId = Math.max(nextStudentId, header.nextStudentId);
+            nextUserId = Math.max(nextUserId, header.nextUserId);
+        }
+
+        List<Long> segments = new ArrayList<>();
+        try (DirectoryStream<Path> files = Files.newDirectoryStream(dir, "wal-*.log")) {
+            for (Path file : files) {
+                String name = file.getFileName().toString();
+                segments.add(Long.parseLong(name.substring(4, name.length() - 4)));
+            }
+        }
+        Collections.sort(segments);
+        long last = firstSegment;
+        for (long number : segments) {
+            if (number >= firstSegment) {
+                replay(segmentPath(number));
+            }
+            last = Math.max(last, number);
+        }
+        // A crash may have left segments the snapshot already covers
+        deleteSegmentsBefore(firstSegment);
+
+        segment = last + 1;
+        wal = openSegment(segment);
+        LOGGER.info("In-memory store loaded " + students.size() + " students and " + users.size()
+                + " users from " + dir);
+    }
+
+    // Applies every record of a snapshot or segment; returns the snapshot header.
+    // A commit's records are applied together once all of them are read, so a
+    // commit cut short by a crash leaves nothing behind.
+    private Record replay(Path file) throws IOException {
+        Record header = null;
+        try (BufferedReader in = Files.newBufferedReader(file, StandardCharsets.UTF_8)) {
+            String line;
+            String torn = null;
+            List<Record> commit = new ArrayList<>();
+            int commitSize = 1;
+            while ((line = in.readLine()) != null) {
+                if (torn != null) {
+                    throw new IOException("Corrupt record in " + file + ": " + torn);
+                }
+                Record record;
+                try {
+                    record = GSON.fromJson(line, Record.class);
+                } catch (JsonParseException e) {
+                    record = null;
+                }
+                if (record == null || record.t == null) {
+                    // Only acceptable as the last line, cut short by a crash
+                    torn = line;
+                    continue;
+                }
+                if (Record.HEADER.equals(record.t)) {
+                    header = record;
+                    continue;
+                }
+                if (record.n != null) {
+                    if (!commit.isEmpty()) {
+                        throw new IOException("Incomplete commit in " + file + " before: " + line);
+                    }
+                    commitSize = record.n;
+                }
+                commit.add(record);
+                if (commit.size() >= commitSize) {
+                    for (Record committed : commit) {
+                        replayRecord(committed, file);
+                    }
+                    commit.clear();
+                    commitSize = 1;
+                }
+            }
+            if (torn != null || !commit.isEmpty()) {
+                LOGGER.warning("Ignoring an incomplete last commit in " + file);
+            }
+        }
+        return header;
+    }
+
+    private void replayRecord(Record record, Path file) throws IOException {
+        switch (record.t) {
+            case Record.STUDENT:
+                putStudent(internReplayed(record.toStudentRow()));
+                break;
+            case Record.REMOVE:
+                removeStudent(record.id);
+                break;
+            case Record.USER:
+                apply(record.toUser());
+                break;
+            case Record.COURSE:
+                apply(record.toCourse());
+                break;
+            default:
+                throw new IOException("Unknown record type in " + file + ": " + record.t);
+        }
+    }
+
+    private FileChannel openSegment(long number) throws IOException {
+        return FileChannel.open(segmentPath(number), StandardOpenOption.CREATE,
+                StandardOpenOption.WRITE, StandardOpenOption.APPEND);
+    }
+
+    private Path segmentPath(long number) {
+        return dir.resolve(String.format("wal-%012d.log", number));
+    }
+
+    private void deleteSegmentsBefore(long number) throws IOException {
+        try (DirectoryStream<Path> files = Files.newDirectoryStream(dir, "wal-*.log")) {
+            for (Path file : files) {
+                String name = file.getFileName().toString();
+                if (Long.parseLong(name.substring(4, name.length() - 4)) < number) {
+                    Files.deleteIfExists(file);
+                }
+            }
+        }
+    }
+
+    private static ByteBuffer encode(List<Record> records) {
+        StringBuilder lines = new StringBuilder();
+        for (Record record : records) {
+            lines.append(GSON.toJson(record)).append('\n');
+        }
+        return ByteBuffer.wrap(lines.toString().getBytes(StandardCharsets.UTF_8));
+    }
+
+    private static void write(FileChannel channel, ByteBuffer bytes) throws IOException {
+        while (bytes.hasRemaining()) {
+            channel.write(bytes);
+        }
+    }
+
+    private static final class Snapshot {
+        final long segment;
+        final int nextStudentId;
+        final int nextUserId;
+        final List<Course> courses;
+        final List<StudentRow> students;
+        final List<User> users;
+
+        Snapshot(long segment, int nextStudentId, int nextUserId, List<Course> courses,
+                 List<StudentRow> students, List<User> users) {
+            this.segment = segment;
+            this.nextStudentId = nextStudentId;
+            this.nextUserId = nextUserId;
+            this.courses = courses;
+            this.students = students;
+            this.users = users;
+        }
+    }
+
+    // One log line. Dates are epoch days and timestamps epoch microseconds,
+    // so nothing depends on the time zone or Gson's date format.
+    private static final class Record {
+        static final String HEADER = "header";
+        static final String STUDENT = "student";
+        static final String REMOVE = "remove";
+        static final String USER = "user";
+        static final String COURSE = "course";
+
+        String t;
+        Integer id;
+        String name;
+        String email;
+        String course;
+        String phone;
+        String address;
+        Long enrollmentDay;
+        Integer userId;
+        Long createdAt;
+        Long updatedAt;
+        Long deletedAt;
+        String username;
+        String password;
+        String fullName;
+        String role;
+        // The first record of a commit of several: how many records it has
+        Integer n;
+        // Header: the first segment not covered by the snapshot, and the next ids
+        Long segment;
+        Integer nextStudentId;
+        Integer nextUserId;
+
+        static Record header(Snapshot snapshot) {
+            Record record = new Record();
+            record.t = HEADER;
+            record.segment = snapshot.segment;
+            record.nextStudentId = snapshot.nextStudentId;
+            record.nextUserId = snapshot.nextUserId;
+            return record;
+        }
+
+        static Record of(StudentRow row) {
+            Record record = new Record();
+            record.t = STUDENT;
+            record.id = row.id;
+            record.name = row.name;
+            record.email = row.email;
+            record.course = row.course;
+            record.phone = row.phone;
+            record.address = row.address;
+            record.enrollmentDay = row.enrollmentDay != NO_DATE ? row.enrollmentDay : null;
+            record.userId = row.userId;
+            record.createdAt = row.createdAt;
+            record.updatedAt = row.updatedAt;
+            record.deletedAt = row.isLive() ? null : row.deletedAt;
+            return record;
+        }
+
+        static Record removal(int id) {
+            Record record = new Record();
+            record.t = REMOVE;
+            record.id = id;
+            return record;
+        }
+
+        static Record of(User user) {
+            Record record = new Record();
+            record.t = USER;
+            record.id = user.getId();
+            record.username = user.getUsername();
+            record.email = user.getEmail();
+            record.password = user.getPassword();
+            record.fullName = user.getFullName();
+            record.role = user.getRole();
+            record.createdAt = user.getCreatedAt() != null ? micros(user.getCreatedAt()) : null;
+            record.updatedAt = user.getUpdatedAt() != null ? micros(user.getUpdatedAt()) : null;
+            return record;
+        }
+
+        StudentRow toStudentRow() {
+            return new StudentRow(id, name, email, course, phone, address,
+                    enrollmentDay != null ? enrollmentDay : NO_DATE, userId, createdAt, updatedAt,
+                    deletedAt != null ? deletedAt : 0);
+        }
+
+        static Record of(Course course) {
+            Record record = new Record();
+            record.t = COURSE;
+            record.id = course.getId();
+            record.name = course.getName();
+            return record;
+        }
+
+        Course toCourse() {
+            return new Course(id, name);
+        }
+
+        User toUser() {
+            User user = new User(username, email, password, fullName, role);
+            user.setId(id);
+            user.setCreatedAt(createdAt != null ? timestamp(createdAt) : null);
+            user.setUpdatedAt(updatedAt != null ? timestamp(updatedAt) : null);
+            return user;
+        }
+    }
+}
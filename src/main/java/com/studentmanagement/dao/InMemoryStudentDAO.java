@@ -0,0 +1,505 @@
+package com.studentmanagement.dao;
+
+import com.studentmanagement.dao.InMemoryStore.StudentRow;
+import com.studentmanagement.model.Course;
+import com.studentmanagement.model.ImportResult;
+import com.studentmanagement.model.Student;
+import com.studentmanagement.model.StudentBatch;
+import com.studentmanagement.model.StudentCounts;
+import com.studentmanagement.model.StudentPage;
+import com.studentmanagement.model.StudentQuery;
+
+import java.io.IOException;
+import java.sql.SQLException;
+import java.sql.Timestamp;
+import java.time.YearMonth;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.Date;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.NavigableSet;
+import java.util.Objects;
+import java.util.TreeSet;
+import java.util.function.Consumer;
+
+// StudentDAO on an InMemoryStore. Results match JdbcStudentDAO's: the same
+// ownership and version checks, keyset cursors and soft deletes. Every
+// Student handed out is a copy, so callers may change it freely.
+public class InMemoryStudentDAO implements StudentDAO {
+    private final InMemoryStore store;
+
+    InMemoryStudentDAO(InMemoryStore store) {
+        this.store = store;
+    }
+
+    // Create - Add new student with user_id
+    @Override
+    public boolean addStudent(Student student, int userId) {
+        StudentWriteResult[] results;
+        try {
+            results = writeGroup(List.of(StudentMutation.add(student, userId)));
+        } catch (SQLException e) {
+            e.printStackTrace();
+            return false;
+        }
+        return results[0] == StudentWriteResult.OK;
+    }
+
+    // Create - Bulk import for one owner, applied and logged commitSize rows
+    // at a time; batchSize has no meaning without a database round trip
+    @Override
+    public void importStudents(StudentImportReader reader, int userId, int batchSize, int commitSize,
+                               ImportResult result) throws SQLException, IOException {
+        List<Student> pending = new ArrayList<>(commitSize);
+        List<Integer> pendingRows = new ArrayList<>(commitSize);
+        while (true) {
+            Student student = reader.next();
+            if (student != null) {
+                pending.add(student);
+                pendingRows.add(reader.getRowNumber());
+            }
+            if (pending.size() >= commitSize || (student == null && !pending.isEmpty())) {
+                importChunk(pending, pendingRows, userId, result);
+                pending.clear();
+                pendingRows.clear();
+            }
+            if (student == null) {
+                break;
+            }
+        }
+    }
+
+    private void importChunk(List<Student> students, List<Integer> rows, int userId,
+                             ImportResult result) throws SQLException {
+        List<Student> inserted = new ArrayList<>(students.size());
+        store.lock();
+        try {
+            InMemoryStore.Transaction tx = store.begin();
+            Timestamp now = store.now();
+            for (int i = 0; i < students.size(); i++) {
+                Student student = students.get(i);
+                if (tx.emailTaken(student.getEmail(), 0)) {
+                    result.recordError(rows.get(i), "Email already exists: " + student.getEmail());
+                    continue;
+                }
+                StudentRow row = StudentRow.of(tx.newStudentId(), student, userId, InMemoryStore.micros(now), now);
+                row = tx.put(row);
+                inserted.add(row.toStudent());
+            }
+            tx.commit();
+        } finally {
+            store.unlock();
+        }
+        result.recordImported(inserted.size());
+        for (Student student : inserted) {
+            StudentChangeListeners.notify(listener -> listener.onStudentAdded(student));
+        }
+    }
+
+    // Read - Get all students (admin only)
+    @Override
+    public List<Student> getAllStudents() {
+        return collect(store.liveIds().descendingSet(), null);
+    }
+
+    // Read - Get students by user ID (for regular users)
+    @Override
+    public List<Student> getStudentsByUser(int userId) {
+        return collect(store.idsOfUser(userId).descendingSet(), userId);
+    }
+
+    private List<Student> collect(Iterable<Integer> ids, Integer userId) {
+        List<Student> students = new ArrayList<>();
+        for (Integer id : ids) {
+            StudentRow row = store.student(id);
+            if (row != null && row.isLive() && (userId == null || row.userId == userId)) {
+                students.add(row.toStudent());
+            }
+        }
+        return students;
+    }
+
+    // Read - One page of students matching the query. Id order walks the
+    // smallest matching id index; other orders walk that order's index, or
+    // sort one owner's students when the query is limited to an owner.
+    @Override
+    public StudentPage findStudents(StudentQuery query) throws SQLException {
+        String sortKey = query.getSortKey();
+        boolean descending = query.isDescending();
+        int limit = query.getLimit();
+        String[] cursor = query.getCursor() != null ? StudentCursors.decode(query.getCursor(), sortKey) : null;
+        long from = query.getEnrolledFrom() != null ? epochDay(query.getEnrolledFrom()) : Long.MIN_VALUE;
+        long to = query.getEnrolledTo() != null ? epochDay(query.getEnrolledTo()) : Long.MAX_VALUE;
+        boolean dateFilter = query.getEnrolledFrom() != null || query.getEnrolledTo() != null;
+        String course = query.getCourse();
+        if (query.getCourseId() != null) {
+            Course byId = store.course(query.getCourseId());
+            if (byId == null || (course != null && !course.equalsIgnoreCase(byId.getName()))) {
+                return new StudentPage(new ArrayList<>(), null, limit);
+            }
+            course = byId.getName();
+        }
+
+        List<Student> students = new ArrayList<>();
+        String nextCursor = null;
+        Iterable<StudentRow> candidates;
+
+        if (StudentQuery.SORT_ID.equals(sortKey)) {
+            NavigableSet<Integer> ids = query.getUserId() != null ? store.idsOfUser(query.getUserId())
+                    : course != null ? store.idsOfCourse(course) : store.liveIds();
+            if (descending) {
+                ids = ids.descendingSet();
+            }
+            if (cursor != null) {
+                ids = ids.tailSet(Integer.parseInt(cursor[1]), false);
+            }
+            candidates = rows(ids);
+        } else {
+            Comparator<StudentRow> order = InMemoryStore.SORT_ORDERS.get(sortKey);
+            if (order == null) {
+                throw new IllegalArgumentException("Unsupported sort key: " + sortKey);
+            }
+            NavigableSet<StudentRow> index;
+            if (query.getUserId() != null) {
+                // An owner's students are few; sorting them beats filtering the whole index
+                index = new TreeSet<>(order);
+                for (StudentRow row : rows(store.idsOfUser(query.getUserId()))) {
+                    index.add(row);
+                }
+            } else {
+                index = store.sortIndex(sortKey);
+            }
+            if (descending) {
+                index = index.descendingSet();
+            }
+            if (cursor != null) {
+                index = index.tailSet(StudentRow.probe(sortKey, cursor[0], Integer.parseInt(cursor[1])), false);
+            }
+            candidates = index;
+        }
+
+        for (StudentRow indexed : candidates) {
+            // The index may hold an older version; use the current one if it still sorts here
+            StudentRow row = store.student(indexed.id);
+            if (row == null || !row.isLive() || (row != indexed && !sameSortPosition(sortKey, row, indexed))) {
+                continue;
+            }
+            if ((query.getUserId() != null && row.userId != query.getUserId())
+                    || (course != null && !course.equalsIgnoreCase(row.course))
+                    || (dateFilter && (!row.hasEnrollmentDate()
+                            || row.enrollmentDay < from || row.enrollmentDay > to))) {
+                continue;
+            }
+            if (students.size() == limit) {
+                nextCursor = StudentCursors.encode(students.get(limit - 1), sortKey);
+                break;
+            }
+            students.add(row.toStudent());
+        }
+
+        return new StudentPage(students, nextCursor, limit);
+    }
+
+    // Read - Stream students (all, or one owner's) in id order
+    @Override
+    public void streamStudents(Integer userId, StudentRowHandler handler) throws SQLException, IOException {
+        NavigableSet<Integer> ids = userId != null ? store.idsOfUser(userId) : store.liveIds();
+        for (Integer id : ids) {
+            StudentRow row = store.student(id);
+            if (row != null && row.isLive() && (userId == null || row.userId == userId)) {
+                handler.handle(row.toStudent());
+            }
+        }
+    }
+
+    // Read - The same rows copied column by column into one reused StudentBatch
+    @Override
+    public void streamStudentBatches(Integer userId, int batchSize, StudentBatchHandler handler)
+            throws SQLException, IOException {
+        StudentBatch batch = new StudentBatch(batchSize);
+        NavigableSet<Integer> ids = userId != null ? store.idsOfUser(userId) : store.liveIds();
+        for (Integer id : ids) {
+            StudentRow row = store.student(id);
+            if (row != null && row.isLive() && (userId == null || row.userId == userId)) {
+                batch.add(row.id, row.name, row.email, row.course, row.phone, row.address,
+                        row.enrollmentDay, row.userId, row.createdAt, row.updatedAt);
+                if (batch.size() == batchSize) {
+                    handler.handle(batch);
+                    batch.clear();
+                }
+            }
+        }
+        if (batch.size() > 0) {
+            handler.handle(batch);
+        }
+    }
+
+    // Read - Get student by ID
+    @Override
+    public Student getStudentById(int id) {
+        StudentRow row = store.student(id);
+        return row != null && row.isLive() ? row.toStudent() : null;
+    }
+
+    // Read - Students with the given ids, in the order the ids were given
+    @Override
+    public List<Student> getStudentsByIds(List<Integer> ids) throws SQLException {
+        return collect(ids, null);
+    }
+
+    // Update - unconditional, for trusted callers
+    @Override
+    public boolean updateStudent(Student student) {
+        return updateStudent(student, 0, true, null) == StudentWriteResult.OK;
+    }
+
+    // Update - a taken email fails like the unique key does in the database
+    @Override
+    public StudentWriteResult updateStudent(Student student, int userId, boolean admin, Timestamp expectedUpdatedAt) {
+        try {
+            return writeGroup(List.of(StudentMutation.update(student, userId, admin, expectedUpdatedAt)))[0];
+        } catch (SQLException e) {
+            e.printStackTrace();
+            return StudentWriteResult.FAILED;
+        }
+    }
+
+    // Group commit - every mutation is checked and applied in order under the
+    // store's write lock, then logged with one append (and one fsync)
+    @Override
+    public StudentWriteResult[] writeGroup(List<StudentMutation> mutations) throws SQLException {
+        StudentWriteResult[] results = new StudentWriteResult[mutations.size()];
+        List<Consumer<StudentChangeListener>> events = new ArrayList<>();
+
+        store.lock();
+        try {
+            InMemoryStore.Transaction tx = store.begin();
+            Timestamp now = store.now();
+            for (int i = 0; i < mutations.size(); i++) {
+                StudentMutation mutation = mutations.get(i);
+                Student student = mutation.getStudent();
+
+                if (mutation.isInsert()) {
+                    if (tx.emailTaken(student.getEmail(), 0)) {
+                        results[i] = StudentWriteResult.FAILED;
+                        continue;
+                    }
+                    StudentRow row = StudentRow.of(tx.newStudentId(), student, mutation.getUserId(),
+                            InMemoryStore.micros(now), now);
+                    row = tx.put(row);
+                    student.setId(row.id);
+                    student.setCourse(row.course);
+                    student.setUserId(row.userId);
+                    Student added = row.toStudent();
+                    events.add(listener -> listener.onStudentAdded(added));
+                    results[i] = StudentWriteResult.OK;
+                    continue;
+                }
+
+                StudentRow previous = tx.student(student.getId());
+                results[i] = check(previous, mutation.getUserId(), mutation.isAdmin(), mutation.getExpectedUpdatedAt());
+                if (results[i] != StudentWriteResult.OK) {
+                    continue;
+                }
+                if (tx.emailTaken(student.getEmail(), student.getId())) {
+                    results[i] = StudentWriteResult.FAILED;
+                    continue;
+                }
+                StudentRow row = StudentRow.of(previous.id, student, previous.userId, previous.createdAt, now);
+                row = tx.put(row);
+                student.setCourse(row.course);
+                student.setUserId(row.userId);
+                student.setCreatedAt(InMemoryStore.timestamp(row.createdAt));
+                student.setUpdatedAt(row.updatedTimestamp());
+                Student before = previous.toStudent();
+                Student after = row.toStudent();
+                events.add(listener -> listener.onStudentUpdated(before, after));
+            }
+            tx.commit();
+        } finally {
+            store.unlock();
+        }
+
+        for (Consumer<StudentChangeListener> event : events) {
+            StudentChangeListeners.notify(event);
+        }
+        return results;
+    }
+
+    // Delete - unconditional, for trusted callers
+    @Override
+    public boolean deleteStudent(int id) {
+        return deleteStudent(id, 0, true, null) == StudentWriteResult.OK;
+    }
+
+    // Delete - same checks as updateStudent; the student is only marked deleted
+    @Override
+    public StudentWriteResult deleteStudent(int id, int userId, boolean admin, Timestamp expectedUpdatedAt) {
+        StudentRow previous;
+        store.lock();
+        try {
+            InMemoryStore.Transaction tx = store.begin();
+            previous = tx.student(id);
+            StudentWriteResult result = check(previous, userId, admin, expectedUpdatedAt);
+            if (result != StudentWriteResult.OK) {
+                return result;
+            }
+            tx.put(previous.deleted(store.now()));
+            tx.commit();
+        } catch (SQLException e) {
+            e.printStackTrace();
+            return StudentWriteResult.FAILED;
+        } finally {
+            store.unlock();
+        }
+
+        Student before = previous.toStudent();
+        StudentChangeListeners.notify(listener -> listener.onStudentDeleted(before));
+        return StudentWriteResult.OK;
+    }
+
+    // Restore - undo a delete that hasn't been purged yet. CONFLICT when the
+    // student isn't deleted, EMAIL_TAKEN when a live student has its email.
+    @Override
+    public StudentWriteResult restoreStudent(int id, int userId, boolean admin) {
+        StudentRow restored;
+        store.lock();
+        try {
+            InMemoryStore.Transaction tx = store.begin();
+            StudentRow previous = tx.student(id);
+            if (previous == null) {
+                return StudentWriteResult.NOT_FOUND;
+            }
+            if (!admin && previous.userId != userId) {
+                return StudentWriteResult.FORBIDDEN;
+            }
+            if (previous.isLive()) {
+                return StudentWriteResult.CONFLICT;
+            }
+            if (tx.emailTaken(previous.email, id)) {
+                return StudentWriteResult.EMAIL_TAKEN;
+            }
+            restored = previous.restored(store.now());
+            tx.put(restored);
+            tx.commit();
+        } catch (SQLException e) {
+            e.printStackTrace();
+            return StudentWriteResult.FAILED;
+        } finally {
+            store.unlock();
+        }
+
+        Student student = restored.toStudent();
+        StudentChangeListeners.notify(listener -> listener.onStudentAdded(student));
+        return StudentWriteResult.OK;
+    }
+
+    // Purge - archive up to limit students deleted before cutoff, oldest first
+    @Override
+    public int archiveDeletedStudents(Timestamp cutoff, int limit) throws SQLException {
+        store.lock();
+        try {
+            List<StudentRow> rows = new ArrayList<>(Math.min(limit, 1024));
+            for (StudentRow row : store.deletedStudents().headSet(StudentRow.deletedProbe(cutoff))) {
+                if (rows.size() == limit) {
+                    break;
+                }
+                rows.add(row);
+            }
+            if (!rows.isEmpty()) {
+                store.archive(rows);
+            }
+            return rows.size();
+        } finally {
+            store.unlock();
+        }
+    }
+
+    // {all deleted students, those deleted before cutoff} waiting for the purger
+    @Override
+    public long[] countDeletedStudents(Timestamp cutoff) throws SQLException {
+        NavigableSet<StudentRow> deleted = store.deletedStudents();
+        return new long[]{deleted.size(), deleted.headSet(StudentRow.deletedProbe(cutoff)).size()};
+    }
+
+    // Aggregates behind the dashboard statistics, from one pass over the live students
+    @Override
+    public StudentCounts countStudents() throws SQLException {
+        StudentCounts counts = new StudentCounts();
+        for (Integer id : store.liveIds()) {
+            StudentRow row = store.student(id);
+            if (row == null || !row.isLive()) {
+                continue;
+            }
+            counts.getByCourse().merge(row.course, 1L, Long::sum);
+            java.sql.Date enrolled = row.enrollmentDate();
+            if (enrolled != null) {
+                counts.getByEnrollmentMonth().merge(YearMonth.from(enrolled.toLocalDate()).toString(), 1L, Long::sum);
+            }
+            counts.getByOwner().merge(row.userId, 1L, Long::sum);
+        }
+        return counts;
+    }
+
+    // Live students per course id, from the course index; for one owner, a
+    // pass over that owner's students
+    @Override
+    public Map<Integer, Long> countStudentsByCourse(Integer userId) throws SQLException {
+        Map<Integer, Long> counts = new HashMap<>();
+        if (userId == null) {
+            for (Course course : store.courses()) {
+                int students = store.idsOfCourse(course.getName()).size();
+                if (students > 0) {
+                    counts.put(course.getId(), (long) students);
+                }
+            }
+            return counts;
+        }
+        for (StudentRow row : rows(store.idsOfUser(userId))) {
+            if (row.isLive() && row.userId == userId && row.course != null) {
+                Course course = store.courseByName(row.course);
+                if (course != null) {
+                    counts.merge(course.getId(), 1L, Long::sum);
+                }
+            }
+        }
+        return counts;
+    }
+
+    // Check if student belongs to user
+    @Override
+    public boolean isStudentOwnedByUser(int studentId, int userId) {
+        StudentRow row = store.student(studentId);
+        return row != null && row.isLive() && row.userId == userId;
+    }
+
+    // Same order of checks as JdbcStudentDAO's rejected-write classification
+    private static StudentWriteResult check(StudentRow row, int userId, boolean admin, Timestamp expectedUpdatedAt) {
+        if (row == null || !row.isLive()) {
+            return StudentWriteResult.NOT_FOUND;
+        }
+        if (!admin && row.userId != userId) {
+            return StudentWriteResult.FORBIDDEN;
+        }
+        if (expectedUpdatedAt != null && !row.isVersion(expectedUpdatedAt)) {
+            return StudentWriteResult.CONFLICT;
+        }
+        return StudentWriteResult.OK;
+    }
+
+    private static boolean sameSortPosition(String sortKey, StudentRow row, StudentRow indexed) {
+        return StudentQuery.SORT_ID.equals(sortKey)
+                || InMemoryStore.SORT_ORDERS.get(sortKey).compare(row, indexed) == 0;
+    }
+
+    // The current rows of these ids, read as the iteration reaches them
+    private Iterable<StudentRow> rows(NavigableSet<Integer> ids) {
+        return () -> ids.stream().map(store::student).filter(Objects::nonNull).iterator();
+    }
+
+    private static long epochDay(Date date) {
+        return new java.sql.Date(date.getTime()).toLocalDate().toEpochDay();
+    }
+}
@@ -0,0 +1,107 @@
+package com.studentmanagement.dao;
+
+import com.studentmanagement.model.User;
+
+import java.sql.SQLException;
+import java.sql.Timestamp;
+import java.util.function.BiConsumer;
+
+// UserDAO on an InMemoryStore. Usernames and emails are unique ignoring
+// case, as under MySQL's default collation.
+public class InMemoryUserDAO implements UserDAO {
+    private final InMemoryStore store;
+
+    InMemoryUserDAO(InMemoryStore store) {
+        this.store = store;
+    }
+
+    // Register new user; the password must already be hashed. Checked and
+    // applied under the store's write lock, so concurrent registrations of
+    // one name can't both succeed.
+    @Override
+    public UserWriteResult registerUser(User user) {
+        store.lock();
+        try {
+            UserWriteResult conflict = findConflict(user.getUsername(), user.getEmail());
+            if (conflict != UserWriteResult.OK) {
+                return conflict;
+            }
+            User stored = InMemoryStore.copy(user);
+            stored.setId(store.newUserId());
+            stored.setRole(user.getRole() != null ? user.getRole() : "user");
+            Timestamp now = store.now();
+            stored.setCreatedAt(now);
+            stored.setUpdatedAt(now);
+            store.commitUser(stored);
+            return UserWriteResult.OK;
+        } catch (SQLException e) {
+            e.printStackTrace();
+            return UserWriteResult.FAILED;
+        } finally {
+            store.unlock();
+        }
+    }
+
+    // Whether another user already has this username or email
+    @Override
+    public UserWriteResult findConflict(String username, String email) {
+        if (store.userIdByName(username) != null) {
+            return UserWriteResult.USERNAME_TAKEN;
+        }
+        if (store.userIdByEmail(email) != null) {
+            return UserWriteResult.EMAIL_TAKEN;
+        }
+        return UserWriteResult.OK;
+    }
+
+    // Look up a user by username or email
+    @Override
+    public User getUserByLogin(String login) {
+        Integer id = store.userIdByName(login);
+        if (id == null) {
+            id = store.userIdByEmail(login);
+        }
+        return id != null ? store.user(id) : null;
+    }
+
+    // Replace a password hash, but only if it is still the one that was verified
+    @Override
+    public boolean updatePasswordHash(int id, String currentHash, String newHash) {
+        store.lock();
+        try {
+            User user = store.user(id);
+            if (user == null || !user.getPassword().equals(currentHash)) {
+                return false;
+            }
+            user.setPassword(newHash);
+            user.setUpdatedAt(store.now());
+            store.commitUser(user);
+            return true;
+        } catch (SQLException e) {
+            e.printStackTrace();
+            return false;
+        } finally {
+            store.unlock();
+        }
+    }
+
+    // Get user by ID
+    @Override
+    public User getUserById(int id) {
+        return store.user(id);
+    }
+
+    // Count all users
+    @Override
+    public int getUserCount() {
+        return store.users().size();
+    }
+
+    // Every username and email pair
+    @Override
+    public void streamLogins(BiConsumer<String, String> handler) throws SQLException {
+        for (User user : store.users()) {
+            handler.accept(user.getUsername(), user.getEmail());
+        }
+    }
+}
@@ -0,0 +1,109 @@
+package com.studentmanagement.dao;
+
+import com.studentmanagement.model.Course;
+import com.studentmanagement.util.DBConnection;
+import com.studentmanagement.util.Metrics;
+
+import java.sql.Connection;
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.sql.SQLIntegrityConstraintViolationException;
+import java.sql.Statement;
+import java.util.ArrayList;
+import java.util.List;
+
+// CourseDAO on the courses table. The unique key on courses.name (case
+// insensitive under MySQL's default collation) settles races between nodes
+// creating the same course.
+public class JdbcCourseDAO implements CourseDAO {
+
+    @Override
+    public List<Course> getAllCourses() throws SQLException {
+        try (Connection conn = DBConnection.getConnection()) {
+            return selectAll(conn);
+        }
+    }
+
+    // Every course, over a connection the caller holds (which may be a replica's)
+    static List<Course> selectAll(Connection conn) throws SQLException {
+        List<Course> courses = new ArrayList<>();
+        long start = System.nanoTime();
+
+        try (Statement stmt = conn.createStatement();
+             ResultSet rs = stmt.executeQuery("SELECT id, name FROM courses ORDER BY id")) {
+
+            while (rs.next()) {
+                courses.add(new Course(rs.getInt(1), rs.getString(2)));
+            }
+            Metrics.recordQuery("courses.selectAll", start, courses.size());
+
+        } catch (SQLException e) {
+            Metrics.recordQueryError("courses.selectAll");
+            throw e;
+        }
+        return courses;
+    }
+
+    // How many courses exist, over a connection the caller holds
+    static int count(Connection conn) throws SQLException {
+        long start = System.nanoTime();
+
+        try (Statement stmt = conn.createStatement();
+             ResultSet rs = stmt.executeQuery("SELECT COUNT(*) FROM courses")) {
+
+            rs.next();
+            Metrics.recordQuery("courses.count", start, 1);
+            return rs.getInt(1);
+
+        } catch (SQLException e) {
+            Metrics.recordQueryError("courses.count");
+            throw e;
+        }
+    }
+
+    @Override
+    public Course findOrCreateCourse(String name) throws SQLException {
+        try (Connection conn = DBConnection.getConnection()) {
+            Course course = selectByName(conn, name);
+            if (course != null) {
+                return course;
+            }
+            long start = System.nanoTime();
+            try (PreparedStatement pstmt = conn.prepareStatement("INSERT INTO courses (name) VALUES (?)",
+                    Statement.RETURN_GENERATED_KEYS)) {
+                pstmt.setString(1, name);
+                pstmt.executeUpdate();
+                try (ResultSet keys = pstmt.getGeneratedKeys()) {
+                    keys.next();
+                    course = new Course(keys.getInt(1), name);
+                }
+                Metrics.recordQuery("courses.insert", start, 1);
+                return course;
+            } catch (SQLIntegrityConstraintViolationException duplicate) {
+                // Created by someone else since the lookup
+                Metrics.recordQueryError("courses.insert");
+                course = selectByName(conn, name);
+                if (course == null) {
+                    throw duplicate;
+                }
+                return course;
+            }
+        }
+    }
+
+    private Course selectByName(Connection conn, String name) throws SQLException {
+        long start = System.nanoTime();
+        try (PreparedStatement pstmt = conn.prepareStatement("SELECT id, name FROM courses WHERE name = ?")) {
+            pstmt.setString(1, name);
+            try (ResultSet rs = pstmt.executeQuery()) {
+                Course course = rs.next() ? new Course(rs.getInt(1), rs.getString(2)) : null;
+                Metrics.recordQuery("courses.selectByName", start, course != null ? 1 : 0);
+                return course;
+            }
+        } catch (SQLException e) {
+            Metrics.recordQueryError("courses.selectByName");
+            throw e;
+        }
+    }
+}
@@ -0,0 +1,1317 @@
+package com.studentmanagement.dao;
+
+import com.studentmanagement.model.Course;
+import com.studentmanagement.model.ImportResult;
+import com.studentmanagement.model.Student;
+import com.studentmanagement.model.StudentBatch;
+import com.studentmanagement.model.StudentCounts;
+import com.studentmanagement.model.StudentPage;
+import com.studentmanagement.model.StudentQuery;
+import com.studentmanagement.service.CourseCatalog;
+import com.studentmanagement.util.AppConfig;
+import com.studentmanagement.util.DBConnection;
+import com.studentmanagement.util.Metrics;
+import java.io.IOException;
+import java.sql.*;
+import java.time.LocalDate;
+import java.time.YearMonth;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.Set;
+import java.util.function.Consumer;
+import java.util.function.Function;
+
+// StudentDAO on MySQL (or any JDBC database) through DBConnection.
+//
+// Deleting a student only sets deleted_at; every read here skips such rows,
+// and StudentPurger later moves them to students_archive. Until then
+// restoreStudent can bring it back. Emails are unique among live rows only
+// (the active_email column), so a deleted student's address can be used
+// again straight away; restoring it is then refused.
+//
+// The listing, export and by-id reads use DBConnection.getReadConnection()
+// and may be served by a read replica; everything that decides or feeds a
+// write reads from the primary.
+//
+// Rows store a course_id; CourseCatalog turns it into the course name on
+// read, and a written course name into its id (creating the course if new).
+// Nothing here waits for a second pooled connection while holding one:
+// written courses are resolved before the write's connection is taken, and
+// reads name unknown course ids over their own connection (CourseNames).
+public class JdbcStudentDAO implements StudentDAO {
+    private static final int STREAM_FETCH_SIZE = AppConfig.getInt("students.stream.fetchSize", 1000);
+    private static final int WRITE_ATTEMPTS = 3;
+
+    // Every column of a student row
+    static final String STUDENT_COLUMNS =
+            "id, name, email, course_id, phone, address, enrollment_date, user_id, created_at, updated_at";
+    private static final String SELECT_STUDENTS = "SELECT " + STUDENT_COLUMNS + " FROM students";
+    private static final String INSERT_STUDENT = "INSERT INTO students "
+            + "(name, email, course_id, phone, address, enrollment_date, user_id) VALUES (?, ?, ?, ?, ?, ?, ?)";
+
+    // Reads STUDENT_COLUMNS by index, naming courses through courses
+    // (package-private for the mapping benchmark)
+    static RowMapper<Student> studentMapper(CourseNames courses) {
+        return new RowMapper<>(STUDENT_COLUMNS, (rs, c) -> {
+            Student student = new Student();
+            student.setId(rs.getInt(c[0]));
+            student.setName(rs.getString(c[1]));
+            student.setEmail(rs.getString(c[2]));
+            courses.name(student, rs.getInt(c[3]));
+            student.setPhone(rs.getString(c[4]));
+            student.setAddress(rs.getString(c[5]));
+            student.setEnrollmentDate(rs.getDate(c[6]));
+            student.setUserId(rs.getInt(c[7]));
+            student.setCreatedAt(rs.getTimestamp(c[8]));
+            student.setUpdatedAt(rs.getTimestamp(c[9]));
+            return student;
+        });
+    }
+
+    // Create - Add new student with user_id
+    @Override
+    public boolean addStudent(Student student, int userId) {
+        try {
+            resolveCourses(Collections.singletonList(student));
+            long start = System.nanoTime();
+
+            try (Connection conn = DBConnection.getConnection();
+                 PreparedStatement pstmt = conn.prepareStatement(INSERT_STUDENT, Statement.RETURN_GENERATED_KEYS)) {
+
+                bindInsert(pstmt, student, userId);
+
+                if (pstmt.executeUpdate() == 0) {
+                    return false;
+                }
+
+                try (ResultSet keys = pstmt.getGeneratedKeys()) {
+                    if (keys.next()) {
+                        student.setId(keys.getInt(1));
+                    }
+                }
+                Metrics.recordQuery("students.insert", start, 1);
+            }
+            student.setUserId(userId);
+            StudentChangeListeners.notify(listener -> listener.onStudentAdded(student));
+            return true;
+
+        } catch (SQLException e) {
+            Metrics.recordQueryError("students.insert");
+            e.printStackTrace();
+            return false;
+        }
+    }
+
+    // Create - Bulk import for one owner, committed every commitSize rows.
+    // Each commit's rows are read first and their courses resolved, then
+    // they take one connection and are sent with JDBC batching (one
+    // multi-row INSERT per batch when the URL sets
+    // rewriteBatchedStatements=true). No connection is held while the upload
+    // is read. Emails that already exist or repeat within the import are
+    // reported per row instead of failing the batch. Rows committed before an
+    // exception stay imported; result reflects them.
+    @Override
+    public void importStudents(StudentImportReader reader, int userId, int batchSize, int commitSize,
+                               ImportResult result) throws SQLException, IOException {
+        List<Student> rows = new ArrayList<>(commitSize);
+        int[] rowNumbers = new int[commitSize];
+        while (true) {
+            Student student = reader.next();
+            if (student != null) {
+                rowNumbers[rows.size()] = reader.getRowNumber();
+                rows.add(student);
+            }
+            if (rows.size() == commitSize || (student == null && !rows.isEmpty())) {
+                importCommit(rows, rowNumbers, userId, batchSize, result);
+                rows.clear();
+            }
+            if (student == null) {
+                break;
+            }
+        }
+    }
+
+    private void importCommit(List<Student> rows, int[] rowNumbers, int userId, int batchSize,
+                              ImportResult result) throws SQLException {
+        resolveCourses(rows);
+        List<Student> inserted = new ArrayList<>(rows.size());
+
+        try (Connection conn = DBConnection.getConnection()) {
+            conn.setAutoCommit(false);
+            try (PreparedStatement insert = conn.prepareStatement(INSERT_STUDENT, Statement.RETURN_GENERATED_KEYS)) {
+                for (int from = 0; from < rows.size(); from += batchSize) {
+                    int to = Math.min(rows.size(), from + batchSize);
+                    insertBatch(conn, insert, rows.subList(from, to), Arrays.copyOfRange(rowNumbers, from, to),
+                            userId, result, inserted);
+                }
+                conn.commit();
+            } catch (SQLException | RuntimeException e) {
+                conn.rollback();
+                throw e;
+            }
+        }
+
+        result.recordImported(inserted.size());
+        for (Student student : inserted) {
+            StudentChangeListeners.notify(listener -> listener.onStudentAdded(student));
+        }
+    }
+
+    private void insertBatch(Connection conn, PreparedStatement insert, List<Student> batch, int[] batchRows,
+                             int userId, ImportResult result, List<Student> inserted) throws SQLException {
+        // One IN query per batch instead of a uniqueness probe per row
+        Set<String> existingEmails = findExistingEmails(conn, batch);
+        Set<String> seenInBatch = new HashSet<>();
+        List<Student> accepted = new ArrayList<>(batch.size());
+        List<Integer> acceptedRows = new ArrayList<>(batch.size());
+
+        for (int i = 0; i < batch.size(); i++) {
+            Student student = batch.get(i);
+            String email = student.getEmail().trim().toLowerCase(Locale.ROOT);
+            if (existingEmails.contains(email) || !seenInBatch.add(email)) {
+                result.recordError(batchRows[i], "Email already exists: " + student.getEmail());
+            } else {
+                accepted.add(student);
+                acceptedRows.add(batchRows[i]);
+            }
+        }
+        if (accepted.isEmpty()) {
+            return;
+        }
+
+        Savepoint savepoint = conn.setSavepoint();
+        long start = System.nanoTime();
+        try {
+            for (Student student : accepted) {
+                bindInsert(insert, student, userId);
+                insert.addBatch();
+            }
+            insert.executeBatch();
+            try (ResultSet keys = insert.getGeneratedKeys()) {
+                for (Student student : accepted) {
+                    if (keys.next()) {
+                        student.setId(keys.getInt(1));
+                    }
+                    student.setUserId(userId);
+                    inserted.add(student);
+                }
+            }
+            Metrics.recordQuery("students.insertBatch", start, accepted.size());
+        } catch (BatchUpdateException e) {
+            Metrics.recordQueryError("students.insertBatch");
+            // Someone else inserted one of these emails since the check; redo the batch row by row
+            conn.rollback(savepoint);
+            insert.clearBatch();
+            for (int i = 0; i < accepted.size(); i++) {
+                Student student = accepted.get(i);
+                try {
+                    start = System.nanoTime();
+                    bindInsert(insert, student, userId);
+                    insert.executeUpdate();
+                    try (ResultSet keys = insert.getGeneratedKeys()) {
+                        if (keys.next()) {
+                            student.setId(keys.getInt(1));
+                        }
+                    }
+                    Metrics.recordQuery("students.insert", start, 1);
+                    student.setUserId(userId);
+                    inserted.add(student);
+                } catch (SQLIntegrityConstraintViolationException duplicate) {
+                    Metrics.recordQueryError("students.insert");
+                    result.recordError(acceptedRows.get(i), "Email already exists: " + student.getEmail());
+                }
+            }
+        }
+    }
+
+    // Live students only, through the unique index on active_email
+    private Set<String> findExistingEmails(Connection conn, List<Student> batch) throws SQLException {
+        StringBuilder sql = new StringBuilder("SELECT email FROM students WHERE active_email IN (");
+        for (int i = 0; i < batch.size(); i++) {
+            sql.append(i == 0 ? "?" : ", ?");
+        }
+        sql.append(')');
+
+        Set<String> existing = new HashSet<>();
+        long start = System.nanoTime();
+        try (PreparedStatement pstmt = conn.prepareStatement(sql.toString())) {
+            for (int i = 0; i < batch.size(); i++) {
+                pstmt.setString(i + 1, batch.get(i).getEmail().trim());
+            }
+            try (ResultSet rs = pstmt.executeQuery()) {
+                while (rs.next()) {
+                    existing.add(rs.getString(1).toLowerCase(Locale.ROOT));
+                }
+            }
+        } catch (SQLException e) {
+            Metrics.recordQueryError("students.selectExistingEmails");
+            throw e;
+        }
+        Metrics.recordQuery("students.selectExistingEmails", start, existing.size());
+        return existing;
+    }
+
+    private static void bindInsert(PreparedStatement pstmt, Student student, int userId) throws SQLException {
+        pstmt.setString(1, student.getName());
+        pstmt.setString(2, student.getEmail());
+        bindCourse(pstmt, 3, student);
+        pstmt.setString(4, student.getPhone());
+        pstmt.setString(5, student.getAddress());
+        pstmt.setDate(6, new java.sql.Date(student.getEnrollmentDate().getTime()));
+        pstmt.setInt(7, userId);
+    }
+
+    // Finds or creates every course the students name, before the write
+    // takes its connection: creating a course takes a pooled connection of
+    // its own, which must not be waited for while holding another. Each
+    // student takes the catalog's spelling, so every row of a course reads
+    // back alike.
+    private static void resolveCourses(List<Student> students) throws SQLException {
+        CourseCatalog catalog = CourseCatalog.getInstance();
+        for (Student student : students) {
+            if (student.getCourse() != null) {
+                student.setCourse(catalog.resolve(student.getCourse()).getName());
+            }
+        }
+    }
+
+    // The course's catalog id, resolved beforehand by resolveCourses
+    private static void bindCourse(PreparedStatement pstmt, int index, Student student) throws SQLException {
+        if (student.getCourse() == null) {
+            // Rejected by the NOT NULL column, as before
+            pstmt.setNull(index, Types.INTEGER);
+            return;
+        }
+        Course course = CourseCatalog.getInstance().known(student.getCourse());
+        if (course == null) {
+            throw new IllegalStateException("Course not resolved before the write: " + student.getCourse());
+        }
+        pstmt.setInt(index, course.getId());
+    }
+
+    // Read - Get all students (admin only)
+    @Override
+    public List<Student> getAllStudents() {
+        List<Student> students = new ArrayList<>();
+        String sql = SELECT_STUDENTS + " WHERE deleted_at IS NULL ORDER BY id DESC";
+        long start = System.nanoTime();
+
+        try (Connection conn = DBConnection.getReadConnection();
+             Statement stmt = conn.createStatement()) {
+
+            CourseNames courses = new CourseNames();
+            try (ResultSet rs = stmt.executeQuery(sql)) {
+                students.addAll(studentMapper(courses).list(rs));
+            }
+            courses.fill(conn);
+            Metrics.recordQuery("students.selectAll", start, students.size());
+
+        } catch (SQLException e) {
+            Metrics.recordQueryError("students.selectAll");
+            e.printStackTrace();
+        }
+
+        return students;
+    }
+
+    // Read - Get students by user ID (for regular users)
+    @Override
+    public List<Student> getStudentsByUser(int userId) {
+        List<Student> students = new ArrayList<>();
+        String sql = SELECT_STUDENTS + " WHERE user_id = ? AND deleted_at IS NULL ORDER BY id DESC";
+        long start = System.nanoTime();
+
+        try (Connection conn = DBConnection.getReadConnection();
+             PreparedStatement pstmt = conn.prepareStatement(sql)) {
+
+            pstmt.setInt(1, userId);
+            CourseNames courses = new CourseNames();
+            try (ResultSet rs = pstmt.executeQuery()) {
+                students.addAll(studentMapper(courses).list(rs));
+            }
+            courses.fill(conn);
+            Metrics.recordQuery("students.selectByUser", start, students.size());
+
+        } catch (SQLException e) {
+            Metrics.recordQueryError("students.selectByUser");
+            e.printStackTrace();
+        }
+
+        return students;
+    }
+
+    // Read - One page of students matching the query. Filtering, ordering and
+    // LIMIT are pushed into SQL and pagination is keyset-based (sort value + id),
+    // so every page costs the same regardless of how deep the client has scrolled.
+    // Errors are propagated so a failed query is never served as an empty page.
+    @Override
+    public StudentPage findStudents(StudentQuery query) throws SQLException {
+        String sortKey = query.getSortKey();
+        String direction = query.isDescending() ? "DESC" : "ASC";
+        String comparator = query.isDescending() ? "<" : ">";
+        int limit = query.getLimit();
+
+        Course course = null;
+        if (query.getCourse() != null || query.getCourseId() != null) {
+            course = courseFilter(query);
+            if (course == null) {
+                return new StudentPage(new ArrayList<>(), null, limit);
+            }
+        }
+
+        StringBuilder sql = new StringBuilder(SELECT_STUDENTS).append(" WHERE deleted_at IS NULL");
+        List<Object> params = new ArrayList<>();
+
+        if (query.getUserId() != null) {
+            sql.append(" AND user_id = ?");
+            params.add(query.getUserId());
+        }
+        if (query.getEnrolledFrom() != null) {
+            sql.append(" AND enrollment_date >= ?");
+            params.add(new java.sql.Date(query.getEnrolledFrom().getTime()));
+        }
+        if (query.getEnrolledTo() != null) {
+            sql.append(" AND enrollment_date <= ?");
+            params.add(new java.sql.Date(query.getEnrolledTo().getTime()));
+        }
+        if (StudentQuery.SORT_COURSE.equals(sortKey)) {
+            return findStudentsInCourseOrder(query, sql.toString(), params, course);
+        }
+        if (course != null) {
+            sql.append(" AND course_id = ?");
+            params.add(course.getId());
+        }
+
+        String sortColumn = sortColumn(sortKey);
+        if (query.getCursor() != null) {
+            String[] cursor = StudentCursors.decode(query.getCursor(), sortKey);
+            int lastId = Integer.parseInt(cursor[1]);
+            if (StudentQuery.SORT_ID.equals(sortKey)) {
+                sql.append(" AND id ").append(comparator).append(" ?");
+                params.add(lastId);
+            } else {
+                Object lastValue = StudentQuery.SORT_ENROLLMENT_DATE.equals(sortKey)
+                        ? java.sql.Date.valueOf(cursor[0]) : cursor[0];
+                sql.append(" AND (").append(sortColumn).append(' ').append(comparator).append(" ? OR (")
+                        .append(sortColumn).append(" = ? AND id ").append(comparator).append(" ?))");
+                params.add(lastValue);
+                params.add(lastValue);
+                params.add(lastId);
+            }
+        }
+
+        sql.append(" ORDER BY ").append(sortColumn).append(' ').append(direction);
+        if (!StudentQuery.SORT_ID.equals(sortKey)) {
+            sql.append(", id ").append(direction);
+        }
+        // Fetch one extra row to learn whether another page exists
+        sql.append(" LIMIT ?");
+        params.add(limit + 1);
+
+        List<Student> students = new ArrayList<>();
+        String nextCursor = null;
+        long start = System.nanoTime();
+
+        try (Connection conn = DBConnection.getReadConnection();
+             PreparedStatement pstmt = conn.prepareStatement(sql.toString())) {
+
+            for (int i = 0; i < params.size(); i++) {
+                pstmt.setObject(i + 1, params.get(i));
+            }
+            CourseNames courses = new CourseNames();
+            RowMapper<Student> mapper = studentMapper(courses);
+            boolean more = false;
+            try (ResultSet rs = pstmt.executeQuery()) {
+                int[] columns = mapper.resolve(rs);
+                while (rs.next()) {
+                    if (students.size() == limit) {
+                        more = true;
+                        break;
+                    }
+                    students.add(mapper.map(rs, columns));
+                }
+            }
+            courses.fill(conn);
+            if (more) {
+                nextCursor = StudentCursors.encode(students.get(limit - 1), sortKey);
+            }
+            Metrics.recordQuery("students.selectPage", start, students.size());
+
+        } catch (SQLException e) {
+            Metrics.recordQueryError("students.selectPage");
+            throw e;
+        }
+
+        return new StudentPage(students, nextCursor, limit);
+    }
+
+    // The course a query is filtered to, or null when it names no known course
+    private static Course courseFilter(StudentQuery query) throws SQLException {
+        CourseCatalog catalog = CourseCatalog.getInstance();
+        Course course = query.getCourse() != null ? catalog.find(query.getCourse()) : null;
+        if (query.getCourseId() != null) {
+            Course byId = catalog.get(query.getCourseId());
+            if (query.getCourse() != null && (course == null || byId == null || course.getId() != byId.getId())) {
+                return null;
+            }
+            course = byId;
+        }
+        return course;
+    }
+
+    // Sorting by course name would need a join to courses, and no index spans
+    // both tables. Instead the catalog's courses are walked in name order and
+    // each is read in id order off an index that starts with the course:
+    // idx_user_course (user_id, course_id, id) for one owner's students,
+    // idx_course_id (course_id, deleted_at, id) for everyone's. The ORDER BY
+    // names the index's leading columns, which the WHERE clause fixes, so
+    // H2 reads the index in order too. One short query per course until the
+    // page is full; a course with no matching rows costs one index seek.
+    private StudentPage findStudentsInCourseOrder(StudentQuery query, String filtered, List<Object> params,
+                                                  Course only) throws SQLException {
+        boolean descending = query.isDescending();
+        int limit = query.getLimit();
+        String direction = descending ? " DESC" : " ASC";
+        String order = query.getUserId() != null
+                ? "user_id" + direction + ", course_id" + direction
+                : "course_id" + direction + ", deleted_at" + direction;
+        String sql = filtered + " AND course_id = ? AND id " + (descending ? "<" : ">") + " ? ORDER BY " + order
+                + ", id" + direction + " LIMIT ?";
+        String[] cursor = query.getCursor() != null
+                ? StudentCursors.decode(query.getCursor(), StudentQuery.SORT_COURSE) : null;
+        // Read before the connection is taken: loading the catalog takes one of its own
+        List<Course> known = CourseCatalog.getInstance().inNameOrder();
+
+        List<Student> students = new ArrayList<>();
+        long start = System.nanoTime();
+
+        try (Connection conn = DBConnection.getReadConnection();
+             PreparedStatement pstmt = conn.prepareStatement(sql)) {
+
+            List<Course> courses = new ArrayList<>(CourseNames.inNameOrder(conn, known));
+            if (descending) {
+                Collections.reverse(courses);
+            }
+
+            // Resume in the cursor's course after its last id, or at the first course past it
+            int first = 0;
+            int lastId = descending ? Integer.MAX_VALUE : Integer.MIN_VALUE;
+            if (cursor != null) {
+                first = courses.size();
+                for (int i = 0; i < courses.size(); i++) {
+                    int position = String.CASE_INSENSITIVE_ORDER.compare(courses.get(i).getName(), cursor[0]);
+                    if (descending ? position <= 0 : position >= 0) {
+                        first = i;
+                        if (position == 0) {
+                            lastId = Integer.parseInt(cursor[1]);
+                        }
+                        break;
+                    }
+                }
+            }
+
+            CourseNames names = new CourseNames();
+            RowMapper<Student> mapper = studentMapper(names);
+            // One row past the page tells whether another page exists
+            for (int i = first; i < courses.size() && students.size() <= limit; i++) {
+                Course course = courses.get(i);
+                if (only != null && course.getId() != only.getId()) {
+                    continue;
+                }
+                int index = 1;
+                for (Object param : params) {
+                    pstmt.setObject(index++, param);
+                }
+                pstmt.setInt(index++, course.getId());
+                pstmt.setInt(index++, i == first ? lastId : descending ? Integer.MAX_VALUE : Integer.MIN_VALUE);
+                pstmt.setInt(index, limit + 1 - students.size());
+                try (ResultSet rs = pstmt.executeQuery()) {
+                    students.addAll(mapper.list(rs));
+                }
+            }
+            names.fill(conn);
+            Metrics.recordQuery("students.selectPageByCourse", start, students.size());
+
+        } catch (SQLException e) {
+            Metrics.recordQueryError("students.selectPageByCourse");
+            throw e;
+        }
+
+        String nextCursor = null;
+        if (students.size() > limit) {
+            students.remove(limit);
+            nextCursor = StudentCursors.encode(students.get(limit - 1), StudentQuery.SORT_COURSE);
+        }
+        return new StudentPage(students, nextCursor, limit);
+    }
+
+    // Read - Stream students (all, or one owner's) to the handler row by row without
+    // building a list, so exports use constant heap regardless of table size.
+    // Exceptions are propagated because the caller may already have written output.
+    @Override
+    public void streamStudents(Integer userId, StudentRowHandler handler) throws SQLException, IOException {
+        streamRows(userId, "students.stream", courses -> {
+            RowMapper<Student> mapper = studentMapper(courses);
+            return (rs, columns) -> handler.handle(mapper.map(rs, columns));
+        });
+    }
+
+    // Read - The same stream filled straight from the ResultSet into one
+    // reused StudentBatch, handed on every batchSize rows
+    @Override
+    public void streamStudentBatches(Integer userId, int batchSize, StudentBatchHandler handler)
+            throws SQLException, IOException {
+        StudentBatch batch = new StudentBatch(batchSize);
+        streamRows(userId, "students.stream.batch", courses -> (rs, c) -> {
+            batch.add(rs.getInt(c[0]), rs.getString(c[1]), rs.getString(c[2]), courses.name(rs.getInt(c[3])),
+                    rs.getString(c[4]), rs.getString(c[5]), epochDay(rs.getObject(c[6], LocalDate.class)),
+                    rs.getInt(c[7]), StudentBatch.epochMicros(rs.getTimestamp(c[8])),
+                    StudentBatch.epochMicros(rs.getTimestamp(c[9])));
+            if (batch.size() == batchSize) {
+                handler.handle(batch);
+                batch.clear();
+            }
+        });
+        if (batch.size() > 0) {
+            handler.handle(batch);
+        }
+    }
+
+    // Read as a LocalDate: getDate would build a zoned java.sql.Date per row only to take it apart again
+    private static long epochDay(LocalDate date) {
+        return date != null ? date.toEpochDay() : StudentBatch.NULL;
+    }
+
+    @FunctionalInterface
+    private interface StreamedRowHandler {
+        void handle(ResultSet rs, int[] columns) throws SQLException, IOException;
+    }
+
+    // Rows go to the handler as they are read, so a course can't be named
+    // after the ResultSet is closed. The courses are read first instead, in
+    // one read-only repeatable-read transaction with the rows.
+    private void streamRows(Integer userId, String metric, Function<CourseNames, StreamedRowHandler> handlers)
+            throws SQLException, IOException {
+        String sql = userId == null
+                ? SELECT_STUDENTS + " WHERE deleted_at IS NULL ORDER BY id"
+                : SELECT_STUDENTS + " WHERE user_id = ? AND deleted_at IS NULL ORDER BY id";
+
+        try (Connection conn = DBConnection.getReadConnection()) {
+            conn.setTransactionIsolation(Connection.TRANSACTION_REPEATABLE_READ);
+            conn.setAutoCommit(false);
+            conn.setReadOnly(true);
+            CourseNames courses = CourseNames.loadedOn(conn);
+            StreamedRowHandler handler = handlers.apply(courses);
+
+            try (PreparedStatement pstmt = conn.prepareStatement(sql,
+                    ResultSet.TYPE_FORWARD_ONLY, ResultSet.CONCUR_READ_ONLY)) {
+
+                configureStreaming(conn, pstmt);
+                if (userId != null) {
+                    pstmt.setInt(1, userId);
+                }
+
+                long start = System.nanoTime();
+                long rows = 0;
+                try (ResultSet rs = pstmt.executeQuery()) {
+                    int[] columns = studentMapper(courses).resolve(rs);
+                    while (rs.next()) {
+                        handler.handle(rs, columns);
+                        rows++;
+                    }
+                } catch (SQLException e) {
+                    Metrics.recordQueryError(metric);
+                    throw e;
+                }
+                Metrics.recordQuery(metric, start, rows);
+            } finally {
+                conn.commit();
+            }
+        }
+    }
+
+    // Read - Get student by ID
+    @Override
+    public Student getStudentById(int id) {
+        String sql = SELECT_STUDENTS + " WHERE id = ? AND deleted_at IS NULL";
+        long start = System.nanoTime();
+
+        try (Connection conn = DBConnection.getReadConnection();
+             PreparedStatement pstmt = conn.prepareStatement(sql)) {
+
+            pstmt.setInt(1, id);
+            CourseNames courses = new CourseNames();
+            Student student;
+            try (ResultSet rs = pstmt.executeQuery()) {
+                student = studentMapper(courses).first(rs);
+            }
+            courses.fill(conn);
+            Metrics.recordQuery("students.selectById", start, student != null ? 1 : 0);
+            return student;
+
+        } catch (SQLException e) {
+            Metrics.recordQueryError("students.selectById");
+            e.printStackTrace();
+        }
+
+        return null;
+    }
+
+    // Read - Students with the given ids, in the order the ids were given.
+    // Ids that no longer exist are skipped. Errors propagate, so a caller can
+    // tell a missing row from a failed read.
+    @Override
+    public List<Student> getStudentsByIds(List<Integer> ids) throws SQLException {
+        List<Student> students = new ArrayList<>();
+        if (ids.isEmpty()) {
+            return students;
+        }
+        String sql = SELECT_STUDENTS + " WHERE id IN ("
+                + String.join(",", Collections.nCopies(ids.size(), "?")) + ") AND deleted_at IS NULL";
+        long start = System.nanoTime();
+
+        try (Connection conn = DBConnection.getConnection();
+             PreparedStatement pstmt = conn.prepareStatement(sql)) {
+
+            for (int i = 0; i < ids.size(); i++) {
+                pstmt.setInt(i + 1, ids.get(i));
+            }
+            Map<Integer, Student> byId = new HashMap<>();
+            CourseNames courses = new CourseNames();
+            try (ResultSet rs = pstmt.executeQuery()) {
+                for (Student student : studentMapper(courses).list(rs)) {
+                    byId.put(student.getId(), student);
+                }
+            }
+            courses.fill(conn);
+            Metrics.recordQuery("students.selectByIds", start, byId.size());
+            for (Integer id : ids) {
+                Student student = byId.get(id);
+                if (student != null) {
+                    students.add(student);
+                }
+            }
+
+        } catch (SQLException e) {
+            Metrics.recordQueryError("students.selectByIds");
+            throw e;
+        }
+
+        return students;
+    }
+
+    // Update - unconditional, for trusted callers
+    @Override
+    public boolean updateStudent(Student student) {
+        return updateStudent(student, 0, true, null) == StudentWriteResult.OK;
+    }
+
+    // Update - ownership (and optionally the expected updated_at version) is
+    // enforced by the UPDATE's WHERE clause, so there is no window between
+    // checking and writing. Only when no row matches does a cheap follow-up
+    // read work out whether the row is missing, foreign or was changed.
+    @Override
+    public StudentWriteResult updateStudent(Student student, int userId, boolean admin, Timestamp expectedUpdatedAt) {
+        try {
+            resolveCourses(Collections.singletonList(student));
+        } catch (SQLException e) {
+            Metrics.recordQueryError("students.update");
+            e.printStackTrace();
+            return StudentWriteResult.FAILED;
+        }
+
+        try (Connection conn = DBConnection.getConnection()) {
+            return writeKnowingPrevious(conn, student.getId(), userId, admin, expectedUpdatedAt,
+                    version -> {
+                        try (PreparedStatement pstmt = conn.prepareStatement(updateSql(version != null))) {
+                            bindUpdate(pstmt, student, userId, admin, version);
+                            long start = System.nanoTime();
+                            int rows = pstmt.executeUpdate();
+                            Metrics.recordQuery("students.update", start, rows);
+                            return rows;
+                        }
+                    },
+                    previous -> {
+                        student.setUserId(previous.getUserId());
+                        student.setCreatedAt(previous.getCreatedAt());
+                        StudentChangeListeners.notify(listener -> listener.onStudentUpdated(previous, student));
+                    });
+
+        } catch (SQLException e) {
+            Metrics.recordQueryError("students.update");
+            e.printStackTrace();
+            return StudentWriteResult.FAILED;
+        }
+    }
+
+    private static String updateSql(boolean versioned) {
+        return "UPDATE students SET name=?, email=?, course_id=?, phone=?, address=?, enrollment_date=?, "
+                + "updated_at=CURRENT_TIMESTAMP(6) WHERE id=? AND deleted_at IS NULL AND (user_id=? OR ?)"
+                + (versioned ? " AND updated_at=?" : "");
+    }
+
+    private static void bindUpdate(PreparedStatement pstmt, Student student, int userId, boolean admin,
+                                   Timestamp expectedUpdatedAt) throws SQLException {
+        pstmt.setString(1, student.getName());
+        pstmt.setString(2, student.getEmail());
+        bindCourse(pstmt, 3, student);
+        pstmt.setString(4, student.getPhone());
+        pstmt.setString(5, student.getAddress());
+        pstmt.setDate(6, new java.sql.Date(student.getEnrollmentDate().getTime()));
+        pstmt.setInt(7, student.getId());
+        pstmt.setInt(8, userId);
+        pstmt.setBoolean(9, admin);
+        if (expectedUpdatedAt != null) {
+            pstmt.setTimestamp(10, expectedUpdatedAt);
+        }
+    }
+
+    // Group commit - apply adds and updates, in order, in one transaction, so
+    // a burst of edits costs one commit (and one log flush) instead of one per
+    // row. Results line up with the mutations. A duplicate email, or an update
+    // that is missing, foreign or stale, fails only its own row. Listeners are
+    // notified after the commit. Throws when the transaction as a whole fails,
+    // in which case nothing was written.
+    @Override
+    public StudentWriteResult[] writeGroup(List<StudentMutation> mutations) throws SQLException {
+        StudentWriteResult[] results = new StudentWriteResult[mutations.size()];
+        List<Consumer<StudentChangeListener>> events = new ArrayList<>();
+        long start = System.nanoTime();
+
+        try {
+            List<Student> students = new ArrayList<>(mutations.size());
+            for (StudentMutation mutation : mutations) {
+                students.add(mutation.getStudent());
+            }
+            resolveCourses(students);
+        } catch (SQLException e) {
+            Metrics.recordQueryError("students.writeGroup");
+            throw e;
+        }
+
+        try (Connection conn = DBConnection.getConnection()) {
+            conn.setAutoCommit(false);
+            try (PreparedStatement insert = conn.prepareStatement(INSERT_STUDENT, Statement.RETURN_GENERATED_KEYS);
+                 PreparedStatement update = conn.prepareStatement(updateSql(false));
+                 PreparedStatement versionedUpdate = conn.prepareStatement(updateSql(true))) {
+
+                // Listeners need each updated row as it was; lock them all with one query
+                Map<Integer, Student> current = StudentChangeListeners.isEmpty()
+                        ? new HashMap<>() : selectForUpdate(conn, updatedIds(mutations));
+
+                for (int i = 0; i < mutations.size(); i++) {
+                    StudentMutation mutation = mutations.get(i);
+                    Student student = mutation.getStudent();
+                    try {
+                        if (mutation.isInsert()) {
+                            bindInsert(insert, student, mutation.getUserId());
+                            insert.executeUpdate();
+                            try (ResultSet keys = insert.getGeneratedKeys()) {
+                                if (keys.next()) {
+                                    student.setId(keys.getInt(1));
+                                }
+                            }
+                            student.setUserId(mutation.getUserId());
+                            events.add(listener -> listener.onStudentAdded(student));
+                            results[i] = StudentWriteResult.OK;
+                            continue;
+                        }
+
+                        Timestamp version = mutation.getExpectedUpdatedAt();
+                        PreparedStatement pstmt = version != null ? versionedUpdate : update;
+                        bindUpdate(pstmt, student, mutation.getUserId(), mutation.isAdmin(), version);
+                        if (pstmt.executeUpdate() == 0) {
+                            results[i] = classifyRejectedWrite(conn, student.getId(), mutation.getUserId(),
+                                    mutation.isAdmin(), false);
+                            continue;
+                        }
+                        results[i] = StudentWriteResult.OK;
+                        Student previous = current.get(student.getId());
+                        if (previous != null) {
+                            student.setUserId(previous.getUserId());
+                            student.setCreatedAt(previous.getCreatedAt());
+                            events.add(listener -> listener.onStudentUpdated(previous, student));
+                            // A later update of the same student in this group starts from this one
+                            current.put(student.getId(), new Student(student));
+                        }
+                    } catch (SQLIntegrityConstraintViolationException duplicate) {
+                        // Only this statement is rolled back; the rest of the group stands
+                        results[i] = StudentWriteResult.FAILED;
+                    }
+                }
+                conn.commit();
+            } catch (SQLException | RuntimeException e) {
+                conn.rollback();
+                throw e;
+            }
+        } catch (SQLException e) {
+            Metrics.recordQueryError("students.writeGroup");
+            throw e;
+        }
+        Metrics.recordQuery("students.writeGroup", start, mutations.size());
+
+        for (Consumer<StudentChangeListener> event : events) {
+            StudentChangeListeners.notify(event);
+        }
+        return results;
+    }
+
+    private static List<Integer> updatedIds(List<StudentMutation> mutations) {
+        List<Integer> ids = new ArrayList<>();
+        for (StudentMutation mutation : mutations) {
+            if (!mutation.isInsert()) {
+                ids.add(mutation.getStudent().getId());
+            }
+        }
+        return ids;
+    }
+
+    // Delete - unconditional, for trusted callers
+    @Override
+    public boolean deleteStudent(int id) {
+        return deleteStudent(id, 0, true, null) == StudentWriteResult.OK;
+    }
+
+    // Delete - same single-statement ownership/version check as updateStudent.
+    // Marks the row deleted instead of removing it: one indexed row update,
+    // with the real DELETE left to StudentPurger off-peak.
+    @Override
+    public StudentWriteResult deleteStudent(int id, int userId, boolean admin, Timestamp expectedUpdatedAt) {
+        try (Connection conn = DBConnection.getConnection()) {
+            return writeKnowingPrevious(conn, id, userId, admin, expectedUpdatedAt,
+                    version -> {
+                        String sql = "UPDATE students SET deleted_at=CURRENT_TIMESTAMP(6), updated_at=CURRENT_TIMESTAMP(6) "
+                                + "WHERE id=? AND deleted_at IS NULL AND (user_id=? OR ?)"
+                                + (version != null ? " AND updated_at=?" : "");
+                        try (PreparedStatement pstmt = conn.prepareStatement(sql)) {
+                            pstmt.setInt(1, id);
+                            pstmt.setInt(2, userId);
+                            pstmt.setBoolean(3, admin);
+                            if (version != null) {
+                                pstmt.setTimestamp(4, version);
+                            }
+                            long start = System.nanoTime();
+                            int rows = pstmt.executeUpdate();
+                            Metrics.recordQuery("students.delete", start, rows);
+                            return rows;
+                        }
+                    },
+                    previous -> StudentChangeListeners.notify(listener -> listener.onStudentDeleted(previous)));
+
+        } catch (SQLException e) {
+            Metrics.recordQueryError("students.delete");
+            e.printStackTrace();
+            return StudentWriteResult.FAILED;
+        }
+    }
+
+    // Restore - undo a delete that hasn't been purged yet. Listeners see the
+    // student added again. CONFLICT when the student isn't deleted,
+    // EMAIL_TAKEN when its email has since gone to another live student.
+    @Override
+    public StudentWriteResult restoreStudent(int id, int userId, boolean admin) {
+        String sql = "UPDATE students SET deleted_at=NULL, updated_at=CURRENT_TIMESTAMP(6) "
+                + "WHERE id=? AND deleted_at IS NOT NULL AND (user_id=? OR ?)";
+
+        try (Connection conn = DBConnection.getConnection()) {
+            // Listeners get the row as restored, read under the update's lock
+            conn.setAutoCommit(false);
+            try {
+                StudentWriteResult result;
+                Student restored = null;
+                try (PreparedStatement pstmt = conn.prepareStatement(sql)) {
+                    pstmt.setInt(1, id);
+                    pstmt.setInt(2, userId);
+                    pstmt.setBoolean(3, admin);
+                    long start = System.nanoTime();
+                    int rows;
+                    try {
+                        rows = pstmt.executeUpdate();
+                    } catch (SQLIntegrityConstraintViolationException duplicate) {
+                        Metrics.recordQueryError("students.restore");
+                        conn.rollback();
+                        return StudentWriteResult.EMAIL_TAKEN;
+                    }
+                    Metrics.recordQuery("students.restore", start, rows);
+                    if (rows > 0) {
+                        result = StudentWriteResult.OK;
+                        if (!StudentChangeListeners.isEmpty()) {
+                            restored = selectForUpdate(conn, id);
+                        }
+                    } else {
+                        result = classifyRejectedWrite(conn, id, userId, admin, true);
+                    }
+                }
+                conn.commit();
+
+                if (restored != null) {
+                    Student student = restored;
+                    StudentChangeListeners.notify(listener -> listener.onStudentAdded(student));
+                }
+                return result;
+            } catch (SQLException e) {
+                conn.rollback();
+                throw e;
+            }
+
+        } catch (SQLException e) {
+            Metrics.recordQueryError("students.restore");
+            e.printStackTrace();
+            return StudentWriteResult.FAILED;
+        }
+    }
+
+    // Purge - move up to limit students deleted before cutoff, oldest first,
+    // to students_archive and remove them, in one short transaction. Returns
+    // how many were moved; fewer than limit means none are left.
+    @Override
+    public int archiveDeletedStudents(Timestamp cutoff, int limit) throws SQLException {
+        long start = System.nanoTime();
+
+        try (Connection conn = DBConnection.getConnection()) {
+            conn.setAutoCommit(false);
+            try {
+                List<Integer> ids = new ArrayList<>(limit);
+                try (PreparedStatement pstmt = conn.prepareStatement("SELECT id FROM students "
+                        + "WHERE deleted_at IS NOT NULL AND deleted_at < ? ORDER BY deleted_at LIMIT ? FOR UPDATE")) {
+                    pstmt.setTimestamp(1, cutoff);
+                    pstmt.setInt(2, limit);
+                    try (ResultSet rs = pstmt.executeQuery()) {
+                        while (rs.next()) {
+                            ids.add(rs.getInt(1));
+                        }
+                    }
+                }
+                if (ids.isEmpty()) {
+                    conn.commit();
+                    Metrics.recordQuery("students.archive", start, 0);
+                    return 0;
+                }
+
+                String in = "IN (" + String.join(",", Collections.nCopies(ids.size(), "?")) + ")";
+                // The archive keeps the course name, so it stands apart from the catalog
+                try (PreparedStatement copy = conn.prepareStatement("INSERT INTO students_archive "
+                        + "(id, name, email, course, phone, address, enrollment_date, user_id, created_at, updated_at, deleted_at) "
+                        + "SELECT s.id, s.name, s.email, c.name, s.phone, s.address, s.enrollment_date, s.user_id, "
+                        + "s.created_at, s.updated_at, s.deleted_at FROM students s JOIN courses c ON c.id = s.course_id "
+                        + "WHERE s.id " + in);
+                     PreparedStatement delete = conn.prepareStatement("DELETE FROM students WHERE id " + in)) {
+                    for (int i = 0; i < ids.size(); i++) {
+                        copy.setInt(i + 1, ids.get(i));
+                        delete.setInt(i + 1, ids.get(i));
+                    }
+                    copy.executeUpdate();
+                    delete.executeUpdate();
+                }
+                conn.commit();
+                Metrics.recordQuery("students.archive", start, ids.size());
+                return ids.size();
+            } catch (SQLException | RuntimeException e) {
+                conn.rollback();
+                throw e;
+            }
+        } catch (SQLException e) {
+            Metrics.recordQueryError("students.archive");
+            throw e;
+        }
+    }
+
+    // {all deleted students, those deleted before cutoff} waiting for the purger
+    @Override
+    public long[] countDeletedStudents(Timestamp cutoff) throws SQLException {
+        String sql = "SELECT COUNT(*), COUNT(CASE WHEN deleted_at < ? THEN 1 END) "
+                + "FROM students WHERE deleted_at IS NOT NULL";
+        long start = System.nanoTime();
+
+        try (Connection conn = DBConnection.getConnection();
+             PreparedStatement pstmt = conn.prepareStatement(sql)) {
+
+            pstmt.setTimestamp(1, cutoff);
+            try (ResultSet rs = pstmt.executeQuery()) {
+                rs.next();
+                long[] counts = {rs.getLong(1), rs.getLong(2)};
+                Metrics.recordQuery("students.countDeleted", start, 1);
+                return counts;
+            }
+
+        } catch (SQLException e) {
+            Metrics.recordQueryError("students.countDeleted");
+            throw e;
+        }
+    }
+
+    // The row as it was before a write, when it can be known without a query.
+    // Only trusted if it carries the version the write is conditioned on.
+    // The base DAO knows nothing; CachingStudentDAO answers from the cache.
+    protected Student knownPreviousState(int id, Timestamp expectedUpdatedAt) {
+        return null;
+    }
+
+    // A conditional single-row write: runs it with the version it must match
+    // (null for none) and returns the rows it changed
+    private interface VersionedWrite {
+        int execute(Timestamp version) throws SQLException;
+    }
+
+    // Runs write on a live row, and hands listeners the row as it was before.
+    // Without listeners, or when knownPreviousState has the row at the
+    // expected version, that is the one statement. Otherwise the row is read
+    // unlocked and the write is made conditional on the updated_at that was
+    // read: two autocommit statements, where locking the row would take four
+    // (begin, SELECT ... FOR UPDATE, the write, commit). If another write gets
+    // in between, the row is read again, up to WRITE_ATTEMPTS times.
+    private StudentWriteResult writeKnowingPrevious(Connection conn, int id, int userId, boolean admin,
+                                                    Timestamp expectedUpdatedAt, VersionedWrite write,
+                                                    Consumer<Student> notify) throws SQLException {
+        boolean listening = !StudentChangeListeners.isEmpty();
+        Student before = listening ? knownPreviousState(id, expectedUpdatedAt) : null;
+        if (!listening || before != null) {
+            if (write.execute(expectedUpdatedAt) == 0) {
+                return classifyRejectedWrite(conn, id, userId, admin, false);
+            }
+            if (before != null) {
+                notify.accept(before);
+            }
+            return StudentWriteResult.OK;
+        }
+
+        for (int attempt = 1; ; attempt++) {
+            before = selectLive(conn, id);
+            if (before == null) {
+                return StudentWriteResult.NOT_FOUND;
+            }
+            if (!admin && before.getUserId() != userId) {
+                return StudentWriteResult.FORBIDDEN;
+            }
+            Timestamp version = (Timestamp) before.getUpdatedAt();
+            if (expectedUpdatedAt != null && !expectedUpdatedAt.equals(version)) {
+                return StudentWriteResult.CONFLICT;
+            }
+            if (write.execute(version) > 0) {
+                notify.accept(before);
+                return StudentWriteResult.OK;
+            }
+            // The caller's version is gone, or unconditional writes kept losing the race
+            if (expectedUpdatedAt != null || attempt == WRITE_ATTEMPTS) {
+                return classifyRejectedWrite(conn, id, userId, admin, false);
+            }
+        }
+    }
+
+    private Student selectLive(Connection conn, int id) throws SQLException {
+        long start = System.nanoTime();
+        try (PreparedStatement pstmt = conn.prepareStatement(SELECT_STUDENTS + " WHERE id = ? AND deleted_at IS NULL")) {
+            pstmt.setInt(1, id);
+            CourseNames courses = new CourseNames();
+            Student student;
+            try (ResultSet rs = pstmt.executeQuery()) {
+                student = studentMapper(courses).first(rs);
+            }
+            courses.fill(conn);
+            Metrics.recordQuery("students.selectBeforeWrite", start, student != null ? 1 : 0);
+            return student;
+        }
+    }
+
+    // Runs only after a conditional write matched no row. restoring is true
+    // when the write targets a deleted row, which other writes treat as gone.
+    private StudentWriteResult classifyRejectedWrite(Connection conn, int id, int userId, boolean admin,
+                                                     boolean restoring) throws SQLException {
+        long start = System.nanoTime();
+        try (PreparedStatement pstmt = conn.prepareStatement("SELECT user_id, deleted_at FROM students WHERE id = ?")) {
+            pstmt.setInt(1, id);
+            try (ResultSet rs = pstmt.executeQuery()) {
+                boolean found = rs.next();
+                Metrics.recordQuery("students.selectOwner", start, found ? 1 : 0);
+                if (!found || (!restoring && rs.getTimestamp(2) != null)) {
+                    return StudentWriteResult.NOT_FOUND;
+                }
+                if (!admin && rs.getInt(1) != userId) {
+                    return StudentWriteResult.FORBIDDEN;
+                }
+                return StudentWriteResult.CONFLICT;
+            }
+        }
+    }
+
+    private Student selectForUpdate(Connection conn, int id) throws SQLException {
+        long start = System.nanoTime();
+        try (PreparedStatement pstmt = conn.prepareStatement(SELECT_STUDENTS + " WHERE id = ? FOR UPDATE")) {
+            pstmt.setInt(1, id);
+            CourseNames courses = new CourseNames();
+            Student student;
+            try (ResultSet rs = pstmt.executeQuery()) {
+                student = studentMapper(courses).first(rs);
+            }
+            courses.fill(conn);
+            Metrics.recordQuery("students.selectForUpdate", start, student != null ? 1 : 0);
+            return student;
+        }
+    }
+
+    private Map<Integer, Student> selectForUpdate(Connection conn, List<Integer> ids) throws SQLException {
+        Map<Integer, Student> students = new HashMap<>();
+        if (ids.isEmpty()) {
+            return students;
+        }
+        long start = System.nanoTime();
+        String sql = SELECT_STUDENTS + " WHERE id IN ("
+                + String.join(",", Collections.nCopies(ids.size(), "?")) + ") FOR UPDATE";
+        try (PreparedStatement pstmt = conn.prepareStatement(sql)) {
+            for (int i = 0; i < ids.size(); i++) {
+                pstmt.setInt(i + 1, ids.get(i));
+            }
+            CourseNames courses = new CourseNames();
+            try (ResultSet rs = pstmt.executeQuery()) {
+                for (Student student : studentMapper(courses).list(rs)) {
+                    students.put(student.getId(), student);
+                }
+            }
+            courses.fill(conn);
+        }
+        Metrics.recordQuery("students.selectForUpdate", start, students.size());
+        return students;
+    }
+
+    // Aggregates used to rebuild the in-memory dashboard statistics. The three
+    // GROUP BY queries run in one read-only transaction so they see the same
+    // snapshot. This throws so a failed query is never mistaken for an empty table.
+    @Override
+    public StudentCounts countStudents() throws SQLException {
+        StudentCounts counts = new StudentCounts();
+        long start = System.nanoTime();
+
+        try (Connection conn = DBConnection.getConnection()) {
+            conn.setAutoCommit(false);
+            conn.setReadOnly(true);
+            try (Statement stmt = conn.createStatement()) {
+                Map<Integer, Long> byCourseId = new HashMap<>();
+                try (ResultSet rs = stmt.executeQuery("SELECT course_id, COUNT(*) FROM students "
+                        + "WHERE deleted_at IS NULL GROUP BY course_id")) {
+                    while (rs.next()) {
+                        byCourseId.put(rs.getInt(1), rs.getLong(2));
+                    }
+                }
+                // Named once the ResultSet is closed, as for rows (see CourseNames)
+                CourseCatalog catalog = CourseCatalog.getInstance();
+                CourseNames courses = byCourseId.keySet().stream().allMatch(id -> catalog.knownName(id) != null)
+                        ? new CourseNames() : CourseNames.loadedOn(conn);
+                for (Map.Entry<Integer, Long> entry : byCourseId.entrySet()) {
+                    counts.getByCourse().put(courses.name(entry.getKey()), entry.getValue());
+                }
+
+                try (ResultSet rs = stmt.executeQuery("SELECT YEAR(enrollment_date), MONTH(enrollment_date), COUNT(*) "
+                        + "FROM students WHERE enrollment_date IS NOT NULL AND deleted_at IS NULL "
+                        + "GROUP BY YEAR(enrollment_date), MONTH(enrollment_date)")) {
+                    while (rs.next()) {
+                        counts.getByEnrollmentMonth().put(YearMonth.of(rs.getInt(1), rs.getInt(2)).toString(), rs.getLong(3));
+                    }
+                }
+
+                try (ResultSet rs = stmt.executeQuery("SELECT user_id, COUNT(*) FROM students "
+                        + "WHERE deleted_at IS NULL GROUP BY user_id")) {
+                    while (rs.next()) {
+                        counts.getByOwner().merge(rs.getInt(1), rs.getLong(2), Long::sum);
+                    }
+                }
+            } finally {
+                conn.commit();
+            }
+        } catch (SQLException e) {
+            Metrics.recordQueryError("students.count");
+            throw e;
+        }
+        Metrics.recordQuery("students.count", start,
+                counts.getByCourse().size() + counts.getByEnrollmentMonth().size() + counts.getByOwner().size());
+        return counts;
+    }
+
+    // Live students per course id, all or one owner's. With no owner this
+    // is a scan of idx_course_id (course_id, deleted_at) alone.
+    @Override
+    public Map<Integer, Long> countStudentsByCourse(Integer userId) throws SQLException {
+        String sql = "SELECT course_id, COUNT(*) FROM students WHERE deleted_at IS NULL"
+                + (userId != null ? " AND user_id = ?" : "") + " GROUP BY course_id";
+        Map<Integer, Long> counts = new HashMap<>();
+        long start = System.nanoTime();
+
+        try (Connection conn = DBConnection.getReadConnection();
+             PreparedStatement pstmt = conn.prepareStatement(sql)) {
+
+            if (userId != null) {
+                pstmt.setInt(1, userId);
+            }
+            try (ResultSet rs = pstmt.executeQuery()) {
+                while (rs.next()) {
+                    counts.put(rs.getInt(1), rs.getLong(2));
+                }
+            }
+            Metrics.recordQuery("students.countByCourse", start, counts.size());
+
+        } catch (SQLException e) {
+            Metrics.recordQueryError("students.countByCourse");
+            throw e;
+        }
+        return counts;
+    }
+
+    // Check if student belongs to user
+    @Override
+    public boolean isStudentOwnedByUser(int studentId, int userId) {
+        String sql = "SELECT COUNT(*) FROM students WHERE id = ? AND user_id = ? AND deleted_at IS NULL";
+        long start = System.nanoTime();
+
+        try (Connection conn = DBConnection.getConnection();
+             PreparedStatement pstmt = conn.prepareStatement(sql)) {
+
+            pstmt.setInt(1, studentId);
+            pstmt.setInt(2, userId);
+            ResultSet rs = pstmt.executeQuery();
+
+            boolean owned = rs.next() && rs.getInt(1) > 0;
+            Metrics.recordQuery("students.selectOwnership", start, 1);
+            return owned;
+
+        } catch (SQLException e) {
+            Metrics.recordQueryError("students.selectOwnership");
+            e.printStackTrace();
+        }
+
+        return false;
+    }
+
+    // MySQL Connector/J buffers the entire result unless the fetch size is
+    // Integer.MIN_VALUE (row streaming) or useCursorFetch=true is on the URL
+    // (server-side cursor honouring the fetch size). Other drivers honour it directly.
+    static void configureStreaming(Connection conn, Statement stmt) throws SQLException {
+        DatabaseMetaData metaData = conn.getMetaData();
+        boolean mysql = "MySQL".equalsIgnoreCase(metaData.getDatabaseProductName());
+        String url = metaData.getURL();
+        if (mysql && (url == null || !url.contains("useCursorFetch=true"))) {
+            stmt.setFetchSize(Integer.MIN_VALUE);
+        } else {
+            stmt.setFetchSize(STREAM_FETCH_SIZE);
+        }
+    }
+
+    private static String sortColumn(String sortKey) {
+        switch (sortKey) {
+            case StudentQuery.SORT_ID:
+                return "id";
+            case StudentQuery.SORT_NAME:
+                return "name";
+            case StudentQuery.SORT_EMAIL:
+                return "email";
+            case StudentQuery.SORT_ENROLLMENT_DATE:
+                return "COALESCE(enrollment_date, DATE '" + StudentCursors.NULL_ENROLLMENT_DATE + "')";
+            default:
+                throw new IllegalArgumentException("Unsupported sort key: " + sortKey);
+        }
+    }
+}
@@ -0,0 +1,229 @@
+package com.studentmanagement.dao;
+
+import com.studentmanagement.model.User;
+import com.studentmanagement.util.DBConnection;
+import com.studentmanagement.util.Metrics;
+import java.sql.*;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.function.BiConsumer;
+
+// UserDAO on MySQL (or any JDBC database) through DBConnection
+public class JdbcUserDAO implements UserDAO {
+    private static final RowMapper<User> USER_MAPPER = new RowMapper<>(
+            "id, username, email, password, full_name, role, created_at, updated_at",
+            (rs, c) -> {
+                User user = new User();
+                user.setId(rs.getInt(c[0]));
+                user.setUsername(rs.getString(c[1]));
+                user.setEmail(rs.getString(c[2]));
+                user.setPassword(rs.getString(c[3]));
+                user.setFullName(rs.getString(c[4]));
+                user.setRole(rs.getString(c[5]));
+                user.setCreatedAt(rs.getTimestamp(c[6]));
+                user.setUpdatedAt(rs.getTimestamp(c[7]));
+                return user;
+            });
+    private static final String SELECT_USERS = "SELECT " + USER_MAPPER.getColumns() + " FROM users";
+
+    // Register new user; the password must already be hashed. The unique keys
+    // on username and email are the duplicate check, so a name taken after any
+    // pre-check (e.g. by a concurrent registration) comes back as
+    // USERNAME_TAKEN or EMAIL_TAKEN rather than a failure.
+    @Override
+    public UserWriteResult registerUser(User user) {
+        String sql = "INSERT INTO users (username, email, password, full_name, role) VALUES (?, ?, ?, ?, ?)";
+        long start = System.nanoTime();
+
+        try (Connection conn = DBConnection.getConnection();
+             PreparedStatement pstmt = conn.prepareStatement(sql)) {
+
+            pstmt.setString(1, user.getUsername());
+            pstmt.setString(2, user.getEmail());
+            pstmt.setString(3, user.getPassword());
+            pstmt.setString(4, user.getFullName());
+            pstmt.setString(5, user.getRole() != null ? user.getRole() : "user");
+
+            int result = pstmt.executeUpdate();
+            Metrics.recordQuery("users.insert", start, result);
+            return result > 0 ? UserWriteResult.OK : UserWriteResult.FAILED;
+
+        } catch (SQLException e) {
+            if (isDuplicateKey(e)) {
+                Metrics.recordQuery("users.insert", start, 0);
+                // Drivers don't name the violated key portably, so look it up
+                UserWriteResult conflict = findConflict(user.getUsername(), user.getEmail());
+                return conflict != UserWriteResult.OK ? conflict : UserWriteResult.FAILED;
+            }
+            Metrics.recordQueryError("users.insert");
+            e.printStackTrace();
+            return UserWriteResult.FAILED;
+        }
+    }
+
+    // Whether another user already has this username or email, both answered
+    // by one query. Comparing in SQL keeps the column collation's idea of
+    // equal (case-insensitive in MySQL by default).
+    @Override
+    public UserWriteResult findConflict(String username, String email) {
+        String sql = "SELECT COUNT(CASE WHEN username = ? THEN 1 END), COUNT(CASE WHEN email = ? THEN 1 END) "
+                + "FROM users WHERE username = ? OR email = ?";
+        long start = System.nanoTime();
+
+        try (Connection conn = DBConnection.getConnection();
+             PreparedStatement pstmt = conn.prepareStatement(sql)) {
+
+            pstmt.setString(1, username);
+            pstmt.setString(2, email);
+            pstmt.setString(3, username);
+            pstmt.setString(4, email);
+            ResultSet rs = pstmt.executeQuery();
+
+            UserWriteResult result = UserWriteResult.OK;
+            if (rs.next()) {
+                if (rs.getInt(1) > 0) {
+                    result = UserWriteResult.USERNAME_TAKEN;
+                } else if (rs.getInt(2) > 0) {
+                    result = UserWriteResult.EMAIL_TAKEN;
+                }
+            }
+            Metrics.recordQuery("users.selectConflict", start, 1);
+            return result;
+
+        } catch (SQLException e) {
+            Metrics.recordQueryError("users.selectConflict");
+            e.printStackTrace();
+            return UserWriteResult.FAILED;
+        }
+    }
+
+    // Look up a user by username or email; the caller verifies the password
+    // against the stored hash
+    @Override
+    public User getUserByLogin(String login) {
+        String sql = SELECT_USERS + " WHERE username = ? OR email = ?";
+        long start = System.nanoTime();
+
+        try (Connection conn = DBConnection.getConnection();
+             PreparedStatement pstmt = conn.prepareStatement(sql)) {
+
+            pstmt.setString(1, login);
+            pstmt.setString(2, login);
+
+            ResultSet rs = pstmt.executeQuery();
+
+            User user = USER_MAPPER.first(rs);
+            Metrics.recordQuery("users.selectByLogin", start, user != null ? 1 : 0);
+            return user;
+
+        } catch (SQLException e) {
+            Metrics.recordQueryError("users.selectByLogin");
+            e.printStackTrace();
+        }
+
+        return null;
+    }
+
+    // Replace a password hash, but only if it is still the one that was
+    // verified, so concurrent logins can't overwrite a password change
+    @Override
+    public boolean updatePasswordHash(int id, String currentHash, String newHash) {
+        String sql = "UPDATE users SET password = ? WHERE id = ? AND password = ?";
+        long start = System.nanoTime();
+
+        try (Connection conn = DBConnection.getConnection();
+             PreparedStatement pstmt = conn.prepareStatement(sql)) {
+
+            pstmt.setString(1, newHash);
+            pstmt.setInt(2, id);
+            pstmt.setString(3, currentHash);
+
+            int result = pstmt.executeUpdate();
+            Metrics.recordQuery("users.updatePassword", start, result);
+            return result > 0;
+
+        } catch (SQLException e) {
+            Metrics.recordQueryError("users.updatePassword");
+            e.printStackTrace();
+            return false;
+        }
+    }
+
+    // Get user by ID
+    @Override
+    public User getUserById(int id) {
+        String sql = SELECT_USERS + " WHERE id = ?";
+        long start = System.nanoTime();
+
+        try (Connection conn = DBConnection.getReadConnection();
+             PreparedStatement pstmt = conn.prepareStatement(sql)) {
+
+            pstmt.setInt(1, id);
+            ResultSet rs = pstmt.executeQuery();
+
+            User user = USER_MAPPER.first(rs);
+            Metrics.recordQuery("users.selectById", start, user != null ? 1 : 0);
+            return user;
+
+        } catch (SQLException e) {
+            Metrics.recordQueryError("users.selectById");
+            e.printStackTrace();
+        }
+
+        return null;
+    }
+
+    // Count all users
+    @Override
+    public int getUserCount() {
+        String sql = "SELECT COUNT(*) FROM users";
+        long start = System.nanoTime();
+
+        try (Connection conn = DBConnection.getConnection();
+             Statement stmt = conn.createStatement();
+             ResultSet rs = stmt.executeQuery(sql)) {
+
+            int count = rs.next() ? rs.getInt(1) : 0;
+            Metrics.recordQuery("users.count", start, 1);
+            return count;
+
+        } catch (SQLException e) {
+            Metrics.recordQueryError("users.count");
+            e.printStackTrace();
+        }
+
+        return 0;
+    }
+
+    // Stream every username and email pair without building a list.
+    // Exceptions are propagated so a partial read isn't mistaken for the whole table.
+    @Override
+    public void streamLogins(BiConsumer<String, String> handler) throws SQLException {
+        String sql = "SELECT username, email FROM users";
+
+        try (Connection conn = DBConnection.getConnection();
+             PreparedStatement pstmt = conn.prepareStatement(sql,
+                     ResultSet.TYPE_FORWARD_ONLY, ResultSet.CONCUR_READ_ONLY)) {
+
+            JdbcStudentDAO.configureStreaming(conn, pstmt);
+
+            long start = System.nanoTime();
+            long rows = 0;
+            try (ResultSet rs = pstmt.executeQuery()) {
+                while (rs.next()) {
+                    handler.accept(rs.getString(1), rs.getString(2));
+                    rows++;
+                }
+            } catch (SQLException e) {
+                Metrics.recordQueryError("users.streamLogins");
+                throw e;
+            }
+            Metrics.recordQuery("users.streamLogins", start, rows);
+        }
+    }
+
+    // Unique key violation: MySQL reports ER_DUP_ENTRY, others the standard SQLSTATE
+    private static boolean isDuplicateKey(SQLException e) {
+        return e.getErrorCode() == 1062 || "23505".equals(e.getSQLState());
+    }
+}
\ No newline at end of file
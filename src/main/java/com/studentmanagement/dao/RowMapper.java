@@ -0,0 +1,66 @@
+package com.studentmanagement.dao;
+
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.util.ArrayList;
+import java.util.List;
+
+// Turns ResultSet rows into objects by column index. Reading a column by name
+// costs the driver a case-insensitive lookup on every call, so a mapper
+// resolves its columns to ordinals once per ResultSet and then reads every
+// row by index. Queries select exactly getColumns(), so no column crosses the
+// wire that the mapper doesn't read; since ordinals are found by name, a
+// query may still select extra columns or list them in another order.
+public final class RowMapper<T> {
+
+    @FunctionalInterface
+    public interface Reader<T> {
+        // ordinals[i] is the ResultSet index of the mapper's i-th column
+        T read(ResultSet rs, int[] ordinals) throws SQLException;
+    }
+
+    private final String columns;
+    private final String[] names;
+    private final Reader<T> reader;
+
+    // columns is a select list such as "id, name, email"
+    public RowMapper(String columns, Reader<T> reader) {
+        this.columns = columns;
+        this.names = columns.split("\\s*,\\s*");
+        this.reader = reader;
+    }
+
+    public String getColumns() {
+        return columns;
+    }
+
+    public int[] resolve(ResultSet rs) throws SQLException {
+        int[] ordinals = new int[names.length];
+        for (int i = 0; i < names.length; i++) {
+            ordinals[i] = rs.findColumn(names[i]);
+        }
+        return ordinals;
+    }
+
+    // The current row, with ordinals from resolve() on the same ResultSet
+    public T map(ResultSet rs, int[] ordinals) throws SQLException {
+        return reader.read(rs, ordinals);
+    }
+
+    // Every remaining row
+    public List<T> list(ResultSet rs) throws SQLException {
+        List<T> rows = new ArrayList<>();
+        if (rs.next()) {
+            int[] ordinals = resolve(rs);
+            do {
+                rows.add(reader.read(rs, ordinals));
+            } while (rs.next());
+        }
+        return rows;
+    }
+
+    // The next row, or null when there is none
+    public T first(ResultSet rs) throws SQLException {
+        return rs.next() ? reader.read(rs, resolve(rs)) : null;
+    }
+}
@@ -0,0 +1,13 @@
+package com.studentmanagement.dao;
+
+import com.studentmanagement.model.StudentBatch;
+
+import java.io.IOException;
+
+// Callback for StudentDAO.streamStudentBatches, invoked once per filled batch
+// while the ResultSet is still open. The batch is cleared and refilled after
+// the handler returns, so it must not be retained.
+@FunctionalInterface
+public interface StudentBatchHandler {
+    void handle(StudentBatch batch) throws IOException;
+}
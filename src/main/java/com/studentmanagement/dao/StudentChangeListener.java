@@ -0,0 +1,15 @@
+package com.studentmanagement.dao;
+
+import com.studentmanagement.model.Student;
+
+// Notified by StudentDAO after a student mutation has been committed.
+// Listeners run on the request thread, so they must be cheap and must not throw.
+public interface StudentChangeListener {
+
+    default void onStudentAdded(Student student) {}
+
+    // before is the row as it was prior to the update, after the row as written
+    default void onStudentUpdated(Student before, Student after) {}
+
+    default void onStudentDeleted(Student before) {}
+}
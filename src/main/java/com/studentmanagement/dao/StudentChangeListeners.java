@@ -0,0 +1,36 @@
+package com.studentmanagement.dao;
+
+import java.util.List;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.function.Consumer;
+
+// Listeners registered through StudentDAO.addChangeListener, shared by every
+// StudentDAO implementation
+final class StudentChangeListeners {
+    private static final List<StudentChangeListener> LISTENERS = new CopyOnWriteArrayList<>();
+
+    private StudentChangeListeners() {}
+
+    static void add(StudentChangeListener listener) {
+        LISTENERS.add(listener);
+    }
+
+    static void remove(StudentChangeListener listener) {
+        LISTENERS.remove(listener);
+    }
+
+    static boolean isEmpty() {
+        return LISTENERS.isEmpty();
+    }
+
+    // A failing listener must not turn an already committed write into an error
+    static void notify(Consumer<StudentChangeListener> event) {
+        for (StudentChangeListener listener : LISTENERS) {
+            try {
+                event.accept(listener);
+            } catch (RuntimeException e) {
+                e.printStackTrace();
+            }
+        }
+    }
+}
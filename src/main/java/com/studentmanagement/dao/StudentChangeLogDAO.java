@@ -0,0 +1,125 @@
+package com.studentmanagement.dao;
+
+import com.studentmanagement.model.StudentChangeEvent;
+import com.studentmanagement.util.DBConnection;
+import com.studentmanagement.util.Metrics;
+
+import java.sql.Connection;
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.sql.Timestamp;
+import java.sql.Types;
+import java.util.Collections;
+import java.util.List;
+
+// The student_changes table, where StudentChangeFeed keeps its recent events
+// so client cursors survive a restart. Errors propagate: the feed decides
+// whether to retry or to make clients reload.
+public class StudentChangeLogDAO {
+    private static final RowMapper<StudentChangeEvent> EVENT_MAPPER = new RowMapper<>(
+            "seq, student_id, op, owner_before, owner_after, changed_at",
+            (rs, c) -> new StudentChangeEvent(
+                    rs.getLong(c[0]),
+                    rs.getInt(c[1]),
+                    rs.getString(c[2]),
+                    rs.getInt(c[3]),
+                    rs.getInt(c[4]),
+                    rs.getTimestamp(c[5]).getTime()));
+
+    // All events in one transaction, sent as one JDBC batch
+    public void insertEvents(List<StudentChangeEvent> events) throws SQLException {
+        if (events.isEmpty()) {
+            return;
+        }
+        String sql = "INSERT INTO student_changes (seq, student_id, op, owner_before, owner_after, changed_at) "
+                + "VALUES (?, ?, ?, ?, ?, ?)";
+        long start = System.nanoTime();
+
+        try (Connection conn = DBConnection.getConnection()) {
+            conn.setAutoCommit(false);
+            try (PreparedStatement pstmt = conn.prepareStatement(sql)) {
+                for (StudentChangeEvent event : events) {
+                    pstmt.setLong(1, event.getSeq());
+                    pstmt.setInt(2, event.getStudentId());
+                    pstmt.setString(3, event.getOp());
+                    setOwner(pstmt, 4, event.getOwnerBefore());
+                    setOwner(pstmt, 5, event.getOwnerAfter());
+                    pstmt.setTimestamp(6, new Timestamp(event.getChangedAt()));
+                    pstmt.addBatch();
+                }
+                pstmt.executeBatch();
+                conn.commit();
+            } catch (SQLException | RuntimeException e) {
+                conn.rollback();
+                throw e;
+            }
+        } catch (SQLException e) {
+            Metrics.recordQueryError("studentChanges.insert");
+            throw e;
+        }
+        Metrics.recordQuery("studentChanges.insert", start, events.size());
+    }
+
+    // The newest limit events, oldest first
+    public List<StudentChangeEvent> findLatest(int limit) throws SQLException {
+        String sql = "SELECT " + EVENT_MAPPER.getColumns() + " FROM student_changes ORDER BY seq DESC LIMIT ?";
+        long start = System.nanoTime();
+
+        try (Connection conn = DBConnection.getConnection();
+             PreparedStatement pstmt = conn.prepareStatement(sql)) {
+
+            pstmt.setInt(1, limit);
+            List<StudentChangeEvent> events;
+            try (ResultSet rs = pstmt.executeQuery()) {
+                events = EVENT_MAPPER.list(rs);
+            }
+            Metrics.recordQuery("studentChanges.selectLatest", start, events.size());
+            Collections.reverse(events);
+            return events;
+
+        } catch (SQLException e) {
+            Metrics.recordQueryError("studentChanges.selectLatest");
+            throw e;
+        }
+    }
+
+    public int deleteUpTo(long seq) throws SQLException {
+        return delete("DELETE FROM student_changes WHERE seq <= ?", "studentChanges.deleteUpTo",
+                pstmt -> pstmt.setLong(1, seq));
+    }
+
+    public int deleteByOp(String op) throws SQLException {
+        return delete("DELETE FROM student_changes WHERE op = ?", "studentChanges.deleteByOp",
+                pstmt -> pstmt.setString(1, op));
+    }
+
+    private interface Binder {
+        void bind(PreparedStatement pstmt) throws SQLException;
+    }
+
+    private int delete(String sql, String metric, Binder binder) throws SQLException {
+        long start = System.nanoTime();
+
+        try (Connection conn = DBConnection.getConnection();
+             PreparedStatement pstmt = conn.prepareStatement(sql)) {
+
+            binder.bind(pstmt);
+            int deleted = pstmt.executeUpdate();
+            Metrics.recordQuery(metric, start, deleted);
+            return deleted;
+
+        } catch (SQLException e) {
+            Metrics.recordQueryError(metric);
+            throw e;
+        }
+    }
+
+    private static void setOwner(PreparedStatement pstmt, int index, int ownerId) throws SQLException {
+        if (ownerId == 0) {
+            pstmt.setNull(index, Types.INTEGER);
+        } else {
+            pstmt.setInt(index, ownerId);
+        }
+    }
+}
@@ -0,0 +1,60 @@
+package com.studentmanagement.dao;
+
+import com.studentmanagement.model.Student;
+import com.studentmanagement.model.StudentQuery;
+
+import java.nio.charset.StandardCharsets;
+import java.util.Base64;
+
+// Keyset cursors for StudentDAO.findStudents, the same for every storage
+// engine: base64url("sortKey|lastSortValue|lastId")
+final class StudentCursors {
+    // enrollment_date is nullable, so it sorts as this date to keep keyset comparisons total
+    static final String NULL_ENROLLMENT_DATE = "1000-01-01";
+
+    private StudentCursors() {}
+
+    static String encode(Student last, String sortKey) {
+        String value;
+        switch (sortKey) {
+            case StudentQuery.SORT_NAME:
+                value = last.getName();
+                break;
+            case StudentQuery.SORT_EMAIL:
+                value = last.getEmail();
+                break;
+            case StudentQuery.SORT_COURSE:
+                value = last.getCourse();
+                break;
+            case StudentQuery.SORT_ENROLLMENT_DATE:
+                value = last.getEnrollmentDate() != null
+                        ? new java.sql.Date(last.getEnrollmentDate().getTime()).toString()
+                        : NULL_ENROLLMENT_DATE;
+                break;
+            default:
+                value = "";
+        }
+        String token = sortKey + "|" + value + "|" + last.getId();
+        return Base64.getUrlEncoder().withoutPadding().encodeToString(token.getBytes(StandardCharsets.UTF_8));
+    }
+
+    // Returns {lastSortValue, lastId}
+    static String[] decode(String cursor, String sortKey) {
+        try {
+            String token = new String(Base64.getUrlDecoder().decode(cursor), StandardCharsets.UTF_8);
+            int idSeparator = token.lastIndexOf('|');
+            if (!token.startsWith(sortKey + "|") || idSeparator <= sortKey.length()) {
+                throw new IllegalArgumentException("Cursor does not match the requested sort order");
+            }
+            String value = token.substring(sortKey.length() + 1, idSeparator);
+            String lastId = token.substring(idSeparator + 1);
+            Integer.parseInt(lastId);
+            if (StudentQuery.SORT_ENROLLMENT_DATE.equals(sortKey)) {
+                java.sql.Date.valueOf(value);
+            }
+            return new String[]{value, lastId};
+        } catch (IllegalArgumentException e) {
+            throw new IllegalArgumentException("Invalid cursor", e);
+        }
+    }
+}
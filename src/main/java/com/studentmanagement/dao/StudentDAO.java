@@ -1,173 +1,101 @@
 package com.studentmanagement.dao;
 
+import com.studentmanagement.model.ImportResult;
 import com.studentmanagement.model.Student;
-import com.studentmanagement.util.DBConnection;
-import java.sql.*;
-import java.util.ArrayList;
-import java.util.List;
-
-public class StudentDAO {
-
-    // Create - Add new student with user_id
-    public boolean addStudent(Student student, int userId) {
-        String sql = "INSERT INTO students (name, email, course, phone, address, enrollment_date, user_id) VALUES (?, ?, ?, ?, ?, ?, ?)";
-
-        try (Connection conn = DBConnection.getConnection();
-             PreparedStatement pstmt = conn.prepareStatement(sql)) {
+import com.studentmanagement.model.StudentCounts;
+import com.studentmanagement.model.StudentPage;
+import com.studentmanagement.model.StudentQuery;
 
-            pstmt.setString(1, student.getName());
-            pstmt.setString(2, student.getEmail());
-            pstmt.setString(3, student.getCourse());
-            pstmt.setString(4, student.getPhone());
-            pstmt.setString(5, student.getAddress());
-            pstmt.setDate(6, new java.sql.Date(student.getEnrollmentDate().getTime()));
-            pstmt.setInt(7, userId);
-
-            return pstmt.executeUpdate() > 0;
-
-        } catch (SQLException e) {
-            e.printStackTrace();
-            return false;
-        }
+import java.io.IOException;
+import java.sql.SQLException;
+import java.sql.Timestamp;
+import java.util.List;
+import java.util.Map;
+
+// Student storage. JdbcStudentDAO keeps students in MySQL; InMemoryStudentDAO
+// in the process (storage.engine=memory). Get the configured one from
+// DAOFactory.
+//
+// Deleted students are only marked deleted: reads skip them, their email
+// stays taken, and restoreStudent can bring them back until
+// archiveDeletedStudents moves them out. Every committed add, update, delete
+// and restore is reported to the registered StudentChangeListeners.
+public interface StudentDAO {
+
+    // Register a listener notified after every committed add/update/delete
+    static void addChangeListener(StudentChangeListener listener) {
+        StudentChangeListeners.add(listener);
     }
 
-    // Read - Get all students (admin only)
-    public List<Student> getAllStudents() {
-        List<Student> students = new ArrayList<>();
-        String sql = "SELECT * FROM students ORDER BY id DESC";
-
-        try (Connection conn = DBConnection.getConnection();
-             Statement stmt = conn.createStatement();
-             ResultSet rs = stmt.executeQuery(sql)) {
-
-            while (rs.next()) {
-                students.add(extractStudentFromResultSet(rs));
-            }
-
-        } catch (SQLException e) {
-            e.printStackTrace();
-        }
-
-        return students;
+    static void removeChangeListener(StudentChangeListener listener) {
+        StudentChangeListeners.remove(listener);
     }
 
-    // Read - Get students by user ID (for regular users)
-    public List<Student> getStudentsByUser(int userId) {
-        List<Student> students = new ArrayList<>();
-        String sql = "SELECT * FROM students WHERE user_id = ? ORDER BY id DESC";
+    // Create - sets the new id and owner on student. False when the email is
+    // already taken or the write failed.
+    boolean addStudent(Student student, int userId);
 
-        try (Connection conn = DBConnection.getConnection();
-             PreparedStatement pstmt = conn.prepareStatement(sql)) {
+    // Create - bulk import for one owner, committed every commitSize rows.
+    // Emails that already exist or repeat within the import are reported per
+    // row. Rows committed before an exception stay imported; result reflects them.
+    void importStudents(StudentImportReader reader, int userId, int batchSize, int commitSize,
+                        ImportResult result) throws SQLException, IOException;
 
-            pstmt.setInt(1, userId);
-            ResultSet rs = pstmt.executeQuery();
+    // Read - newest first
+    List<Student> getAllStudents();
 
-            while (rs.next()) {
-                students.add(extractStudentFromResultSet(rs));
-            }
+    List<Student> getStudentsByUser(int userId);
 
-        } catch (SQLException e) {
-            e.printStackTrace();
-        }
+    // Read - one keyset-paginated page; nextCursor continues it. Throws
+    // IllegalArgumentException for a cursor from another sort order. A
+    // course filter naming no known course matches nothing.
+    StudentPage findStudents(StudentQuery query) throws SQLException;
 
-        return students;
-    }
+    // Read - every student (or one owner's) in id order, one at a time
+    void streamStudents(Integer userId, StudentRowHandler handler) throws SQLException, IOException;
 
-    // Read - Get student by ID
-    public Student getStudentById(int id) {
-        String sql = "SELECT * FROM students WHERE id = ?";
+    // Read - the same rows as streamStudents, batchSize at a time in one
+    // reused columnar StudentBatch, without a Student per row
+    void streamStudentBatches(Integer userId, int batchSize, StudentBatchHandler handler) throws SQLException, IOException;
 
-        try (Connection conn = DBConnection.getConnection();
-             PreparedStatement pstmt = conn.prepareStatement(sql)) {
+    Student getStudentById(int id);
 
-            pstmt.setInt(1, id);
-            ResultSet rs = pstmt.executeQuery();
+    // Read - in the order the ids were given, skipping missing ones
+    List<Student> getStudentsByIds(List<Integer> ids) throws SQLException;
 
-            if (rs.next()) {
-                return extractStudentFromResultSet(rs);
-            }
+    // Update - unconditional, for trusted callers
+    boolean updateStudent(Student student);
 
-        } catch (SQLException e) {
-            e.printStackTrace();
-        }
+    // Update - only by the owner or an admin, and when expectedUpdatedAt is
+    // given only if the student still has that version
+    StudentWriteResult updateStudent(Student student, int userId, boolean admin, Timestamp expectedUpdatedAt);
 
-        return null;
-    }
+    // Adds and updates applied in order and committed together; results line
+    // up with the mutations. Throws when nothing could be written.
+    StudentWriteResult[] writeGroup(List<StudentMutation> mutations) throws SQLException;
 
-    // Update
-    public boolean updateStudent(Student student) {
-        String sql = "UPDATE students SET name=?, email=?, course=?, phone=?, address=?, enrollment_date=? WHERE id=?";
+    // Delete - unconditional, for trusted callers
+    boolean deleteStudent(int id);
 
-        try (Connection conn = DBConnection.getConnection();
-             PreparedStatement pstmt = conn.prepareStatement(sql)) {
+    // Delete - same checks as updateStudent
+    StudentWriteResult deleteStudent(int id, int userId, boolean admin, Timestamp expectedUpdatedAt);
 
-            pstmt.setString(1, student.getName());
-            pstmt.setString(2, student.getEmail());
-            pstmt.setString(3, student.getCourse());
-            pstmt.setString(4, student.getPhone());
-            pstmt.setString(5, student.getAddress());
-            pstmt.setDate(6, new java.sql.Date(student.getEnrollmentDate().getTime()));
-            pstmt.setInt(7, student.getId());
+    // Restore - undo a delete; CONFLICT when the student isn't deleted
+    StudentWriteResult restoreStudent(int id, int userId, boolean admin);
 
-            return pstmt.executeUpdate() > 0;
+    // Purge - archive up to limit students deleted before cutoff, oldest
+    // first. Fewer than limit means none are left.
+    int archiveDeletedStudents(Timestamp cutoff, int limit) throws SQLException;
 
-        } catch (SQLException e) {
-            e.printStackTrace();
-            return false;
-        }
-    }
-
-    // Delete
-    public boolean deleteStudent(int id) {
-        String sql = "DELETE FROM students WHERE id=?";
-
-        try (Connection conn = DBConnection.getConnection();
-             PreparedStatement pstmt = conn.prepareStatement(sql)) {
-
-            pstmt.setInt(1, id);
-            return pstmt.executeUpdate() > 0;
-
-        } catch (SQLException e) {
-            e.printStackTrace();
-            return false;
-        }
-    }
+    // {all deleted students, those deleted before cutoff}
+    long[] countDeletedStudents(Timestamp cutoff) throws SQLException;
 
-    // Check if student belongs to user
-    public boolean isStudentOwnedByUser(int studentId, int userId) {
-        String sql = "SELECT COUNT(*) FROM students WHERE id = ? AND user_id = ?";
+    // Aggregates behind the dashboard statistics
+    StudentCounts countStudents() throws SQLException;
 
-        try (Connection conn = DBConnection.getConnection();
-             PreparedStatement pstmt = conn.prepareStatement(sql)) {
+    // Live students per course id, all or one owner's; courses without
+    // students are left out
+    Map<Integer, Long> countStudentsByCourse(Integer userId) throws SQLException;
 
-            pstmt.setInt(1, studentId);
-            pstmt.setInt(2, userId);
-            ResultSet rs = pstmt.executeQuery();
-
-            if (rs.next()) {
-                return rs.getInt(1) > 0;
-            }
-
-        } catch (SQLException e) {
-            e.printStackTrace();
-        }
-
-        return false;
-    }
-
-    // Helper method to extract student from ResultSet
-    private Student extractStudentFromResultSet(ResultSet rs) throws SQLException {
-        Student student = new Student();
-        student.setId(rs.getInt("id"));
-        student.setName(rs.getString("name"));
-        student.setEmail(rs.getString("email"));
-        student.setCourse(rs.getString("course"));
-        student.setPhone(rs.getString("phone"));
-        student.setAddress(rs.getString("address"));
-        student.setEnrollmentDate(rs.getDate("enrollment_date"));
-        student.setUserId(rs.getInt("user_id"));
-        student.setCreatedAt(rs.getTimestamp("created_at"));
-        student.setUpdatedAt(rs.getTimestamp("updated_at"));
-        return student;
-    }
-}
\ No newline at end of file
+    boolean isStudentOwnedByUser(int studentId, int userId);
+}
@@ -0,0 +1,17 @@
+package com.studentmanagement.dao;
+
+import com.studentmanagement.model.Student;
+
+import java.io.IOException;
+
+// Incremental source of students for StudentDAO.importStudents. Rows that
+// can't be parsed or fail validation are reported by the reader itself and
+// skipped, so next() only ever returns insertable students.
+public interface StudentImportReader {
+
+    // Next valid student, or null once the input is exhausted
+    Student next() throws IOException;
+
+    // 1-based input row of the student last returned by next()
+    int getRowNumber();
+}
@@ -0,0 +1,52 @@
+package com.studentmanagement.dao;
+
+import com.studentmanagement.model.Student;
+
+import java.sql.Timestamp;
+
+// One add or update for StudentDAO.writeGroup, carrying the same ownership
+// and version arguments as addStudent and updateStudent
+public final class StudentMutation {
+    private final boolean insert;
+    private final Student student;
+    private final int userId;
+    private final boolean admin;
+    private final Timestamp expectedUpdatedAt;
+
+    private StudentMutation(boolean insert, Student student, int userId, boolean admin, Timestamp expectedUpdatedAt) {
+        this.insert = insert;
+        this.student = student;
+        this.userId = userId;
+        this.admin = admin;
+        this.expectedUpdatedAt = expectedUpdatedAt;
+    }
+
+    public static StudentMutation add(Student student, int userId) {
+        return new StudentMutation(true, student, userId, false, null);
+    }
+
+    // expectedUpdatedAt may be null for an unconditional update
+    public static StudentMutation update(Student student, int userId, boolean admin, Timestamp expectedUpdatedAt) {
+        return new StudentMutation(false, student, userId, admin, expectedUpdatedAt);
+    }
+
+    public boolean isInsert() {
+        return insert;
+    }
+
+    public Student getStudent() {
+        return student;
+    }
+
+    public int getUserId() {
+        return userId;
+    }
+
+    public boolean isAdmin() {
+        return admin;
+    }
+
+    public Timestamp getExpectedUpdatedAt() {
+        return expectedUpdatedAt;
+    }
+}
@@ -0,0 +1,12 @@
+package com.studentmanagement.dao;
+
+import com.studentmanagement.model.Student;
+
+import java.io.IOException;
+
+// Callback for StudentDAO.streamStudents, invoked once per row while the
+// ResultSet is still open. The Student instance is not retained by the DAO.
+@FunctionalInterface
+public interface StudentRowHandler {
+    void handle(Student student) throws IOException;
+}
@@ -0,0 +1,15 @@
+package com.studentmanagement.dao;
+
+// Outcome of an ownership-checked student update or delete
+public enum StudentWriteResult {
+    OK,
+    NOT_FOUND,
+    // The caller is neither the owner nor an admin
+    FORBIDDEN,
+    // The row changed since the version the caller read
+    CONFLICT,
+    // Restoring would give a live student an email another live student has
+    EMAIL_TAKEN,
+    // Database error
+    FAILED
+}
@@ -1,133 +1,33 @@
 package com.studentmanagement.dao;
 
 import com.studentmanagement.model.User;
-import com.studentmanagement.util.DBConnection;
-import java.sql.*;
-import java.util.ArrayList;
-import java.util.List;
 
-public class UserDAO {
+import java.sql.SQLException;
+import java.util.function.BiConsumer;
 
-    // Register new user
-    public boolean registerUser(User user) {
-        String sql = "INSERT INTO users (username, email, password, full_name, role) VALUES (?, ?, ?, ?, ?)";
+// User storage; JdbcUserDAO or InMemoryUserDAO, chosen by DAOFactory.
+// Usernames and emails are unique regardless of case.
+public interface UserDAO {
 
-        try (Connection conn = DBConnection.getConnection();
-             PreparedStatement pstmt = conn.prepareStatement(sql)) {
+    // Register new user; the password must already be hashed. A username or
+    // email that is already taken comes back as USERNAME_TAKEN or EMAIL_TAKEN.
+    UserWriteResult registerUser(User user);
 
-            pstmt.setString(1, user.getUsername());
-            pstmt.setString(2, user.getEmail());
-            pstmt.setString(3, user.getPassword());
-            pstmt.setString(4, user.getFullName());
-            pstmt.setString(5, user.getRole() != null ? user.getRole() : "user");
+    // Whether another user already has this username or email
+    UserWriteResult findConflict(String username, String email);
 
-            int result = pstmt.executeUpdate();
-            return result > 0;
+    // Look up a user by username or email; the caller verifies the password
+    // against the stored hash
+    User getUserByLogin(String login);
 
-        } catch (SQLException e) {
-            e.printStackTrace();
-            return false;
-        }
-    }
+    // Replace a password hash, but only if it is still the one that was
+    // verified, so concurrent logins can't overwrite a password change
+    boolean updatePasswordHash(int id, String currentHash, String newHash);
 
-    // Login user
-    public User loginUser(String username, String password) {
-        String sql = "SELECT * FROM users WHERE (username = ? OR email = ?) AND password = ?";
+    User getUserById(int id);
 
-        try (Connection conn = DBConnection.getConnection();
-             PreparedStatement pstmt = conn.prepareStatement(sql)) {
+    int getUserCount();
 
-            pstmt.setString(1, username);
-            pstmt.setString(2, username);
-            pstmt.setString(3, password);
-
-            ResultSet rs = pstmt.executeQuery();
-
-            if (rs.next()) {
-                return extractUserFromResultSet(rs);
-            }
-
-        } catch (SQLException e) {
-            e.printStackTrace();
-        }
-
-        return null;
-    }
-
-    // Get user by ID
-    public User getUserById(int id) {
-        String sql = "SELECT * FROM users WHERE id = ?";
-
-        try (Connection conn = DBConnection.getConnection();
-             PreparedStatement pstmt = conn.prepareStatement(sql)) {
-
-            pstmt.setInt(1, id);
-            ResultSet rs = pstmt.executeQuery();
-
-            if (rs.next()) {
-                return extractUserFromResultSet(rs);
-            }
-
-        } catch (SQLException e) {
-            e.printStackTrace();
-        }
-
-        return null;
-    }
-
-    // Check if username exists
-    public boolean isUsernameExists(String username) {
-        String sql = "SELECT COUNT(*) FROM users WHERE username = ?";
-
-        try (Connection conn = DBConnection.getConnection();
-             PreparedStatement pstmt = conn.prepareStatement(sql)) {
-
-            pstmt.setString(1, username);
-            ResultSet rs = pstmt.executeQuery();
-
-            if (rs.next()) {
-                return rs.getInt(1) > 0;
-            }
-
-        } catch (SQLException e) {
-            e.printStackTrace();
-        }
-
-        return false;
-    }
-
-    // Check if email exists
-    public boolean isEmailExists(String email) {
-        String sql = "SELECT COUNT(*) FROM users WHERE email = ?";
-
-        try (Connection conn = DBConnection.getConnection();
-             PreparedStatement pstmt = conn.prepareStatement(sql)) {
-
-            pstmt.setString(1, email);
-            ResultSet rs = pstmt.executeQuery();
-
-            if (rs.next()) {
-                return rs.getInt(1) > 0;
-            }
-
-        } catch (SQLException e) {
-            e.printStackTrace();
-        }
-
-        return false;
-    }
-
-    // Helper method to extract user from ResultSet
-    private User extractUserFromResultSet(ResultSet rs) throws SQLException {
-        User user = new User();
-        user.setId(rs.getInt("id"));
-        user.setUsername(rs.getString("username"));
-        user.setEmail(rs.getString("email"));
-        user.setPassword(rs.getString("password"));
-        user.setFullName(rs.getString("full_name"));
-        user.setRole(rs.getString("role"));
-        user.setCreatedAt(rs.getTimestamp("created_at"));
-        user.setUpdatedAt(rs.getTimestamp("updated_at"));
-        return user;
-    }
-}
\ No newline at end of file
+    // Every username and email pair, one at a time
+    void streamLogins(BiConsumer<String, String> handler) throws SQLException;
+}
@@ -0,0 +1,11 @@
+package com.studentmanagement.dao;
+
+// Outcome of registering a user, or of checking whether one could be registered
+public enum UserWriteResult {
+    OK,
+    // Another user has this username (checked before the email)
+    USERNAME_TAKEN,
+    EMAIL_TAKEN,
+    // Database error
+    FAILED
+}
@@ -0,0 +1,112 @@
+package com.studentmanagement.filter;
+
+import com.studentmanagement.model.AuthContext;
+import com.studentmanagement.service.TokenService;
+import com.studentmanagement.util.AppConfig;
+
+import javax.servlet.FilterChain;
+import javax.servlet.ServletException;
+import javax.servlet.annotation.WebFilter;
+import javax.servlet.http.Cookie;
+import javax.servlet.http.HttpFilter;
+import javax.servlet.http.HttpServletRequest;
+import javax.servlet.http.HttpServletResponse;
+import javax.servlet.http.HttpSession;
+import java.io.IOException;
+import java.time.ZoneOffset;
+import java.time.ZonedDateTime;
+import java.time.format.DateTimeFormatter;
+
+// Works out who is calling and stores it as a request attribute, so servlets
+// don't care whether auth.mode is "session" (container HttpSession, needs
+// sticky sessions or replication across nodes) or "token" (signed token from
+// the Authorization: Bearer header or the auth cookie, verified locally).
+// Unauthenticated requests pass through; servlets decide what needs a login.
+// In token mode a cookie past half its lifetime is reissued on the way through.
+@WebFilter(urlPatterns = "/api/*", asyncSupported = true)
+public class AuthFilter extends HttpFilter {
+    public static final String ATTRIBUTE = AuthContext.class.getName();
+    public static final String COOKIE_NAME = AppConfig.getString("auth.token.cookieName", "auth_token");
+
+    @Override
+    protected void doFilter(HttpServletRequest request, HttpServletResponse response, FilterChain chain)
+            throws IOException, ServletException {
+        AuthContext context = authContext(request);
+        if (context != null && TokenService.isEnabled() && bearerToken(request) == null) {
+            TokenService tokens = TokenService.getInstance();
+            if (tokens.shouldRefresh(context)) {
+                setTokenCookie(request, response, tokens.issue(context), tokens.getTtlSeconds());
+            }
+        }
+        chain.doFilter(request, response);
+    }
+
+    // The caller of this request, or null when not logged in. Resolved on
+    // first use when the filter hasn't run (e.g. servlets driven directly).
+    public static AuthContext authContext(HttpServletRequest request) {
+        Object attribute = request.getAttribute(ATTRIBUTE);
+        if (attribute instanceof AuthContext) {
+            return (AuthContext) attribute;
+        }
+        AuthContext context = TokenService.isEnabled() ? fromToken(request) : fromSession(request);
+        if (context != null) {
+            request.setAttribute(ATTRIBUTE, context);
+        }
+        return context;
+    }
+
+    public static void setTokenCookie(HttpServletRequest request, HttpServletResponse response,
+                                      String token, long maxAgeSeconds) {
+        // Built by hand because Cookie has no SameSite attribute in Servlet 4
+        String path = request.getContextPath().isEmpty() ? "/" : request.getContextPath();
+        String expires = DateTimeFormatter.RFC_1123_DATE_TIME.format(
+                ZonedDateTime.now(ZoneOffset.UTC).plusSeconds(maxAgeSeconds));
+        // Expires as well as Max-Age for older clients (and java.net.CookieManager)
+        response.addHeader("Set-Cookie", COOKIE_NAME + "=" + token
+                + "; Path=" + path
+                + "; Max-Age=" + maxAgeSeconds
+                + "; Expires=" + expires
+                + "; HttpOnly; SameSite=Lax"
+                + (request.isSecure() ? "; Secure" : ""));
+    }
+
+    public static void clearTokenCookie(HttpServletRequest request, HttpServletResponse response) {
+        setTokenCookie(request, response, "", 0);
+    }
+
+    private static AuthContext fromToken(HttpServletRequest request) {
+        String token = bearerToken(request);
+        if (token == null) {
+            Cookie[] cookies = request.getCookies();
+            if (cookies != null) {
+                for (Cookie cookie : cookies) {
+                    if (COOKIE_NAME.equals(cookie.getName())) {
+                        token = cookie.getValue();
+                        break;
+                    }
+                }
+            }
+        }
+        return token != null ? TokenService.getInstance().verify(token) : null;
+    }
+
+    private static AuthContext fromSession(HttpServletRequest request) {
+        HttpSession session = request.getSession(false);
+        if (session == null || session.getAttribute("userId") == null) {
+            return null;
+        }
+        return new AuthContext(
+                (int) session.getAttribute("userId"),
+                (String) session.getAttribute("username"),
+                (String) session.getAttribute("fullName"),
+                (String) session.getAttribute("role"));
+    }
+
+    private static String bearerToken(HttpServletRequest request) {
+        String header = request.getHeader("Authorization");
+        if (header != null && header.regionMatches(true, 0, "Bearer ", 0, 7)) {
+            return header.substring(7).trim();
+        }
+        return null;
+    }
+}
@@ -0,0 +1,445 @@
+package com.studentmanagement.filter;
+
+import com.studentmanagement.util.AppConfig;
+
+import javax.servlet.FilterChain;
+import javax.servlet.ServletException;
+import javax.servlet.ServletOutputStream;
+import javax.servlet.WriteListener;
+import javax.servlet.annotation.WebFilter;
+import javax.servlet.http.HttpFilter;
+import javax.servlet.http.HttpServletRequest;
+import javax.servlet.http.HttpServletRequestWrapper;
+import javax.servlet.http.HttpServletResponse;
+import javax.servlet.http.HttpServletResponseWrapper;
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.io.OutputStreamWriter;
+import java.io.PrintWriter;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.Enumeration;
+import java.util.List;
+import java.util.Locale;
+import java.util.zip.Deflater;
+import java.util.zip.DeflaterOutputStream;
+import java.util.zip.GZIPOutputStream;
+
+// Compresses API responses with gzip (or deflate) when the client accepts it
+// and the body is text of at least compression.minBytes. The first minBytes
+// are held back to decide; smaller bodies go out as they are, since there the
+// framing and CPU cost more than compression saves. Flushes of other content
+// types (e.g. event streams) pass straight through.
+//
+// A compressed body is a different representation, so a strong ETag gets a
+// "-gzip" or "-deflate" suffix, which is stripped again from If-None-Match and
+// If-Match on the way in; servlets only ever see their own tags. A 304 echoes
+// the suffixed tag when that is what the client sent.
+//
+// The compressor is finished when the chain returns, or for async requests
+// when the response writer or stream is closed, which AsyncDbRequest does
+// before completing.
+//
+// Event streams (requests accepting text/event-stream) are never wrapped:
+// they write without blocking through a WriteListener, which a compressor in
+// between can't offer. Anything else asking for non-blocking output gets it
+// uncompressed.
+@WebFilter(urlPatterns = "/api/*", asyncSupported = true)
+public class CompressionFilter extends HttpFilter {
+    private static final boolean ENABLED = AppConfig.getBoolean("compression.enabled", true);
+    private static final int MIN_BYTES = AppConfig.getInt("compression.minBytes", 1024);
+    private static final int LEVEL = AppConfig.getInt("compression.level", Deflater.DEFAULT_COMPRESSION);
+
+    @Override
+    protected void doFilter(HttpServletRequest request, HttpServletResponse response, FilterChain chain)
+            throws IOException, ServletException {
+        if (!ENABLED || acceptsEventStream(request)) {
+            chain.doFilter(request, response);
+            return;
+        }
+        // Whether or not this response is compressed, another one for the same URL may be
+        response.addHeader("Vary", "Accept-Encoding");
+        HttpServletRequest tagged = new TagStrippingRequest(request);
+        String encoding = negotiate(request.getHeader("Accept-Encoding"));
+        if (encoding == null) {
+            chain.doFilter(tagged, response);
+            return;
+        }
+        CompressingResponse compressing = new CompressingResponse(response, encoding,
+                request.getHeader("If-None-Match"));
+        chain.doFilter(tagged, compressing);
+        if (!request.isAsyncStarted()) {
+            compressing.finish();
+        }
+    }
+
+    private static boolean acceptsEventStream(HttpServletRequest request) {
+        String accept = request.getHeader("Accept");
+        return accept != null && accept.toLowerCase(Locale.ROOT).contains("text/event-stream");
+    }
+
+    // gzip when acceptable, else deflate, else null
+    static String negotiate(String acceptEncoding) {
+        if (acceptEncoding == null) {
+            return null;
+        }
+        boolean gzip = false;
+        boolean deflate = false;
+        boolean any = false;
+        for (String entry : acceptEncoding.split(",")) {
+            String[] parts = entry.split(";");
+            String coding = parts[0].trim().toLowerCase(Locale.ROOT);
+            boolean acceptable = true;
+            for (int i = 1; i < parts.length; i++) {
+                String param = parts[i].trim();
+                if (param.startsWith("q=")) {
+                    try {
+                        acceptable = Double.parseDouble(param.substring(2)) > 0;
+                    } catch (NumberFormatException e) {
+                        acceptable = false;
+                    }
+                }
+            }
+            if (coding.equals("gzip") || coding.equals("x-gzip")) {
+                gzip = acceptable;
+            } else if (coding.equals("deflate")) {
+                deflate = acceptable;
+            } else if (coding.equals("*")) {
+                any = acceptable;
+            }
+        }
+        if (gzip || (any && !acceptEncoding.toLowerCase(Locale.ROOT).contains("gzip"))) {
+            return "gzip";
+        }
+        return deflate ? "deflate" : null;
+    }
+
+    private static boolean isCompressible(String contentType) {
+        if (contentType == null) {
+            return false;
+        }
+        String type = contentType.toLowerCase(Locale.ROOT);
+        // Server-sent events must reach the client as soon as they are written
+        if (type.startsWith("text/event-stream")) {
+            return false;
+        }
+        return type.startsWith("text/")
+                || type.startsWith("application/json")
+                || type.startsWith("application/x-ndjson")
+                || type.startsWith("application/javascript")
+                || type.startsWith("application/xml");
+    }
+
+    private static String stripSuffix(String value) {
+        return value == null ? null : value.replace("-gzip\"", "\"").replace("-deflate\"", "\"");
+    }
+
+    // Hides the representation suffix from servlets comparing entity tags
+    private static final class TagStrippingRequest extends HttpServletRequestWrapper {
+
+        TagStrippingRequest(HttpServletRequest request) {
+            super(request);
+        }
+
+        @Override
+        public String getHeader(String name) {
+            String value = super.getHeader(name);
+            return isTagHeader(name) ? stripSuffix(value) : value;
+        }
+
+        @Override
+        public Enumeration<String> getHeaders(String name) {
+            Enumeration<String> values = super.getHeaders(name);
+            if (!isTagHeader(name) || values == null) {
+                return values;
+            }
+            List<String> stripped = new ArrayList<>();
+            while (values.hasMoreElements()) {
+                stripped.add(stripSuffix(values.nextElement()));
+            }
+            return Collections.enumeration(stripped);
+        }
+
+        private static boolean isTagHeader(String name) {
+            return "If-None-Match".equalsIgnoreCase(name) || "If-Match".equalsIgnoreCase(name);
+        }
+    }
+
+    private static final class CompressingResponse extends HttpServletResponseWrapper {
+        private final String encoding;
+        private final String ifNoneMatch;
+        private ByteArrayOutputStream pending = new ByteArrayOutputStream();
+        // Where body bytes go once decided: the compressor, or the response itself
+        private OutputStream target;
+        private boolean compressing;
+        private boolean finished;
+        private long contentLength = -1;
+        private ServletOutputStream stream;
+        private PrintWriter writer;
+        // The container's stream, once a WriteListener has been set
+        private ServletOutputStream nonBlocking;
+
+        CompressingResponse(HttpServletResponse response, String encoding, String ifNoneMatch) {
+            super(response);
+            this.encoding = encoding;
+            this.ifNoneMatch = ifNoneMatch;
+        }
+
+        private synchronized void write(byte[] bytes, int offset, int length) throws IOException {
+            if (finished) {
+                throw new IOException("Response already finished");
+            }
+            if (target == null) {
+                if (pending.size() + length < MIN_BYTES) {
+                    pending.write(bytes, offset, length);
+                    return;
+                }
+                decide(true);
+            }
+            target.write(bytes, offset, length);
+        }
+
+        private synchronized void flushBody() throws IOException {
+            if (finished) {
+                return;
+            }
+            if (target == null) {
+                // Compressible bodies keep collecting until the threshold or finish()
+                if (isCompressible(getResponse().getContentType())) {
+                    return;
+                }
+                decide(false);
+            }
+            target.flush();
+        }
+
+        // Idempotent; ends the compressed stream so the client gets the trailer
+        synchronized void finish() throws IOException {
+            if (finished) {
+                return;
+            }
+            if (writer != null) {
+                writer.flush();
+            }
+            if (target == null) {
+                decide(false);
+            }
+            finished = true;
+            if (compressing) {
+                target.close();
+            } else {
+                target.flush();
+            }
+        }
+
+        private void decide(boolean large) throws IOException {
+            HttpServletResponse response = (HttpServletResponse) getResponse();
+            int status = response.getStatus();
+            compressing = large
+                    && isCompressible(response.getContentType())
+                    && response.getHeader("Content-Encoding") == null
+                    && status != SC_NO_CONTENT && status != SC_NOT_MODIFIED && status != SC_PARTIAL_CONTENT;
+
+            OutputStream out = response.getOutputStream();
+            if (compressing) {
+                response.setHeader("Content-Encoding", encoding);
+                String etag = response.getHeader("ETag");
+                if (etag != null) {
+                    response.setHeader("ETag", suffixTag(etag));
+                }
+                // Sync flush, so a flush by the servlet still pushes out what it has written
+                target = "gzip".equals(encoding)
+                        ? new GZIPOutputStream(out, 8192, true) {
+                            {
+                                def.setLevel(LEVEL);
+                            }
+                        }
+                        : new DeflaterOutputStream(out, new Deflater(LEVEL), 8192, true) {
+                            @Override
+                            public void close() throws IOException {
+                                try {
+                                    super.close();
+                                } finally {
+                                    def.end();
+                                }
+                            }
+                        };
+            } else {
+                if (contentLength >= 0) {
+                    response.setContentLengthLong(contentLength);
+                }
+                String etag = response.getHeader("ETag");
+                if (status == SC_NOT_MODIFIED && etag != null && ifNoneMatch != null
+                        && ifNoneMatch.contains(suffixTag(etag))) {
+                    response.setHeader("ETag", suffixTag(etag));
+                }
+                target = out;
+            }
+            pending.writeTo(target);
+            pending = null;
+        }
+
+        private String suffixTag(String etag) {
+            // Weak tags already allow different encodings
+            if (!etag.startsWith("\"") || !etag.endsWith("\"")) {
+                return etag;
+            }
+            return etag.substring(0, etag.length() - 1) + "-" + encoding + "\"";
+        }
+
+        @Override
+        public synchronized ServletOutputStream getOutputStream() {
+            if (writer != null) {
+                throw new IllegalStateException("getWriter() has already been called");
+            }
+            if (stream == null) {
+                stream = newStream();
+            }
+            return stream;
+        }
+
+        @Override
+        public synchronized PrintWriter getWriter() throws IOException {
+            if (stream != null) {
+                throw new IllegalStateException("getOutputStream() has already been called");
+            }
+            if (writer == null) {
+                writer = new PrintWriter(new OutputStreamWriter(newStream(), getCharacterEncoding()));
+            }
+            return writer;
+        }
+
+        // Sends the body uncompressed from here on, with writes straight to
+        // the container's stream
+        private synchronized void startNonBlocking(WriteListener listener) throws IOException {
+            if (compressing) {
+                throw new IllegalStateException("Non-blocking writes are not supported when compressing");
+            }
+            if (target == null) {
+                decide(false);
+            }
+            nonBlocking = getResponse().getOutputStream();
+            nonBlocking.setWriteListener(listener);
+        }
+
+        private ServletOutputStream newStream() {
+            return new ServletOutputStream() {
+                @Override
+                public void write(int b) throws IOException {
+                    CompressingResponse.this.write(new byte[]{(byte) b}, 0, 1);
+                }
+
+                @Override
+                public void write(byte[] bytes, int offset, int length) throws IOException {
+                    CompressingResponse.this.write(bytes, offset, length);
+                }
+
+                @Override
+                public void flush() throws IOException {
+                    flushBody();
+                }
+
+                @Override
+                public void close() throws IOException {
+                    finish();
+                }
+
+                @Override
+                public boolean isReady() {
+                    return nonBlocking == null || nonBlocking.isReady();
+                }
+
+                @Override
+                public void setWriteListener(WriteListener listener) {
+                    try {
+                        startNonBlocking(listener);
+                    } catch (IOException e) {
+                        throw new IllegalStateException(e);
+                    }
+                }
+            };
+        }
+
+        @Override
+        public void setContentLength(int length) {
+            setContentLengthLong(length);
+        }
+
+        @Override
+        public synchronized void setContentLengthLong(long length) {
+            // Only meaningful for an uncompressed body; sent once that is decided
+            if (target == null) {
+                contentLength = length;
+            } else if (!compressing) {
+                super.setContentLengthLong(length);
+            }
+        }
+
+        @Override
+        public synchronized void setHeader(String name, String value) {
+            super.setHeader(name, compressing && "ETag".equalsIgnoreCase(name) ? suffixTag(value) : value);
+        }
+
+        @Override
+        public synchronized void flushBuffer() throws IOException {
+            if (writer != null) {
+                writer.flush();
+            }
+            flushBody();
+        }
+
+        @Override
+        public synchronized boolean isCommitted() {
+            // Compressed bytes can't be taken back without corrupting the stream
+            return compressing || super.isCommitted();
+        }
+
+        @Override
+        public synchronized void resetBuffer() {
+            if (target == null) {
+                if (pending != null) {
+                    pending.reset();
+                }
+            } else if (compressing) {
+                throw new IllegalStateException("Response is already being compressed");
+            } else {
+                super.resetBuffer();
+            }
+        }
+
+        @Override
+        public synchronized void reset() {
+            resetBuffer();
+            super.reset();
+            contentLength = -1;
+            addHeader("Vary", "Accept-Encoding");
+        }
+
+        @Override
+        public synchronized void sendError(int sc, String msg) throws IOException {
+            discard();
+            super.sendError(sc, msg);
+        }
+
+        @Override
+        public synchronized void sendError(int sc) throws IOException {
+            discard();
+            super.sendError(sc);
+        }
+
+        @Override
+        public synchronized void sendRedirect(String location) throws IOException {
+            discard();
+            super.sendRedirect(location);
+        }
+
+        // The container writes the body from here on
+        private void discard() {
+            if (target == null) {
+                pending = null;
+                finished = true;
+            }
+        }
+    }
+}
@@ -0,0 +1,102 @@
+package com.studentmanagement.filter;
+
+import com.studentmanagement.util.Metrics;
+
+import javax.servlet.AsyncEvent;
+import javax.servlet.AsyncListener;
+import javax.servlet.FilterChain;
+import javax.servlet.ServletException;
+import javax.servlet.annotation.WebFilter;
+import javax.servlet.http.HttpFilter;
+import javax.servlet.http.HttpServletRequest;
+import javax.servlet.http.HttpServletResponse;
+import java.io.IOException;
+
+// Records count, status and latency of every API request per route. Numeric
+// path segments are collapsed to {id} so /api/students/42 and /api/students/43
+// share one series. Requests that went async are recorded when they complete.
+@WebFilter(urlPatterns = "/api/*", asyncSupported = true)
+public class MetricsFilter extends HttpFilter {
+
+    @Override
+    protected void doFilter(HttpServletRequest request, HttpServletResponse response, FilterChain chain)
+            throws IOException, ServletException {
+        long start = System.nanoTime();
+        String route = route(request);
+        boolean failed = true;
+        try {
+            chain.doFilter(request, response);
+            failed = false;
+        } finally {
+            if (!failed && request.isAsyncStarted()) {
+                request.getAsyncContext().addListener(new CompletionListener(route, start));
+            } else {
+                int status = failed ? HttpServletResponse.SC_INTERNAL_SERVER_ERROR : response.getStatus();
+                Metrics.recordRequest(route, status, System.nanoTime() - start);
+            }
+        }
+    }
+
+    private static final class CompletionListener implements AsyncListener {
+        private final String route;
+        private final long start;
+        private volatile boolean failed;
+
+        CompletionListener(String route, long start) {
+            this.route = route;
+            this.start = start;
+        }
+
+        @Override
+        public void onComplete(AsyncEvent event) {
+            int status = failed
+                    ? HttpServletResponse.SC_INTERNAL_SERVER_ERROR
+                    : ((HttpServletResponse) event.getSuppliedResponse()).getStatus();
+            Metrics.recordRequest(route, status, System.nanoTime() - start);
+        }
+
+        @Override
+        public void onError(AsyncEvent event) {
+            failed = true;
+        }
+
+        @Override
+        public void onTimeout(AsyncEvent event) {}
+
+        @Override
+        public void onStartAsync(AsyncEvent event) {}
+    }
+
+    static String route(HttpServletRequest request) {
+        String path = request.getPathInfo() == null
+                ? request.getServletPath()
+                : request.getServletPath() + request.getPathInfo();
+        StringBuilder route = new StringBuilder(request.getMethod().length() + 1 + path.length());
+        route.append(request.getMethod()).append(' ');
+
+        int start = 0;
+        while (start < path.length()) {
+            int end = path.indexOf('/', start + 1);
+            if (end < 0) {
+                end = path.length();
+            }
+            // path.substring(start, end) is "/segment"
+            if (end - start > 1 && isDigits(path, start + 1, end)) {
+                route.append("/{id}");
+            } else {
+                route.append(path, start, end);
+            }
+            start = end;
+        }
+        return route.toString();
+    }
+
+    private static boolean isDigits(String s, int from, int to) {
+        for (int i = from; i < to; i++) {
+            if (s.charAt(i) < '0' || s.charAt(i) > '9') {
+                return false;
+            }
+        }
+        return true;
+    }
+}
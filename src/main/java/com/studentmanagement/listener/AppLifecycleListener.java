@@ -0,0 +1,63 @@
+package com.studentmanagement.listener;
+
+import com.studentmanagement.dao.DAOFactory;
+import com.studentmanagement.service.CourseCatalog;
+import com.studentmanagement.service.PasswordService;
+import com.studentmanagement.service.StudentCache;
+import com.studentmanagement.service.StudentChangeFeed;
+import com.studentmanagement.service.StudentListCache;
+import com.studentmanagement.service.StudentListVersions;
+import com.studentmanagement.service.StudentPurger;
+import com.studentmanagement.service.StudentSearchService;
+import com.studentmanagement.service.StudentStatistics;
+import com.studentmanagement.service.StudentWriteQueue;
+import com.studentmanagement.service.UserExistenceFilter;
+import com.studentmanagement.util.DBConnection;
+import com.studentmanagement.util.DbExecutor;
+
+import javax.servlet.ServletContextEvent;
+import javax.servlet.ServletContextListener;
+import javax.servlet.annotation.WebListener;
+
+@WebListener
+public class AppLifecycleListener implements ServletContextListener {
+
+    @Override
+    public void contextInitialized(ServletContextEvent event) {
+        // Every student read maps its course id through the catalog
+        CourseCatalog.getInstance().start();
+        StudentStatistics.getInstance().start();
+        StudentSearchService.getInstance().start();
+        StudentListVersions.getInstance().start();
+        StudentListCache.getInstance().start();
+        StudentChangeFeed.getInstance().start();
+        StudentPurger.getInstance().start();
+        UserExistenceFilter.getInstance().start();
+        if (StudentWriteQueue.isEnabled()) {
+            StudentWriteQueue.getInstance().start();
+        }
+    }
+
+    @Override
+    public void contextDestroyed(ServletContextEvent event) {
+        // Commits what is still queued; first, so its changes reach the feed and caches
+        StudentWriteQueue.getInstance().stop();
+        StudentStatistics.getInstance().stop();
+        StudentSearchService.getInstance().stop();
+        StudentListVersions.getInstance().stop();
+        StudentListCache.getInstance().stop();
+        // Writes its remaining events, so it must stop before the pool closes
+        StudentChangeFeed.getInstance().stop();
+        UserExistenceFilter.getInstance().stop();
+        StudentPurger.getInstance().stop();
+        StudentCache.shutdown();
+        PasswordService.shutdown();
+        // Let queued database work drain before the connections go away
+        DbExecutor.shutdown();
+        // Snapshots the in-memory engine, if it is the one in use
+        DAOFactory.shutdown();
+
+        // Close pooled connections so a redeploy doesn't leak them
+        DBConnection.shutdown();
+    }
+}
@@ -0,0 +1,48 @@
+package com.studentmanagement.model;
+
+// The authenticated caller of a request, taken either from the HttpSession or
+// from a signed token. tokenId and the timestamps (epoch seconds) are only
+// set for tokens.
+public class AuthContext {
+    private final int userId;
+    private final String username;
+    private final String fullName;
+    private final String role;
+    private final String tokenId;
+    private final long issuedAt;
+    private final long expiresAt;
+
+    public AuthContext(int userId, String username, String fullName, String role) {
+        this(userId, username, fullName, role, null, 0, 0);
+    }
+
+    public AuthContext(int userId, String username, String fullName, String role,
+                       String tokenId, long issuedAt, long expiresAt) {
+        this.userId = userId;
+        this.username = username;
+        this.fullName = fullName;
+        this.role = role;
+        this.tokenId = tokenId;
+        this.issuedAt = issuedAt;
+        this.expiresAt = expiresAt;
+    }
+
+    public boolean isAdmin() {
+        return "admin".equals(role);
+    }
+
+    // Getters
+    public int getUserId() { return userId; }
+
+    public String getUsername() { return username; }
+
+    public String getFullName() { return fullName; }
+
+    public String getRole() { return role; }
+
+    public String getTokenId() { return tokenId; }
+
+    public long getIssuedAt() { return issuedAt; }
+
+    public long getExpiresAt() { return expiresAt; }
+}
@@ -0,0 +1,23 @@
+package com.studentmanagement.model;
+
+// One entry of the course catalog. Students refer to a course by id; the
+// name is unique regardless of case.
+public class Course {
+    private int id;
+    private String name;
+
+    // Constructors
+    public Course() {}
+
+    public Course(int id, String name) {
+        this.id = id;
+        this.name = name;
+    }
+
+    // Getters and Setters
+    public int getId() { return id; }
+    public void setId(int id) { this.id = id; }
+
+    public String getName() { return name; }
+    public void setName(String name) { this.name = name; }
+}
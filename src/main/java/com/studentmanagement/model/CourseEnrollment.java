@@ -0,0 +1,27 @@
+package com.studentmanagement.model;
+
+// A course and how many (visible) students are enrolled in it
+public class CourseEnrollment {
+    private int id;
+    private String name;
+    private long students;
+
+    // Constructors
+    public CourseEnrollment() {}
+
+    public CourseEnrollment(Course course, long students) {
+        this.id = course.getId();
+        this.name = course.getName();
+        this.students = students;
+    }
+
+    // Getters and Setters
+    public int getId() { return id; }
+    public void setId(int id) { this.id = id; }
+
+    public String getName() { return name; }
+    public void setName(String name) { this.name = name; }
+
+    public long getStudents() { return students; }
+    public void setStudents(long students) { this.students = students; }
+}
@@ -0,0 +1,41 @@
+package com.studentmanagement.model;
+
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+// Outcome of a bulk student import. Only the first MAX_REPORTED_ERRORS row
+// errors are kept so a bad file can't grow the report without bound.
+public class ImportResult {
+    public static final int MAX_REPORTED_ERRORS = 1000;
+
+    private int processed;
+    private int imported;
+    private int failed;
+    private final List<Map<String, Object>> errors = new ArrayList<>();
+
+    public void recordProcessed() {
+        processed++;
+    }
+
+    public void recordImported(int count) {
+        imported += count;
+    }
+
+    public void recordError(int row, String message) {
+        failed++;
+        if (errors.size() < MAX_REPORTED_ERRORS) {
+            Map<String, Object> error = new LinkedHashMap<>();
+            error.put("row", row);
+            error.put("error", message);
+            errors.add(error);
+        }
+    }
+
+    // Getters
+    public int getProcessed() { return processed; }
+    public int getImported() { return imported; }
+    public int getFailed() { return failed; }
+    public List<Map<String, Object>> getErrors() { return errors; }
+}
@@ -28,6 +28,19 @@ public class Student {
         this.userId = userId;
     }
 
+    public Student(Student other) {
+        this.id = other.id;
+        this.name = other.name;
+        this.email = other.email;
+        this.course = other.course;
+        this.phone = other.phone;
+        this.address = other.address;
+        this.enrollmentDate = other.enrollmentDate != null ? (Date) other.enrollmentDate.clone() : null;
+        this.userId = other.userId;
+        this.createdAt = other.createdAt != null ? (Date) other.createdAt.clone() : null;
+        this.updatedAt = other.updatedAt != null ? (Date) other.updatedAt.clone() : null;
+    }
+
     // Getters and Setters
     public int getId() { return id; }
     public void setId(int id) { this.id = id; }
@@ -0,0 +1,330 @@
+package com.studentmanagement.model;
+
+import java.nio.charset.StandardCharsets;
+import java.sql.Timestamp;
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Date;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+// Students stored column by column, for result sets too large to hold as
+// Student objects. A Student row costs the Student itself, up to six String
+// objects and three Date objects; here a row is a few array slots plus its
+// text. Ids and owners are ints, the enrollment date an epoch day and the
+// timestamps epoch microseconds. Course names repeat across thousands of
+// rows, so they are dictionary-encoded; name, email, phone and address are
+// UTF-8 in one shared byte array. An unpaired surrogate is kept, as the three
+// bytes UTF-8 would give its code unit, so text reads back exactly as it was
+// stored and JSON written from the batch matches Gson's.
+//
+// Not thread-safe. Streaming readers fill a batch, hand it on and clear it,
+// so the arrays are allocated once per export rather than once per row.
+public final class StudentBatch {
+    // A missing date or timestamp
+    public static final long NULL = Long.MIN_VALUE;
+
+    // The text columns, for isNull/textStart/textEnd
+    public static final int NAME = 0;
+    public static final int EMAIL = 1;
+    public static final int PHONE = 2;
+    public static final int ADDRESS = 3;
+    private static final int TEXT_COLUMNS = 4;
+
+    private int size;
+    private int[] ids;
+    private int[] userIds;
+    // Index into courseNames, or -1 for no course
+    private int[] courses;
+    private long[] enrollmentDays;
+    private long[] createdAt;
+    private long[] updatedAt;
+    // Row r's text column c is text[offsets[r * 4 + c], offsets[r * 4 + c + 1]);
+    // bit c of nulls[r] is set when it is null rather than empty
+    private int[] offsets;
+    private byte[] nulls;
+    private byte[] text;
+    private int textLength;
+
+    private final List<String> courseNames = new ArrayList<>();
+    private final Map<String, Integer> courseCodes = new HashMap<>();
+
+    public StudentBatch(int capacity) {
+        capacity = Math.max(capacity, 1);
+        ids = new int[capacity];
+        userIds = new int[capacity];
+        courses = new int[capacity];
+        enrollmentDays = new long[capacity];
+        createdAt = new long[capacity];
+        updatedAt = new long[capacity];
+        offsets = new int[capacity * TEXT_COLUMNS + 1];
+        nulls = new byte[capacity];
+        text = new byte[capacity * 64];
+    }
+
+    public void add(int id, String name, String email, String course, String phone, String address,
+                    long enrollmentDay, int userId, long createdAtMicros, long updatedAtMicros) {
+        if (size == ids.length) {
+            grow();
+        }
+        int row = size;
+        ids[row] = id;
+        userIds[row] = userId;
+        courses[row] = courseCode(course);
+        enrollmentDays[row] = enrollmentDay;
+        createdAt[row] = createdAtMicros;
+        updatedAt[row] = updatedAtMicros;
+
+        int base = row * TEXT_COLUMNS;
+        byte nullBits = 0;
+        nullBits |= appendText(base + NAME, NAME, name);
+        nullBits |= appendText(base + EMAIL, EMAIL, email);
+        nullBits |= appendText(base + PHONE, PHONE, phone);
+        nullBits |= appendText(base + ADDRESS, ADDRESS, address);
+        nulls[row] = nullBits;
+        offsets[base + TEXT_COLUMNS] = textLength;
+        size++;
+    }
+
+    public void add(Student student) {
+        add(student.getId(), student.getName(), student.getEmail(), student.getCourse(),
+                student.getPhone(), student.getAddress(), epochDay(student.getEnrollmentDate()),
+                student.getUserId(), epochMicros(student.getCreatedAt()), epochMicros(student.getUpdatedAt()));
+    }
+
+    public int size() {
+        return size;
+    }
+
+    // Empties the batch but keeps its arrays and course dictionary
+    public void clear() {
+        size = 0;
+        textLength = 0;
+    }
+
+    // Drops the spare capacity left by growing, for a batch that is kept
+    public void trimToSize() {
+        int capacity = Math.max(size, 1);
+        if (capacity < ids.length) {
+            resize(capacity);
+        }
+        if (textLength < text.length) {
+            text = Arrays.copyOf(text, textLength);
+        }
+    }
+
+    public int getId(int row) {
+        return ids[row];
+    }
+
+    public int getUserId(int row) {
+        return userIds[row];
+    }
+
+    // Shared per course name; no allocation
+    public String getCourse(int row) {
+        int code = courses[row];
+        return code < 0 ? null : courseNames.get(code);
+    }
+
+    public long getEnrollmentDay(int row) {
+        return enrollmentDays[row];
+    }
+
+    public long getCreatedAtMicros(int row) {
+        return createdAt[row];
+    }
+
+    public long getUpdatedAtMicros(int row) {
+        return updatedAt[row];
+    }
+
+    public String getName(int row) {
+        return getText(row, NAME);
+    }
+
+    public String getEmail(int row) {
+        return getText(row, EMAIL);
+    }
+
+    public String getPhone(int row) {
+        return getText(row, PHONE);
+    }
+
+    public String getAddress(int row) {
+        return getText(row, ADDRESS);
+    }
+
+    // Raw access to a text column, for writers that encode it without
+    // building a String: the UTF-8 bytes are text()[textStart, textEnd)
+    public boolean isNull(int row, int column) {
+        return (nulls[row] & (1 << column)) != 0;
+    }
+
+    public int textStart(int row, int column) {
+        return offsets[row * TEXT_COLUMNS + column];
+    }
+
+    public int textEnd(int row, int column) {
+        return offsets[row * TEXT_COLUMNS + column + 1];
+    }
+
+    // Shared with the batch; read only, and only up to the last textEnd
+    public byte[] text() {
+        return text;
+    }
+
+    public String getText(int row, int column) {
+        if (isNull(row, column)) {
+            return null;
+        }
+        int start = textStart(row, column);
+        int end = textEnd(row, column);
+        for (int i = start; i < end - 1; i++) {
+            // 0xED 0xA0-0xBF starts an encoded surrogate, which the UTF-8 decoder would replace
+            if (text[i] == (byte) 0xED && (text[i + 1] & 0xFF) >= 0xA0) {
+                return decode(start, end);
+            }
+        }
+        return new String(text, start, end - start, StandardCharsets.UTF_8);
+    }
+
+    private String decode(int start, int end) {
+        StringBuilder value = new StringBuilder(end - start);
+        for (int i = start; i < end; ) {
+            int b = text[i] & 0xFF;
+            if (b < 0x80) {
+                value.append((char) b);
+                i++;
+            } else if (b < 0xE0) {
+                value.append((char) (((b & 0x1F) << 6) | (text[i + 1] & 0x3F)));
+                i += 2;
+            } else if (b < 0xF0) {
+                value.append((char) (((b & 0x0F) << 12) | ((text[i + 1] & 0x3F) << 6) | (text[i + 2] & 0x3F)));
+                i += 3;
+            } else {
+                value.appendCodePoint(((b & 0x07) << 18) | ((text[i + 1] & 0x3F) << 12)
+                        | ((text[i + 2] & 0x3F) << 6) | (text[i + 3] & 0x3F));
+                i += 4;
+            }
+        }
+        return value.toString();
+    }
+
+    public Student toStudent(int row) {
+        Student student = new Student();
+        student.setId(ids[row]);
+        student.setName(getName(row));
+        student.setEmail(getEmail(row));
+        student.setCourse(getCourse(row));
+        student.setPhone(getPhone(row));
+        student.setAddress(getAddress(row));
+        student.setEnrollmentDate(toSqlDate(enrollmentDays[row]));
+        student.setUserId(userIds[row]);
+        student.setCreatedAt(toTimestamp(createdAt[row]));
+        student.setUpdatedAt(toTimestamp(updatedAt[row]));
+        return student;
+    }
+
+    // Conversions between the column encodings and the JDBC types. Epoch days
+    // are taken in the JVM's zone, as ResultSet.getDate returns them.
+    public static long epochDay(Date date) {
+        if (date == null) {
+            return NULL;
+        }
+        java.sql.Date day = date instanceof java.sql.Date ? (java.sql.Date) date : new java.sql.Date(date.getTime());
+        return day.toLocalDate().toEpochDay();
+    }
+
+    public static long epochMicros(Date date) {
+        if (date == null) {
+            return NULL;
+        }
+        int nanos = date instanceof Timestamp ? ((Timestamp) date).getNanos() : (int) Math.floorMod(date.getTime(), 1000L) * 1_000_000;
+        return Math.floorDiv(date.getTime(), 1000L) * 1_000_000L + nanos / 1000;
+    }
+
+    public static java.sql.Date toSqlDate(long epochDay) {
+        return epochDay == NULL ? null : java.sql.Date.valueOf(LocalDate.ofEpochDay(epochDay));
+    }
+
+    public static Timestamp toTimestamp(long micros) {
+        if (micros == NULL) {
+            return null;
+        }
+        Timestamp timestamp = new Timestamp(Math.floorDiv(micros, 1_000_000L) * 1000);
+        timestamp.setNanos((int) Math.floorMod(micros, 1_000_000L) * 1000);
+        return timestamp;
+    }
+
+    private int courseCode(String course) {
+        if (course == null) {
+            return -1;
+        }
+        Integer code = courseCodes.get(course);
+        if (code == null) {
+            code = courseNames.size();
+            courseNames.add(course);
+            courseCodes.put(course, code);
+        }
+        return code;
+    }
+
+    // Encodes value as UTF-8 at the end of text; returns its null bit
+    private byte appendText(int slot, int column, String value) {
+        offsets[slot] = textLength;
+        if (value == null) {
+            return (byte) (1 << column);
+        }
+        // Encoded in place rather than through getBytes, so no byte[] per value
+        int length = value.length();
+        ensureText(textLength + length * 3);
+        byte[] bytes = text;
+        int pos = textLength;
+        for (int i = 0; i < length; i++) {
+            char c = value.charAt(i);
+            if (c < 0x80) {
+                bytes[pos++] = (byte) c;
+            } else if (c < 0x800) {
+                bytes[pos++] = (byte) (0xC0 | (c >> 6));
+                bytes[pos++] = (byte) (0x80 | (c & 0x3F));
+            } else if (Character.isHighSurrogate(c) && i + 1 < length && Character.isLowSurrogate(value.charAt(i + 1))) {
+                int cp = Character.toCodePoint(c, value.charAt(++i));
+                bytes[pos++] = (byte) (0xF0 | (cp >> 18));
+                bytes[pos++] = (byte) (0x80 | ((cp >> 12) & 0x3F));
+                bytes[pos++] = (byte) (0x80 | ((cp >> 6) & 0x3F));
+                bytes[pos++] = (byte) (0x80 | (cp & 0x3F));
+            } else {
+                // Including an unpaired surrogate
+                bytes[pos++] = (byte) (0xE0 | (c >> 12));
+                bytes[pos++] = (byte) (0x80 | ((c >> 6) & 0x3F));
+                bytes[pos++] = (byte) (0x80 | (c & 0x3F));
+            }
+        }
+        textLength = pos;
+        return 0;
+    }
+
+    private void ensureText(int needed) {
+        if (needed > text.length) {
+            text = Arrays.copyOf(text, Math.max(needed, text.length * 2));
+        }
+    }
+
+    private void grow() {
+        resize(ids.length * 2);
+    }
+
+    private void resize(int capacity) {
+        ids = Arrays.copyOf(ids, capacity);
+        userIds = Arrays.copyOf(userIds, capacity);
+        courses = Arrays.copyOf(courses, capacity);
+        enrollmentDays = Arrays.copyOf(enrollmentDays, capacity);
+        createdAt = Arrays.copyOf(createdAt, capacity);
+        updatedAt = Arrays.copyOf(updatedAt, capacity);
+        offsets = Arrays.copyOf(offsets, capacity * TEXT_COLUMNS + 1);
+        nulls = Arrays.copyOf(nulls, capacity);
+    }
+}
@@ -0,0 +1,35 @@
+package com.studentmanagement.model;
+
+// One committed student mutation as recorded by the change feed. ownerBefore
+// is 0 for an insert and ownerAfter is 0 for a delete.
+public class StudentChangeEvent {
+    public static final String INSERT = "insert";
+    public static final String UPDATE = "update";
+    public static final String DELETE = "delete";
+    // Written by a clean shutdown; never delivered to clients
+    public static final String SHUTDOWN = "shutdown";
+
+    private final long seq;
+    private final int studentId;
+    private final String op;
+    private final int ownerBefore;
+    private final int ownerAfter;
+    private final long changedAt;
+
+    public StudentChangeEvent(long seq, int studentId, String op, int ownerBefore, int ownerAfter, long changedAt) {
+        this.seq = seq;
+        this.studentId = studentId;
+        this.op = op;
+        this.ownerBefore = ownerBefore;
+        this.ownerAfter = ownerAfter;
+        this.changedAt = changedAt;
+    }
+
+    // Getters
+    public long getSeq() { return seq; }
+    public int getStudentId() { return studentId; }
+    public String getOp() { return op; }
+    public int getOwnerBefore() { return ownerBefore; }
+    public int getOwnerAfter() { return ownerAfter; }
+    public long getChangedAt() { return changedAt; }
+}
@@ -0,0 +1,65 @@
+package com.studentmanagement.model;
+
+import java.util.ArrayList;
+import java.util.List;
+
+// Answer to GET /api/students/changes: the net change per student since the
+// client's cursor. Pass cursor back as since for the next set; more means
+// another set is already waiting. reset means the changes since the client's
+// cursor are no longer known, so it has to reload the list and continue from
+// this cursor.
+public class StudentChangeSet {
+    private long cursor;
+    private boolean reset;
+    private boolean more;
+    private List<Change> changes = new ArrayList<>();
+
+    public StudentChangeSet() {}
+
+    public StudentChangeSet(long cursor, boolean reset, boolean more) {
+        this.cursor = cursor;
+        this.reset = reset;
+        this.more = more;
+    }
+
+    public void addUpsert(Student student) {
+        changes.add(new Change(student.getId(), "upsert", student));
+    }
+
+    // Deleted, or no longer visible to the caller
+    public void addDelete(int id) {
+        changes.add(new Change(id, "delete", null));
+    }
+
+    // Getters and Setters
+    public long getCursor() { return cursor; }
+    public void setCursor(long cursor) { this.cursor = cursor; }
+
+    public boolean isReset() { return reset; }
+    public void setReset(boolean reset) { this.reset = reset; }
+
+    public boolean isMore() { return more; }
+    public void setMore(boolean more) { this.more = more; }
+
+    public List<Change> getChanges() { return changes; }
+    public void setChanges(List<Change> changes) { this.changes = changes; }
+
+    // An upsert carries the student's current row
+    public static class Change {
+        private int id;
+        private String op;
+        private Student student;
+
+        public Change() {}
+
+        public Change(int id, String op, Student student) {
+            this.id = id;
+            this.op = op;
+            this.student = student;
+        }
+
+        public int getId() { return id; }
+        public String getOp() { return op; }
+        public Student getStudent() { return student; }
+    }
+}
@@ -0,0 +1,19 @@
+package com.studentmanagement.model;
+
+import java.util.HashMap;
+import java.util.Map;
+
+// Student counts grouped by course, enrollment month ("yyyy-MM") and owner
+public class StudentCounts {
+    private final Map<String, Long> byCourse = new HashMap<>();
+    private final Map<String, Long> byEnrollmentMonth = new HashMap<>();
+    private final Map<Integer, Long> byOwner = new HashMap<>();
+
+    // Getters
+    public Map<String, Long> getByCourse() { return byCourse; }
+
+    public Map<String, Long> getByEnrollmentMonth() { return byEnrollmentMonth; }
+
+    // Students without an owner (user deleted) are reported under user id 0
+    public Map<Integer, Long> getByOwner() { return byOwner; }
+}
@@ -0,0 +1,28 @@
+package com.studentmanagement.model;
+
+import java.util.List;
+
+// One page of a student listing. nextCursor is null on the last page.
+public class StudentPage {
+    private List<Student> items;
+    private String nextCursor;
+    private int limit;
+
+    public StudentPage() {}
+
+    public StudentPage(List<Student> items, String nextCursor, int limit) {
+        this.items = items;
+        this.nextCursor = nextCursor;
+        this.limit = limit;
+    }
+
+    // Getters and Setters
+    public List<Student> getItems() { return items; }
+    public void setItems(List<Student> items) { this.items = items; }
+
+    public String getNextCursor() { return nextCursor; }
+    public void setNextCursor(String nextCursor) { this.nextCursor = nextCursor; }
+
+    public int getLimit() { return limit; }
+    public void setLimit(int limit) { this.limit = limit; }
+}
@@ -0,0 +1,60 @@
+package com.studentmanagement.model;
+
+import java.util.Date;
+
+// Filter, sort and keyset-pagination parameters for listing students
+public class StudentQuery {
+    public static final String SORT_ID = "id";
+    public static final String SORT_NAME = "name";
+    public static final String SORT_EMAIL = "email";
+    public static final String SORT_COURSE = "course";
+    public static final String SORT_ENROLLMENT_DATE = "enrollmentDate";
+
+    private Integer userId;
+    private String course;
+    private Integer courseId;
+    private Date enrolledFrom;
+    private Date enrolledTo;
+    private String sortKey = SORT_ID;
+    private boolean descending = true;
+    private int limit = 50;
+    private String cursor;
+
+    public StudentQuery() {}
+
+    public static boolean isValidSortKey(String sortKey) {
+        return SORT_ID.equals(sortKey) || SORT_NAME.equals(sortKey) || SORT_EMAIL.equals(sortKey)
+                || SORT_COURSE.equals(sortKey) || SORT_ENROLLMENT_DATE.equals(sortKey);
+    }
+
+    // Getters and Setters
+    // Owner to restrict the listing to; null lists every student (admin)
+    public Integer getUserId() { return userId; }
+    public void setUserId(Integer userId) { this.userId = userId; }
+
+    public String getCourse() { return course; }
+    public void setCourse(String course) { this.course = course; }
+
+    // Course catalog id; may be combined with course, which must then name the same course
+    public Integer getCourseId() { return courseId; }
+    public void setCourseId(Integer courseId) { this.courseId = courseId; }
+
+    public Date getEnrolledFrom() { return enrolledFrom; }
+    public void setEnrolledFrom(Date enrolledFrom) { this.enrolledFrom = enrolledFrom; }
+
+    public Date getEnrolledTo() { return enrolledTo; }
+    public void setEnrolledTo(Date enrolledTo) { this.enrolledTo = enrolledTo; }
+
+    public String getSortKey() { return sortKey; }
+    public void setSortKey(String sortKey) { this.sortKey = sortKey; }
+
+    public boolean isDescending() { return descending; }
+    public void setDescending(boolean descending) { this.descending = descending; }
+
+    public int getLimit() { return limit; }
+    public void setLimit(int limit) { this.limit = limit; }
+
+    // Opaque token returned as nextCursor by the previous page
+    public String getCursor() { return cursor; }
+    public void setCursor(String cursor) { this.cursor = cursor; }
+}
@@ -0,0 +1,17 @@
+package com.studentmanagement.service;
+
+import java.util.function.IntConsumer;
+
+// Carries "student N changed" notifications to every StudentCache that may
+// hold a copy. The default implementation only reaches this JVM; a
+// multi-node deployment can plug in one that broadcasts (JMS, Redis pub/sub,
+// multicast, ...) by setting students.cache.invalidationBus to its class name.
+// Implementations need a public no-arg constructor.
+public interface CacheInvalidationBus {
+
+    void publish(int studentId);
+
+    void subscribe(IntConsumer handler);
+
+    default void close() {}
+}
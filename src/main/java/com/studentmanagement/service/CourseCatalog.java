@@ -0,0 +1,178 @@
+package com.studentmanagement.service;
+
+import com.studentmanagement.dao.CourseDAO;
+import com.studentmanagement.dao.DAOFactory;
+import com.studentmanagement.model.Course;
+import com.studentmanagement.util.AppConfig;
+
+import java.sql.SQLException;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.Comparator;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.TimeUnit;
+import java.util.logging.Level;
+import java.util.logging.Logger;
+
+// The course catalog held in memory both ways, id to course and name to
+// course, so students store a small course id while the API keeps speaking
+// course names. Every student read maps its course_id through here, and all
+// of them share the catalog's one String per course.
+//
+// It is loaded at startup. Courses are only ever added, so an entry never
+// goes stale; a course another node created is picked up by reloading on
+// the first miss. Misses on names nobody created (a typo in ?course=) reload
+// at most once per courses.catalog.missReloadIntervalMs. A reload takes a
+// pooled connection of its own, so code holding one uses knownName/known
+// and hands the catalog courses it read itself (see JdbcStudentDAO).
+public class CourseCatalog {
+    private static final Logger LOGGER = Logger.getLogger(CourseCatalog.class.getName());
+    private static final CourseCatalog INSTANCE = new CourseCatalog(DAOFactory.courseDAO());
+    private static final Comparator<Course> BY_NAME =
+            Comparator.comparing(Course::getName, String.CASE_INSENSITIVE_ORDER).thenComparingInt(Course::getId);
+
+    private final CourseDAO courseDAO;
+    private final long missReloadIntervalNanos = TimeUnit.MILLISECONDS.toNanos(
+            AppConfig.getLong("courses.catalog.missReloadIntervalMs", 1000));
+    private final Map<Integer, Course> byId = new ConcurrentHashMap<>();
+    // Keyed by lowercased name
+    private final Map<String, Course> byName = new ConcurrentHashMap<>();
+    private volatile List<Course> inNameOrder = Collections.emptyList();
+    private volatile boolean loaded;
+    private long lastReload;
+
+    CourseCatalog(CourseDAO courseDAO) {
+        this.courseDAO = courseDAO;
+    }
+
+    public static CourseCatalog getInstance() {
+        return INSTANCE;
+    }
+
+    // Warms the catalog, so the first requests don't load it
+    public void start() {
+        try {
+            reload();
+            LOGGER.info("Course catalog loaded " + byId.size() + " courses");
+        } catch (SQLException e) {
+            LOGGER.log(Level.WARNING, "Could not load the course catalog; it loads on first use", e);
+        }
+    }
+
+    // The course's name; the same String for every student of the course
+    public String name(int id) throws SQLException {
+        Course course = byId.get(id);
+        if (course == null) {
+            // Rows can only refer to existing courses, so this one is new elsewhere
+            reload();
+            course = byId.get(id);
+            if (course == null) {
+                throw new SQLException("Unknown course id " + id);
+            }
+        }
+        return course.getName();
+    }
+
+    // The name of a course the catalog already holds, or null; never queries
+    public String knownName(int id) {
+        Course course = byId.get(id);
+        return course != null ? course.getName() : null;
+    }
+
+    // The course with this name, ignoring case, if the catalog already holds
+    // it, or null; never queries
+    public Course known(String name) {
+        return byName.get(key(name));
+    }
+
+    // The course with this id, or null
+    public Course get(int id) throws SQLException {
+        ensureLoaded();
+        Course course = byId.get(id);
+        if (course == null && reloadAfterMiss()) {
+            course = byId.get(id);
+        }
+        return course;
+    }
+
+    // The course with this name, ignoring case, or null
+    public Course find(String name) throws SQLException {
+        ensureLoaded();
+        String key = key(name);
+        Course course = byName.get(key);
+        if (course == null && reloadAfterMiss()) {
+            course = byName.get(key);
+        }
+        return course;
+    }
+
+    // The course with this name, ignoring case, created if there is none.
+    // Only a new name costs a query.
+    public Course resolve(String name) throws SQLException {
+        ensureLoaded();
+        Course course = byName.get(key(name));
+        if (course == null) {
+            course = courseDAO.findOrCreateCourse(name.trim());
+            add(Collections.singletonList(course));
+        }
+        return course;
+    }
+
+    // Every course ordered by name ignoring case, the order of sort=course.
+    // Shared; don't modify.
+    public List<Course> inNameOrder() throws SQLException {
+        ensureLoaded();
+        return inNameOrder;
+    }
+
+    public void reload() throws SQLException {
+        reload(courseDAO.getAllCourses());
+    }
+
+    // Every course, as read by a caller over a connection it already holds
+    public synchronized void reload(List<Course> courses) {
+        add(courses);
+        lastReload = System.nanoTime();
+        loaded = true;
+    }
+
+    private void ensureLoaded() throws SQLException {
+        if (!loaded) {
+            synchronized (this) {
+                if (!loaded) {
+                    reload();
+                }
+            }
+        }
+    }
+
+    private synchronized boolean reloadAfterMiss() throws SQLException {
+        if (System.nanoTime() - lastReload < missReloadIntervalNanos) {
+            return false;
+        }
+        reload();
+        return true;
+    }
+
+    private synchronized void add(List<Course> courses) {
+        boolean added = false;
+        for (Course course : courses) {
+            if (byId.putIfAbsent(course.getId(), course) == null) {
+                byName.putIfAbsent(key(course.getName()), course);
+                added = true;
+            }
+        }
+        if (added) {
+            List<Course> sorted = new ArrayList<>(byId.values());
+            sorted.sort(BY_NAME);
+            inNameOrder = Collections.unmodifiableList(sorted);
+        }
+    }
+
+    private static String key(String name) {
+        return name.trim().toLowerCase(Locale.ROOT);
+    }
+}
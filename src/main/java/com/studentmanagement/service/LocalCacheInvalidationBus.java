@@ -0,0 +1,22 @@
+package com.studentmanagement.service;
+
+import java.util.List;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.function.IntConsumer;
+
+// Single-node invalidation: publish() calls the subscribers directly
+public class LocalCacheInvalidationBus implements CacheInvalidationBus {
+    private final List<IntConsumer> handlers = new CopyOnWriteArrayList<>();
+
+    @Override
+    public void publish(int studentId) {
+        for (IntConsumer handler : handlers) {
+            handler.accept(studentId);
+        }
+    }
+
+    @Override
+    public void subscribe(IntConsumer handler) {
+        handlers.add(handler);
+    }
+}
@@ -0,0 +1,156 @@
+package com.studentmanagement.service;
+
+import com.studentmanagement.util.AppConfig;
+import com.studentmanagement.util.DbExecutor;
+import com.studentmanagement.util.PasswordHasher;
+
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.Callable;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.Future;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.ScheduledFuture;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
+import java.util.concurrent.atomic.AtomicInteger;
+
+// Hashes and verifies passwords on a small dedicated thread pool, so a burst
+// of logins or registrations can use at most auth.password.threads cores
+// instead of every request thread. When the pool's queue is full, or a hash
+// isn't done within auth.password.timeoutMs, callers get a
+// RejectedExecutionException and should ask the client to retry.
+//
+// hashAsync and verifyAsync don't block the caller, so a request can give
+// up its database thread while its password is hashed.
+public class PasswordService {
+    private static volatile PasswordService instance;
+
+    private final PasswordHasher hasher;
+    private final ThreadPoolExecutor pool;
+    private final long timeoutMs;
+    private volatile String dummyHash;
+
+    PasswordService(PasswordHasher hasher, int threads, int queueSize, long timeoutMs) {
+        this.hasher = hasher;
+        this.timeoutMs = timeoutMs;
+        AtomicInteger sequence = new AtomicInteger();
+        this.pool = new ThreadPoolExecutor(threads, threads, 0, TimeUnit.MILLISECONDS,
+                new ArrayBlockingQueue<>(queueSize), r -> {
+                    Thread thread = new Thread(r, "password-hasher-" + sequence.incrementAndGet());
+                    thread.setDaemon(true);
+                    return thread;
+                }, new ThreadPoolExecutor.AbortPolicy());
+    }
+
+    public static PasswordService getInstance() {
+        PasswordService current = instance;
+        if (current == null) {
+            synchronized (PasswordService.class) {
+                current = instance;
+                if (current == null) {
+                    int threads = AppConfig.getInt("auth.password.threads", 0);
+                    if (threads <= 0) {
+                        // Leave at least half the cores for everything else
+                        threads = Math.max(1, Runtime.getRuntime().availableProcessors() / 2);
+                    }
+                    current = new PasswordService(
+                            new PasswordHasher(AppConfig.getInt("auth.password.iterations", 310000)),
+                            threads,
+                            AppConfig.getInt("auth.password.queueSize", 64),
+                            AppConfig.getLong("auth.password.timeoutMs", 5000));
+                    instance = current;
+                }
+            }
+        }
+        return current;
+    }
+
+    public static synchronized void shutdown() {
+        if (instance != null) {
+            instance.pool.shutdownNow();
+            instance = null;
+        }
+    }
+
+    public String hash(String password) {
+        return submit(() -> hasher.hash(password));
+    }
+
+    // A null stored hash (unknown user) still costs a full verification and fails
+    public boolean verify(String password, String stored) {
+        return submit(() -> checkPassword(password, stored));
+    }
+
+    // Completes on a hashing thread; fails with RejectedExecutionException
+    // like hash does
+    public CompletableFuture<String> hashAsync(String password) {
+        return submitAsync(() -> hasher.hash(password));
+    }
+
+    public CompletableFuture<Boolean> verifyAsync(String password, String stored) {
+        return submitAsync(() -> checkPassword(password, stored));
+    }
+
+    // Runs on the pool
+    private boolean checkPassword(String password, String stored) {
+        return hasher.verify(password, stored != null ? stored : dummyHash()) && stored != null;
+    }
+
+    // Cheap; no need to go through the pool
+    public boolean needsRehash(String stored) {
+        return hasher.needsRehash(stored);
+    }
+
+    // Only called on the pool, so it hashes in place
+    private String dummyHash() {
+        String current = dummyHash;
+        if (current == null) {
+            current = hasher.hash(Long.toHexString(System.nanoTime()));
+            dummyHash = current;
+        }
+        return current;
+    }
+
+    private <T> T submit(Callable<T> task) {
+        Future<T> future = pool.submit(task);
+        try {
+            return future.get(timeoutMs, TimeUnit.MILLISECONDS);
+        } catch (TimeoutException e) {
+            future.cancel(true);
+            throw new RejectedExecutionException("Password hashing is saturated");
+        } catch (InterruptedException e) {
+            future.cancel(true);
+            Thread.currentThread().interrupt();
+            throw new RejectedExecutionException("Interrupted while hashing a password", e);
+        } catch (ExecutionException e) {
+            throw new IllegalStateException("Password hashing failed", e.getCause());
+        }
+    }
+
+    private <T> CompletableFuture<T> submitAsync(Callable<T> task) {
+        CompletableFuture<T> result = new CompletableFuture<>();
+        Future<?> future;
+        try {
+            future = pool.submit(() -> {
+                try {
+                    result.complete(task.call());
+                } catch (Exception e) {
+                    result.completeExceptionally(new IllegalStateException("Password hashing failed", e));
+                }
+            });
+        } catch (RejectedExecutionException e) {
+            result.completeExceptionally(e);
+            return result;
+        }
+        // The deadline shares the DbExecutor's timer thread
+        ScheduledFuture<?> deadline = DbExecutor.getInstance().schedule(() -> {
+            if (result.completeExceptionally(new RejectedExecutionException("Password hashing is saturated"))) {
+                future.cancel(true);
+            }
+        }, timeoutMs);
+        result.whenComplete((value, error) -> deadline.cancel(false));
+        return result;
+    }
+}
@@ -0,0 +1,112 @@
+package com.studentmanagement.service;
+
+import com.studentmanagement.dao.StudentChangeListener;
+import com.studentmanagement.dao.StudentDAO;
+import com.studentmanagement.model.Student;
+import com.studentmanagement.util.AppConfig;
+import com.studentmanagement.util.LruCache;
+
+import java.util.LinkedHashMap;
+import java.util.Map;
+
+// Process-wide cache of students by id. Committed adds, updates and deletes
+// reported by StudentDAO are published on the CacheInvalidationBus, and every
+// subscriber (this node, or other nodes with a broadcasting bus) drops its copy.
+public class StudentCache implements StudentChangeListener {
+    private static final boolean ENABLED = AppConfig.getBoolean("students.cache.enabled", true);
+    private static volatile StudentCache instance;
+
+    private final LruCache<Integer, Student> cache;
+    private final CacheInvalidationBus bus;
+
+    StudentCache(int maxSize, long ttlMillis, CacheInvalidationBus bus) {
+        this.cache = new LruCache<>(maxSize, ttlMillis, 16);
+        this.bus = bus;
+        bus.subscribe(cache::invalidate);
+    }
+
+    public static boolean isEnabled() {
+        return ENABLED;
+    }
+
+    public static StudentCache getInstance() {
+        StudentCache current = instance;
+        if (current == null) {
+            synchronized (StudentCache.class) {
+                current = instance;
+                if (current == null) {
+                    current = new StudentCache(
+                            AppConfig.getInt("students.cache.maxSize", 10000),
+                            AppConfig.getLong("students.cache.ttlMs", 5 * 60 * 1000),
+                            createBus(AppConfig.getString("students.cache.invalidationBus",
+                                    LocalCacheInvalidationBus.class.getName())));
+                    StudentDAO.addChangeListener(current);
+                    instance = current;
+                }
+            }
+        }
+        return current;
+    }
+
+    public static synchronized void shutdown() {
+        if (instance != null) {
+            StudentDAO.removeChangeListener(instance);
+            instance.bus.close();
+            instance = null;
+        }
+    }
+
+    private static CacheInvalidationBus createBus(String className) {
+        try {
+            return (CacheInvalidationBus) Class.forName(className).getDeclaredConstructor().newInstance();
+        } catch (ReflectiveOperationException | ClassCastException e) {
+            throw new IllegalStateException("Cannot create cache invalidation bus " + className, e);
+        }
+    }
+
+    // Returns a private copy so callers can't modify the cached instance
+    public Student getOrLoad(int id, LruCache.Loader<Student> loader) throws Exception {
+        Student student = cache.getOrLoad(id, loader);
+        return student != null ? new Student(student) : null;
+    }
+
+    // Cached copy if present, without going to the database
+    public Student peek(int id) {
+        Student student = cache.get(id);
+        return student != null ? new Student(student) : null;
+    }
+
+    public void invalidate(int id) {
+        bus.publish(id);
+    }
+
+    public Map<String, Object> getStats() {
+        Map<String, Object> stats = new LinkedHashMap<>();
+        stats.put("size", cache.size());
+        stats.put("hits", cache.getHitCount());
+        stats.put("misses", cache.getMissCount());
+        // Every load is one database round trip; every hit is one saved
+        stats.put("loads", cache.getLoadCount());
+        stats.put("evictions", cache.getEvictionCount());
+        stats.put("expirations", cache.getExpirationCount());
+        stats.put("invalidations", cache.getInvalidationCount());
+        long lookups = cache.getHitCount() + cache.getMissCount();
+        stats.put("hitRatio", lookups == 0 ? 0.0 : (double) cache.getHitCount() / lookups);
+        return stats;
+    }
+
+    @Override
+    public void onStudentAdded(Student student) {
+        invalidate(student.getId());
+    }
+
+    @Override
+    public void onStudentUpdated(Student before, Student after) {
+        invalidate(after.getId());
+    }
+
+    @Override
+    public void onStudentDeleted(Student before) {
+        invalidate(before.getId());
+    }
+}
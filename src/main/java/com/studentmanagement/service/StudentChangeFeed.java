@@ -0,0 +1,442 @@
+package com.studentmanagement.service;
+
+import com.studentmanagement.dao.DAOFactory;
+import com.studentmanagement.dao.StudentChangeListener;
+import com.studentmanagement.dao.StudentChangeLogDAO;
+import com.studentmanagement.dao.StudentDAO;
+import com.studentmanagement.model.Student;
+import com.studentmanagement.model.StudentChangeEvent;
+import com.studentmanagement.model.StudentChangeSet;
+import com.studentmanagement.util.AppConfig;
+
+import java.sql.SQLException;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.locks.ReadWriteLock;
+import java.util.concurrent.locks.ReentrantReadWriteLock;
+import java.util.logging.Level;
+import java.util.logging.Logger;
+
+// Sequenced log of committed student mutations behind GET /api/students/changes
+// and its event stream, so clients fetch deltas instead of re-reading lists.
+// Every add, update and delete made through StudentDAO is appended to a ring
+// of the last students.changes.capacity events, held in primitive arrays.
+// Sequence numbers start from the clock in microseconds and only grow.
+//
+// The ring is written behind to the student_changes table, which is pruned
+// to what the ring still holds, and reloaded at startup so cursors survive a
+// restart. A clean shutdown leaves a marker row; without one, events written
+// just before the stop may be missing, so every older cursor gets a reset.
+// A cursor older than the oldest retained event gets a reset too.
+//
+// Like StudentListVersions this only sees writes made through StudentDAO on
+// this node, and the table holds one node's sequence.
+public class StudentChangeFeed implements StudentChangeListener {
+    private static final Logger LOGGER = Logger.getLogger(StudentChangeFeed.class.getName());
+    private static final boolean ENABLED = AppConfig.getBoolean("students.changes.enabled", true);
+    private static final StudentChangeFeed INSTANCE = new StudentChangeFeed(new StudentChangeLogDAO());
+
+    private static final byte INSERT = 1;
+    private static final byte UPDATE = 2;
+    private static final byte DELETE = 3;
+
+    private final StudentChangeLogDAO changeLogDAO;
+    private final int capacity = Math.max(1, AppConfig.getInt("students.changes.capacity", 100000));
+    // The change log table lives in the database, which the in-memory engine doesn't use
+    private final boolean persist = AppConfig.getBoolean("students.changes.persist", true) && !DAOFactory.isInMemory();
+    private final long flushIntervalMs = AppConfig.getLong("students.changes.flushIntervalMs", 1000);
+    private final List<Runnable> appendListeners = new CopyOnWriteArrayList<>();
+    private final ReadWriteLock lock = new ReentrantReadWriteLock();
+
+    // Ring of events in sequence order; head is the next slot to write
+    private long[] seqs;
+    private int[] ids;
+    private byte[] ops;
+    private int[] ownersBefore;
+    private int[] ownersAfter;
+    private int head;
+    private int size;
+    private long lastSeq;
+    // Cursors below this can't be answered; the events after them are gone
+    private long floor;
+    // Appended but not yet written to the table
+    private List<StudentChangeEvent> unwritten = new ArrayList<>();
+    private long prunedUpTo;
+
+    private volatile boolean started;
+    private ScheduledExecutorService writer;
+
+    StudentChangeFeed(StudentChangeLogDAO changeLogDAO) {
+        this.changeLogDAO = changeLogDAO;
+    }
+
+    public static StudentChangeFeed getInstance() {
+        return INSTANCE;
+    }
+
+    public static boolean isEnabled() {
+        return ENABLED;
+    }
+
+    public synchronized void start() {
+        if (!ENABLED || started) {
+            return;
+        }
+        lock.writeLock().lock();
+        try {
+            seqs = new long[capacity];
+            ids = new int[capacity];
+            ops = new byte[capacity];
+            ownersBefore = new int[capacity];
+            ownersAfter = new int[capacity];
+            head = 0;
+            size = 0;
+            unwritten = new ArrayList<>();
+            lastSeq = TimeUnit.MILLISECONDS.toMicros(System.currentTimeMillis());
+            floor = lastSeq;
+            if (persist) {
+                restore();
+            }
+        } finally {
+            lock.writeLock().unlock();
+        }
+
+        if (persist) {
+            writer = Executors.newSingleThreadScheduledExecutor(r -> {
+                Thread thread = new Thread(r, "student-change-log");
+                thread.setDaemon(true);
+                return thread;
+            });
+            writer.scheduleWithFixedDelay(this::flushQuietly, flushIntervalMs, flushIntervalMs, TimeUnit.MILLISECONDS);
+        }
+        StudentDAO.addChangeListener(this);
+        started = true;
+    }
+
+    // Writes what is left and marks the log as cleanly closed
+    public synchronized void stop() {
+        StudentDAO.removeChangeListener(this);
+        if (!started) {
+            return;
+        }
+        started = false;
+        if (writer != null) {
+            writer.shutdown();
+            try {
+                writer.awaitTermination(5, TimeUnit.SECONDS);
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+            }
+            writer = null;
+            lock.writeLock().lock();
+            try {
+                unwritten.add(new StudentChangeEvent(++lastSeq, 0, StudentChangeEvent.SHUTDOWN, 0, 0,
+                        System.currentTimeMillis()));
+            } finally {
+                lock.writeLock().unlock();
+            }
+            flushQuietly();
+        }
+    }
+
+    public boolean isStarted() {
+        return started;
+    }
+
+    // Called with no locks held after each append, e.g. to wake event streams
+    public void addAppendListener(Runnable listener) {
+        appendListeners.add(listener);
+    }
+
+    public void removeAppendListener(Runnable listener) {
+        appendListeners.remove(listener);
+    }
+
+    // The cursor a client starts from before it loads the list
+    public long getLatestSeq() {
+        lock.readLock().lock();
+        try {
+            return lastSeq;
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    // Changes visible to ownerId (every student when null) after since, read
+    // as one set through studentDAO
+    public StudentChangeSet changesSince(long since, Integer ownerId, int limit, StudentDAO studentDAO)
+            throws SQLException {
+        Window window = window(since, ownerId, limit);
+        Map<Integer, Student> rows = new HashMap<>();
+        for (Student student : studentDAO.getStudentsByIds(window.getUpsertIds())) {
+            rows.put(student.getId(), student);
+        }
+        return window.resolve(rows);
+    }
+
+    // The ids that changed after since, at most limit of them, without
+    // reading any rows yet. Callers serving many clients at once can fetch
+    // the upserted rows of all their windows with one query.
+    public Window window(long since, Integer ownerId, int limit) {
+        lock.readLock().lock();
+        try {
+            if (since > lastSeq || since < floor) {
+                return new Window(ownerId, lastSeq, true, false, new LinkedHashMap<>());
+            }
+            Map<Integer, Boolean> latest = new LinkedHashMap<>();
+            long cursor = since;
+            boolean more = false;
+            int start = head - size + capacity;
+            for (int i = firstAfter(since); i < size; i++) {
+                int slot = (start + i) % capacity;
+                boolean visible = ownerId == null
+                        || ownersBefore[slot] == ownerId || ownersAfter[slot] == ownerId;
+                if (visible) {
+                    int id = ids[slot];
+                    if (latest.size() == limit && !latest.containsKey(id)) {
+                        more = true;
+                        break;
+                    }
+                    // Only the last event per student counts
+                    latest.put(id, ops[slot] != DELETE && (ownerId == null || ownersAfter[slot] == ownerId));
+                }
+                cursor = seqs[slot];
+            }
+            if (!more) {
+                cursor = lastSeq;
+            }
+            return new Window(ownerId, cursor, false, more, latest);
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    // Index (from the oldest event) of the first event after seq
+    private int firstAfter(long seq) {
+        int start = head - size + capacity;
+        int low = 0;
+        int high = size;
+        while (low < high) {
+            int mid = (low + high) >>> 1;
+            if (seqs[(start + mid) % capacity] <= seq) {
+                low = mid + 1;
+            } else {
+                high = mid;
+            }
+        }
+        return low;
+    }
+
+    @Override
+    public void onStudentAdded(Student student) {
+        append(student.getId(), INSERT, 0, student.getUserId());
+    }
+
+    @Override
+    public void onStudentUpdated(Student before, Student after) {
+        append(after.getId(), UPDATE, before.getUserId(), after.getUserId());
+    }
+
+    @Override
+    public void onStudentDeleted(Student before) {
+        append(before.getId(), DELETE, before.getUserId(), 0);
+    }
+
+    private void append(int id, byte op, int ownerBefore, int ownerAfter) {
+        lock.writeLock().lock();
+        try {
+            long seq = ++lastSeq;
+            push(seq, id, op, ownerBefore, ownerAfter);
+            if (persist) {
+                unwritten.add(new StudentChangeEvent(seq, id, opName(op), ownerBefore, ownerAfter,
+                        System.currentTimeMillis()));
+            }
+        } finally {
+            lock.writeLock().unlock();
+        }
+        for (Runnable listener : appendListeners) {
+            try {
+                listener.run();
+            } catch (RuntimeException e) {
+                LOGGER.log(Level.WARNING, "Change feed listener failed", e);
+            }
+        }
+    }
+
+    // Caller holds the write lock
+    private void push(long seq, int id, byte op, int ownerBefore, int ownerAfter) {
+        if (size == capacity) {
+            // Overwrite the oldest; cursors before it can no longer be answered
+            floor = seqs[head];
+        } else {
+            size++;
+        }
+        seqs[head] = seq;
+        ids[head] = id;
+        ops[head] = op;
+        ownersBefore[head] = ownerBefore;
+        ownersAfter[head] = ownerAfter;
+        head = (head + 1) % capacity;
+    }
+
+    // Caller holds the write lock
+    private void restore() {
+        try {
+            List<StudentChangeEvent> events = changeLogDAO.findLatest(capacity + 1);
+            if (events.isEmpty()) {
+                return;
+            }
+            StudentChangeEvent newest = events.get(events.size() - 1);
+            boolean clean = StudentChangeEvent.SHUTDOWN.equals(newest.getOp());
+            for (StudentChangeEvent event : events) {
+                byte op = opCode(event.getOp());
+                if (op != 0) {
+                    push(event.getSeq(), event.getStudentId(), op, event.getOwnerBefore(), event.getOwnerAfter());
+                }
+            }
+            // Never hand out a sequence number twice, even if the clock went back
+            lastSeq = Math.max(lastSeq, newest.getSeq());
+            if (clean) {
+                // Anything before the oldest loaded event may have been pruned
+                floor = Math.min(floor, events.get(0).getSeq() - 1);
+            } else {
+                floor = lastSeq;
+                LOGGER.warning("The student change log was not closed cleanly; clients will reload");
+            }
+            // A marker only vouches for the run that wrote it
+            changeLogDAO.deleteByOp(StudentChangeEvent.SHUTDOWN);
+            prunedUpTo = events.get(0).getSeq() - 1;
+            LOGGER.info(String.format("Restored %d student changes up to %d", size, lastSeq));
+        } catch (SQLException e) {
+            floor = lastSeq;
+            LOGGER.log(Level.WARNING, "Could not restore the student change log; clients will reload", e);
+        }
+    }
+
+    private void flushQuietly() {
+        List<StudentChangeEvent> batch;
+        long pruneTo;
+        lock.writeLock().lock();
+        try {
+            batch = new ArrayList<>(unwritten.size());
+            for (StudentChangeEvent event : unwritten) {
+                // Events already evicted from the ring would only be pruned again
+                if (event.getSeq() > floor || StudentChangeEvent.SHUTDOWN.equals(event.getOp())) {
+                    batch.add(event);
+                }
+            }
+            unwritten = new ArrayList<>();
+            pruneTo = floor;
+        } finally {
+            lock.writeLock().unlock();
+        }
+
+        try {
+            changeLogDAO.insertEvents(batch);
+        } catch (SQLException | RuntimeException e) {
+            LOGGER.log(Level.WARNING, "Could not write " + batch.size() + " student changes; will retry", e);
+            lock.writeLock().lock();
+            try {
+                batch.addAll(unwritten);
+                unwritten = batch;
+            } finally {
+                lock.writeLock().unlock();
+            }
+            return;
+        }
+
+        if (pruneTo > prunedUpTo) {
+            try {
+                changeLogDAO.deleteUpTo(pruneTo);
+                prunedUpTo = pruneTo;
+            } catch (SQLException | RuntimeException e) {
+                LOGGER.log(Level.WARNING, "Could not prune the student change log", e);
+            }
+        }
+    }
+
+    private static String opName(byte op) {
+        switch (op) {
+            case INSERT:
+                return StudentChangeEvent.INSERT;
+            case UPDATE:
+                return StudentChangeEvent.UPDATE;
+            default:
+                return StudentChangeEvent.DELETE;
+        }
+    }
+
+    // 0 for rows that aren't student events
+    private static byte opCode(String op) {
+        switch (op) {
+            case StudentChangeEvent.INSERT:
+                return INSERT;
+            case StudentChangeEvent.UPDATE:
+                return UPDATE;
+            case StudentChangeEvent.DELETE:
+                return DELETE;
+            default:
+                return 0;
+        }
+    }
+
+    // The students that changed after a cursor, each with whether the caller
+    // should now see it (an upsert) or drop it (a delete)
+    public static final class Window {
+        private final Integer ownerId;
+        private final long cursor;
+        private final boolean reset;
+        private final boolean more;
+        private final Map<Integer, Boolean> latest;
+
+        Window(Integer ownerId, long cursor, boolean reset, boolean more, Map<Integer, Boolean> latest) {
+            this.ownerId = ownerId;
+            this.cursor = cursor;
+            this.reset = reset;
+            this.more = more;
+            this.latest = latest;
+        }
+
+        public boolean isEmpty() {
+            return latest.isEmpty() && !reset;
+        }
+
+        public long getCursor() {
+            return cursor;
+        }
+
+        public List<Integer> getUpsertIds() {
+            List<Integer> upserts = new ArrayList<>();
+            latest.forEach((id, upsert) -> {
+                if (upsert) {
+                    upserts.add(id);
+                }
+            });
+            return upserts;
+        }
+
+        // rows holds the current rows of (at least) getUpsertIds(). A row read
+        // after the cursor may already be newer than it; applying it again
+        // when its own event arrives is harmless.
+        public StudentChangeSet resolve(Map<Integer, Student> rows) {
+            StudentChangeSet set = new StudentChangeSet(cursor, reset, more);
+            latest.forEach((id, upsert) -> {
+                Student student = upsert ? rows.get(id) : null;
+                // Gone or handed to another owner since the event
+                if (student == null || (ownerId != null && student.getUserId() != ownerId)) {
+                    set.addDelete(id);
+                } else {
+                    set.addUpsert(student);
+                }
+            });
+            return set;
+        }
+    }
+}
@@ -0,0 +1,193 @@
+package com.studentmanagement.service;
+
+import com.studentmanagement.dao.StudentChangeListener;
+import com.studentmanagement.dao.StudentDAO;
+import com.studentmanagement.model.Student;
+import com.studentmanagement.model.StudentPage;
+import com.studentmanagement.model.StudentQuery;
+import com.studentmanagement.util.AppConfig;
+import com.studentmanagement.util.LruCache;
+import com.google.gson.Gson;
+
+import java.io.IOException;
+import java.io.Writer;
+import java.util.ArrayList;
+import java.util.Date;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.atomic.LongAdder;
+
+// Materialized list pages for GET /api/students, kept as JSON text. Each
+// student is serialized once into a fragment, kept by id with the updatedAt
+// it was made from, and reused by every page showing that version of the
+// row. A page is its ordered fragments plus the text around them, cached
+// under the list's StudentListVersions tag and the query. Any write to the
+// owner's students moves the tag on, so a cached page is never served after
+// a change; it just stops being asked for and ages out.
+//
+// A hit writes the cached text with no query and no Gson. A miss runs the
+// query and only serializes students whose fragment is missing or older than
+// the row. The output is exactly what gson.toJson(page) writes. Like the
+// ETags, only writes through this node are seen.
+public class StudentListCache implements StudentChangeListener {
+    private static final boolean ENABLED = AppConfig.getBoolean("students.list.cache.enabled", true);
+    private static final StudentListCache INSTANCE = new StudentListCache(
+            AppConfig.getInt("students.list.cache.maxPages", 10000),
+            AppConfig.getInt("students.list.cache.maxFragments", 100000));
+
+    private final Gson gson = new Gson();
+    private final LruCache<String, Page> pages;
+    private final LruCache<Integer, Fragment> fragments;
+    private final LongAdder serialized = new LongAdder();
+
+    StudentListCache(int maxPages, int maxFragments) {
+        this.pages = new LruCache<>(maxPages, 0, 16);
+        this.fragments = new LruCache<>(maxFragments, 0, 16);
+    }
+
+    public static StudentListCache getInstance() {
+        return INSTANCE;
+    }
+
+    // Pages are keyed by list version, so the cache is only used while
+    // StudentListVersions hands out versions
+    public static boolean isEnabled() {
+        return ENABLED && StudentListVersions.isEnabled();
+    }
+
+    public synchronized void start() {
+        if (ENABLED) {
+            StudentDAO.addChangeListener(this);
+        }
+    }
+
+    public synchronized void stop() {
+        StudentDAO.removeChangeListener(this);
+        pages.invalidateAll();
+        fragments.invalidateAll();
+    }
+
+    // The page for query at version, from memory or from loader. Read
+    // version before querying, as for the ETag, so a page can only be cached
+    // under a version older than its rows.
+    public Page page(StudentListVersions.Version version, StudentQuery query,
+                     LruCache.Loader<StudentPage> loader) throws Exception {
+        return pages.getOrLoad(key(version, query), () -> materialize(loader.load()));
+    }
+
+    public Map<String, Object> getStats() {
+        Map<String, Object> stats = new LinkedHashMap<>();
+        stats.put("pages", pages.size());
+        stats.put("pageHits", pages.getHitCount());
+        stats.put("pageMisses", pages.getMissCount());
+        stats.put("fragments", fragments.size());
+        // Students run through Gson for lists; every fragment reused is one saved
+        stats.put("serialized", serialized.sum());
+        return stats;
+    }
+
+    private Page materialize(StudentPage page) {
+        List<Student> students = page.getItems();
+        String[] items = new String[students.size()];
+        for (int i = 0; i < items.length; i++) {
+            items[i] = fragment(students.get(i));
+        }
+        // Everything around the items, as Gson lays out the page
+        String empty = gson.toJson(new StudentPage(new ArrayList<>(), page.getNextCursor(), page.getLimit()));
+        int split = empty.indexOf("\"items\":[]") + "\"items\":[".length();
+        return new Page(empty.substring(0, split), items, empty.substring(split));
+    }
+
+    private String fragment(Student student) {
+        Date updatedAt = student.getUpdatedAt();
+        if (updatedAt != null) {
+            Fragment cached = fragments.get(student.getId());
+            if (cached != null && updatedAt.equals(cached.updatedAt)) {
+                return cached.json;
+            }
+        }
+        String json = gson.toJson(student);
+        serialized.increment();
+        // Without updatedAt there is no telling a later version apart
+        if (updatedAt != null) {
+            Fragment cached = fragments.get(student.getId());
+            // A lagging replica's older row must not replace a newer fragment
+            if (cached == null || !cached.updatedAt.after(updatedAt)) {
+                fragments.put(student.getId(), new Fragment(updatedAt, json));
+            }
+        }
+        return json;
+    }
+
+    // Every field of the query, each prefixed with its length so no value can
+    // run into the next
+    private static String key(StudentListVersions.Version version, StudentQuery query) {
+        StringBuilder key = new StringBuilder(96);
+        append(key, version.getEtag());
+        append(key, query.getUserId());
+        append(key, query.getCourse());
+        append(key, query.getCourseId());
+        append(key, query.getEnrolledFrom() != null ? query.getEnrolledFrom().getTime() : null);
+        append(key, query.getEnrolledTo() != null ? query.getEnrolledTo().getTime() : null);
+        append(key, query.getSortKey());
+        append(key, query.isDescending());
+        append(key, query.getLimit());
+        append(key, query.getCursor());
+        return key.toString();
+    }
+
+    private static void append(StringBuilder key, Object value) {
+        if (value == null) {
+            key.append('-');
+            return;
+        }
+        String text = value.toString();
+        key.append(text.length()).append(':').append(text);
+    }
+
+    @Override
+    public void onStudentUpdated(Student before, Student after) {
+        // The fragment is superseded anyway; drop it rather than keep it until evicted
+        fragments.invalidate(before.getId());
+    }
+
+    @Override
+    public void onStudentDeleted(Student before) {
+        fragments.invalidate(before.getId());
+    }
+
+    private static final class Fragment {
+        private final Date updatedAt;
+        private final String json;
+
+        Fragment(Date updatedAt, String json) {
+            this.updatedAt = updatedAt;
+            this.json = json;
+        }
+    }
+
+    // A serialized page: head, then the items separated by commas, then tail
+    public static final class Page {
+        private final String head;
+        private final String[] items;
+        private final String tail;
+
+        Page(String head, String[] items, String tail) {
+            this.head = head;
+            this.items = items;
+            this.tail = tail;
+        }
+
+        public void writeTo(Writer out) throws IOException {
+            out.write(head);
+            for (int i = 0; i < items.length; i++) {
+                if (i > 0) {
+                    out.write(',');
+                }
+                out.write(items[i]);
+            }
+            out.write(tail);
+        }
+    }
+}
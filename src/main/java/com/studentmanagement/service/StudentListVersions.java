@@ -0,0 +1,134 @@
+package com.studentmanagement.service;
+
+import com.studentmanagement.dao.StudentChangeListener;
+import com.studentmanagement.dao.StudentDAO;
+import com.studentmanagement.model.Student;
+import com.studentmanagement.util.AppConfig;
+
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.AtomicLongArray;
+
+// Change counters behind the ETag and Last-Modified of GET /api/students, so
+// an unchanged list is answered 304 from memory without a query. Every
+// committed add, update or delete bumps the counter of each owner involved
+// and the all-students counter. A list's tag is its scope's counter plus a
+// per-process epoch, so tags from before a restart never match.
+//
+// Owners share STRIPES counters by id: another owner's write can cost a
+// needless full response, never a stale 304. Only writes made through
+// StudentDAO on this node are seen, so deployments with several nodes behind
+// a non-sticky balancer, or with writers that bypass the DAO, should turn
+// students.list.etag.enabled off.
+public class StudentListVersions implements StudentChangeListener {
+    private static final boolean ENABLED = AppConfig.getBoolean("students.list.etag.enabled", true);
+    private static final int STRIPES = 1024;
+    private static final StudentListVersions INSTANCE = new StudentListVersions();
+
+    private final String epoch = Long.toString(System.currentTimeMillis(), 36);
+    private final AtomicLongArray ownerVersions = new AtomicLongArray(STRIPES);
+    private final AtomicLongArray ownerModified = new AtomicLongArray(STRIPES);
+    private final AtomicLong allVersion = new AtomicLong();
+    private final AtomicLong allModified = new AtomicLong();
+    private volatile long startedAt;
+
+    StudentListVersions() {
+    }
+
+    public static StudentListVersions getInstance() {
+        return INSTANCE;
+    }
+
+    public static boolean isEnabled() {
+        return ENABLED;
+    }
+
+    public synchronized void start() {
+        if (!ENABLED || startedAt != 0) {
+            return;
+        }
+        StudentDAO.addChangeListener(this);
+        startedAt = System.currentTimeMillis();
+    }
+
+    public synchronized void stop() {
+        StudentDAO.removeChangeListener(this);
+        startedAt = 0;
+    }
+
+    // The list version for one owner, or for all students when ownerId is
+    // null. Null while not listening for changes, since no tag would be safe.
+    // Read it before querying, so the tag can only be older than the rows.
+    public Version current(Integer ownerId) {
+        long started = startedAt;
+        if (started == 0) {
+            return null;
+        }
+        String scope;
+        long version;
+        long modified;
+        if (ownerId == null) {
+            scope = "all";
+            version = allVersion.get();
+            modified = allModified.get();
+        } else {
+            int stripe = Math.floorMod(ownerId, STRIPES);
+            scope = "u" + ownerId;
+            version = ownerVersions.get(stripe);
+            modified = ownerModified.get(stripe);
+        }
+        modified = Math.max(modified, started);
+
+        // Last-Modified has one-second resolution. Only offer it once that
+        // second has passed, so a later change can never share its value.
+        long now = System.currentTimeMillis();
+        long lastModified = now / 1000 > modified / 1000 ? modified / 1000 * 1000 : -1;
+        return new Version("\"" + epoch + "-" + scope + "-" + version + "\"", lastModified);
+    }
+
+    private void bump(int ownerId) {
+        long now = System.currentTimeMillis();
+        int stripe = Math.floorMod(ownerId, STRIPES);
+        ownerVersions.incrementAndGet(stripe);
+        ownerModified.accumulateAndGet(stripe, now, Math::max);
+        allVersion.incrementAndGet();
+        allModified.accumulateAndGet(now, Math::max);
+    }
+
+    @Override
+    public void onStudentAdded(Student student) {
+        bump(student.getUserId());
+    }
+
+    @Override
+    public void onStudentUpdated(Student before, Student after) {
+        bump(before.getUserId());
+        if (after.getUserId() != before.getUserId()) {
+            bump(after.getUserId());
+        }
+    }
+
+    @Override
+    public void onStudentDeleted(Student before) {
+        bump(before.getUserId());
+    }
+
+    public static final class Version {
+        private final String etag;
+        private final long lastModified;
+
+        Version(String etag, long lastModified) {
+            this.etag = etag;
+            this.lastModified = lastModified;
+        }
+
+        // Quoted strong entity tag
+        public String getEtag() {
+            return etag;
+        }
+
+        // Epoch millis on a whole second, or -1 when it can't be offered yet
+        public long getLastModified() {
+            return lastModified;
+        }
+    }
+}
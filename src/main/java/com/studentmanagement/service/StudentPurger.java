@@ -0,0 +1,169 @@
+package com.studentmanagement.service;
+
+import com.studentmanagement.dao.DAOFactory;
+import com.studentmanagement.dao.StudentDAO;
+import com.studentmanagement.util.AppConfig;
+
+import java.sql.SQLException;
+import java.sql.Timestamp;
+import java.time.LocalTime;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.logging.Level;
+import java.util.logging.Logger;
+
+// Moves students deleted more than students.purge.retentionDays ago from the
+// students table to students_archive. Each batch is one short transaction of
+// at most batchSize rows, and batches are paced to maxRowsPerSecond, so the
+// purge never holds many locks or competes with requests for long. When
+// students.purge.hours is set (e.g. "1-5", local time, end exclusive) rows are
+// only moved in those hours; the backlog is still counted every run.
+public class StudentPurger {
+    private static final Logger LOGGER = Logger.getLogger(StudentPurger.class.getName());
+    private static final boolean ENABLED = AppConfig.getBoolean("students.purge.enabled", true);
+    private static final StudentPurger INSTANCE = new StudentPurger(DAOFactory.studentDAO());
+
+    private final StudentDAO studentDAO;
+    private final long retentionMs = TimeUnit.DAYS.toMillis(AppConfig.getLong("students.purge.retentionDays", 30));
+    private final long intervalMs = AppConfig.getLong("students.purge.intervalMs", 300000);
+    private final int batchSize = Math.max(1, AppConfig.getInt("students.purge.batchSize", 200));
+    private final int maxRowsPerSecond = Math.max(1, AppConfig.getInt("students.purge.maxRowsPerSecond", 500));
+    private final LongAdder archived = new LongAdder();
+    private final LongAdder batches = new LongAdder();
+    private final LongAdder failures = new LongAdder();
+    private volatile long deleted;
+    private volatile long due;
+    private volatile double lastRowsPerSecond;
+    private int fromHour;
+    private int toHour;
+    private ScheduledExecutorService scheduler;
+
+    StudentPurger(StudentDAO studentDAO) {
+        this.studentDAO = studentDAO;
+    }
+
+    public static StudentPurger getInstance() {
+        return INSTANCE;
+    }
+
+    public static boolean isEnabled() {
+        return ENABLED;
+    }
+
+    public synchronized void start() {
+        if (!ENABLED || scheduler != null) {
+            return;
+        }
+        parseHours(AppConfig.getString("students.purge.hours", ""));
+        scheduler = Executors.newSingleThreadScheduledExecutor(r -> {
+            Thread thread = new Thread(r, "student-purger");
+            thread.setDaemon(true);
+            // Background work; requests come first
+            thread.setPriority(Thread.MIN_PRIORITY);
+            return thread;
+        });
+        scheduler.scheduleWithFixedDelay(this::purgeQuietly, intervalMs, intervalMs, TimeUnit.MILLISECONDS);
+    }
+
+    public synchronized void stop() {
+        if (scheduler != null) {
+            scheduler.shutdownNow();
+            scheduler = null;
+        }
+    }
+
+    // One pass: archive everything due (within the allowed hours), then
+    // count what is left. Returns the number of students archived.
+    public long purge() throws SQLException {
+        Timestamp cutoff = new Timestamp(System.currentTimeMillis() - retentionMs);
+        long moved = 0;
+        if (isPurgeHour()) {
+            long started = System.nanoTime();
+            while (!Thread.currentThread().isInterrupted()) {
+                long batchStarted = System.nanoTime();
+                int rows = studentDAO.archiveDeletedStudents(cutoff, batchSize);
+                moved += rows;
+                archived.add(rows);
+                batches.increment();
+                if (rows < batchSize || !isPurgeHour()) {
+                    break;
+                }
+                long pause = rows * 1_000_000_000L / maxRowsPerSecond - (System.nanoTime() - batchStarted);
+                if (pause > 0) {
+                    try {
+                        TimeUnit.NANOSECONDS.sleep(pause);
+                    } catch (InterruptedException e) {
+                        Thread.currentThread().interrupt();
+                        break;
+                    }
+                }
+            }
+            if (moved > 0) {
+                long elapsed = System.nanoTime() - started;
+                lastRowsPerSecond = moved * 1e9 / elapsed;
+                LOGGER.info(String.format("Archived %d deleted students in %d ms", moved,
+                        TimeUnit.NANOSECONDS.toMillis(elapsed)));
+            }
+        }
+
+        long[] counts = studentDAO.countDeletedStudents(cutoff);
+        deleted = counts[0];
+        due = counts[1];
+        return moved;
+    }
+
+    public Map<String, Object> getStats() {
+        Map<String, Object> stats = new LinkedHashMap<>();
+        stats.put("deleted", deleted);
+        stats.put("due", due);
+        stats.put("archived", archived.sum());
+        stats.put("batches", batches.sum());
+        stats.put("failures", failures.sum());
+        stats.put("rowsPerSecond", lastRowsPerSecond);
+        return stats;
+    }
+
+    private void purgeQuietly() {
+        try {
+            purge();
+        } catch (SQLException | RuntimeException e) {
+            failures.increment();
+            LOGGER.log(Level.WARNING, "Could not purge deleted students", e);
+        }
+    }
+
+    private boolean isPurgeHour() {
+        if (fromHour == toHour) {
+            return true;
+        }
+        int hour = LocalTime.now().getHour();
+        return fromHour < toHour
+                ? hour >= fromHour && hour < toHour
+                : hour >= fromHour || hour < toHour;
+    }
+
+    // "from-to" in hours 0-24; empty means any time
+    private void parseHours(String hours) {
+        fromHour = 0;
+        toHour = 0;
+        if (hours.trim().isEmpty()) {
+            return;
+        }
+        String[] parts = hours.split("-");
+        try {
+            int from = Integer.parseInt(parts[0].trim());
+            int to = Integer.parseInt(parts[1].trim());
+            if (parts.length != 2 || from < 0 || from > 24 || to < 0 || to > 24) {
+                throw new IllegalArgumentException(hours);
+            }
+            fromHour = from % 24;
+            toHour = to % 24;
+        } catch (RuntimeException e) {
+            LOGGER.warning("Ignoring students.purge.hours=" + hours + "; expected e.g. 1-5. Purging at any hour.");
+        }
+    }
+}
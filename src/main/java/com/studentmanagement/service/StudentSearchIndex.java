@@ -0,0 +1,628 @@
+package com.studentmanagement.service;
+
+import com.studentmanagement.model.Student;
+
+import java.text.Normalizer;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.NavigableMap;
+import java.util.Set;
+import java.util.TreeMap;
+import java.util.concurrent.locks.ReadWriteLock;
+import java.util.concurrent.locks.ReentrantReadWriteLock;
+
+// In-memory inverted index over student name, email, course, phone and address.
+//
+// Every field is lower-cased, stripped of accents and split on anything that
+// is not a letter or digit. Each term maps to a posting list of student ids
+// kept sorted, with a bit mask of the fields the term occurred in. Terms are
+// also kept in a sorted dictionary, so prefix queries are a range scan and
+// fuzzy queries can prune whole branches of it at once.
+//
+// A query matches students that contain every query token, either exactly, as
+// a prefix, or within a small edit distance. Results are ranked by the sum of
+// match quality x field weight x term rarity.
+public class StudentSearchIndex {
+
+    private static final int FIELD_NAME = 1;
+    private static final int FIELD_EMAIL = 2;
+    private static final int FIELD_COURSE = 4;
+    private static final int FIELD_PHONE = 8;
+    private static final int FIELD_ADDRESS = 16;
+
+    // Prefix expansion starts at two characters, fuzzy matching at three
+    private static final int MIN_PREFIX_LENGTH = 2;
+    private static final int MIN_FUZZY_LENGTH = 3;
+    // Upper bound on dictionary terms a single query token may expand to
+    private static final int MAX_EXPANSIONS = 64;
+
+    private static final float EXACT_MATCH = 1.0f;
+    private static final float PREFIX_MATCH = 0.6f;
+    private static final float FUZZY_MATCH = 0.4f;
+
+    private final ReadWriteLock lock = new ReentrantReadWriteLock();
+    private final Map<String, Posting> terms = new HashMap<>();
+    private final TreeMap<String, Posting> sortedTerms = new TreeMap<>();
+    private final Map<Integer, Posting> owners = new HashMap<>();
+    private final Map<Integer, Doc> docs = new HashMap<>();
+    private final int maxEdits;
+
+    public StudentSearchIndex(int maxEdits) {
+        this.maxEdits = Math.max(0, Math.min(maxEdits, 2));
+    }
+
+    // Adds the student, replacing any previously indexed version of it
+    public void upsert(Student student) {
+        Map<String, Integer> fields = new LinkedHashMap<>();
+        addTerms(fields, student.getName(), FIELD_NAME);
+        addTerms(fields, student.getEmail(), FIELD_EMAIL);
+        addTerms(fields, student.getCourse(), FIELD_COURSE);
+        addTerms(fields, student.getPhone(), FIELD_PHONE);
+        addTerms(fields, student.getAddress(), FIELD_ADDRESS);
+        if (student.getPhone() != null) {
+            // Also index the bare digits so "5551234567" finds "555-123-4567"
+            StringBuilder digits = new StringBuilder();
+            for (int i = 0; i < student.getPhone().length(); i++) {
+                char c = student.getPhone().charAt(i);
+                if (c >= '0' && c <= '9') {
+                    digits.append(c);
+                }
+            }
+            if (digits.length() > 0) {
+                fields.merge(digits.toString(), FIELD_PHONE, (a, b) -> a | b);
+            }
+        }
+
+        lock.writeLock().lock();
+        try {
+            removeDoc(student.getId());
+            String[] docTerms = new String[fields.size()];
+            int i = 0;
+            for (Map.Entry<String, Integer> field : fields.entrySet()) {
+                Posting posting = terms.get(field.getKey());
+                if (posting == null) {
+                    posting = new Posting(field.getKey());
+                    terms.put(posting.term, posting);
+                    sortedTerms.put(posting.term, posting);
+                }
+                posting.add(student.getId(), field.getValue());
+                docTerms[i++] = posting.term;
+            }
+            owners.computeIfAbsent(student.getUserId(), k -> new Posting(null)).add(student.getId(), 0);
+            docs.put(student.getId(), new Doc(student.getUserId(), docTerms));
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    public void remove(int id) {
+        lock.writeLock().lock();
+        try {
+            removeDoc(id);
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    private void removeDoc(int id) {
+        Doc doc = docs.remove(id);
+        if (doc == null) {
+            return;
+        }
+        Posting owned = owners.get(doc.ownerId);
+        if (owned != null && owned.remove(id) && owned.size == 0) {
+            owners.remove(doc.ownerId);
+        }
+        for (String term : doc.terms) {
+            Posting posting = terms.get(term);
+            if (posting != null && posting.remove(id) && posting.size == 0) {
+                terms.remove(term);
+                sortedTerms.remove(term);
+            }
+        }
+    }
+
+    public int size() {
+        lock.readLock().lock();
+        try {
+            return docs.size();
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    public int termCount() {
+        lock.readLock().lock();
+        try {
+            return terms.size();
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    // Ranked ids of students matching every token of the query. ownerId
+    // restricts matches to one owner (null means all students).
+    public Hits search(String query, Integer ownerId, int limit, boolean fuzzy) {
+        List<String> tokens = tokenize(query);
+        if (tokens.isEmpty() || limit < 1) {
+            return new Hits(new int[0], 0);
+        }
+
+        lock.readLock().lock();
+        try {
+            int docCount = docs.size();
+            List<List<Match>> matchesPerToken = new ArrayList<>();
+            for (String token : tokens) {
+                List<Match> matches = expand(token, fuzzy, docCount);
+                if (matches.isEmpty()) {
+                    return new Hits(new int[0], 0);
+                }
+                matchesPerToken.add(matches);
+            }
+            // Start from the most selective token so later tokens only probe survivors
+            matchesPerToken.sort(Comparator.comparingLong(StudentSearchIndex::postingCount));
+
+            Scored scored = union(matchesPerToken.get(0));
+            if (ownerId != null) {
+                Posting owned = owners.get(ownerId);
+                if (owned == null) {
+                    return new Hits(new int[0], 0);
+                }
+                scored = scored.retainAll(owned);
+            }
+            for (int t = 1; t < matchesPerToken.size() && scored.size > 0; t++) {
+                List<Match> matches = matchesPerToken.get(t);
+                if ((long) scored.size * matches.size() < postingCount(matches)) {
+                    scored = scored.probe(matches);
+                } else {
+                    scored = scored.intersect(union(matches));
+                }
+            }
+            return scored.top(limit);
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    private List<Match> expand(String token, boolean fuzzy, int docCount) {
+        List<Match> matches = new ArrayList<>();
+        Set<String> seen = new HashSet<>();
+
+        Posting exact = terms.get(token);
+        if (exact != null) {
+            matches.add(new Match(exact, EXACT_MATCH * idf(exact, docCount)));
+            seen.add(token);
+        }
+
+        if (token.length() >= MIN_PREFIX_LENGTH) {
+            NavigableMap<String, Posting> completions =
+                    sortedTerms.subMap(token, false, token + Character.MAX_VALUE, false);
+            int expanded = 0;
+            for (Posting posting : completions.values()) {
+                if (expanded++ == MAX_EXPANSIONS) {
+                    break;
+                }
+                // Completions closer in length to the token rank higher
+                float closeness = (float) token.length() / posting.term.length();
+                matches.add(new Match(posting, PREFIX_MATCH * closeness * idf(posting, docCount)));
+                seen.add(posting.term);
+            }
+        }
+
+        int edits = fuzzy ? allowedEdits(token) : 0;
+        if (edits > 0) {
+            addFuzzyMatches(token, edits, seen, matches, docCount);
+        }
+        return matches;
+    }
+
+    // Dictionary terms within maxEdits of the token that share its first
+    // character. The sorted dictionary is walked like a trie: one Levenshtein
+    // row per term character, rows for the prefix shared with the previous term
+    // are reused, and once a prefix is already too far from the token every
+    // term below it is skipped with a single seek.
+    private void addFuzzyMatches(String token, int maxEdits, Set<String> seen, List<Match> matches, int docCount) {
+        int width = token.length() + 1;
+        int[][] rows = new int[token.length() + maxEdits + 2][];
+        rows[0] = new int[width];
+        for (int j = 0; j < width; j++) {
+            rows[0][j] = j;
+        }
+
+        char first = token.charAt(0);
+        String previous = "";
+        int computed = 0;
+        int expanded = 0;
+        String term = sortedTerms.ceilingKey(String.valueOf(first));
+        while (term != null && term.charAt(0) == first) {
+            int depth = Math.min(commonPrefixLength(previous, term), computed);
+            int dead = -1;
+            for (int i = depth + 1; i <= term.length(); i++) {
+                if (i == rows.length) {
+                    rows = Arrays.copyOf(rows, rows.length * 2);
+                }
+                if (rows[i] == null) {
+                    rows[i] = new int[width];
+                }
+                int[] above = rows[i - 1];
+                int[] row = rows[i];
+                row[0] = i;
+                int rowMin = i;
+                char c = term.charAt(i - 1);
+                for (int j = 1; j < width; j++) {
+                    int cost = token.charAt(j - 1) == c ? 0 : 1;
+                    row[j] = Math.min(Math.min(row[j - 1] + 1, above[j] + 1), above[j - 1] + cost);
+                    rowMin = Math.min(rowMin, row[j]);
+                }
+                if (rowMin > maxEdits) {
+                    dead = i;
+                    break;
+                }
+            }
+
+            previous = term;
+            if (dead >= 0) {
+                computed = dead - 1;
+                term = sortedTerms.higherKey(term.substring(0, dead) + Character.MAX_VALUE);
+                continue;
+            }
+            computed = term.length();
+            int distance = rows[term.length()][token.length()];
+            if (distance > 0 && distance <= maxEdits && !seen.contains(term)) {
+                Posting posting = sortedTerms.get(term);
+                matches.add(new Match(posting, FUZZY_MATCH / distance * idf(posting, docCount)));
+                if (++expanded == MAX_EXPANSIONS) {
+                    return;
+                }
+            }
+            term = sortedTerms.higherKey(term);
+        }
+    }
+
+    private static int commonPrefixLength(String a, String b) {
+        int length = Math.min(a.length(), b.length());
+        for (int i = 0; i < length; i++) {
+            if (a.charAt(i) != b.charAt(i)) {
+                return i;
+            }
+        }
+        return length;
+    }
+
+    // Numbers (phones, house numbers, ids in emails) are matched exactly or by
+    // prefix only; a typo-tolerant digit string matches far too much
+    private int allowedEdits(String token) {
+        if (token.length() < MIN_FUZZY_LENGTH) {
+            return 0;
+        }
+        for (int i = 0; i < token.length(); i++) {
+            if (Character.isDigit(token.charAt(i))) {
+                return 0;
+            }
+        }
+        return Math.min(maxEdits, token.length() <= 5 ? 1 : 2);
+    }
+
+    // Best score per student over all postings of one token, in id order
+    private static Scored union(List<Match> matches) {
+        if (matches.size() == 1) {
+            Match match = matches.get(0);
+            Posting posting = match.posting;
+            Scored result = new Scored(posting.size);
+            for (int i = 0; i < posting.size; i++) {
+                result.append(posting.ids[i], match.weight * fieldWeight(posting.fields[i]));
+            }
+            return result;
+        }
+
+        // Pack (id, score) into one long so a single primitive sort orders by id,
+        // then by score; scores are positive, so their float bits sort numerically
+        long[] entries = new long[(int) postingCount(matches)];
+        int count = 0;
+        for (Match match : matches) {
+            Posting posting = match.posting;
+            for (int i = 0; i < posting.size; i++) {
+                float score = match.weight * fieldWeight(posting.fields[i]);
+                entries[count++] = ((long) posting.ids[i] << 32) | (Float.floatToIntBits(score) & 0xffffffffL);
+            }
+        }
+        Arrays.sort(entries);
+
+        Scored result = new Scored(count);
+        for (int i = 0; i < count; i++) {
+            // Keep only the last, i.e. best scoring, entry of each id
+            if (i + 1 < count && (entries[i + 1] >>> 32) == (entries[i] >>> 32)) {
+                continue;
+            }
+            result.append((int) (entries[i] >>> 32), Float.intBitsToFloat((int) entries[i]));
+        }
+        return result;
+    }
+
+    private static long postingCount(List<Match> matches) {
+        long count = 0;
+        for (Match match : matches) {
+            count += match.posting.size;
+        }
+        return count;
+    }
+
+    // Rare terms say more about a match than terms every student shares
+    private static float idf(Posting posting, int docCount) {
+        return (float) Math.log(1 + (double) docCount / posting.size);
+    }
+
+    private static float fieldWeight(int fields) {
+        if ((fields & FIELD_NAME) != 0) {
+            return 3.0f;
+        }
+        if ((fields & FIELD_EMAIL) != 0) {
+            return 2.0f;
+        }
+        if ((fields & FIELD_COURSE) != 0) {
+            return 1.5f;
+        }
+        return 1.0f;
+    }
+
+    private static void addTerms(Map<String, Integer> fields, String value, int field) {
+        for (String term : tokenize(value)) {
+            fields.merge(term, field, (a, b) -> a | b);
+        }
+    }
+
+    static List<String> tokenize(String text) {
+        List<String> tokens = new ArrayList<>();
+        if (text == null || text.isEmpty()) {
+            return tokens;
+        }
+        String normalized = text.toLowerCase(Locale.ROOT);
+        if (!isAscii(normalized)) {
+            normalized = Normalizer.normalize(normalized, Normalizer.Form.NFD).replaceAll("\\p{M}+", "");
+        }
+        StringBuilder token = new StringBuilder();
+        for (int i = 0; i <= normalized.length(); i++) {
+            char c = i < normalized.length() ? normalized.charAt(i) : ' ';
+            if (Character.isLetterOrDigit(c)) {
+                token.append(c);
+            } else if (token.length() > 0) {
+                String value = token.toString();
+                if (!tokens.contains(value)) {
+                    tokens.add(value);
+                }
+                token.setLength(0);
+            }
+        }
+        return tokens;
+    }
+
+    private static boolean isAscii(String text) {
+        for (int i = 0; i < text.length(); i++) {
+            if (text.charAt(i) > 0x7f) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    // Result of a search: ranked ids (at most limit) and the total match count
+    public static final class Hits {
+        private final int[] ids;
+        private final int total;
+
+        Hits(int[] ids, int total) {
+            this.ids = ids;
+            this.total = total;
+        }
+
+        public int[] getIds() { return ids; }
+        public int getTotal() { return total; }
+    }
+
+    // Candidate student ids in ascending order with their score so far
+    private static final class Scored {
+        private int[] ids;
+        private float[] scores;
+        private int size;
+
+        Scored(int capacity) {
+            ids = new int[Math.max(capacity, 1)];
+            scores = new float[ids.length];
+        }
+
+        void append(int id, float score) {
+            if (size == ids.length) {
+                ids = Arrays.copyOf(ids, size * 2);
+                scores = Arrays.copyOf(scores, size * 2);
+            }
+            ids[size] = id;
+            scores[size] = score;
+            size++;
+        }
+
+        // Intersection summing the scores of both sides
+        Scored intersect(Scored other) {
+            Scored result = new Scored(Math.min(size, other.size));
+            int i = 0;
+            int j = 0;
+            while (i < size && j < other.size) {
+                if (ids[i] < other.ids[j]) {
+                    i++;
+                } else if (other.ids[j] < ids[i]) {
+                    j++;
+                } else {
+                    result.append(ids[i], scores[i] + other.scores[j]);
+                    i++;
+                    j++;
+                }
+            }
+            return result;
+        }
+
+        Scored retainAll(Posting posting) {
+            Scored result = new Scored(Math.min(size, posting.size));
+            for (int i = 0; i < size; i++) {
+                if (posting.fieldsOf(ids[i]) >= 0) {
+                    result.append(ids[i], scores[i]);
+                }
+            }
+            return result;
+        }
+
+        // Adds one more token's score to each candidate by looking it up in
+        // the token's postings, dropping candidates the token doesn't match
+        Scored probe(List<Match> matches) {
+            Scored result = new Scored(size);
+            for (int i = 0; i < size; i++) {
+                float best = 0;
+                for (Match match : matches) {
+                    int fields = match.posting.fieldsOf(ids[i]);
+                    if (fields > 0) {
+                        best = Math.max(best, match.weight * fieldWeight(fields));
+                    }
+                }
+                if (best > 0) {
+                    result.append(ids[i], scores[i] + best);
+                }
+            }
+            return result;
+        }
+
+        // Highest scores first; ties go to the newest student
+        Hits top(int limit) {
+            int k = Math.min(limit, size);
+            // Min-heap of candidate positions, worst of the current top k at the root
+            int[] heap = new int[k];
+            int heapSize = 0;
+            // Newest first, so equal scores rarely displace the heap root
+            for (int i = size - 1; i >= 0; i--) {
+                if (heapSize < k) {
+                    heap[heapSize] = i;
+                    siftUp(heap, heapSize++);
+                } else if (better(i, heap[0])) {
+                    heap[0] = i;
+                    siftDown(heap, heapSize);
+                }
+            }
+            int[] ranked = new int[heapSize];
+            for (int n = heapSize - 1; n >= 0; n--) {
+                ranked[n] = ids[heap[0]];
+                heap[0] = heap[--heapSize];
+                siftDown(heap, heapSize);
+            }
+            return new Hits(ranked, size);
+        }
+
+        private boolean better(int a, int b) {
+            return scores[a] > scores[b] || (scores[a] == scores[b] && ids[a] > ids[b]);
+        }
+
+        private void siftUp(int[] heap, int index) {
+            while (index > 0) {
+                int parent = (index - 1) / 2;
+                if (!better(heap[parent], heap[index])) {
+                    break;
+                }
+                int swap = heap[parent];
+                heap[parent] = heap[index];
+                heap[index] = swap;
+                index = parent;
+            }
+        }
+
+        private void siftDown(int[] heap, int heapSize) {
+            int index = 0;
+            while (true) {
+                int child = 2 * index + 1;
+                if (child >= heapSize) {
+                    break;
+                }
+                if (child + 1 < heapSize && better(heap[child], heap[child + 1])) {
+                    child++;
+                }
+                if (!better(heap[index], heap[child])) {
+                    break;
+                }
+                int swap = heap[child];
+                heap[child] = heap[index];
+                heap[index] = swap;
+                index = child;
+            }
+        }
+    }
+
+    private static final class Match {
+        private final Posting posting;
+        private final float weight;
+
+        Match(Posting posting, float weight) {
+            this.posting = posting;
+            this.weight = weight;
+        }
+    }
+
+    private static final class Doc {
+        private final int ownerId;
+        private final String[] terms;
+
+        Doc(int ownerId, String[] terms) {
+            this.ownerId = ownerId;
+            this.terms = terms;
+        }
+    }
+
+    // Ids containing one term (or owned by one user), sorted ascending, with
+    // the fields the term occurred in
+    private static final class Posting {
+        private final String term;
+        private int[] ids = new int[2];
+        private byte[] fields = new byte[2];
+        private int size;
+
+        Posting(String term) {
+            this.term = term;
+        }
+
+        void add(int id, int mask) {
+            int index = Arrays.binarySearch(ids, 0, size, id);
+            if (index >= 0) {
+                fields[index] |= (byte) mask;
+                return;
+            }
+            index = -index - 1;
+            if (size == ids.length) {
+                ids = Arrays.copyOf(ids, size * 2);
+                fields = Arrays.copyOf(fields, size * 2);
+            }
+            System.arraycopy(ids, index, ids, index + 1, size - index);
+            System.arraycopy(fields, index, fields, index + 1, size - index);
+            ids[index] = id;
+            fields[index] = (byte) mask;
+            size++;
+        }
+
+        boolean remove(int id) {
+            int index = Arrays.binarySearch(ids, 0, size, id);
+            if (index < 0) {
+                return false;
+            }
+            System.arraycopy(ids, index + 1, ids, index, size - index - 1);
+            System.arraycopy(fields, index + 1, fields, index, size - index - 1);
+            size--;
+            return true;
+        }
+
+        // Field mask of the id, or -1 if the id is not in this posting
+        int fieldsOf(int id) {
+            int index = Arrays.binarySearch(ids, 0, size, id);
+            return index >= 0 ? fields[index] : -1;
+        }
+    }
+}
@@ -0,0 +1,149 @@
+package com.studentmanagement.service;
+
+import com.studentmanagement.dao.DAOFactory;
+import com.studentmanagement.dao.StudentChangeListener;
+import com.studentmanagement.dao.StudentDAO;
+import com.studentmanagement.model.Student;
+import com.studentmanagement.util.AppConfig;
+
+import java.io.IOException;
+import java.sql.SQLException;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+import java.util.function.Consumer;
+import java.util.logging.Level;
+import java.util.logging.Logger;
+
+// Owns the StudentSearchIndex. It is built in the background at startup by
+// streaming the students table, then kept current by StudentDAO change events.
+// Events that arrive while a build is streaming are queued and replayed onto
+// the new index before it is swapped in, so a row changed mid-build is never
+// left at the version the stream happened to read.
+public class StudentSearchService implements StudentChangeListener {
+    private static final Logger LOGGER = Logger.getLogger(StudentSearchService.class.getName());
+    private static final boolean ENABLED = AppConfig.getBoolean("students.search.enabled", true);
+    private static final StudentSearchService INSTANCE = new StudentSearchService(DAOFactory.studentDAO());
+
+    private final StudentDAO studentDAO;
+    private final int maxEdits = AppConfig.getInt("students.search.fuzzyMaxEdits", 2);
+    private final long rebuildIntervalMs = AppConfig.getLong("students.search.rebuildIntervalMs", 0);
+    private StudentSearchIndex index;
+    private List<Consumer<StudentSearchIndex>> pendingEvents;
+    private ScheduledExecutorService scheduler;
+
+    StudentSearchService(StudentDAO studentDAO) {
+        this.studentDAO = studentDAO;
+    }
+
+    public static StudentSearchService getInstance() {
+        return INSTANCE;
+    }
+
+    public static boolean isEnabled() {
+        return ENABLED;
+    }
+
+    public synchronized void start() {
+        if (!ENABLED || scheduler != null) {
+            return;
+        }
+        StudentDAO.addChangeListener(this);
+        scheduler = Executors.newSingleThreadScheduledExecutor(r -> {
+            Thread thread = new Thread(r, "student-search-indexer");
+            thread.setDaemon(true);
+            return thread;
+        });
+        if (rebuildIntervalMs > 0) {
+            scheduler.scheduleWithFixedDelay(this::rebuildQuietly, 0, rebuildIntervalMs, TimeUnit.MILLISECONDS);
+        } else {
+            scheduler.execute(this::rebuildQuietly);
+        }
+    }
+
+    public synchronized void stop() {
+        StudentDAO.removeChangeListener(this);
+        if (scheduler != null) {
+            scheduler.shutdownNow();
+            scheduler = null;
+        }
+    }
+
+    // Build a fresh index from the table and swap it in
+    public void rebuild() throws SQLException, IOException {
+        synchronized (this) {
+            pendingEvents = new ArrayList<>();
+        }
+        try {
+            long started = System.nanoTime();
+            StudentSearchIndex fresh = new StudentSearchIndex(maxEdits);
+            studentDAO.streamStudents(null, fresh::upsert);
+
+            synchronized (this) {
+                for (Consumer<StudentSearchIndex> event : pendingEvents) {
+                    event.accept(fresh);
+                }
+                index = fresh;
+            }
+            LOGGER.info(String.format("Indexed %d students (%d terms) in %d ms", fresh.size(), fresh.termCount(),
+                    TimeUnit.NANOSECONDS.toMillis(System.nanoTime() - started)));
+        } finally {
+            synchronized (this) {
+                pendingEvents = null;
+            }
+        }
+    }
+
+    private void rebuildQuietly() {
+        try {
+            rebuild();
+        } catch (SQLException | IOException | RuntimeException e) {
+            LOGGER.log(Level.WARNING, "Could not build the student search index", e);
+        }
+    }
+
+    // False until the first build has finished
+    public synchronized boolean isReady() {
+        return index != null;
+    }
+
+    public StudentSearchIndex.Hits search(String query, Integer ownerId, int limit, boolean fuzzy) {
+        StudentSearchIndex current;
+        synchronized (this) {
+            current = index;
+        }
+        if (current == null) {
+            throw new IllegalStateException("Search index is not ready");
+        }
+        return current.search(query, ownerId, limit, fuzzy);
+    }
+
+    private synchronized void apply(Consumer<StudentSearchIndex> event) {
+        if (index != null) {
+            event.accept(index);
+        }
+        if (pendingEvents != null) {
+            pendingEvents.add(event);
+        }
+    }
+
+    @Override
+    public void onStudentAdded(Student student) {
+        Student copy = new Student(student);
+        apply(target -> target.upsert(copy));
+    }
+
+    @Override
+    public void onStudentUpdated(Student before, Student after) {
+        Student copy = new Student(after);
+        apply(target -> target.upsert(copy));
+    }
+
+    @Override
+    public void onStudentDeleted(Student before) {
+        int id = before.getId();
+        apply(target -> target.remove(id));
+    }
+}
@@ -0,0 +1,174 @@
+package com.studentmanagement.service;
+
+import com.studentmanagement.dao.DAOFactory;
+import com.studentmanagement.dao.StudentChangeListener;
+import com.studentmanagement.dao.StudentDAO;
+import com.studentmanagement.model.Student;
+import com.studentmanagement.model.StudentCounts;
+import com.studentmanagement.util.AppConfig;
+
+import java.sql.SQLException;
+import java.time.YearMonth;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.TreeMap;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.logging.Level;
+import java.util.logging.Logger;
+
+// In-memory dashboard counters (total, per course, per enrollment month, per
+// owner). They are seeded from SQL aggregates, kept current by StudentDAO
+// change events, and periodically rebuilt from SQL to correct any drift from
+// writes that bypass the DAO (e.g. ON DELETE SET NULL when a user is removed)
+// or that raced with a rebuild. Reads never touch the students table.
+public class StudentStatistics implements StudentChangeListener {
+    private static final Logger LOGGER = Logger.getLogger(StudentStatistics.class.getName());
+    private static final StudentStatistics INSTANCE = new StudentStatistics(DAOFactory.studentDAO());
+
+    private final StudentDAO studentDAO;
+    private final long reconcileIntervalMs = AppConfig.getLong("students.stats.reconcileIntervalMs", 5 * 60 * 1000);
+    private volatile Counters counters;
+    private ScheduledExecutorService scheduler;
+
+    StudentStatistics(StudentDAO studentDAO) {
+        this.studentDAO = studentDAO;
+    }
+
+    public static StudentStatistics getInstance() {
+        return INSTANCE;
+    }
+
+    public synchronized void start() {
+        if (scheduler != null) {
+            return;
+        }
+        StudentDAO.addChangeListener(this);
+        scheduler = Executors.newSingleThreadScheduledExecutor(r -> {
+            Thread thread = new Thread(r, "student-stats-reconciler");
+            thread.setDaemon(true);
+            return thread;
+        });
+        scheduler.scheduleWithFixedDelay(this::reconcileQuietly, 0, reconcileIntervalMs, TimeUnit.MILLISECONDS);
+    }
+
+    public synchronized void stop() {
+        StudentDAO.removeChangeListener(this);
+        if (scheduler != null) {
+            scheduler.shutdownNow();
+            scheduler = null;
+        }
+    }
+
+    // Rebuild all counters from SQL COUNT/GROUP BY and swap them in atomically
+    public void reconcile() throws SQLException {
+        StudentCounts counts = studentDAO.countStudents();
+
+        Counters fresh = new Counters();
+        counts.getByCourse().forEach((course, count) ->
+                fresh.byCourse.computeIfAbsent(course, k -> new LongAdder()).add(count));
+        counts.getByEnrollmentMonth().forEach((month, count) ->
+                fresh.byMonth.computeIfAbsent(month, k -> new LongAdder()).add(count));
+        counts.getByOwner().forEach((owner, count) -> {
+            fresh.byOwner.computeIfAbsent(owner, k -> new LongAdder()).add(count);
+            fresh.total.add(count);
+        });
+        counters = fresh;
+    }
+
+    private void reconcileQuietly() {
+        try {
+            reconcile();
+        } catch (SQLException | RuntimeException e) {
+            LOGGER.log(Level.WARNING, "Could not reconcile student statistics", e);
+        }
+    }
+
+    // Full breakdown for admins
+    public Map<String, Object> getSnapshot() throws SQLException {
+        Counters current = ensureLoaded();
+        Map<String, Object> snapshot = new LinkedHashMap<>();
+        snapshot.put("total", current.total.sum());
+        snapshot.put("byCourse", toSortedMap(current.byCourse));
+        snapshot.put("byEnrollmentMonth", toSortedMap(current.byMonth));
+        snapshot.put("byOwner", toSortedMap(current.byOwner));
+        return snapshot;
+    }
+
+    public long getCountForOwner(int userId) throws SQLException {
+        LongAdder count = ensureLoaded().byOwner.get(userId);
+        return count != null ? count.sum() : 0;
+    }
+
+    private Counters ensureLoaded() throws SQLException {
+        Counters current = counters;
+        if (current == null) {
+            synchronized (this) {
+                if (counters == null) {
+                    reconcile();
+                }
+                current = counters;
+            }
+        }
+        return current;
+    }
+
+    private static <K extends Comparable<K>> Map<K, Long> toSortedMap(Map<K, LongAdder> source) {
+        Map<K, Long> sorted = new TreeMap<>();
+        source.forEach((key, count) -> {
+            long value = count.sum();
+            if (value > 0) {
+                sorted.put(key, value);
+            }
+        });
+        return sorted;
+    }
+
+    @Override
+    public void onStudentAdded(Student student) {
+        Counters current = counters;
+        if (current != null) {
+            current.apply(student, 1);
+        }
+    }
+
+    @Override
+    public void onStudentUpdated(Student before, Student after) {
+        Counters current = counters;
+        if (current != null) {
+            current.apply(before, -1);
+            current.apply(after, 1);
+        }
+    }
+
+    @Override
+    public void onStudentDeleted(Student before) {
+        Counters current = counters;
+        if (current != null) {
+            current.apply(before, -1);
+        }
+    }
+
+    private static final class Counters {
+        private final LongAdder total = new LongAdder();
+        private final ConcurrentHashMap<String, LongAdder> byCourse = new ConcurrentHashMap<>();
+        private final ConcurrentHashMap<String, LongAdder> byMonth = new ConcurrentHashMap<>();
+        private final ConcurrentHashMap<Integer, LongAdder> byOwner = new ConcurrentHashMap<>();
+
+        void apply(Student student, int delta) {
+            total.add(delta);
+            if (student.getCourse() != null) {
+                byCourse.computeIfAbsent(student.getCourse(), k -> new LongAdder()).add(delta);
+            }
+            if (student.getEnrollmentDate() != null) {
+                String month = YearMonth.from(
+                        new java.sql.Date(student.getEnrollmentDate().getTime()).toLocalDate()).toString();
+                byMonth.computeIfAbsent(month, k -> new LongAdder()).add(delta);
+            }
+            byOwner.computeIfAbsent(student.getUserId(), k -> new LongAdder()).add(delta);
+        }
+    }
+}
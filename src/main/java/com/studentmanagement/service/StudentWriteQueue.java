@@ -0,0 +1,269 @@
+package com.studentmanagement.service;
+
+import com.studentmanagement.dao.DAOFactory;
+import com.studentmanagement.dao.StudentDAO;
+import com.studentmanagement.dao.StudentMutation;
+import com.studentmanagement.dao.StudentWriteResult;
+import com.studentmanagement.util.AppConfig;
+import com.studentmanagement.util.LatencyHistogram;
+
+import java.sql.SQLException;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.logging.Level;
+import java.util.logging.Logger;
+
+// Write-behind mode for student adds and updates (students.writeBehind.*).
+// Requests put validated mutations on a bounded queue; one writer thread
+// takes whatever has accumulated, up to maxBatch, and commits it as a single
+// transaction through StudentDAO.writeGroup. Under load every commit, and so
+// every log flush, covers many rows; when idle a group is one row, waiting at
+// most maxDelayMs for company.
+//
+// Unconditional updates of the same student by the same caller within a
+// group are coalesced: only the last is written and all of them get its
+// result. Updates with an expected version are never coalesced.
+//
+// ack=commit answers a request once its group has committed, so a success
+// is as durable as in synchronous mode. ack=enqueue answers as soon as the
+// mutation is queued: lower latency, but queued writes are lost if the
+// process dies, and a rejected one is only logged. When the queue is full,
+// submit waits up to offerTimeoutMs and then refuses, so clients back off
+// instead of the queue growing without bound.
+public class StudentWriteQueue {
+    private static final Logger LOGGER = Logger.getLogger(StudentWriteQueue.class.getName());
+    private static final boolean ENABLED = AppConfig.getBoolean("students.writeBehind.enabled", false);
+    private static final StudentWriteQueue INSTANCE = new StudentWriteQueue(DAOFactory.studentDAO(),
+            AppConfig.getInt("students.writeBehind.capacity", 10000),
+            AppConfig.getInt("students.writeBehind.maxBatch", 500),
+            AppConfig.getLong("students.writeBehind.maxDelayMs", 1),
+            !"enqueue".equalsIgnoreCase(AppConfig.getString("students.writeBehind.ack", "commit")),
+            AppConfig.getLong("students.writeBehind.offerTimeoutMs", 100));
+
+    private final StudentDAO studentDAO;
+    private final BlockingQueue<Pending> queue;
+    private final int maxBatch;
+    private final long maxDelayNanos;
+    private final boolean ackOnCommit;
+    private final long offerTimeoutMs;
+    private final LongAdder rejected = new LongAdder();
+    private final LongAdder coalesced = new LongAdder();
+    private final LongAdder written = new LongAdder();
+    private final LongAdder failed = new LongAdder();
+    private final LongAdder groups = new LongAdder();
+    // Nanoseconds from submit to the end of the commit
+    private final LatencyHistogram latency = new LatencyHistogram();
+    private volatile boolean running;
+    private Thread writer;
+
+    StudentWriteQueue(StudentDAO studentDAO, int capacity, int maxBatch, long maxDelayMs,
+                      boolean ackOnCommit, long offerTimeoutMs) {
+        this.studentDAO = studentDAO;
+        this.queue = new ArrayBlockingQueue<>(capacity);
+        this.maxBatch = Math.max(1, maxBatch);
+        this.maxDelayNanos = TimeUnit.MILLISECONDS.toNanos(maxDelayMs);
+        this.ackOnCommit = ackOnCommit;
+        this.offerTimeoutMs = offerTimeoutMs;
+    }
+
+    public static StudentWriteQueue getInstance() {
+        return INSTANCE;
+    }
+
+    public static boolean isEnabled() {
+        return ENABLED;
+    }
+
+    public synchronized void start() {
+        if (writer != null) {
+            return;
+        }
+        running = true;
+        writer = new Thread(this::drain, "student-write-behind");
+        writer.setDaemon(true);
+        writer.start();
+    }
+
+    // Stops taking mutations and writes out what is already queued
+    public synchronized void stop() {
+        if (writer == null) {
+            return;
+        }
+        running = false;
+        try {
+            writer.join(TimeUnit.SECONDS.toMillis(30));
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+        writer = null;
+        // Submitted while stopping, after the writer's last look
+        List<Pending> late = new ArrayList<>();
+        queue.drainTo(late);
+        for (Pending pending : late) {
+            failed.increment();
+            pending.result.complete(StudentWriteResult.FAILED);
+        }
+    }
+
+    // False when requests are answered as soon as their write is queued
+    public boolean isAckOnCommit() {
+        return ackOnCommit;
+    }
+
+    // Completes with the mutation's result once its group has been written
+    // (FAILED if the database refused the group). Throws
+    // RejectedExecutionException when the queue stays full or is stopped.
+    public CompletableFuture<StudentWriteResult> submit(StudentMutation mutation) throws InterruptedException {
+        Pending pending = new Pending(mutation);
+        if (!running || !queue.offer(pending, offerTimeoutMs, TimeUnit.MILLISECONDS)) {
+            rejected.increment();
+            throw new RejectedExecutionException("Student write queue is full");
+        }
+        return pending.result;
+    }
+
+    public Map<String, Object> getStats() {
+        Map<String, Object> stats = new LinkedHashMap<>();
+        stats.put("queued", queue.size());
+        stats.put("capacity", queue.size() + queue.remainingCapacity());
+        stats.put("written", written.sum());
+        stats.put("coalesced", coalesced.sum());
+        stats.put("failed", failed.sum());
+        stats.put("rejected", rejected.sum());
+        stats.put("groups", groups.sum());
+        stats.put("latencyCount", latency.getCount());
+        stats.put("latencySumNanos", latency.getSum());
+        stats.put("latencyP99Nanos", latency.getValueAtPercentile(99));
+        return stats;
+    }
+
+    private void drain() {
+        List<Pending> group = new ArrayList<>(maxBatch);
+        while (running || !queue.isEmpty()) {
+            try {
+                Pending first = queue.poll(100, TimeUnit.MILLISECONDS);
+                if (first == null) {
+                    continue;
+                }
+                group.add(first);
+                long deadline = System.nanoTime() + maxDelayNanos;
+                while (group.size() < maxBatch) {
+                    queue.drainTo(group, maxBatch - group.size());
+                    long wait = deadline - System.nanoTime();
+                    if (group.size() >= maxBatch || wait <= 0) {
+                        break;
+                    }
+                    Pending next = queue.poll(wait, TimeUnit.NANOSECONDS);
+                    if (next == null) {
+                        break;
+                    }
+                    group.add(next);
+                }
+            } catch (InterruptedException e) {
+                // Only stop() ends the loop, and only once the queue is empty
+            }
+            if (!group.isEmpty()) {
+                write(group);
+                group.clear();
+            }
+        }
+    }
+
+    private void write(List<Pending> group) {
+        // Each entry is written once, for itself and any updates it superseded
+        List<StudentMutation> mutations = new ArrayList<>(group.size());
+        List<List<Pending>> waiters = new ArrayList<>(group.size());
+        // Student id to the index of its latest unconditional update
+        Map<Integer, Integer> lastUpdate = new HashMap<>();
+        for (Pending pending : group) {
+            StudentMutation mutation = pending.mutation;
+            if (!mutation.isInsert()) {
+                int id = mutation.getStudent().getId();
+                Integer index = lastUpdate.get(id);
+                if (index != null && canCoalesce(mutations.get(index), mutation)) {
+                    mutations.set(index, mutation);
+                    waiters.get(index).add(pending);
+                    coalesced.increment();
+                    continue;
+                }
+                if (mutation.getExpectedUpdatedAt() == null) {
+                    lastUpdate.put(id, mutations.size());
+                } else {
+                    // Written in order after what came before it
+                    lastUpdate.remove(id);
+                }
+            }
+            mutations.add(mutation);
+            List<Pending> waiting = new ArrayList<>(1);
+            waiting.add(pending);
+            waiters.add(waiting);
+        }
+
+        StudentWriteResult[] results;
+        try {
+            results = studentDAO.writeGroup(mutations);
+            groups.increment();
+        } catch (SQLException | RuntimeException e) {
+            if (mutations.size() == 1) {
+                LOGGER.log(ackOnCommit ? Level.WARNING : Level.SEVERE,
+                        "Could not write a queued student " + (mutations.get(0).isInsert() ? "add" : "update"), e);
+                results = new StudentWriteResult[]{StudentWriteResult.FAILED};
+            } else {
+                // One bad row must not fail its neighbours; retry them one by one
+                results = new StudentWriteResult[mutations.size()];
+                for (int i = 0; i < mutations.size(); i++) {
+                    results[i] = writeAlone(mutations.get(i));
+                }
+            }
+        }
+
+        long now = System.nanoTime();
+        for (int i = 0; i < waiters.size(); i++) {
+            StudentWriteResult result = results[i];
+            for (Pending pending : waiters.get(i)) {
+                (result == StudentWriteResult.FAILED ? failed : written).increment();
+                latency.record(now - pending.submittedAt);
+                pending.result.complete(result);
+            }
+        }
+    }
+
+    private StudentWriteResult writeAlone(StudentMutation mutation) {
+        try {
+            StudentWriteResult result = studentDAO.writeGroup(Collections.singletonList(mutation))[0];
+            groups.increment();
+            return result;
+        } catch (SQLException | RuntimeException e) {
+            LOGGER.log(ackOnCommit ? Level.WARNING : Level.SEVERE,
+                    "Could not write a queued student " + (mutation.isInsert() ? "add" : "update"), e);
+            return StudentWriteResult.FAILED;
+        }
+    }
+
+    // earlier is an unconditional update of the same student
+    private static boolean canCoalesce(StudentMutation earlier, StudentMutation later) {
+        return later.getExpectedUpdatedAt() == null
+                && later.getUserId() == earlier.getUserId()
+                && later.isAdmin() == earlier.isAdmin();
+    }
+
+    private static final class Pending {
+        final StudentMutation mutation;
+        final CompletableFuture<StudentWriteResult> result = new CompletableFuture<>();
+        final long submittedAt = System.nanoTime();
+
+        Pending(StudentMutation mutation) {
+            this.mutation = mutation;
+        }
+    }
+}
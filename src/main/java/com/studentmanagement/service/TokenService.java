@@ -0,0 +1,268 @@
+package com.studentmanagement.service;
+
+import com.google.gson.Gson;
+import com.google.gson.JsonParseException;
+import com.studentmanagement.model.AuthContext;
+import com.studentmanagement.model.User;
+import com.studentmanagement.util.AppConfig;
+import com.studentmanagement.util.LruCache;
+
+import javax.crypto.Mac;
+import javax.crypto.spec.SecretKeySpec;
+import java.nio.charset.StandardCharsets;
+import java.security.GeneralSecurityException;
+import java.security.MessageDigest;
+import java.security.SecureRandom;
+import java.util.Base64;
+import java.util.Comparator;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.PriorityQueue;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.logging.Logger;
+
+// Stateless login tokens: <key id>.<payload>.<signature>, where the payload
+// is base64url JSON with the user's id, name and role plus issue/expiry times
+// and a random token id, and the signature is HMAC-SHA256 over key id and
+// payload. Any node holding the same keys can verify a token without shared
+// session state.
+//
+// Keys rotate by adding a new entry to auth.token.keys and pointing
+// auth.token.activeKey at it: new tokens are signed with the active key while
+// tokens signed with the others keep verifying until they expire or their
+// key is removed. Logged-out token ids are kept until their expiry in a local
+// revocation list of at most auth.token.maxRevoked entries; other nodes stop
+// accepting such a token when it expires, which is why the lifetime is short
+// and tokens are reissued on use.
+//
+// Verified tokens are cached by their exact text, so repeat requests only
+// pay for a map lookup plus the expiry and revocation checks.
+public class TokenService {
+    private static final Logger LOGGER = Logger.getLogger(TokenService.class.getName());
+    private static final String HMAC = "HmacSHA256";
+    private static final boolean ENABLED = "token".equalsIgnoreCase(AppConfig.getString("auth.mode", "session"));
+    private static volatile TokenService instance;
+
+    private final Map<String, Mac> keys = new LinkedHashMap<>();
+    private final String activeKeyId;
+    private final long ttlSeconds;
+    private final int maxRevoked;
+    private final LruCache<String, AuthContext> verified;
+    // Token id to expiry, read lock-free by verify; revocationOrder holds the
+    // same entries soonest expiry first and guards writes to both
+    private final ConcurrentHashMap<String, Long> revoked = new ConcurrentHashMap<>();
+    private final PriorityQueue<Revocation> revocationOrder =
+            new PriorityQueue<>(Comparator.comparingLong(revocation -> revocation.expiresAt));
+    private final Gson gson = new Gson();
+    private final SecureRandom random = new SecureRandom();
+
+    TokenService(Map<String, byte[]> secrets, String activeKeyId, long ttlSeconds, int cacheSize, int maxRevoked) {
+        if (!secrets.containsKey(activeKeyId)) {
+            throw new IllegalArgumentException("Active token key '" + activeKeyId + "' is not configured");
+        }
+        for (Map.Entry<String, byte[]> secret : secrets.entrySet()) {
+            if (secret.getKey().contains(".")) {
+                throw new IllegalArgumentException("Token key id '" + secret.getKey() + "' must not contain '.'");
+            }
+            if (secret.getValue().length < 32) {
+                throw new IllegalArgumentException("Token key '" + secret.getKey() + "' must be at least 256 bits");
+            }
+            keys.put(secret.getKey(), newMac(secret.getValue()));
+        }
+        this.activeKeyId = activeKeyId;
+        this.ttlSeconds = ttlSeconds;
+        this.maxRevoked = maxRevoked;
+        this.verified = new LruCache<>(cacheSize, 0, 16);
+    }
+
+    public static boolean isEnabled() {
+        return ENABLED;
+    }
+
+    public static TokenService getInstance() {
+        TokenService current = instance;
+        if (current == null) {
+            synchronized (TokenService.class) {
+                current = instance;
+                if (current == null) {
+                    Map<String, byte[]> secrets = parseKeys(AppConfig.getString("auth.token.keys", ""));
+                    String active = AppConfig.getString("auth.token.activeKey", "");
+                    if (secrets.isEmpty()) {
+                        LOGGER.warning("auth.token.keys is not set; using a random key. Tokens will not "
+                                + "survive a restart or verify on other nodes.");
+                        byte[] secret = new byte[32];
+                        new SecureRandom().nextBytes(secret);
+                        secrets.put("local", secret);
+                        active = "local";
+                    } else if (active.isEmpty()) {
+                        active = secrets.keySet().iterator().next();
+                    }
+                    current = new TokenService(secrets, active,
+                            AppConfig.getLong("auth.token.ttlSeconds", 1800),
+                            AppConfig.getInt("auth.token.cacheSize", 10000),
+                            AppConfig.getInt("auth.token.maxRevoked", 100000));
+                    instance = current;
+                }
+            }
+        }
+        return current;
+    }
+
+    public String issue(User user) {
+        return issue(new AuthContext(user.getId(), user.getUsername(), user.getFullName(), user.getRole()));
+    }
+
+    // A fresh token (new id and lifetime) for the same identity
+    public String issue(AuthContext identity) {
+        long now = System.currentTimeMillis() / 1000;
+        byte[] id = new byte[12];
+        random.nextBytes(id);
+
+        Map<String, Object> claims = new LinkedHashMap<>();
+        claims.put("uid", identity.getUserId());
+        claims.put("usr", identity.getUsername());
+        claims.put("name", identity.getFullName());
+        claims.put("role", identity.getRole());
+        claims.put("iat", now);
+        claims.put("exp", now + ttlSeconds);
+        claims.put("jti", Base64.getUrlEncoder().withoutPadding().encodeToString(id));
+
+        String payload = Base64.getUrlEncoder().withoutPadding()
+                .encodeToString(gson.toJson(claims).getBytes(StandardCharsets.UTF_8));
+        String signed = activeKeyId + "." + payload;
+        return signed + "." + Base64.getUrlEncoder().withoutPadding().encodeToString(sign(activeKeyId, signed));
+    }
+
+    // The caller a token was issued to, or null if it is malformed, forged,
+    // signed with an unknown key, expired or revoked
+    public AuthContext verify(String token) {
+        if (token == null || token.isEmpty()) {
+            return null;
+        }
+        long now = System.currentTimeMillis() / 1000;
+        AuthContext context = verified.get(token);
+        if (context == null) {
+            context = parse(token);
+            if (context == null) {
+                return null;
+            }
+            verified.put(token, context);
+        }
+        if (context.getExpiresAt() <= now || revoked.containsKey(context.getTokenId())) {
+            return null;
+        }
+        return context;
+    }
+
+    // Expired revocations are dropped as later logouts come in. Past
+    // maxRevoked live ones, those expiring soonest are dropped, and those
+    // tokens verify again for the little lifetime they have left.
+    public void revoke(AuthContext context) {
+        if (context.getTokenId() == null) {
+            return;
+        }
+        long now = System.currentTimeMillis() / 1000;
+        synchronized (revocationOrder) {
+            if (revoked.put(context.getTokenId(), context.getExpiresAt()) == null) {
+                revocationOrder.add(new Revocation(context.getTokenId(), context.getExpiresAt()));
+            }
+            while (!revocationOrder.isEmpty()
+                    && (revocationOrder.peek().expiresAt <= now || revoked.size() > maxRevoked)) {
+                revoked.remove(revocationOrder.poll().tokenId);
+            }
+        }
+    }
+
+    // Reissue once half the lifetime has passed, so active users never see expiry
+    public boolean shouldRefresh(AuthContext context) {
+        return context.getTokenId() != null
+                && System.currentTimeMillis() / 1000 >= context.getIssuedAt() + ttlSeconds / 2;
+    }
+
+    public long getTtlSeconds() {
+        return ttlSeconds;
+    }
+
+    private AuthContext parse(String token) {
+        int first = token.indexOf('.');
+        int last = token.lastIndexOf('.');
+        if (first <= 0 || last <= first + 1 || last == token.length() - 1) {
+            return null;
+        }
+        String keyId = token.substring(0, first);
+        if (!keys.containsKey(keyId)) {
+            return null;
+        }
+        try {
+            byte[] signature = Base64.getUrlDecoder().decode(token.substring(last + 1));
+            if (!MessageDigest.isEqual(signature, sign(keyId, token.substring(0, last)))) {
+                return null;
+            }
+            byte[] json = Base64.getUrlDecoder().decode(token.substring(first + 1, last));
+            Claims claims = gson.fromJson(new String(json, StandardCharsets.UTF_8), Claims.class);
+            if (claims == null || claims.jti == null) {
+                return null;
+            }
+            return new AuthContext(claims.uid, claims.usr, claims.name, claims.role, claims.jti, claims.iat, claims.exp);
+        } catch (IllegalArgumentException | JsonParseException e) {
+            return null;
+        }
+    }
+
+    private byte[] sign(String keyId, String data) {
+        try {
+            // Mac isn't thread-safe; a clone of the initialised prototype is cheap
+            Mac mac = (Mac) keys.get(keyId).clone();
+            return mac.doFinal(data.getBytes(StandardCharsets.UTF_8));
+        } catch (CloneNotSupportedException e) {
+            throw new IllegalStateException(HMAC + " does not support cloning", e);
+        }
+    }
+
+    private static Mac newMac(byte[] secret) {
+        try {
+            Mac mac = Mac.getInstance(HMAC);
+            mac.init(new SecretKeySpec(secret, HMAC));
+            return mac;
+        } catch (GeneralSecurityException e) {
+            throw new IllegalStateException(HMAC + " is not available", e);
+        }
+    }
+
+    // "kid1:base64secret,kid2:base64secret"
+    private static Map<String, byte[]> parseKeys(String value) {
+        Map<String, byte[]> secrets = new LinkedHashMap<>();
+        for (String entry : value.split(",")) {
+            entry = entry.trim();
+            if (entry.isEmpty()) {
+                continue;
+            }
+            int colon = entry.indexOf(':');
+            if (colon <= 0) {
+                throw new IllegalArgumentException("auth.token.keys entries must be <id>:<base64 secret>");
+            }
+            secrets.put(entry.substring(0, colon).trim(), Base64.getDecoder().decode(entry.substring(colon + 1).trim()));
+        }
+        return secrets;
+    }
+
+    private static final class Revocation {
+        private final String tokenId;
+        private final long expiresAt;
+
+        Revocation(String tokenId, long expiresAt) {
+            this.tokenId = tokenId;
+            this.expiresAt = expiresAt;
+        }
+    }
+
+    private static final class Claims {
+        int uid;
+        String usr;
+        String name;
+        String role;
+        long iat;
+        long exp;
+        String jti;
+    }
+}
@@ -0,0 +1,179 @@
+package com.studentmanagement.service;
+
+import com.studentmanagement.dao.DAOFactory;
+import com.studentmanagement.dao.UserDAO;
+import com.studentmanagement.util.AppConfig;
+import com.studentmanagement.util.BloomFilter;
+
+import java.sql.SQLException;
+import java.text.Normalizer;
+import java.util.LinkedHashMap;
+import java.util.Locale;
+import java.util.Map;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.logging.Level;
+import java.util.logging.Logger;
+import java.util.regex.Pattern;
+
+// Bloom filter of every username and email, so registration can tell that a
+// name is definitely unused without asking the database. It is built in the
+// background at startup by streaming the users table and added to on every
+// registration made through this node. Until it is ready, and for names it
+// might contain, callers fall back to UserDAO.findConflict.
+//
+// A stale or imperfect answer never lets a duplicate in: the unique keys on
+// the users table are the real check and the insert reports a collision as
+// a conflict. Missing a name registered on another node only means the
+// client gets the same 409 after the password has been hashed.
+//
+// Names are folded (case, accents, trailing whitespace) before hashing, so
+// values the default MySQL collation treats as equal share a key.
+public class UserExistenceFilter {
+    private static final Logger LOGGER = Logger.getLogger(UserExistenceFilter.class.getName());
+    private static final boolean ENABLED = AppConfig.getBoolean("auth.registration.filter.enabled", true);
+    private static final Pattern MARKS = Pattern.compile("\\p{M}+");
+    private static final UserExistenceFilter INSTANCE = new UserExistenceFilter(DAOFactory.userDAO());
+
+    private final UserDAO userDAO;
+    private final long expectedUsers = AppConfig.getLong("auth.registration.filter.expectedUsers", 1000000);
+    private final double falsePositiveRate = AppConfig.getDouble("auth.registration.filter.falsePositiveRate", 0.01);
+    private final LongAdder absent = new LongAdder();
+    private final LongAdder maybe = new LongAdder();
+    private volatile BloomFilter filter;
+    private BloomFilter building;
+    private long users;
+    private ExecutorService builder;
+    private boolean rebuildQueued;
+
+    UserExistenceFilter(UserDAO userDAO) {
+        this.userDAO = userDAO;
+    }
+
+    public static UserExistenceFilter getInstance() {
+        return INSTANCE;
+    }
+
+    public static boolean isEnabled() {
+        return ENABLED;
+    }
+
+    public synchronized void start() {
+        if (!ENABLED || builder != null) {
+            return;
+        }
+        builder = Executors.newSingleThreadExecutor(r -> {
+            Thread thread = new Thread(r, "user-filter-builder");
+            thread.setDaemon(true);
+            return thread;
+        });
+        scheduleRebuild();
+    }
+
+    public synchronized void stop() {
+        if (builder != null) {
+            builder.shutdownNow();
+            builder = null;
+        }
+    }
+
+    // Build a filter sized for the current table and swap it in. Registrations
+    // during the stream are added to both the old and the new filter.
+    public void rebuild() throws SQLException {
+        long started = System.nanoTime();
+        long capacity = Math.max(expectedUsers, userDAO.getUserCount() * 2L);
+        // Two keys per user
+        BloomFilter fresh = new BloomFilter(capacity * 2, falsePositiveRate);
+        synchronized (this) {
+            building = fresh;
+        }
+        try {
+            long[] loaded = new long[1];
+            userDAO.streamLogins((username, email) -> {
+                addTo(fresh, username, email);
+                loaded[0]++;
+            });
+            synchronized (this) {
+                filter = fresh;
+                users = loaded[0];
+            }
+            LOGGER.info(String.format("Loaded %d users into the registration filter (%d KiB) in %d ms",
+                    loaded[0], fresh.getBitCount() / 8192,
+                    TimeUnit.NANOSECONDS.toMillis(System.nanoTime() - started)));
+        } finally {
+            synchronized (this) {
+                building = null;
+            }
+        }
+    }
+
+    // False when the username and email are definitely not taken
+    public boolean mightBeTaken(String username, String email) {
+        BloomFilter current = filter;
+        if (current == null) {
+            return true;
+        }
+        boolean taken = current.mightContain(key('u', username)) || current.mightContain(key('e', email));
+        (taken ? maybe : absent).increment();
+        return taken;
+    }
+
+    // Call after a user has been inserted
+    public synchronized void add(String username, String email) {
+        if (filter != null) {
+            addTo(filter, username, email);
+            users++;
+            // Past its sizing the false-positive rate climbs; rebuild larger in the background
+            if (users * 2 > filter.getExpectedInsertions() && building == null) {
+                scheduleRebuild();
+            }
+        }
+        if (building != null) {
+            addTo(building, username, email);
+        }
+    }
+
+    // False until the first build has finished
+    public boolean isReady() {
+        return filter != null;
+    }
+
+    public synchronized Map<String, Object> getStats() {
+        Map<String, Object> stats = new LinkedHashMap<>();
+        stats.put("ready", filter != null);
+        stats.put("users", users);
+        stats.put("bits", filter != null ? filter.getBitCount() : 0L);
+        stats.put("absent", absent.sum());
+        stats.put("maybe", maybe.sum());
+        return stats;
+    }
+
+    private synchronized void scheduleRebuild() {
+        if (builder == null || rebuildQueued) {
+            return;
+        }
+        rebuildQueued = true;
+        builder.execute(() -> {
+            synchronized (this) {
+                rebuildQueued = false;
+            }
+            try {
+                rebuild();
+            } catch (SQLException | RuntimeException e) {
+                LOGGER.log(Level.WARNING, "Could not build the registration filter", e);
+            }
+        });
+    }
+
+    private static void addTo(BloomFilter target, String username, String email) {
+        target.add(key('u', username));
+        target.add(key('e', email));
+    }
+
+    private static String key(char kind, String value) {
+        String folded = MARKS.matcher(Normalizer.normalize(value, Normalizer.Form.NFD)).replaceAll("");
+        return kind + folded.toLowerCase(Locale.ROOT).stripTrailing();
+    }
+}
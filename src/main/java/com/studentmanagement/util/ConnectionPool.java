@@ -0,0 +1,359 @@
+package com.studentmanagement.util;
+
+import java.lang.reflect.InvocationHandler;
+import java.lang.reflect.InvocationTargetException;
+import java.lang.reflect.Method;
+import java.lang.reflect.Proxy;
+import java.sql.Connection;
+import java.sql.DriverManager;
+import java.sql.SQLException;
+import java.sql.SQLTransientConnectionException;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.Executors;
+import java.util.concurrent.LinkedBlockingDeque;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.Semaphore;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.logging.Level;
+import java.util.logging.Logger;
+
+// Bounded JDBC connection pool.
+//
+// A semaphore with maxSize permits bounds the number of leased connections;
+// callers wait up to acquireTimeoutMs for a permit. Idle connections are kept
+// in a LIFO deque so the most recently used (and therefore most likely still
+// alive) connection is handed out first. Connections idle for longer than
+// validateAfterIdleMs are checked with Connection.isValid() before being
+// borrowed. A background housekeeper evicts idle and expired connections,
+// tops the pool back up to minIdle and reports leases held longer than
+// leakDetectionThresholdMs together with the stack that acquired them.
+//
+// Callers get a proxy whose close() returns the physical connection to the
+// pool, so existing try-with-resources code works unchanged.
+public class ConnectionPool implements AutoCloseable {
+    private static final Logger LOGGER = Logger.getLogger(ConnectionPool.class.getName());
+
+    private final String name;
+    private final PoolConfig config;
+    private final Semaphore permits;
+    private final LinkedBlockingDeque<PooledConnection> idle = new LinkedBlockingDeque<>();
+    private final Set<PooledConnection> leased = ConcurrentHashMap.newKeySet();
+    private final AtomicInteger totalConnections = new AtomicInteger();
+    private final AtomicInteger waiters = new AtomicInteger();
+    private final LongAdder createdCount = new LongAdder();
+    private final LongAdder destroyedCount = new LongAdder();
+    private final LongAdder timeoutCount = new LongAdder();
+    private final LatencyHistogram acquireLatency = new LatencyHistogram();
+    private final ScheduledExecutorService housekeeper;
+    private volatile boolean closed;
+
+    public ConnectionPool(String name, PoolConfig config) {
+        config.validate();
+        this.name = name;
+        this.config = config;
+        this.permits = new Semaphore(config.getMaxSize(), true);
+        this.housekeeper = Executors.newSingleThreadScheduledExecutor(r -> {
+            Thread thread = new Thread(r, "db-pool-housekeeper-" + name);
+            thread.setDaemon(true);
+            return thread;
+        });
+        housekeeper.scheduleWithFixedDelay(this::housekeep, 0,
+                config.getHousekeepingIntervalMs(), TimeUnit.MILLISECONDS);
+    }
+
+    public Connection getConnection() throws SQLException {
+        if (closed) {
+            throw new SQLException("Connection pool " + name + " is closed");
+        }
+
+        long start = System.nanoTime();
+        boolean acquired;
+        waiters.incrementAndGet();
+        try {
+            acquired = permits.tryAcquire(config.getAcquireTimeoutMs(), TimeUnit.MILLISECONDS);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new SQLException("Interrupted while waiting for a database connection", e);
+        } finally {
+            waiters.decrementAndGet();
+        }
+
+        if (!acquired) {
+            timeoutCount.increment();
+            throw new SQLTransientConnectionException("Timed out after " + config.getAcquireTimeoutMs()
+                    + "ms waiting for a connection from pool " + name
+                    + " (active=" + getActiveCount() + ", idle=" + getIdleCount()
+                    + ", max=" + config.getMaxSize() + ")");
+        }
+
+        try {
+            PooledConnection pooled = borrow();
+            pooled.leasedAt = System.currentTimeMillis();
+            pooled.leaseSite = config.getLeakDetectionThresholdMs() > 0
+                    ? new Throwable("Connection acquired here") : null;
+            pooled.leakReported = false;
+            leased.add(pooled);
+            acquireLatency.record(System.nanoTime() - start);
+            return pooled.newHandle();
+        } catch (SQLException | RuntimeException e) {
+            permits.release();
+            throw e;
+        }
+    }
+
+    private PooledConnection borrow() throws SQLException {
+        while (true) {
+            PooledConnection pooled = idle.pollFirst();
+            if (pooled == null) {
+                totalConnections.incrementAndGet();
+                return createConnection();
+            }
+
+            long now = System.currentTimeMillis();
+            if (isExpired(pooled, now)) {
+                destroy(pooled);
+                continue;
+            }
+            if (now - pooled.lastReturnedAt > config.getValidateAfterIdleMs() && !isValid(pooled)) {
+                destroy(pooled);
+                continue;
+            }
+            return pooled;
+        }
+    }
+
+    // Caller must already have reserved a slot in totalConnections
+    private PooledConnection createConnection() throws SQLException {
+        try {
+            Connection connection = DriverManager.getConnection(
+                    config.getUrl(), config.getUsername(), config.getPassword());
+            createdCount.increment();
+            return new PooledConnection(connection);
+        } catch (SQLException | RuntimeException e) {
+            totalConnections.decrementAndGet();
+            throw e;
+        }
+    }
+
+    private boolean isValid(PooledConnection pooled) {
+        try {
+            int timeoutSeconds = (int) Math.max(1, TimeUnit.MILLISECONDS.toSeconds(config.getValidationTimeoutMs()));
+            return pooled.connection.isValid(timeoutSeconds);
+        } catch (SQLException e) {
+            return false;
+        }
+    }
+
+    private boolean isExpired(PooledConnection pooled, long now) {
+        return config.getMaxLifetimeMs() > 0 && now - pooled.createdAt > config.getMaxLifetimeMs();
+    }
+
+    private void release(PooledConnection pooled) {
+        try {
+            leased.remove(pooled);
+            pooled.lastReturnedAt = System.currentTimeMillis();
+
+            if (closed || pooled.broken || isExpired(pooled, pooled.lastReturnedAt)
+                    || totalConnections.get() > config.getMaxSize() || !resetState(pooled)) {
+                destroy(pooled);
+            } else {
+                idle.offerFirst(pooled);
+            }
+        } finally {
+            permits.release();
+        }
+    }
+
+    // Undo any session state a caller changed so the next borrower gets a clean connection
+    private boolean resetState(PooledConnection pooled) {
+        if (!pooled.dirty) {
+            return true;
+        }
+        try {
+            Connection connection = pooled.connection;
+            if (connection.isClosed()) {
+                return false;
+            }
+            if (!connection.getAutoCommit()) {
+                connection.rollback();
+                connection.setAutoCommit(true);
+            }
+            if (connection.isReadOnly()) {
+                connection.setReadOnly(false);
+            }
+            if (connection.getTransactionIsolation() != pooled.defaultIsolation) {
+                connection.setTransactionIsolation(pooled.defaultIsolation);
+            }
+            pooled.dirty = false;
+            return true;
+        } catch (SQLException e) {
+            return false;
+        }
+    }
+
+    private void destroy(PooledConnection pooled) {
+        totalConnections.decrementAndGet();
+        destroyedCount.increment();
+        try {
+            pooled.connection.close();
+        } catch (SQLException e) {
+            LOGGER.log(Level.FINE, "Error closing pooled connection", e);
+        }
+    }
+
+    private void housekeep() {
+        try {
+            long now = System.currentTimeMillis();
+
+            // Evict idle connections above minIdle and anything past its lifetime
+            for (PooledConnection pooled : idle) {
+                boolean idleTooLong = now - pooled.lastReturnedAt > config.getIdleTimeoutMs()
+                        && totalConnections.get() > config.getMinIdle();
+                if ((idleTooLong || isExpired(pooled, now)) && idle.remove(pooled)) {
+                    destroy(pooled);
+                }
+            }
+
+            // Report connections that have been held for too long
+            long leakThreshold = config.getLeakDetectionThresholdMs();
+            if (leakThreshold > 0) {
+                for (PooledConnection pooled : leased) {
+                    if (!pooled.leakReported && now - pooled.leasedAt > leakThreshold) {
+                        pooled.leakReported = true;
+                        LOGGER.log(Level.WARNING, "Possible connection leak in pool " + name
+                                + ": connection held for " + (now - pooled.leasedAt) + "ms", pooled.leaseSite);
+                    }
+                }
+            }
+
+            // Top up to minIdle
+            while (!closed && idle.size() < config.getMinIdle() && reserveSlot()) {
+                idle.offerLast(createConnection());
+            }
+        } catch (SQLException e) {
+            LOGGER.log(Level.WARNING, "Could not create connection for pool " + name, e);
+        } catch (RuntimeException e) {
+            LOGGER.log(Level.WARNING, "Housekeeping failed for pool " + name, e);
+        }
+    }
+
+    private boolean reserveSlot() {
+        while (true) {
+            int current = totalConnections.get();
+            if (current >= config.getMaxSize()) {
+                return false;
+            }
+            if (totalConnections.compareAndSet(current, current + 1)) {
+                return true;
+            }
+        }
+    }
+
+    @Override
+    public void close() {
+        closed = true;
+        housekeeper.shutdownNow();
+        PooledConnection pooled;
+        while ((pooled = idle.pollFirst()) != null) {
+            destroy(pooled);
+        }
+    }
+
+    public String getName() { return name; }
+
+    public PoolConfig getConfig() { return config; }
+
+    public int getActiveCount() { return leased.size(); }
+
+    public int getIdleCount() { return idle.size(); }
+
+    public int getTotalCount() { return totalConnections.get(); }
+
+    public int getWaiterCount() { return waiters.get(); }
+
+    public PoolMetrics getMetrics() {
+        return new PoolMetrics(name, getTotalCount(), getActiveCount(), getIdleCount(), getWaiterCount(),
+                config.getMaxSize(), createdCount.sum(), destroyedCount.sum(), timeoutCount.sum(), acquireLatency);
+    }
+
+    private final class PooledConnection {
+        private final Connection connection;
+        private final long createdAt = System.currentTimeMillis();
+        private final int defaultIsolation;
+        private volatile long lastReturnedAt = createdAt;
+        private volatile long leasedAt;
+        private volatile Throwable leaseSite;
+        private volatile boolean leakReported;
+        private volatile boolean dirty;
+        private volatile boolean broken;
+
+        PooledConnection(Connection connection) throws SQLException {
+            this.connection = connection;
+            this.defaultIsolation = connection.getTransactionIsolation();
+        }
+
+        Connection newHandle() {
+            return (Connection) Proxy.newProxyInstance(Connection.class.getClassLoader(),
+                    new Class<?>[]{Connection.class}, new Handle(this));
+        }
+    }
+
+    // One handle per lease, so closing a stale handle twice can never return
+    // a connection that has since been handed to another caller.
+    private final class Handle implements InvocationHandler {
+        private final PooledConnection pooled;
+        private final AtomicBoolean handleClosed = new AtomicBoolean();
+
+        Handle(PooledConnection pooled) {
+            this.pooled = pooled;
+        }
+
+        @Override
+        public Object invoke(Object proxy, Method method, Object[] args) throws Throwable {
+            switch (method.getName()) {
+                case "close":
+                    if (handleClosed.compareAndSet(false, true)) {
+                        release(pooled);
+                    }
+                    return null;
+                case "isClosed":
+                    return handleClosed.get() || pooled.connection.isClosed();
+                case "equals":
+                    return proxy == args[0];
+                case "hashCode":
+                    return System.identityHashCode(proxy);
+                case "toString":
+                    return "PooledConnection[" + name + "]@" + Integer.toHexString(System.identityHashCode(proxy));
+                case "setAutoCommit":
+                case "setReadOnly":
+                case "setTransactionIsolation":
+                    pooled.dirty = true;
+                    break;
+                default:
+                    break;
+            }
+
+            if (handleClosed.get()) {
+                throw new SQLException("Connection is closed");
+            }
+
+            try {
+                return method.invoke(pooled.connection, args);
+            } catch (InvocationTargetException e) {
+                Throwable cause = e.getCause();
+                if (cause instanceof SQLException) {
+                    String state = ((SQLException) cause).getSQLState();
+                    // SQLState class 08 means the connection itself is unusable
+                    if (state != null && state.startsWith("08")) {
+                        pooled.broken = true;
+                    }
+                }
+                throw cause;
+            }
+        }
+    }
+}
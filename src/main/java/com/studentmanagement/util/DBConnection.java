@@ -1,22 +1,141 @@
 package com.studentmanagement.util;
 
 import java.sql.*;
+import java.util.Collections;
+import java.util.List;
+import java.util.Map;
 
 public class DBConnection {
-    private static final String URL = "jdbc:mysql://localhost:3306/student_management?useSSL=false&serverTimezone=UTC";
-    private static final String USERNAME = "root";
-    private static final String PASSWORD = "ambrish@7892"; // Change this to your MySQL password
+    // Connection settings come from application.properties (db.*) and can be
+    // overridden with system properties, e.g. -Ddb.url=jdbc:h2:mem:bench
+    private static final String DRIVER = AppConfig.getString("db.driver", "com.mysql.cj.jdbc.Driver");
+    private static final boolean POOL_ENABLED = AppConfig.getBoolean("db.pool.enabled", true);
+
+    private static volatile ConnectionPool pool;
+    private static volatile ReplicaRouter replicas;
+    private static volatile boolean replicasResolved;
+    // Set for the duration of a request that must read its own writes
+    private static final ThreadLocal<Boolean> PRIMARY_READS = new ThreadLocal<>();
 
     static {
         try {
-            Class.forName("com.mysql.cj.jdbc.Driver");
+            Class.forName(DRIVER);
         } catch (ClassNotFoundException e) {
             e.printStackTrace();
         }
     }
 
     public static Connection getConnection() throws SQLException {
-        return DriverManager.getConnection(URL, USERNAME, PASSWORD);
+        if (!POOL_ENABLED) {
+            PoolConfig config = PoolConfig.fromConfig("db");
+            return DriverManager.getConnection(config.getUrl(), config.getUsername(), config.getPassword());
+        }
+        return getPool().getConnection();
+    }
+
+    // For reads that may be a little stale: a connection to a healthy read
+    // replica when db.replicas is set, otherwise (or when pinned with
+    // setPrimaryReads) one from the primary. Never use it for a read that
+    // feeds a write.
+    public static Connection getReadConnection() throws SQLException {
+        ReplicaRouter router = getReplicas();
+        if (router == null) {
+            return getConnection();
+        }
+        if (Boolean.TRUE.equals(PRIMARY_READS.get())) {
+            router.countPrimaryRead();
+            return getConnection();
+        }
+        Connection conn = router.getConnection();
+        return conn != null ? conn : getConnection();
+    }
+
+    // Pins (or unpins) this thread's getReadConnection() calls to the primary.
+    // Returns the previous setting so callers can restore it.
+    public static boolean setPrimaryReads(boolean primary) {
+        boolean previous = Boolean.TRUE.equals(PRIMARY_READS.get());
+        if (primary) {
+            PRIMARY_READS.set(Boolean.TRUE);
+        } else {
+            PRIMARY_READS.remove();
+        }
+        return previous;
+    }
+
+    // Notes that this caller just wrote, so their reads stay on the primary
+    // until replicas have caught up
+    public static void recordWrite(int userId) {
+        ReplicaRouter router = getReplicas();
+        if (router != null) {
+            router.recordWrite(userId);
+        }
+    }
+
+    public static boolean hasRecentWrite(int userId) {
+        ReplicaRouter router = getReplicas();
+        return router != null && router.hasRecentWrite(userId);
+    }
+
+    // Whether a replica might not show a change committed at changedAt yet
+    public static boolean replicasMayLag(long changedAt) {
+        ReplicaRouter router = getReplicas();
+        return router != null && router.mayLag(changedAt);
+    }
+
+    private static ReplicaRouter getReplicas() {
+        if (!replicasResolved) {
+            synchronized (DBConnection.class) {
+                if (!replicasResolved) {
+                    // Without pooling there is no primary pool to fall back on either
+                    replicas = POOL_ENABLED ? ReplicaRouter.fromConfig(PoolConfig.fromConfig("db")) : null;
+                    replicasResolved = true;
+                }
+            }
+        }
+        return replicas;
+    }
+
+    private static ConnectionPool getPool() {
+        ConnectionPool current = pool;
+        if (current == null) {
+            synchronized (DBConnection.class) {
+                current = pool;
+                if (current == null) {
+                    current = new ConnectionPool("primary", PoolConfig.fromConfig("db"));
+                    pool = current;
+                }
+            }
+        }
+        return current;
+    }
+
+    // Pool gauges and acquire latency; null when pooling is disabled
+    public static PoolMetrics getPoolMetrics() {
+        ConnectionPool current = pool;
+        return current != null ? current.getMetrics() : null;
+    }
+
+    public static List<PoolMetrics> getReplicaPoolMetrics() {
+        ReplicaRouter router = replicas;
+        return router != null ? router.getPoolMetrics() : Collections.emptyList();
+    }
+
+    // Health and lag of each replica and where reads went; null without replicas
+    public static Map<String, Object> getReplicaStats() {
+        ReplicaRouter router = replicas;
+        return router != null ? router.getStats() : null;
+    }
+
+    public static synchronized void shutdown() {
+        if (pool != null) {
+            pool.close();
+            pool = null;
+        }
+        if (replicas != null) {
+            replicas.close();
+            replicas = null;
+        }
+        replicasResolved = false;
     }
 
     public static void closeConnection(Connection conn, Statement stmt, ResultSet rs) {
@@ -32,4 +151,4 @@ public class DBConnection {
     public static void closeConnection(Connection conn, Statement stmt) {
         closeConnection(conn, stmt, null);
     }
-}
\ No newline at end of file
+}
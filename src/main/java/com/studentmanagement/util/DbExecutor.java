@@ -0,0 +1,191 @@
+package com.studentmanagement.util;
+
+import java.lang.reflect.Method;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.ScheduledFuture;
+import java.util.concurrent.Semaphore;
+import java.util.concurrent.ThreadFactory;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.logging.Level;
+import java.util.logging.Logger;
+
+// Runs blocking database work off the container's request threads.
+//
+// At most `threads` tasks run at once and up to `queueSize` more wait for a
+// slot. Anything beyond that is refused straight away with a
+// RejectedExecutionException, so callers can shed load instead of piling up
+// behind a stalled database. On runtimes with virtual threads every task gets
+// its own virtual thread and a semaphore enforces the same limits; otherwise a
+// fixed pool of platform threads is used. A single timer thread serves
+// per-request deadlines.
+public final class DbExecutor {
+    private static final Logger LOGGER = Logger.getLogger(DbExecutor.class.getName());
+    private static volatile DbExecutor instance;
+
+    private final int threads;
+    private final int queueSize;
+    private final boolean virtual;
+    private final ExecutorService executor;
+    private final ScheduledExecutorService timer;
+    // Permits for running plus queued tasks; exhausting them means shedding
+    private final Semaphore admission;
+    // Only used with virtual threads, where nothing else caps concurrency
+    private final Semaphore concurrency;
+    private final AtomicInteger running = new AtomicInteger();
+    private final LongAdder completed = new LongAdder();
+    private final LongAdder rejected = new LongAdder();
+    private volatile boolean closed;
+
+    DbExecutor(int threads, int queueSize, boolean preferVirtual) {
+        if (threads < 1 || queueSize < 0) {
+            throw new IllegalArgumentException("threads must be at least 1 and queueSize at least 0");
+        }
+        this.threads = threads;
+        this.queueSize = queueSize;
+        this.admission = new Semaphore(threads + queueSize);
+
+        ExecutorService virtualExecutor = preferVirtual ? newVirtualThreadExecutor() : null;
+        this.virtual = virtualExecutor != null;
+        if (virtual) {
+            this.executor = virtualExecutor;
+            this.concurrency = new Semaphore(threads, true);
+        } else {
+            // The admission semaphore already bounds the queue
+            this.executor = Executors.newFixedThreadPool(threads, daemonThreads("db-executor-"));
+            this.concurrency = null;
+        }
+        this.timer = Executors.newSingleThreadScheduledExecutor(daemonThreads("db-executor-timer-"));
+    }
+
+    public static DbExecutor getInstance() {
+        DbExecutor current = instance;
+        if (current == null) {
+            synchronized (DbExecutor.class) {
+                current = instance;
+                if (current == null) {
+                    current = new DbExecutor(
+                            AppConfig.getInt("db.executor.threads", AppConfig.getInt("db.pool.maxSize", 10)),
+                            AppConfig.getInt("db.executor.queueSize", 100),
+                            AppConfig.getBoolean("db.executor.virtualThreads", true));
+                    instance = current;
+                }
+            }
+        }
+        return current;
+    }
+
+    public static synchronized void shutdown() {
+        if (instance != null) {
+            instance.close();
+            instance = null;
+        }
+    }
+
+    // Throws RejectedExecutionException when all threads are busy and the queue is full
+    public void execute(Runnable task) {
+        if (closed || !admission.tryAcquire()) {
+            rejected.increment();
+            throw new RejectedExecutionException("Database executor is saturated");
+        }
+        try {
+            executor.execute(() -> runAdmitted(task));
+        } catch (RejectedExecutionException e) {
+            admission.release();
+            rejected.increment();
+            throw e;
+        }
+    }
+
+    private void runAdmitted(Runnable task) {
+        try {
+            if (concurrency != null) {
+                concurrency.acquireUninterruptibly();
+            }
+            running.incrementAndGet();
+            try {
+                task.run();
+            } catch (RuntimeException | Error e) {
+                LOGGER.log(Level.WARNING, "Database task failed", e);
+            } finally {
+                running.decrementAndGet();
+                completed.increment();
+                if (concurrency != null) {
+                    concurrency.release();
+                }
+            }
+        } finally {
+            admission.release();
+        }
+    }
+
+    public ScheduledFuture<?> schedule(Runnable action, long delayMs) {
+        return timer.schedule(action, delayMs, TimeUnit.MILLISECONDS);
+    }
+
+    public boolean isVirtual() {
+        return virtual;
+    }
+
+    public int getThreads() {
+        return threads;
+    }
+
+    public int getQueueSize() {
+        return queueSize;
+    }
+
+    public int getRunning() {
+        return running.get();
+    }
+
+    public int getQueued() {
+        return Math.max(0, threads + queueSize - admission.availablePermits() - running.get());
+    }
+
+    public long getCompleted() {
+        return completed.sum();
+    }
+
+    public long getRejected() {
+        return rejected.sum();
+    }
+
+    private void close() {
+        closed = true;
+        timer.shutdownNow();
+        executor.shutdown();
+        try {
+            if (!executor.awaitTermination(10, TimeUnit.SECONDS)) {
+                executor.shutdownNow();
+            }
+        } catch (InterruptedException e) {
+            executor.shutdownNow();
+            Thread.currentThread().interrupt();
+        }
+    }
+
+    // Executors.newVirtualThreadPerTaskExecutor() exists from Java 21; the
+    // application is compiled for 11, so look it up reflectively
+    private static ExecutorService newVirtualThreadExecutor() {
+        try {
+            Method factory = Executors.class.getMethod("newVirtualThreadPerTaskExecutor");
+            return (ExecutorService) factory.invoke(null);
+        } catch (ReflectiveOperationException e) {
+            return null;
+        }
+    }
+
+    private static ThreadFactory daemonThreads(String prefix) {
+        AtomicInteger sequence = new AtomicInteger();
+        return r -> {
+            Thread thread = new Thread(r, prefix + sequence.incrementAndGet());
+            thread.setDaemon(true);
+            return thread;
+        };
+    }
+}
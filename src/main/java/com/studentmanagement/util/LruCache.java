@@ -0,0 +1,166 @@
+package com.studentmanagement.util;
+
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.concurrent.atomic.LongAdder;
+
+// Bounded in-process cache with per-entry TTL. Keys are spread over
+// independently locked segments, each an access-ordered LinkedHashMap that
+// evicts its least recently used entry once the segment is full, so readers
+// of different keys rarely contend on the same lock.
+//
+// getOrLoad() is read-through and safe against a load racing an invalidation:
+// a value loaded before invalidate() ran for its segment is not cached.
+public class LruCache<K, V> {
+
+    @FunctionalInterface
+    public interface Loader<V> {
+        V load() throws Exception;
+    }
+
+    private final Segment<K, V>[] segments;
+    private final long ttlNanos;
+    private final LongAdder hits = new LongAdder();
+    private final LongAdder misses = new LongAdder();
+    private final LongAdder loads = new LongAdder();
+    private final LongAdder evictions = new LongAdder();
+    private final LongAdder expirations = new LongAdder();
+    private final LongAdder invalidations = new LongAdder();
+
+    public LruCache(int maxSize, long ttlMillis, int segmentCount) {
+        if (maxSize < 1 || segmentCount < 1) {
+            throw new IllegalArgumentException("maxSize and segmentCount must be positive");
+        }
+        int count = Math.min(segmentCount, maxSize);
+        @SuppressWarnings({"unchecked", "rawtypes"})
+        Segment<K, V>[] segments = new Segment[count];
+        this.segments = segments;
+        int perSegment = (maxSize + count - 1) / count;
+        for (int i = 0; i < count; i++) {
+            segments[i] = new Segment<>(perSegment);
+        }
+        this.ttlNanos = ttlMillis > 0 ? ttlMillis * 1_000_000L : Long.MAX_VALUE;
+    }
+
+    public V get(K key) {
+        Segment<K, V> segment = segmentFor(key);
+        synchronized (segment) {
+            Entry<V> entry = segment.map.get(key);
+            if (entry != null) {
+                if (System.nanoTime() - entry.createdAt < ttlNanos) {
+                    hits.increment();
+                    return entry.value;
+                }
+                segment.map.remove(key);
+                expirations.increment();
+            }
+        }
+        misses.increment();
+        return null;
+    }
+
+    public V getOrLoad(K key, Loader<V> loader) throws Exception {
+        V cached = get(key);
+        if (cached != null) {
+            return cached;
+        }
+
+        Segment<K, V> segment = segmentFor(key);
+        long stamp;
+        synchronized (segment) {
+            stamp = segment.invalidationStamp;
+        }
+
+        V loaded = loader.load();
+        loads.increment();
+        if (loaded != null) {
+            synchronized (segment) {
+                if (segment.invalidationStamp == stamp) {
+                    put(segment, key, loaded);
+                }
+            }
+        }
+        return loaded;
+    }
+
+    public void put(K key, V value) {
+        Segment<K, V> segment = segmentFor(key);
+        synchronized (segment) {
+            put(segment, key, value);
+        }
+    }
+
+    private void put(Segment<K, V> segment, K key, V value) {
+        segment.map.put(key, new Entry<>(value, System.nanoTime()));
+        if (segment.map.size() > segment.capacity) {
+            Map.Entry<K, Entry<V>> eldest = segment.map.entrySet().iterator().next();
+            segment.map.remove(eldest.getKey());
+            evictions.increment();
+        }
+    }
+
+    public void invalidate(K key) {
+        Segment<K, V> segment = segmentFor(key);
+        synchronized (segment) {
+            segment.invalidationStamp++;
+            if (segment.map.remove(key) != null) {
+                invalidations.increment();
+            }
+        }
+    }
+
+    public void invalidateAll() {
+        for (Segment<K, V> segment : segments) {
+            synchronized (segment) {
+                segment.invalidationStamp++;
+                invalidations.add(segment.map.size());
+                segment.map.clear();
+            }
+        }
+    }
+
+    public int size() {
+        int size = 0;
+        for (Segment<K, V> segment : segments) {
+            synchronized (segment) {
+                size += segment.map.size();
+            }
+        }
+        return size;
+    }
+
+    private Segment<K, V> segmentFor(K key) {
+        int hash = key.hashCode();
+        hash ^= (hash >>> 16);
+        return segments[Math.floorMod(hash, segments.length)];
+    }
+
+    // Getters for cache statistics
+    public long getHitCount() { return hits.sum(); }
+    public long getMissCount() { return misses.sum(); }
+    public long getLoadCount() { return loads.sum(); }
+    public long getEvictionCount() { return evictions.sum(); }
+    public long getExpirationCount() { return expirations.sum(); }
+    public long getInvalidationCount() { return invalidations.sum(); }
+
+    private static final class Segment<K, V> {
+        private final int capacity;
+        private final LinkedHashMap<K, Entry<V>> map;
+        private long invalidationStamp;
+
+        Segment(int capacity) {
+            this.capacity = capacity;
+            this.map = new LinkedHashMap<>(Math.min(capacity, 1024), 0.75f, true);
+        }
+    }
+
+    private static final class Entry<V> {
+        private final V value;
+        private final long createdAt;
+
+        Entry(V value, long createdAt) {
+            this.value = value;
+            this.createdAt = createdAt;
+        }
+    }
+}
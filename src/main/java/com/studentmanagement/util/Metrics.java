@@ -0,0 +1,144 @@
+package com.studentmanagement.util;
+
+import java.io.IOException;
+import java.io.Writer;
+import java.util.Map;
+import java.util.TreeMap;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicLongArray;
+import java.util.concurrent.atomic.LongAdder;
+
+// Process-wide request and SQL metrics, rendered in Prometheus text format.
+// Once a route or statement has been seen, recording is a map lookup plus a
+// few atomic increments: no locks and no allocation. The number of distinct
+// routes and statements is capped so unexpected paths can't grow it forever.
+public final class Metrics {
+    private static final int MAX_SERIES = AppConfig.getInt("metrics.maxSeries", 500);
+    private static final String OVERFLOW = "other";
+
+    // Prometheus histogram buckets ("le"), in seconds
+    private static final double[] BUCKETS_SECONDS = {
+            0.0005, 0.001, 0.0025, 0.005, 0.01, 0.025, 0.05, 0.1, 0.25, 0.5, 1, 2.5, 5, 10
+    };
+
+    private static final ConcurrentHashMap<String, RouteStats> ROUTES = new ConcurrentHashMap<>();
+    private static final ConcurrentHashMap<String, QueryStats> QUERIES = new ConcurrentHashMap<>();
+
+    private Metrics() {}
+
+    // route is "METHOD /path" with ids already replaced by a placeholder
+    public static void recordRequest(String route, int status, long nanos) {
+        RouteStats stats = ROUTES.get(route);
+        if (stats == null) {
+            stats = ROUTES.computeIfAbsent(ROUTES.size() < MAX_SERIES ? route : OVERFLOW, k -> new RouteStats());
+        }
+        stats.latency.record(nanos);
+        if (status >= 100 && status < 600) {
+            stats.statuses.incrementAndGet(status);
+        }
+    }
+
+    public static void recordQuery(String statement, long startNanos, long rows) {
+        QueryStats stats = queryStats(statement);
+        stats.latency.record(System.nanoTime() - startNanos);
+        stats.rows.add(rows);
+    }
+
+    public static void recordQueryError(String statement) {
+        queryStats(statement).errors.increment();
+    }
+
+    private static QueryStats queryStats(String statement) {
+        QueryStats stats = QUERIES.get(statement);
+        if (stats == null) {
+            stats = QUERIES.computeIfAbsent(QUERIES.size() < MAX_SERIES ? statement : OVERFLOW, k -> new QueryStats());
+        }
+        return stats;
+    }
+
+    public static void writePrometheus(Writer out) throws IOException {
+        Map<String, RouteStats> routes = new TreeMap<>(ROUTES);
+        out.write("# HELP http_requests_total HTTP requests by route and status.\n");
+        out.write("# TYPE http_requests_total counter\n");
+        for (Map.Entry<String, RouteStats> entry : routes.entrySet()) {
+            String labels = routeLabels(entry.getKey());
+            AtomicLongArray statuses = entry.getValue().statuses;
+            for (int status = 100; status < 600; status++) {
+                long count = statuses.get(status);
+                if (count > 0) {
+                    out.write("http_requests_total{" + labels + ",status=\"" + status + "\"} " + count + "\n");
+                }
+            }
+        }
+        out.write("# HELP http_request_duration_seconds HTTP request latency by route.\n");
+        out.write("# TYPE http_request_duration_seconds histogram\n");
+        for (Map.Entry<String, RouteStats> entry : routes.entrySet()) {
+            writeHistogram(out, "http_request_duration_seconds", routeLabels(entry.getKey()), entry.getValue().latency);
+        }
+
+        Map<String, QueryStats> queries = new TreeMap<>(QUERIES);
+        out.write("# HELP sql_query_duration_seconds SQL statement time by statement, from connection checkout (when the call opens its own) through reading the rows.\n");
+        out.write("# TYPE sql_query_duration_seconds histogram\n");
+        for (Map.Entry<String, QueryStats> entry : queries.entrySet()) {
+            writeHistogram(out, "sql_query_duration_seconds", label("statement", entry.getKey()), entry.getValue().latency);
+        }
+        out.write("# HELP sql_rows_total Rows returned or affected by statement.\n");
+        out.write("# TYPE sql_rows_total counter\n");
+        for (Map.Entry<String, QueryStats> entry : queries.entrySet()) {
+            out.write("sql_rows_total{" + label("statement", entry.getKey()) + "} " + entry.getValue().rows.sum() + "\n");
+        }
+        out.write("# HELP sql_errors_total Failed executions by statement.\n");
+        out.write("# TYPE sql_errors_total counter\n");
+        for (Map.Entry<String, QueryStats> entry : queries.entrySet()) {
+            out.write("sql_errors_total{" + label("statement", entry.getKey()) + "} " + entry.getValue().errors.sum() + "\n");
+        }
+    }
+
+    // Cumulative buckets, sum and count of a nanosecond histogram, in seconds
+    public static void writeHistogram(Writer out, String name, String labels, LatencyHistogram histogram)
+            throws IOException {
+        String prefix = labels.isEmpty() ? "" : labels + ",";
+        for (double bound : BUCKETS_SECONDS) {
+            long count = histogram.getCountAtOrBelow((long) (bound * 1_000_000_000L));
+            out.write(name + "_bucket{" + prefix + "le=\"" + bound + "\"} " + count + "\n");
+        }
+        long total = histogram.getCount();
+        out.write(name + "_bucket{" + prefix + "le=\"+Inf\"} " + total + "\n");
+        out.write(name + "_sum{" + labels + "} " + histogram.getSum() / 1e9 + "\n");
+        out.write(name + "_count{" + labels + "} " + total + "\n");
+    }
+
+    public static String label(String name, String value) {
+        StringBuilder escaped = new StringBuilder(name).append("=\"");
+        for (int i = 0; i < value.length(); i++) {
+            char c = value.charAt(i);
+            if (c == '\\' || c == '"') {
+                escaped.append('\\').append(c);
+            } else if (c == '\n') {
+                escaped.append("\\n");
+            } else {
+                escaped.append(c);
+            }
+        }
+        return escaped.append('"').toString();
+    }
+
+    private static String routeLabels(String route) {
+        int space = route.indexOf(' ');
+        if (space < 0) {
+            return label("method", "") + "," + label("route", route);
+        }
+        return label("method", route.substring(0, space)) + "," + label("route", route.substring(space + 1));
+    }
+
+    private static final class RouteStats {
+        private final LatencyHistogram latency = new LatencyHistogram();
+        private final AtomicLongArray statuses = new AtomicLongArray(600);
+    }
+
+    private static final class QueryStats {
+        private final LatencyHistogram latency = new LatencyHistogram();
+        private final LongAdder rows = new LongAdder();
+        private final LongAdder errors = new LongAdder();
+    }
+}
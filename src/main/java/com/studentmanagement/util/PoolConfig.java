@@ -0,0 +1,92 @@
+package com.studentmanagement.util;
+
+// Settings for a ConnectionPool. fromConfig() reads the "db.*" keys from
+// application.properties; every value can be overridden with a system property.
+public class PoolConfig {
+    private String url;
+    private String username;
+    private String password;
+    private int minIdle = 2;
+    private int maxSize = 10;
+    private long acquireTimeoutMs = 5000;
+    private long validationTimeoutMs = 2000;
+    private long validateAfterIdleMs = 500;
+    private long idleTimeoutMs = 10 * 60 * 1000;
+    private long maxLifetimeMs = 30 * 60 * 1000;
+    private long leakDetectionThresholdMs = 0;
+    private long housekeepingIntervalMs = 30 * 1000;
+
+    public PoolConfig() {}
+
+    public PoolConfig(String url, String username, String password) {
+        this.url = url;
+        this.username = username;
+        this.password = password;
+    }
+
+    public static PoolConfig fromConfig(String prefix) {
+        PoolConfig config = new PoolConfig(
+                AppConfig.getString(prefix + ".url", null),
+                AppConfig.getString(prefix + ".username", null),
+                AppConfig.getString(prefix + ".password", null));
+        config.setMinIdle(AppConfig.getInt(prefix + ".pool.minIdle", config.getMinIdle()));
+        config.setMaxSize(AppConfig.getInt(prefix + ".pool.maxSize", config.getMaxSize()));
+        config.setAcquireTimeoutMs(AppConfig.getLong(prefix + ".pool.acquireTimeoutMs", config.getAcquireTimeoutMs()));
+        config.setValidationTimeoutMs(AppConfig.getLong(prefix + ".pool.validationTimeoutMs", config.getValidationTimeoutMs()));
+        config.setValidateAfterIdleMs(AppConfig.getLong(prefix + ".pool.validateAfterIdleMs", config.getValidateAfterIdleMs()));
+        config.setIdleTimeoutMs(AppConfig.getLong(prefix + ".pool.idleTimeoutMs", config.getIdleTimeoutMs()));
+        config.setMaxLifetimeMs(AppConfig.getLong(prefix + ".pool.maxLifetimeMs", config.getMaxLifetimeMs()));
+        config.setLeakDetectionThresholdMs(AppConfig.getLong(prefix + ".pool.leakDetectionThresholdMs", config.getLeakDetectionThresholdMs()));
+        config.setHousekeepingIntervalMs(AppConfig.getLong(prefix + ".pool.housekeepingIntervalMs", config.getHousekeepingIntervalMs()));
+        return config;
+    }
+
+    public void validate() {
+        if (url == null || url.isEmpty()) {
+            throw new IllegalArgumentException("JDBC url is required");
+        }
+        if (maxSize < 1) {
+            throw new IllegalArgumentException("maxSize must be at least 1");
+        }
+        if (minIdle < 0 || minIdle > maxSize) {
+            throw new IllegalArgumentException("minIdle must be between 0 and maxSize");
+        }
+    }
+
+    // Getters and Setters
+    public String getUrl() { return url; }
+    public void setUrl(String url) { this.url = url; }
+
+    public String getUsername() { return username; }
+    public void setUsername(String username) { this.username = username; }
+
+    public String getPassword() { return password; }
+    public void setPassword(String password) { this.password = password; }
+
+    public int getMinIdle() { return minIdle; }
+    public void setMinIdle(int minIdle) { this.minIdle = minIdle; }
+
+    public int getMaxSize() { return maxSize; }
+    public void setMaxSize(int maxSize) { this.maxSize = maxSize; }
+
+    public long getAcquireTimeoutMs() { return acquireTimeoutMs; }
+    public void setAcquireTimeoutMs(long acquireTimeoutMs) { this.acquireTimeoutMs = acquireTimeoutMs; }
+
+    public long getValidationTimeoutMs() { return validationTimeoutMs; }
+    public void setValidationTimeoutMs(long validationTimeoutMs) { this.validationTimeoutMs = validationTimeoutMs; }
+
+    public long getValidateAfterIdleMs() { return validateAfterIdleMs; }
+    public void setValidateAfterIdleMs(long validateAfterIdleMs) { this.validateAfterIdleMs = validateAfterIdleMs; }
+
+    public long getIdleTimeoutMs() { return idleTimeoutMs; }
+    public void setIdleTimeoutMs(long idleTimeoutMs) { this.idleTimeoutMs = idleTimeoutMs; }
+
+    public long getMaxLifetimeMs() { return maxLifetimeMs; }
+    public void setMaxLifetimeMs(long maxLifetimeMs) { this.maxLifetimeMs = maxLifetimeMs; }
+
+    public long getLeakDetectionThresholdMs() { return leakDetectionThresholdMs; }
+    public void setLeakDetectionThresholdMs(long leakDetectionThresholdMs) { this.leakDetectionThresholdMs = leakDetectionThresholdMs; }
+
+    public long getHousekeepingIntervalMs() { return housekeepingIntervalMs; }
+    public void setHousekeepingIntervalMs(long housekeepingIntervalMs) { this.housekeepingIntervalMs = housekeepingIntervalMs; }
+}
@@ -0,0 +1,63 @@
+package com.studentmanagement.util;
+
+import java.util.LinkedHashMap;
+import java.util.Map;
+
+// Point-in-time view of a ConnectionPool's gauges and counters
+public class PoolMetrics {
+    private final String poolName;
+    private final int total;
+    private final int active;
+    private final int idle;
+    private final int waiters;
+    private final int maxSize;
+    private final long created;
+    private final long destroyed;
+    private final long timeouts;
+    private final LatencyHistogram acquireLatency;
+
+    public PoolMetrics(String poolName, int total, int active, int idle, int waiters, int maxSize,
+                       long created, long destroyed, long timeouts, LatencyHistogram acquireLatency) {
+        this.poolName = poolName;
+        this.total = total;
+        this.active = active;
+        this.idle = idle;
+        this.waiters = waiters;
+        this.maxSize = maxSize;
+        this.created = created;
+        this.destroyed = destroyed;
+        this.timeouts = timeouts;
+        this.acquireLatency = acquireLatency;
+    }
+
+    public Map<String, Object> toMap() {
+        Map<String, Object> map = new LinkedHashMap<>();
+        map.put("pool", poolName);
+        map.put("total", total);
+        map.put("active", active);
+        map.put("idle", idle);
+        map.put("waiters", waiters);
+        map.put("maxSize", maxSize);
+        map.put("created", created);
+        map.put("destroyed", destroyed);
+        map.put("timeouts", timeouts);
+        map.put("acquireCount", acquireLatency.getCount());
+        map.put("acquireMeanMicros", acquireLatency.getMean() / 1000.0);
+        map.put("acquireP50Micros", acquireLatency.getValueAtPercentile(50) / 1000.0);
+        map.put("acquireP99Micros", acquireLatency.getValueAtPercentile(99) / 1000.0);
+        map.put("acquireMaxMicros", acquireLatency.getMax() / 1000.0);
+        return map;
+    }
+
+    // Getters
+    public String getPoolName() { return poolName; }
+    public int getTotal() { return total; }
+    public int getActive() { return active; }
+    public int getIdle() { return idle; }
+    public int getWaiters() { return waiters; }
+    public int getMaxSize() { return maxSize; }
+    public long getCreated() { return created; }
+    public long getDestroyed() { return destroyed; }
+    public long getTimeouts() { return timeouts; }
+    public LatencyHistogram getAcquireLatency() { return acquireLatency; }
+}
@@ -0,0 +1,260 @@
+package com.studentmanagement.util;
+
+import java.sql.Connection;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.sql.SQLTransientConnectionException;
+import java.sql.Statement;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.logging.Level;
+import java.util.logging.Logger;
+
+// Picks a read replica for DBConnection.getReadConnection(). Replicas are
+// named in db.replicas and each has its own pool, configured like the primary
+// under db.replica.<name>.* (username and password default to the primary's).
+//
+// Every healthCheckIntervalMs each replica runs lagQuery, by default MySQL's
+// SHOW REPLICA STATUS; the lag is read from Seconds_Behind_Source (or
+// _Master, or else the first column). A replica that can't be reached, isn't
+// replicating (NULL or no row) or lags more than maxLagSeconds is ejected
+// until a later check passes. With an empty lagQuery only connectivity is
+// checked. Replicas start ejected, so reads stay on the primary until the
+// first check has run.
+//
+// Callers that wrote recently are kept on the primary for readYourWritesMs,
+// which by default covers the worst lag a check can miss: maxLagSeconds plus
+// one check interval.
+final class ReplicaRouter implements AutoCloseable {
+    private static final Logger LOGGER = Logger.getLogger(ReplicaRouter.class.getName());
+
+    private final List<Replica> replicas;
+    private final boolean leastLoaded;
+    private final long maxLagSeconds;
+    private final String lagQuery;
+    private final long readYourWritesMs;
+    private final AtomicInteger next = new AtomicInteger();
+    // Caller (user id) to the time of their last write on this node
+    private final Map<Integer, Long> lastWrites = new ConcurrentHashMap<>();
+    private final LongAdder replicaReads = new LongAdder();
+    private final LongAdder primaryReads = new LongAdder();
+    private final ScheduledExecutorService checker;
+
+    ReplicaRouter(Map<String, PoolConfig> configs, String balance, long maxLagSeconds, String lagQuery,
+                  long healthCheckIntervalMs, long readYourWritesMs) {
+        List<Replica> list = new ArrayList<>();
+        for (Map.Entry<String, PoolConfig> entry : configs.entrySet()) {
+            list.add(new Replica(entry.getKey(), new ConnectionPool("replica-" + entry.getKey(), entry.getValue())));
+        }
+        this.replicas = Collections.unmodifiableList(list);
+        this.leastLoaded = "least-loaded".equalsIgnoreCase(balance);
+        this.maxLagSeconds = maxLagSeconds;
+        this.lagQuery = lagQuery == null ? "" : lagQuery.trim();
+        this.readYourWritesMs = readYourWritesMs;
+        this.checker = Executors.newSingleThreadScheduledExecutor(r -> {
+            Thread thread = new Thread(r, "db-replica-health");
+            thread.setDaemon(true);
+            return thread;
+        });
+        checker.scheduleWithFixedDelay(this::checkAll, 0, healthCheckIntervalMs, TimeUnit.MILLISECONDS);
+    }
+
+    static ReplicaRouter fromConfig(PoolConfig primary) {
+        Map<String, PoolConfig> configs = new LinkedHashMap<>();
+        for (String name : AppConfig.getString("db.replicas", "").split(",")) {
+            name = name.trim();
+            if (name.isEmpty()) {
+                continue;
+            }
+            PoolConfig config = PoolConfig.fromConfig("db.replica." + name);
+            if (config.getUsername() == null) {
+                config.setUsername(primary.getUsername());
+            }
+            if (config.getPassword() == null) {
+                config.setPassword(primary.getPassword());
+            }
+            configs.put(name, config);
+        }
+        if (configs.isEmpty()) {
+            return null;
+        }
+        long maxLagSeconds = AppConfig.getLong("db.replicas.maxLagSeconds", 5);
+        long intervalMs = AppConfig.getLong("db.replicas.healthCheckIntervalMs", 5000);
+        return new ReplicaRouter(configs,
+                AppConfig.getString("db.replicas.balance", "round-robin"),
+                maxLagSeconds,
+                AppConfig.getString("db.replicas.lagQuery", "SHOW REPLICA STATUS"),
+                intervalMs,
+                AppConfig.getLong("db.replicas.readYourWritesMs", maxLagSeconds * 1000 + intervalMs));
+    }
+
+    // A connection to a healthy replica, or null when reads must go to the primary
+    Connection getConnection() {
+        Replica replica = choose();
+        while (replica != null) {
+            try {
+                Connection conn = replica.pool.getConnection();
+                replicaReads.increment();
+                return conn;
+            } catch (SQLTransientConnectionException e) {
+                // Busy, not broken; the primary takes this read
+                break;
+            } catch (SQLException e) {
+                eject(replica, "unreachable: " + e.getMessage());
+                replica = choose();
+            }
+        }
+        primaryReads.increment();
+        return null;
+    }
+
+    void countPrimaryRead() {
+        primaryReads.increment();
+    }
+
+    void recordWrite(int userId) {
+        lastWrites.put(userId, System.currentTimeMillis());
+    }
+
+    boolean hasRecentWrite(int userId) {
+        Long at = lastWrites.get(userId);
+        return at != null && System.currentTimeMillis() - at < readYourWritesMs;
+    }
+
+    // Whether a replica may not yet show a change made at this time
+    boolean mayLag(long changedAt) {
+        return System.currentTimeMillis() - changedAt < readYourWritesMs;
+    }
+
+    List<PoolMetrics> getPoolMetrics() {
+        List<PoolMetrics> metrics = new ArrayList<>(replicas.size());
+        for (Replica replica : replicas) {
+            metrics.add(replica.pool.getMetrics());
+        }
+        return metrics;
+    }
+
+    Map<String, Object> getStats() {
+        Map<String, Object> stats = new LinkedHashMap<>();
+        Map<String, Object> health = new LinkedHashMap<>();
+        for (Replica replica : replicas) {
+            Map<String, Object> entry = new LinkedHashMap<>();
+            entry.put("healthy", replica.healthy);
+            entry.put("lagSeconds", replica.lagSeconds);
+            health.put(replica.name, entry);
+        }
+        stats.put("replicas", health);
+        stats.put("replicaReads", replicaReads.sum());
+        stats.put("primaryReads", primaryReads.sum());
+        return stats;
+    }
+
+    @Override
+    public void close() {
+        checker.shutdownNow();
+        for (Replica replica : replicas) {
+            replica.pool.close();
+        }
+    }
+
+    private Replica choose() {
+        int size = replicas.size();
+        int start = Math.floorMod(next.getAndIncrement(), size);
+        Replica chosen = null;
+        for (int i = 0; i < size; i++) {
+            Replica replica = replicas.get((start + i) % size);
+            if (!replica.healthy) {
+                continue;
+            }
+            if (!leastLoaded) {
+                return replica;
+            }
+            if (chosen == null || replica.pool.getActiveCount() < chosen.pool.getActiveCount()) {
+                chosen = replica;
+            }
+        }
+        return chosen;
+    }
+
+    private void checkAll() {
+        for (Replica replica : replicas) {
+            try {
+                long lag = measureLag(replica);
+                replica.lagSeconds = lag;
+                if (lag < 0) {
+                    eject(replica, "not replicating");
+                } else if (lag > maxLagSeconds) {
+                    eject(replica, lag + "s behind the primary");
+                } else if (!replica.healthy) {
+                    replica.healthy = true;
+                    LOGGER.info("Read replica " + replica.name + " is back in rotation");
+                }
+            } catch (SQLException | RuntimeException e) {
+                replica.lagSeconds = -1;
+                eject(replica, "health check failed: " + e.getMessage());
+            }
+        }
+        long cutoff = System.currentTimeMillis() - readYourWritesMs;
+        lastWrites.values().removeIf(at -> at < cutoff);
+    }
+
+    // Seconds behind the primary, or -1 when the replica isn't replicating
+    private long measureLag(Replica replica) throws SQLException {
+        try (Connection conn = replica.pool.getConnection()) {
+            if (lagQuery.isEmpty()) {
+                return 0;
+            }
+            try (Statement stmt = conn.createStatement()) {
+                stmt.setQueryTimeout((int) Math.max(1, TimeUnit.MILLISECONDS.toSeconds(
+                        replica.pool.getConfig().getValidationTimeoutMs())));
+                try (ResultSet rs = stmt.executeQuery(lagQuery)) {
+                    if (!rs.next()) {
+                        return -1;
+                    }
+                    long lag = rs.getLong(lagColumn(rs));
+                    return rs.wasNull() ? -1 : lag;
+                }
+            }
+        }
+    }
+
+    private static int lagColumn(ResultSet rs) throws SQLException {
+        int columns = rs.getMetaData().getColumnCount();
+        for (int i = 1; i <= columns; i++) {
+            String label = rs.getMetaData().getColumnLabel(i).toLowerCase(Locale.ROOT);
+            if (label.equals("seconds_behind_source") || label.equals("seconds_behind_master")) {
+                return i;
+            }
+        }
+        return 1;
+    }
+
+    private static void eject(Replica replica, String reason) {
+        if (replica.healthy) {
+            replica.healthy = false;
+            LOGGER.log(Level.WARNING, "Read replica " + replica.name + " taken out of rotation, " + reason);
+        }
+    }
+
+    private static final class Replica {
+        final String name;
+        final ConnectionPool pool;
+        volatile boolean healthy;
+        volatile long lagSeconds = -1;
+
+        Replica(String name, ConnectionPool pool) {
+            this.name = name;
+            this.pool = pool;
+        }
+    }
+}
@@ -0,0 +1,136 @@
+package com.studentmanagement.util;
+
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+
+// Per-key token buckets: each key may make `burst` calls at once and then one
+// every 60 / perMinute seconds. About maxKeys buckets are kept, spread over
+// independently locked segments, each an access-ordered LinkedHashMap that
+// drops its least recently used bucket when full. A dropped key starts again
+// with a full burst, so resetting someone's limit takes making maxKeys other
+// keys more recent than theirs. Buckets that have refilled completely carry
+// no state worth keeping; whichever call comes due sweeps them out, at most
+// once per refill period (the time an empty bucket takes to fill).
+public class TokenBucketLimiter {
+    private static final int SEGMENTS = 16;
+
+    private final double capacity;
+    private final double tokensPerNano;
+    private final long sweepIntervalNanos;
+    private final AtomicLong nextSweep;
+    private final Segment[] segments;
+
+    public TokenBucketLimiter(int burst, int perMinute, int maxKeys) {
+        if (burst < 1 || perMinute < 1 || maxKeys < 1) {
+            throw new IllegalArgumentException("burst, perMinute and maxKeys must be at least 1");
+        }
+        this.capacity = burst;
+        this.tokensPerNano = perMinute / 60e9;
+        this.sweepIntervalNanos = Math.min((long) (capacity / tokensPerNano), TimeUnit.DAYS.toNanos(1));
+        this.nextSweep = new AtomicLong(System.nanoTime() + sweepIntervalNanos);
+        int count = Math.min(SEGMENTS, maxKeys);
+        this.segments = new Segment[count];
+        for (int i = 0; i < count; i++) {
+            segments[i] = new Segment((maxKeys + count - 1) / count);
+        }
+    }
+
+    // 0 when a token was taken, otherwise the whole seconds until one is available
+    public long tryAcquire(String key) {
+        return acquire(key, true);
+    }
+
+    // Like tryAcquire, but a key without a bucket is let through without one
+    // being made for it: -1. For limits that only start on a key once
+    // something has gone wrong for it, when the caller then calls tryAcquire.
+    public long tryAcquireTracked(String key) {
+        return acquire(key, false);
+    }
+
+    public int size() {
+        int size = 0;
+        for (Segment segment : segments) {
+            synchronized (segment) {
+                size += segment.size();
+            }
+        }
+        return size;
+    }
+
+    private long acquire(String key, boolean create) {
+        long now = System.nanoTime();
+        sweepIfDue(now);
+        Segment segment = segmentFor(key);
+        synchronized (segment) {
+            Bucket bucket = segment.get(key);
+            if (bucket == null) {
+                if (!create) {
+                    return -1;
+                }
+                bucket = new Bucket(capacity, now);
+                segment.put(key, bucket);
+            }
+            bucket.refill(now, capacity, tokensPerNano);
+            if (bucket.tokens >= 1) {
+                bucket.tokens -= 1;
+                return 0;
+            }
+            double waitNanos = (1 - bucket.tokens) / tokensPerNano;
+            return Math.max(1, (long) Math.ceil(waitNanos / 1e9));
+        }
+    }
+
+    private void sweepIfDue(long now) {
+        long due = nextSweep.get();
+        if (now - due < 0 || !nextSweep.compareAndSet(due, now + sweepIntervalNanos)) {
+            return;
+        }
+        for (Segment segment : segments) {
+            synchronized (segment) {
+                segment.values().removeIf(bucket -> {
+                    bucket.refill(now, capacity, tokensPerNano);
+                    return bucket.tokens >= capacity;
+                });
+            }
+        }
+    }
+
+    private Segment segmentFor(String key) {
+        int hash = key.hashCode();
+        hash ^= (hash >>> 16);
+        return segments[Math.floorMod(hash, segments.length)];
+    }
+
+    private static final class Segment extends LinkedHashMap<String, Bucket> {
+        private final int capacity;
+
+        Segment(int capacity) {
+            super(Math.min(capacity, 1024), 0.75f, true);
+            this.capacity = capacity;
+        }
+
+        @Override
+        protected boolean removeEldestEntry(Map.Entry<String, Bucket> eldest) {
+            return size() > capacity;
+        }
+    }
+
+    private static final class Bucket {
+        private double tokens;
+        private long updatedNanos;
+
+        Bucket(double tokens, long now) {
+            this.tokens = tokens;
+            this.updatedNanos = now;
+        }
+
+        void refill(long now, double capacity, double tokensPerNano) {
+            if (now > updatedNanos) {
+                tokens = Math.min(capacity, tokens + (now - updatedNanos) * tokensPerNano);
+                updatedNanos = now;
+            }
+        }
+    }
+}
@@ -171,52 +171,52 @@ async function logout() {
     }
 }
 
-// Load students for view-students page
-async function loadStudents() {
-    if (!await checkAuth()) return;
+// Load students for view-students page, one page at a time
+const STUDENTS_PAGE_SIZE = 50;
+let nextStudentsCursor = null;
+
+async function loadStudents(append = false) {
+    if (!append && !await checkAuth()) return;
 
     try {
-        const response = await fetch(`${API_BASE}/students`);
+        if (!append) {
+            // Take the change cursor first, so nothing written while the list loads is missed
+            await startStudentChanges();
+            showingSearchResults = false;
+        }
+
+        const params = new URLSearchParams({ limit: STUDENTS_PAGE_SIZE });
+        if (append && nextStudentsCursor) {
+            params.set('cursor', nextStudentsCursor);
+        }
+
+        const response = await fetch(`${API_BASE}/students?${params}`);
 
         if (response.status === 401) {
             window.location.href = contextPath + '/login.html';
             return;
         }
 
-        const students = await response.json();
+        const page = await response.json();
+        const students = page.items || [];
 
         const tableBody = document.getElementById('studentsTableBody');
         if (!tableBody) return;
 
-        if (students.length === 0) {
-            tableBody.innerHTML = '<tr><td colspan="7" class="empty-state">No students found. Click "Add Student" to create one.</td></tr>';
-            return;
+        if (!append) {
+            if (students.length === 0) {
+                tableBody.innerHTML = '<tr><td colspan="7" class="empty-state">No students found. Click "Add Student" to create one.</td></tr>';
+                nextStudentsCursor = null;
+                updateLoadMoreButton();
+                return;
+            }
+            tableBody.innerHTML = '';
         }
 
-        tableBody.innerHTML = '';
+        students.forEach(student => tableBody.appendChild(renderStudentRow(student)));
 
-        students.forEach(student => {
-            const row = document.createElement('tr');
-            row.innerHTML = `
-                <td>${student.id}</td>
-                <td>${escapeHtml(student.name)}</td>
-                <td>${escapeHtml(student.email)}</td>
-                <td><span class="course-badge">${escapeHtml(student.course)}</span></td>
-                <td>${student.phone ? escapeHtml(student.phone) : '-'}</td>
-                <td>${new Date(student.enrollmentDate).toLocaleDateString()}</td>
-                <td>
-                    <div class="action-buttons">
-                        <button class="btn-edit" onclick="editStudent(${student.id})">
-                            <i class="fas fa-edit"></i> Edit
-                        </button>
-                        <button class="btn-delete" onclick="deleteStudent(${student.id})">
-                            <i class="fas fa-trash"></i> Delete
-                        </button>
-                    </div>
-                </td>
-            `;
-            tableBody.appendChild(row);
-        });
+        nextStudentsCursor = page.nextCursor || null;
+        updateLoadMoreButton();
 
     } catch (error) {
         console.error('Error loading students:', error);
@@ -224,6 +224,178 @@ async function loadStudents() {
     }
 }
 
+// Build one table row for the student list
+function renderStudentRow(student) {
+    const row = document.createElement('tr');
+    row.dataset.studentId = student.id;
+    row.innerHTML = `
+        <td>${student.id}</td>
+        <td>${escapeHtml(student.name)}</td>
+        <td>${escapeHtml(student.email)}</td>
+        <td><span class="course-badge">${escapeHtml(student.course)}</span></td>
+        <td>${student.phone ? escapeHtml(student.phone) : '-'}</td>
+        <td>${new Date(student.enrollmentDate).toLocaleDateString()}</td>
+        <td>
+            <div class="action-buttons">
+                <button class="btn-edit" onclick="editStudent(${student.id})">
+                    <i class="fas fa-edit"></i> Edit
+                </button>
+                <button class="btn-delete" onclick="deleteStudent(${student.id})">
+                    <i class="fas fa-trash"></i> Delete
+                </button>
+            </div>
+        </td>
+    `;
+    return row;
+}
+
+// Search students as the user types; an empty box goes back to the paged list
+let searchTimer = null;
+
+function onStudentSearchInput(event) {
+    clearTimeout(searchTimer);
+    const query = event.target.value.trim();
+    searchTimer = setTimeout(() => query ? searchStudents(query) : loadStudents(), 250);
+}
+
+async function searchStudents(query) {
+    try {
+        const params = new URLSearchParams({ q: query });
+        const response = await fetch(`${API_BASE}/students/search?${params}`);
+
+        if (response.status === 401) {
+            window.location.href = contextPath + '/login.html';
+            return;
+        }
+        if (response.status === 503) {
+            showAlert('Search is still starting up, please try again shortly', 'error');
+            return;
+        }
+
+        const result = await response.json();
+        const tableBody = document.getElementById('studentsTableBody');
+        if (!tableBody) return;
+
+        // Search results are a single ranked page
+        nextStudentsCursor = null;
+        showingSearchResults = true;
+        updateLoadMoreButton();
+
+        const students = result.items || [];
+        if (students.length === 0) {
+            tableBody.innerHTML = '<tr><td colspan="7" class="empty-state">No students match your search.</td></tr>';
+            return;
+        }
+        tableBody.innerHTML = '';
+        students.forEach(student => tableBody.appendChild(renderStudentRow(student)));
+
+    } catch (error) {
+        console.error('Error searching students:', error);
+        showAlert('Error searching students', 'error');
+    }
+}
+
+// Keep the table current from the change feed: each change set patches only
+// the rows it names. An event stream delivers changes as they are committed;
+// where one can't be kept open the feed is polled instead.
+const STUDENT_CHANGES_POLL_MS = 15000;
+let studentChangesCursor = null;
+let studentChangesSource = null;
+let studentChangesTimer = null;
+let showingSearchResults = false;
+
+async function startStudentChanges() {
+    stopStudentChanges();
+    try {
+        const response = await fetch(`${API_BASE}/students/changes`);
+        if (!response.ok) return;
+        studentChangesCursor = (await response.json()).cursor;
+    } catch (error) {
+        console.error('Change feed unavailable:', error);
+        return;
+    }
+
+    if (window.EventSource) {
+        const params = new URLSearchParams({ since: studentChangesCursor });
+        studentChangesSource = new EventSource(`${API_BASE}/students/changes/stream?${params}`);
+        studentChangesSource.addEventListener('changes', event => applyStudentChanges(JSON.parse(event.data)));
+        studentChangesSource.onerror = () => {
+            // The browser reconnects by itself unless the server refused the stream
+            if (studentChangesSource.readyState === EventSource.CLOSED) {
+                studentChangesSource = null;
+                pollStudentChanges();
+            }
+        };
+    } else {
+        pollStudentChanges();
+    }
+}
+
+function stopStudentChanges() {
+    if (studentChangesSource) {
+        studentChangesSource.close();
+        studentChangesSource = null;
+    }
+    clearTimeout(studentChangesTimer);
+}
+
+async function pollStudentChanges() {
+    clearTimeout(studentChangesTimer);
+    try {
+        const params = new URLSearchParams({ since: studentChangesCursor });
+        const response = await fetch(`${API_BASE}/students/changes?${params}`);
+        if (response.status === 401) {
+            window.location.href = contextPath + '/login.html';
+            return;
+        }
+        if (response.ok) {
+            const changes = await response.json();
+            applyStudentChanges(changes);
+            if (changes.more) {
+                pollStudentChanges();
+                return;
+            }
+        }
+    } catch (error) {
+        console.error('Error polling student changes:', error);
+    }
+    studentChangesTimer = setTimeout(pollStudentChanges, STUDENT_CHANGES_POLL_MS);
+}
+
+function applyStudentChanges(changeSet) {
+    const tableBody = document.getElementById('studentsTableBody');
+    if (!tableBody) return;
+
+    if (changeSet.reset) {
+        // Too far behind to patch; start over from a fresh list
+        loadStudents();
+        return;
+    }
+    studentChangesCursor = changeSet.cursor;
+
+    changeSet.changes.forEach(change => {
+        const existing = tableBody.querySelector(`tr[data-student-id="${change.id}"]`);
+        if (change.op === 'delete') {
+            if (existing) existing.remove();
+        } else if (existing) {
+            existing.replaceWith(renderStudentRow(change.student));
+        } else if (!showingSearchResults) {
+            // The list is newest first; search results only take rows they already have
+            const empty = tableBody.querySelector('.empty-state');
+            if (empty) empty.parentElement.remove();
+            tableBody.insertBefore(renderStudentRow(change.student), tableBody.firstChild);
+        }
+    });
+}
+
+// Show the "Load more" button only while another page exists
+function updateLoadMoreButton() {
+    const loadMore = document.getElementById('loadMoreStudents');
+    if (loadMore) {
+        loadMore.style.display = nextStudentsCursor ? 'inline-block' : 'none';
+    }
+}
+
 // Helper function to escape HTML
 function escapeHtml(unsafe) {
     return unsafe
@@ -297,6 +469,10 @@ function editStudent(id) {
     window.location.href = contextPath + `/update-student.html?id=${id}`;
 }
 
+// Version (ETag) of the student being edited, sent back as If-Match so a
+// concurrent edit is reported instead of silently overwritten
+let studentVersion = null;
+
 // Load student data for update page
 async function loadStudentForUpdate() {
     if (!await checkAuth()) return;
@@ -326,6 +502,7 @@ async function loadStudentForUpdate() {
         }
 
         const student = await response.json();
+        studentVersion = response.headers.get('ETag');
 
         document.getElementById('studentId').value = student.id;
         document.getElementById('name').value = student.name;
@@ -375,11 +552,16 @@ async function updateStudent(event) {
     };
 
     try {
+        const headers = {
+            'Content-Type': 'application/json'
+        };
+        if (studentVersion) {
+            headers['If-Match'] = studentVersion;
+        }
+
         const response = await fetch(`${API_BASE}/students`, {
             method: 'PUT',
-            headers: {
-                'Content-Type': 'application/json'
-            },
+            headers: headers,
             body: JSON.stringify(formData)
         });
 
@@ -413,8 +595,11 @@ async function deleteStudent(id) {
             const data = await response.json();
 
             if (response.ok && data.success) {
-                showAlert('Student deleted successfully!', 'success');
-                loadStudents();
+                // Deletes can be undone until the row is purged
+                showAlert(`Student deleted. <a href="#" onclick="restoreStudent(${id}); return false;">Undo</a>`, 'success');
+                // Other tabs hear about it from the change feed
+                const row = document.querySelector(`#studentsTableBody tr[data-student-id="${id}"]`);
+                if (row) row.remove();
             } else {
                 showAlert(data.error || 'Error deleting student', 'error');
             }
@@ -426,6 +611,27 @@ async function deleteStudent(id) {
     }
 }
 
+// Undo a delete; the change feed puts the row back in the list
+async function restoreStudent(id) {
+    try {
+        const response = await fetch(`${API_BASE}/students/${id}/restore`, {
+            method: 'POST'
+        });
+
+        const data = await response.json();
+
+        if (response.ok && data.success) {
+            showAlert('Student restored', 'success');
+        } else {
+            showAlert(data.error || 'Error restoring student', 'error');
+        }
+
+    } catch (error) {
+        console.error('Error restoring student:', error);
+        showAlert('Error restoring student', 'error');
+    }
+}
+
 // Show alert message
 function showAlert(message, type) {
     const existingAlerts = document.querySelectorAll('.alert');
@@ -467,6 +673,11 @@ document.addEventListener('DOMContentLoaded', function() {
             if (isAuthenticated) {
                 if (window.location.pathname.includes('view-students.html')) {
                     loadStudents();
+
+                    const searchBox = document.getElementById('studentSearch');
+                    if (searchBox) {
+                        searchBox.addEventListener('input', onStudentSearchInput);
+                    }
                 }
 
                 if (window.location.pathname.includes('update-student.html')) {
@@ -495,9 +706,9 @@ document.addEventListener('DOMContentLoaded', function() {
 // Load dashboard statistics
 async function loadDashboardStats() {
     try {
-        const response = await fetch(`${API_BASE}/students`);
-        const students = await response.json();
-        document.getElementById('totalStudents').textContent = students.length;
+        const response = await fetch(`${API_BASE}/students/stats`);
+        const stats = await response.json();
+        document.getElementById('totalStudents').textContent = stats.total;
     } catch (error) {
         console.error('Error loading stats:', error);
     }